@@ -0,0 +1,49 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.SuppressJava6Requirement;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base class of the JFR events about {@link PoolChunk}s. Must only be touched if
+ * {@link io.netty.util.internal.PlatformDependent#isJfrEnabled()} returns {@code true}.
+ */
+@SuppressJava6Requirement(reason = "Usage guarded by PlatformDependent.isJfrEnabled()")
+@Category({ "Netty", "Buffer" })
+@StackTrace(false)
+abstract class AbstractChunkEvent extends Event {
+
+    @DataAmount
+    @Description("Size of the chunk")
+    public int capacity;
+
+    @Description("Is the chunk backed by direct memory?")
+    public boolean direct;
+
+    @Description("Is the chunk pooled, or was it allocated for a single huge buffer?")
+    public boolean pooled;
+
+    void fill(PoolChunk<?> chunk) {
+        capacity = chunk.chunkSize();
+        direct = chunk.arena.isDirect();
+        pooled = !chunk.unpooled;
+    }
+}
@@ -18,6 +18,7 @@ package io.netty.buffer;
 
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
+import io.netty.util.internal.AbstractReferenceCountUpdater;
 import io.netty.util.internal.ReferenceCountUpdater;
 
 /**
@@ -29,17 +30,26 @@ public abstract class AbstractReferenceCountedByteBuf extends AbstractByteBuf {
     private static final AtomicIntegerFieldUpdater<AbstractReferenceCountedByteBuf> AIF_UPDATER =
             AtomicIntegerFieldUpdater.newUpdater(AbstractReferenceCountedByteBuf.class, "refCnt");
 
-    private static final ReferenceCountUpdater<AbstractReferenceCountedByteBuf> updater =
-            new ReferenceCountUpdater<AbstractReferenceCountedByteBuf>() {
-        @Override
-        protected AtomicIntegerFieldUpdater<AbstractReferenceCountedByteBuf> updater() {
-            return AIF_UPDATER;
-        }
-        @Override
-        protected long unsafeOffset() {
-            return REFCNT_FIELD_OFFSET;
+    private static final AbstractReferenceCountUpdater<AbstractReferenceCountedByteBuf> updater = newUpdater();
+
+    private static AbstractReferenceCountUpdater<AbstractReferenceCountedByteBuf> newUpdater() {
+        AbstractReferenceCountUpdater<AbstractReferenceCountedByteBuf> updater =
+                AbstractReferenceCountUpdater.newVarHandleUpdater(
+                        AbstractReferenceCountedByteBuf.class, "io.netty.buffer.VarHandleByteBufReferenceCountUpdater");
+        if (updater != null) {
+            return updater;
         }
-    };
+        return new ReferenceCountUpdater<AbstractReferenceCountedByteBuf>() {
+            @Override
+            protected AtomicIntegerFieldUpdater<AbstractReferenceCountedByteBuf> updater() {
+                return AIF_UPDATER;
+            }
+            @Override
+            protected long unsafeOffset() {
+                return REFCNT_FIELD_OFFSET;
+            }
+        };
+    }
 
     // Value might not equal "real" reference count, all access should be via the updater
     @SuppressWarnings({"unused", "FieldMayBeFinal"})
@@ -86,6 +96,14 @@ public abstract class AbstractReferenceCountedByteBuf extends AbstractByteBuf {
         return updater.retain(this, increment);
     }
 
+    /**
+     * Like {@link #retain(int)}, but without atomic operations. Must only be called by the thread the reference count
+     * is confined to, see {@link PooledByteBuf}.
+     */
+    final ByteBuf retainNonAtomic(int increment) {
+        return updater.retainNonAtomic(this, increment);
+    }
+
     @Override
     public ByteBuf touch() {
         return this;
@@ -106,6 +124,14 @@ public abstract class AbstractReferenceCountedByteBuf extends AbstractByteBuf {
         return handleRelease(updater.release(this, decrement));
     }
 
+    /**
+     * Like {@link #release(int)}, but without atomic operations. Must only be called by the thread the reference count
+     * is confined to, see {@link PooledByteBuf}.
+     */
+    final boolean releaseNonAtomic(int decrement) {
+        return handleRelease(updater.releaseNonAtomic(this, decrement));
+    }
+
     private boolean handleRelease(boolean result) {
         if (result) {
             deallocate();
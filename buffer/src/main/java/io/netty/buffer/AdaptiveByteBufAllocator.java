@@ -22,6 +22,8 @@ import io.netty.util.internal.UnstableApi;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
+import java.nio.ByteBuffer;
+
 import static io.netty.util.internal.PlatformDependent.javaVersion;
 
 /**
@@ -47,6 +49,8 @@ public final class AdaptiveByteBufAllocator extends AbstractByteBufAllocator
 
     private final AdaptiveAllocatorApi direct;
     private final AdaptiveAllocatorApi heap;
+    private final HugePages hugePages;
+    private final DirectMemoryUsageListeners directMemoryUsageListeners = new DirectMemoryUsageListeners();
 
     public AdaptiveByteBufAllocator() {
         this(PlatformDependent.directBufferPreferred());
@@ -57,6 +61,21 @@ public final class AdaptiveByteBufAllocator extends AbstractByteBufAllocator
     }
 
     public AdaptiveByteBufAllocator(boolean preferDirect, boolean useCacheForNonEventLoopThreads) {
+        this(preferDirect, useCacheForNonEventLoopThreads, null);
+    }
+
+    /**
+     * Creates a new instance which backs its direct chunks with huge pages if a {@link DirectMemoryAdvisor} is given.
+     * <p>
+     * Only chunks that are at least as big as a huge page are backed by huge pages, and the allocator silently falls
+     * back to normal pages if huge pages are not supported. The number of chunks that are backed by huge pages can be
+     * obtained via {@link #numHugePageChunks()}.
+     *
+     * @param directMemoryAdvisor the {@link DirectMemoryAdvisor} to use or {@code null} if huge pages should not
+     *                            be used.
+     */
+    public AdaptiveByteBufAllocator(boolean preferDirect, boolean useCacheForNonEventLoopThreads,
+                                    DirectMemoryAdvisor directMemoryAdvisor) {
         super(preferDirect);
         if (javaVersion() < 8) {
             // The implementation uses StampedLock, which was introduced in Java 8.
@@ -64,7 +83,9 @@ public final class AdaptiveByteBufAllocator extends AbstractByteBufAllocator
         }
         MagazineCaching magazineCaching = useCacheForNonEventLoopThreads?
                 MagazineCaching.FastThreadLocalThreads : MagazineCaching.EventLoopThreads;
-        direct = new AdaptivePoolingAllocator(new DirectChunkAllocator(this), magazineCaching);
+        hugePages = directMemoryAdvisor == null ? null : new HugePages(directMemoryAdvisor);
+        direct = new AdaptivePoolingAllocator(new DirectChunkAllocator(this, hugePages), magazineCaching,
+                directMemoryUsageListeners);
         heap = new AdaptivePoolingAllocator(new HeapChunkAllocator(this), magazineCaching);
     }
 
@@ -93,13 +114,50 @@ public final class AdaptiveByteBufAllocator extends AbstractByteBufAllocator
         return direct.usedMemory();
     }
 
+    /**
+     * Returns the number of live direct chunks that are backed by huge pages.
+     */
+    public long numHugePageChunks() {
+        return hugePages == null ? 0 : hugePages.liveChunks();
+    }
+
+    /**
+     * Adds a {@link DirectMemoryUsageListener} which is notified whenever a direct chunk is allocated or released.
+     */
+    public void addDirectMemoryUsageListener(DirectMemoryUsageListener listener) {
+        directMemoryUsageListeners.add(listener);
+    }
+
+    /**
+     * Removes a {@link DirectMemoryUsageListener} that was added via
+     * {@link #addDirectMemoryUsageListener(DirectMemoryUsageListener)}.
+     */
+    public void removeDirectMemoryUsageListener(DirectMemoryUsageListener listener) {
+        directMemoryUsageListeners.remove(listener);
+    }
+
+    /**
+     * Returns the metrics of the pool that serves heap buffers.
+     */
+    public AdaptivePoolMetric heapPoolMetric() {
+        return heap;
+    }
+
+    /**
+     * Returns the metrics of the pool that serves direct buffers.
+     */
+    public AdaptivePoolMetric directPoolMetric() {
+        return direct;
+    }
+
     @Override
     public ByteBufAllocatorMetric metric() {
         return this;
     }
 
-    interface AdaptiveAllocatorApi {
+    interface AdaptiveAllocatorApi extends AdaptivePoolMetric {
         ByteBuf allocate(int initialCapacity, int maxCapacity);
+        @Override
         long usedMemory();
     }
 
@@ -120,16 +178,70 @@ public final class AdaptiveByteBufAllocator extends AbstractByteBufAllocator
 
     private static final class DirectChunkAllocator implements AdaptivePoolingAllocator.ChunkAllocator {
         private final ByteBufAllocator allocator;
+        private final HugePages hugePages;
 
-        private DirectChunkAllocator(ByteBufAllocator allocator) {
+        private DirectChunkAllocator(ByteBufAllocator allocator, HugePages hugePages) {
             this.allocator = allocator;
+            this.hugePages = hugePages;
         }
 
         @Override
         public AbstractByteBuf allocate(int initialCapacity, int maxCapacity) {
+            if (hugePages != null && hugePages.isSupported(initialCapacity)) {
+                return new HugePageDirectByteBuf(allocator, hugePages, initialCapacity, maxCapacity);
+            }
             return PlatformDependent.hasUnsafe() ?
                     UnsafeByteBufUtil.newUnsafeDirectByteBuf(allocator, initialCapacity, maxCapacity) :
                     new UnpooledDirectByteBuf(allocator, initialCapacity, maxCapacity);
         }
     }
+
+    /**
+     * A direct chunk whose memory is carved from a huge page region and advised to be backed by huge pages.
+     */
+    private static final class HugePageDirectByteBuf extends UnpooledUnsafeDirectByteBuf {
+        private final HugePages hugePages;
+        private final HugePages.Chunk chunk;
+        private final ByteBuffer memory;
+
+        HugePageDirectByteBuf(ByteBufAllocator allocator, HugePages hugePages, int initialCapacity, int maxCapacity) {
+            this(allocator, hugePages, hugePages.allocate(hugePages.roundUp(initialCapacity)), maxCapacity);
+        }
+
+        private HugePageDirectByteBuf(ByteBufAllocator allocator, HugePages hugePages, HugePages.Chunk chunk,
+                                      int maxCapacity) {
+            this(allocator, hugePages, chunk, limitedMemory(chunk.memory, maxCapacity), maxCapacity);
+        }
+
+        private HugePageDirectByteBuf(ByteBufAllocator allocator, HugePages hugePages, HugePages.Chunk chunk,
+                                      ByteBuffer memory, int maxCapacity) {
+            super(allocator, memory, maxCapacity, /* doFree = */ true);
+            this.hugePages = hugePages;
+            this.chunk = chunk;
+            this.memory = memory;
+            clear();
+        }
+
+        /**
+         * The chunk was rounded up to a multiple of the huge page size, only expose as much of it as allowed.
+         */
+        private static ByteBuffer limitedMemory(ByteBuffer memory, int maxCapacity) {
+            if (memory.capacity() <= maxCapacity) {
+                return memory;
+            }
+            memory = memory.duplicate();
+            memory.limit(maxCapacity);
+            return memory.slice();
+        }
+
+        @Override
+        protected void freeDirect(ByteBuffer buffer) {
+            if (buffer != memory) {
+                // The buffer was reallocated, so this is not our huge page backed memory.
+                super.freeDirect(buffer);
+                return;
+            }
+            hugePages.free(chunk);
+        }
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Metrics for a magazine of an {@link AdaptiveByteBufAllocator}.
+ * <p>
+ * All values are read without synchronizing with allocations and so may be slightly out of date.
+ */
+@UnstableApi
+public interface AdaptiveMagazineMetric {
+
+    /**
+     * Return {@code true} if the magazine is shared across threads, {@code false} if it is bound to a single thread.
+     */
+    boolean isShared();
+
+    /**
+     * Return the number of allocations that were served by this magazine.
+     */
+    long numAllocations();
+
+    /**
+     * Return the size in bytes of the chunks this magazine allocates, which is derived from {@link #sizeHistogram()}.
+     */
+    int preferredChunkSize();
+
+    /**
+     * Returns the histogram of the recent allocation sizes, which is used to compute the
+     * {@link #preferredChunkSize()}. The element at index {@code i} counts the allocations of up to
+     * {@code 8192 << i} bytes, except for the last one which counts all allocations that are bigger than the
+     * previous bucket.
+     */
+    int[] sizeHistogram();
+
+    /**
+     * Return the number of bytes of the chunks that were allocated by this magazine and are not released yet.
+     */
+    long usedMemory();
+}
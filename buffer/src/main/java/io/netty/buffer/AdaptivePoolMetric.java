@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.UnstableApi;
+
+import java.util.List;
+
+/**
+ * Metrics for the heap or direct pool of an {@link AdaptiveByteBufAllocator}.
+ * <p>
+ * All values are read without synchronizing with allocations and so may be slightly out of date.
+ */
+@UnstableApi
+public interface AdaptivePoolMetric {
+
+    /**
+     * Return the number of magazines that are shared across threads. This number grows when contention is detected.
+     */
+    int numMagazines();
+
+    /**
+     * Return the number of magazines that are bound to a single thread.
+     */
+    int numThreadLocalMagazines();
+
+    /**
+     * Returns an unmodifiable {@link List} which holds {@link AdaptiveMagazineMetric}s for all shared and thread
+     * local magazines.
+     */
+    List<AdaptiveMagazineMetric> magazines();
+
+    /**
+     * Return the number of times the shared magazines were expanded because of contention.
+     */
+    long numStripeExpansions();
+
+    /**
+     * Return the number of chunks that are currently held by the central queue, which shares chunks between
+     * magazines.
+     */
+    int centralQueueSize();
+
+    /**
+     * Return the maximum number of chunks the central queue can hold.
+     */
+    int centralQueueCapacity();
+
+    /**
+     * Return the number of allocations that were served by a magazine.
+     */
+    long numAllocations();
+
+    /**
+     * Return the number of allocations that were not pooled, because they were too big or the magazines were
+     * contended.
+     */
+    long numUnpooledAllocations();
+
+    /**
+     * Return the number of chunks that were allocated.
+     */
+    long numChunkAllocations();
+
+    /**
+     * Return the number of times a chunk was given back to a magazine or the central queue to be reused, once all of
+     * its buffers were released.
+     */
+    long numChunkReuses();
+
+    /**
+     * Return the number of times a chunk was released instead of being reused, once all of its buffers were
+     * released.
+     */
+    long numChunkReleases();
+
+    /**
+     * Returns the histogram of the recent allocation sizes of all magazines. See
+     * {@link AdaptiveMagazineMetric#sizeHistogram()}.
+     */
+    int[] sizeHistogram();
+
+    /**
+     * Return the number of bytes of all chunks, which are either held by a magazine, the central queue or are still in
+     * use by a buffer.
+     */
+    long usedMemory();
+}
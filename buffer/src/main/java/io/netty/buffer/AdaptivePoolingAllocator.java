@@ -22,6 +22,7 @@ import io.netty.util.Recycler;
 import io.netty.util.ReferenceCounted;
 import io.netty.util.concurrent.FastThreadLocal;
 import io.netty.util.concurrent.FastThreadLocalThread;
+import io.netty.util.internal.LongCounter;
 import io.netty.util.internal.ObjectPool;
 import io.netty.util.internal.ObjectUtil;
 import io.netty.util.internal.PlatformDependent;
@@ -40,13 +41,17 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ScatteringByteChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.concurrent.locks.StampedLock;
 
@@ -115,6 +120,8 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
     private static final Object NO_MAGAZINE = Boolean.TRUE;
 
     private final ChunkAllocator chunkAllocator;
+    // Null if nobody is interested in the memory usage of this allocator.
+    private final DirectMemoryUsageListeners usageListeners;
     private final Queue<Chunk> centralQueue;
     private final StampedLock magazineExpandLock;
     private volatile Magazine[] magazines;
@@ -122,10 +129,27 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
     private final Set<Magazine> liveCachedMagazines;
     private volatile boolean freed;
 
+    // Metrics, see AdaptivePoolMetric. These are only updated when a chunk is allocated or released, or if an
+    // allocation could not be served by a magazine.
+    private final LongCounter numUnpooledAllocations = PlatformDependent.newLongCounter();
+    private final LongCounter numChunkAllocations = PlatformDependent.newLongCounter();
+    private final LongCounter numChunkReuses = PlatformDependent.newLongCounter();
+    private final LongCounter numChunkReleases = PlatformDependent.newLongCounter();
+    // Allocations of magazines that are not used anymore.
+    private final LongCounter numRetiredAllocations = PlatformDependent.newLongCounter();
+    // Only updated while holding the write lock of magazineExpandLock.
+    private volatile long numStripeExpansions;
+
     AdaptivePoolingAllocator(ChunkAllocator chunkAllocator, MagazineCaching magazineCaching) {
+        this(chunkAllocator, magazineCaching, null);
+    }
+
+    AdaptivePoolingAllocator(ChunkAllocator chunkAllocator, MagazineCaching magazineCaching,
+                             DirectMemoryUsageListeners usageListeners) {
         ObjectUtil.checkNotNull(chunkAllocator, "chunkAllocator");
         ObjectUtil.checkNotNull(magazineCaching, "magazineCaching");
         this.chunkAllocator = chunkAllocator;
+        this.usageListeners = usageListeners;
         centralQueue = ObjectUtil.checkNotNull(createSharedChunkQueue(), "centralQueue");
         magazineExpandLock = new StampedLock();
         if (magazineCaching != MagazineCaching.None) {
@@ -152,8 +176,8 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
 
                 @Override
                 protected void onRemoval(final Object value) throws Exception {
-                    if (value != NO_MAGAZINE) {
-                        liveMagazines.remove(value);
+                    if (value != NO_MAGAZINE && liveMagazines.remove(value)) {
+                        numRetiredAllocations.add(((Magazine) value).numAllocations());
                     }
                 }
             };
@@ -214,6 +238,7 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
             }
         }
         // The magazines failed us, or the buffer is too big to be pooled.
+        numUnpooledAllocations.increment();
         return chunkAllocator.allocate(size, maxCapacity);
     }
 
@@ -254,6 +279,7 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
         Magazine magazine = into.chunk.magazine;
         if (!allocate(size, maxCapacity, Thread.currentThread(), into)) {
             // Create a one-off chunk for this allocation as the previous allocate call did not work out.
+            numUnpooledAllocations.increment();
             AbstractByteBuf innerChunk = chunkAllocator.allocate(size, maxCapacity);
             Chunk chunk = new Chunk(innerChunk, magazine, false);
             try {
@@ -267,6 +293,12 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
         }
     }
 
+    private void memoryUsageChanged() {
+        if (usageListeners != null) {
+            usageListeners.notifyListeners();
+        }
+    }
+
     @Override
     public long usedMemory() {
         long sum = 0;
@@ -304,7 +336,9 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
                     expanded[i] = m;
                 }
                 magazines = expanded;
+                numStripeExpansions++;
                 for (Magazine magazine : mags) {
+                    numRetiredAllocations.add(magazine.numAllocations());
                     magazine.free();
                 }
             } finally {
@@ -314,6 +348,82 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
         return true;
     }
 
+    @Override
+    public int numMagazines() {
+        return magazines.length;
+    }
+
+    @Override
+    public int numThreadLocalMagazines() {
+        return liveCachedMagazines == null ? 0 : liveCachedMagazines.size();
+    }
+
+    @Override
+    public List<AdaptiveMagazineMetric> magazines() {
+        List<AdaptiveMagazineMetric> metrics = new ArrayList<AdaptiveMagazineMetric>();
+        Collections.addAll(metrics, magazines);
+        if (liveCachedMagazines != null) {
+            metrics.addAll(liveCachedMagazines);
+        }
+        return Collections.unmodifiableList(metrics);
+    }
+
+    @Override
+    public long numStripeExpansions() {
+        return numStripeExpansions;
+    }
+
+    @Override
+    public int centralQueueSize() {
+        return centralQueue.size();
+    }
+
+    @Override
+    public int centralQueueCapacity() {
+        return CENTRAL_QUEUE_CAPACITY;
+    }
+
+    @Override
+    public long numAllocations() {
+        long sum = numRetiredAllocations.value();
+        for (AdaptiveMagazineMetric magazine : magazines()) {
+            sum += magazine.numAllocations();
+        }
+        return sum;
+    }
+
+    @Override
+    public long numUnpooledAllocations() {
+        return numUnpooledAllocations.value();
+    }
+
+    @Override
+    public long numChunkAllocations() {
+        return numChunkAllocations.value();
+    }
+
+    @Override
+    public long numChunkReuses() {
+        return numChunkReuses.value();
+    }
+
+    @Override
+    public long numChunkReleases() {
+        return numChunkReleases.value();
+    }
+
+    @Override
+    public int[] sizeHistogram() {
+        int[] histogram = new int[AllocationStatistics.HISTO_BUCKET_COUNT];
+        for (AdaptiveMagazineMetric magazine : magazines()) {
+            int[] magazineHistogram = magazine.sizeHistogram();
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += magazineHistogram[i];
+            }
+        }
+        return histogram;
+    }
+
     private boolean offerToQueue(Chunk buffer) {
         if (freed) {
             return false;
@@ -455,16 +565,31 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
          *
          * @return The currently preferred chunk allocation size.
          */
-        protected int preferredChunkSize() {
+        public int preferredChunkSize() {
             return sharedPrefChunkSize;
         }
+
+        /**
+         * Sums up the histograms that are used to compute the preferred chunk size. The histograms are read without
+         * holding the lock, so the result is only an estimate.
+         */
+        public int[] sizeHistogram() {
+            short[][] hs = histos;
+            int[] histogram = new int[HISTO_BUCKET_COUNT];
+            for (int i = 0; i < HISTO_BUCKET_COUNT; i++) {
+                histogram[i] = (hs[0][i] & 0xFFFF) + (hs[1][i] & 0xFFFF) + (hs[2][i] & 0xFFFF) + (hs[3][i] & 0xFFFF);
+            }
+            return histogram;
+        }
     }
 
     @SuppressJava6Requirement(reason = "Guarded by version check")
-    private static final class Magazine extends AllocationStatistics {
+    private static final class Magazine extends AllocationStatistics implements AdaptiveMagazineMetric {
         private static final AtomicReferenceFieldUpdater<Magazine, Chunk> NEXT_IN_LINE;
+        private static final AtomicLongFieldUpdater<Magazine> NUM_ALLOCATIONS;
         static {
             NEXT_IN_LINE = AtomicReferenceFieldUpdater.newUpdater(Magazine.class, Chunk.class, "nextInLine");
+            NUM_ALLOCATIONS = AtomicLongFieldUpdater.newUpdater(Magazine.class, "numAllocations");
         }
         private static final Chunk MAGAZINE_FREED = new Chunk();
 
@@ -473,6 +598,8 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
         private volatile Chunk nextInLine;
         private final AtomicLong usedMemory;
         private final StampedLock allocationLock;
+        // Only updated while holding the allocationLock or by the thread that owns the magazine, via NUM_ALLOCATIONS.
+        private volatile long numAllocations;
 
         Magazine(AdaptivePoolingAllocator parent) {
             this(parent, true);
@@ -510,6 +637,8 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
 
         private boolean allocate(int size, int sizeBucket, int maxCapacity, AdaptiveByteBuf buf) {
             recordAllocationSize(sizeBucket);
+            // There is only a single writer, so lazySet is enough and cheaper than an atomic increment.
+            NUM_ALLOCATIONS.lazySet(this, numAllocations + 1);
             Chunk curr = current;
             if (curr != null) {
                 if (curr.remainingCapacity() > size) {
@@ -623,9 +752,25 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
         private Chunk newChunkAllocation(int promptingSize) {
             int size = Math.max(promptingSize * BUFS_PER_CHUNK, preferredChunkSize());
             ChunkAllocator chunkAllocator = parent.chunkAllocator;
+            parent.numChunkAllocations.increment();
             return new Chunk(chunkAllocator.allocate(size, size), this, true);
         }
 
+        @Override
+        public boolean isShared() {
+            return allocationLock != null;
+        }
+
+        @Override
+        public long numAllocations() {
+            return numAllocations;
+        }
+
+        @Override
+        public long usedMemory() {
+            return usedMemory.get();
+        }
+
         boolean trySetNextInLine(Chunk chunk) {
             return NEXT_IN_LINE.compareAndSet(this, null, chunk);
         }
@@ -687,6 +832,7 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
             this.pooled = pooled;
             capacity = delegate.capacity();
             magazine.usedMemory.getAndAdd(capacity);
+            magazine.parent.memoryUsageChanged();
             updater.setInitialValue(this);
         }
 
@@ -743,15 +889,22 @@ final class AdaptivePoolingAllocator implements AdaptiveByteBufAllocator.Adaptiv
                 // preferred chunk size, or over 50% larger than the preferred chunk size.
                 mag.usedMemory.getAndAdd(-capacity());
                 delegate.release();
+                if (pooled) {
+                    parent.numChunkReleases.increment();
+                }
+                parent.memoryUsageChanged();
             } else {
                 updater.resetRefCnt(this);
                 delegate.setIndex(0, 0);
                 allocatedBytes = 0;
-                if (!mag.trySetNextInLine(this)) {
-                    if (!parent.offerToQueue(this)) {
-                        // The central queue is full. Drop the memory with the original Drop instance.
-                        delegate.release();
-                    }
+                if (mag.trySetNextInLine(this) || parent.offerToQueue(this)) {
+                    parent.numChunkReuses.increment();
+                } else {
+                    // The central queue is full. Drop the memory with the original Drop instance.
+                    mag.usedMemory.getAndAdd(-capacity());
+                    delegate.release();
+                    parent.numChunkReleases.increment();
+                    parent.memoryUsageChanged();
                 }
             }
         }
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.UnstableApi;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * An allocation trace as written by {@link RecordingByteBufAllocator}. Every record describes one buffer: its
+ * capacity, whether it was direct, the {@link Thread} that allocated it, the {@link Thread} that released it and
+ * when both happened. Records are ordered by the time of the allocation.
+ * <p>
+ * The binary format starts with the magic number {@code 0x4E545243} and a version byte, followed by one record per
+ * buffer. Each record is a flags byte followed by the capacity, the allocation time, the lifetime and the ids of the
+ * allocating and releasing threads, all encoded as unsigned variable length integers (7 bits per byte, least
+ * significant group first). Times are in nanoseconds relative to the start of the recording.
+ */
+@UnstableApi
+public final class AllocationTrace {
+    static final int MAGIC = 0x4E545243;
+    static final int VERSION = 1;
+    static final int FLAG_DIRECT = 1;
+
+    private final int[] capacities;
+    private final boolean[] direct;
+    private final long[] allocationTimes;
+    private final long[] lifetimes;
+    private final long[] allocationThreads;
+    private final long[] releaseThreads;
+
+    private AllocationTrace(int[] capacities, boolean[] direct, long[] allocationTimes, long[] lifetimes,
+                            long[] allocationThreads, long[] releaseThreads) {
+        this.capacities = capacities;
+        this.direct = direct;
+        this.allocationTimes = allocationTimes;
+        this.lifetimes = lifetimes;
+        this.allocationThreads = allocationThreads;
+        this.releaseThreads = releaseThreads;
+    }
+
+    /**
+     * Reads a trace from the given {@link InputStream}. The stream is not closed.
+     */
+    public static AllocationTrace read(InputStream in) throws IOException {
+        if (readInt(in) != MAGIC) {
+            throw new IOException("Not an allocation trace");
+        }
+        int version = readByte(in);
+        if (version != VERSION) {
+            throw new IOException("Unsupported allocation trace version: " + version);
+        }
+
+        int count = 0;
+        int[] capacities = new int[64];
+        boolean[] direct = new boolean[64];
+        long[] allocationTimes = new long[64];
+        long[] lifetimes = new long[64];
+        long[] allocationThreads = new long[64];
+        long[] releaseThreads = new long[64];
+        int flags;
+        while ((flags = in.read()) != -1) {
+            if (count == capacities.length) {
+                int newLength = count << 1;
+                capacities = Arrays.copyOf(capacities, newLength);
+                direct = Arrays.copyOf(direct, newLength);
+                allocationTimes = Arrays.copyOf(allocationTimes, newLength);
+                lifetimes = Arrays.copyOf(lifetimes, newLength);
+                allocationThreads = Arrays.copyOf(allocationThreads, newLength);
+                releaseThreads = Arrays.copyOf(releaseThreads, newLength);
+            }
+            direct[count] = (flags & FLAG_DIRECT) != 0;
+            capacities[count] = (int) readVarLong(in);
+            allocationTimes[count] = readVarLong(in);
+            lifetimes[count] = readVarLong(in);
+            allocationThreads[count] = readVarLong(in);
+            releaseThreads[count] = readVarLong(in);
+            count++;
+        }
+
+        // Records are written when a buffer is released, sort them by the time of the allocation.
+        final long[] times = allocationTimes;
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                long t1 = times[o1];
+                long t2 = times[o2];
+                return t1 < t2 ? -1 : t1 == t2 ? 0 : 1;
+            }
+        });
+
+        AllocationTrace trace = new AllocationTrace(new int[count], new boolean[count], new long[count],
+                new long[count], new long[count], new long[count]);
+        for (int i = 0; i < count; i++) {
+            int idx = order[i];
+            trace.capacities[i] = capacities[idx];
+            trace.direct[i] = direct[idx];
+            trace.allocationTimes[i] = allocationTimes[idx];
+            trace.lifetimes[i] = lifetimes[idx];
+            trace.allocationThreads[i] = allocationThreads[idx];
+            trace.releaseThreads[i] = releaseThreads[idx];
+        }
+        return trace;
+    }
+
+    /**
+     * Returns the number of records.
+     */
+    public int size() {
+        return capacities.length;
+    }
+
+    /**
+     * Returns the initial capacity of the buffer.
+     */
+    public int capacity(int index) {
+        return capacities[index];
+    }
+
+    /**
+     * Returns {@code true} if a direct buffer was allocated.
+     */
+    public boolean isDirect(int index) {
+        return direct[index];
+    }
+
+    /**
+     * Returns the time of the allocation in nanoseconds, relative to the start of the recording.
+     */
+    public long allocationTime(int index) {
+        return allocationTimes[index];
+    }
+
+    /**
+     * Returns the time in nanoseconds between the allocation and the release of the buffer.
+     */
+    public long lifetime(int index) {
+        return lifetimes[index];
+    }
+
+    /**
+     * Returns the id of the {@link Thread} that allocated the buffer.
+     */
+    public long allocationThread(int index) {
+        return allocationThreads[index];
+    }
+
+    /**
+     * Returns the id of the {@link Thread} that released the buffer.
+     */
+    public long releaseThread(int index) {
+        return releaseThreads[index];
+    }
+
+    static void writeHeader(OutputStream out) throws IOException {
+        out.write(MAGIC >>> 24);
+        out.write(MAGIC >>> 16);
+        out.write(MAGIC >>> 8);
+        out.write(MAGIC);
+        out.write(VERSION);
+    }
+
+    static void writeRecord(OutputStream out, int capacity, boolean direct, long allocationTime, long lifetime,
+                            long allocationThread, long releaseThread) throws IOException {
+        out.write(direct ? FLAG_DIRECT : 0);
+        writeVarLong(out, capacity);
+        writeVarLong(out, allocationTime);
+        writeVarLong(out, lifetime);
+        writeVarLong(out, allocationThread);
+        writeVarLong(out, releaseThread);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    private static int readInt(InputStream in) throws IOException {
+        return readByte(in) << 24 | readByte(in) << 16 | readByte(in) << 8 | readByte(in);
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            throw new EOFException();
+        }
+        return b;
+    }
+}
@@ -30,6 +30,7 @@ import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.SWARUtil;
 import io.netty.util.internal.StringUtil;
 import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.UnstableApi;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
@@ -45,6 +46,7 @@ import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 
 import static io.netty.util.internal.MathUtil.isOutOfBounds;
@@ -76,6 +78,11 @@ public final class ByteBufUtil {
     static final int WRITE_CHUNK_SIZE = 8192;
     static final ByteBufAllocator DEFAULT_ALLOCATOR;
 
+    // Below this length the setup cost of the vectorized comparison is higher than what it saves.
+    static final int VECTORIZED_MISMATCH_THRESHOLD = 64;
+    static final int VECTORIZED_COMPARE_BLOCK_SIZE = 256;
+    private static final boolean VECTORIZED_MISMATCH;
+
     static {
         String allocType = SystemPropertyUtil.get(
                 "io.netty.allocator.type", PlatformDependent.isAndroid() ? "unpooled" : "pooled");
@@ -102,6 +109,12 @@ public final class ByteBufUtil {
 
         MAX_CHAR_BUFFER_SIZE = SystemPropertyUtil.getInt("io.netty.maxThreadLocalCharBufferSize", 16 * 1024);
         logger.debug("-Dio.netty.maxThreadLocalCharBufferSize: {}", MAX_CHAR_BUFFER_SIZE);
+
+        // Since Java 11 ByteBuffer.equals(...) is backed by the vectorizedMismatch intrinsic which compares the
+        // content with SIMD instructions.
+        VECTORIZED_MISMATCH = PlatformDependent.javaVersion() >= 11 &&
+                SystemPropertyUtil.getBoolean("io.netty.buffer.vectorizedMismatch", false);
+        logger.debug("-Dio.netty.buffer.vectorizedMismatch: {}", VECTORIZED_MISMATCH);
     }
 
     static final int MAX_TL_ARRAY_LEN = 1024;
@@ -132,6 +145,54 @@ public final class ByteBufUtil {
         return buffer;
     }
 
+    /**
+     * Returns the sampled {@link ByteBuf}s tracked by the leak detector of all buffers, aggregated by the site that
+     * allocated them, including the number of leaks detected per site. The table stays empty unless
+     * {@code io.netty.leakDetection.allocationSites} is set to {@code true}.
+     *
+     * @see ResourceLeakDetector#allocationSites()
+     */
+    @UnstableApi
+    public static List<ResourceLeakDetector.AllocationSite> leakDetectorAllocationSites() {
+        return AbstractByteBuf.leakDetector.allocationSites();
+    }
+
+    /**
+     * Makes sure the reference count of the given {@link ByteBuf} or {@link ByteBufHolder} can be updated by any
+     * thread. Buffers of a {@link PooledByteBufAllocator} with thread-confined reference counting use plain stores
+     * for {@link ByteBuf#retain()} and {@link ByteBuf#release()} until another thread uses them. That switch is only
+     * safe if the thread that currently uses the buffer does not update its reference count at the same time, so
+     * this must be called by that thread before a buffer it keeps using is handed over to another thread. The
+     * {@code ChannelPipeline} does this automatically when a message is passed to a handler that runs on another
+     * {@code EventExecutor}. Any other message is ignored, as is a buffer that is confined to another thread.
+     */
+    @UnstableApi
+    public static void shareRefCnt(Object msg) {
+        if (!PooledByteBuf.THREAD_CONFINED_REF_CNT) {
+            return;
+        }
+        ByteBuf buf;
+        try {
+            if (msg instanceof ByteBuf) {
+                buf = (ByteBuf) msg;
+            } else if (msg instanceof ByteBufHolder) {
+                buf = ((ByteBufHolder) msg).content();
+            } else {
+                return;
+            }
+            while (buf != null) {
+                if (buf instanceof PooledByteBuf) {
+                    ((PooledByteBuf<?>) buf).share();
+                } else if (buf instanceof CompositeByteBuf) {
+                    ((CompositeByteBuf) buf).shareComponents();
+                }
+                buf = buf.unwrap();
+            }
+        } catch (IllegalReferenceCountException ignore) {
+            // Already released, nothing to share.
+        }
+    }
+
     /**
      * Returns a <a href="https://en.wikipedia.org/wiki/Hex_dump">hex dump</a>
      * of the specified buffer's readable bytes.
@@ -371,6 +432,11 @@ public final class ByteBufUtil {
             return false;
         }
 
+        if (VECTORIZED_MISMATCH && length >= VECTORIZED_MISMATCH_THRESHOLD &&
+                a.nioBufferCount() == 1 && b.nioBufferCount() == 1) {
+            return vectorizedEquals(a, aStartIndex, b, bStartIndex, length);
+        }
+
         final int longCount = length >>> 3;
         final int byteCount = length & 7;
 
@@ -429,12 +495,21 @@ public final class ByteBufUtil {
         }
         final int aLen = bufferA.readableBytes();
         final int bLen = bufferB.readableBytes();
-        final int minLength = Math.min(aLen, bLen);
-        final int uintCount = minLength >>> 2;
-        final int byteCount = minLength & 3;
+        int minLength = Math.min(aLen, bLen);
         int aIndex = bufferA.readerIndex();
         int bIndex = bufferB.readerIndex();
 
+        if (VECTORIZED_MISMATCH && minLength >= VECTORIZED_COMPARE_BLOCK_SIZE &&
+                bufferA.nioBufferCount() == 1 && bufferB.nioBufferCount() == 1) {
+            final int equalBytes = vectorizedEqualPrefixLength(bufferA, aIndex, bufferB, bIndex, minLength);
+            aIndex += equalBytes;
+            bIndex += equalBytes;
+            minLength -= equalBytes;
+        }
+
+        final int uintCount = minLength >>> 2;
+        final int byteCount = minLength & 3;
+
         if (uintCount > 0) {
             boolean bufferAIsBigEndian = bufferA.order() == ByteOrder.BIG_ENDIAN;
             final long res;
@@ -465,6 +540,56 @@ public final class ByteBufUtil {
         return aLen - bLen;
     }
 
+    /**
+     * Compares the two ranges via {@link ByteBuffer#equals(Object)}, which uses the {@code vectorizedMismatch}
+     * intrinsic on Java 11+. Both buffers must consist of a single NIO buffer.
+     */
+    static boolean vectorizedEquals(ByteBuf a, int aStartIndex, ByteBuf b, int bStartIndex, int length) {
+        final ByteBuffer aNioBuffer = a.internalNioBuffer(aStartIndex, length);
+        return aNioBuffer.equals(bInternalNioBuffer(aNioBuffer, b, bStartIndex, length));
+    }
+
+    /**
+     * Returns the number of leading bytes of the two ranges that are known to be equal. The ranges are compared
+     * in blocks of {@link #VECTORIZED_COMPARE_BLOCK_SIZE} bytes via {@link ByteBuffer#equals(Object)}, the block that
+     * contains the first mismatch and the remaining bytes are left to the caller. Both buffers must consist of a
+     * single NIO buffer.
+     */
+    static int vectorizedEqualPrefixLength(ByteBuf a, int aIndex, ByteBuf b, int bIndex, int length) {
+        final ByteBuffer aNioBuffer = a.internalNioBuffer(aIndex, length);
+        final ByteBuffer bNioBuffer = bInternalNioBuffer(aNioBuffer, b, bIndex, length);
+        final int aStart = aNioBuffer.position();
+        final int bStart = bNioBuffer.position();
+        int equalBytes = 0;
+        while (length - equalBytes >= VECTORIZED_COMPARE_BLOCK_SIZE) {
+            aNioBuffer.limit(aStart + equalBytes + VECTORIZED_COMPARE_BLOCK_SIZE);
+            aNioBuffer.position(aStart + equalBytes);
+            bNioBuffer.limit(bStart + equalBytes + VECTORIZED_COMPARE_BLOCK_SIZE);
+            bNioBuffer.position(bStart + equalBytes);
+            if (!aNioBuffer.equals(bNioBuffer)) {
+                break;
+            }
+            equalBytes += VECTORIZED_COMPARE_BLOCK_SIZE;
+        }
+        return equalBytes;
+    }
+
+    /**
+     * Returns the internal NIO buffer of {@code b} for the given range, or a new one if {@code b} shares its internal
+     * NIO buffer with {@code aNioBuffer}, e.g. because both are views of the same buffer.
+     */
+    private static ByteBuffer bInternalNioBuffer(ByteBuffer aNioBuffer, ByteBuf b, int bIndex, int length) {
+        final int aPosition = aNioBuffer.position();
+        final int aLimit = aNioBuffer.limit();
+        final ByteBuffer bNioBuffer = b.internalNioBuffer(bIndex, length);
+        if (bNioBuffer != aNioBuffer) {
+            return bNioBuffer;
+        }
+        // Restore the range of a that was just overwritten, and give b its own view.
+        aNioBuffer.limit(aLimit).position(aPosition);
+        return b.nioBuffer(bIndex, length);
+    }
+
     private static long compareUintBigEndian(
             ByteBuf bufferA, ByteBuf bufferB, int aIndex, int bIndex, int uintCountIncrement) {
         for (int aEnd = aIndex + uintCountIncrement; aIndex < aEnd; aIndex += 4, bIndex += 4) {
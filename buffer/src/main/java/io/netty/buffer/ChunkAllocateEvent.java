@@ -0,0 +1,38 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.SuppressJava6Requirement;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event which is emitted once a {@link PoolArena} allocated a new {@link PoolChunk}.
+ */
+@SuppressJava6Requirement(reason = "Usage guarded by PlatformDependent.isJfrEnabled()")
+@Name(ChunkAllocateEvent.NAME)
+@Label("Chunk Allocation")
+final class ChunkAllocateEvent extends AbstractChunkEvent {
+    static final String NAME = "io.netty.ChunkAllocate";
+    private static final ChunkAllocateEvent INSTANCE = new ChunkAllocateEvent();
+
+    /**
+     * Returns {@code true} if this event is enabled in any running recording.
+     */
+    static boolean isEventEnabled() {
+        return INSTANCE.isEnabled();
+    }
+}
@@ -309,6 +309,47 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf implements
         }
     }
 
+    /**
+     * Copies the readable bytes of {@code buffer} to the end of the last component and releases {@code buffer}, if
+     * both are shorter than {@code threshold}. Unless small buffers were merged into it before, the last component
+     * is copied into a new buffer of twice the {@code threshold} first, so the following small buffers can be
+     * appended in place. Used by {@link RingCompositeByteBuf}.
+     *
+     * @return {@code false} if nothing was done, as there are no components or one of them is too big.
+     */
+    final boolean mergeIntoLastComponent(ByteBuf buffer, int threshold) {
+        final int len = buffer.readableBytes();
+        final int size = componentCount;
+        if (size == 0 || len >= threshold || components[size - 1].length() >= threshold) {
+            return false;
+        }
+        try {
+            ensureAccessible();
+            ensureAccessible(buffer);
+            checkForOverflow(capacity(), len);
+            Component last = components[size - 1];
+            ByteBuf target = last.srcBuf;
+            if (!last.mergeable || last.srcIdx(last.endOffset) != target.writerIndex() ||
+                    target.writableBytes() < len) {
+                target = allocBuffer(threshold << 1);
+                target.writeBytes(last.buf, last.idx(last.offset), last.length());
+                Component c = newComponent(target, last.offset);
+                c.mergeable = true;
+                if (lastAccessed == last) {
+                    lastAccessed = null;
+                }
+                last.free();
+                components[size - 1] = last = c;
+            }
+            target.writeBytes(buffer, buffer.readerIndex(), len);
+            last.endOffset += len;
+            last.slice = null;
+            return true;
+        } finally {
+            buffer.release();
+        }
+    }
+
     private static ByteBuf ensureAccessible(final ByteBuf buf) {
         if (checkAccessible && !buf.isAccessible()) {
             throw new IllegalReferenceCountException(0);
@@ -1566,6 +1607,13 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf implements
         return findComponent(offset).duplicate();
     }
 
+    // Called by ByteBufUtil.shareRefCnt(...) as the components are released by the thread that releases this buffer.
+    void shareComponents() {
+        for (int i = 0, size = componentCount; i < size; i++) {
+            ByteBufUtil.shareRefCnt(components[i].srcBuf);
+        }
+    }
+
     /**
      * Return the internal {@link ByteBuf} on the specified index. Note that updating the indexes of the returned
      * buffer will lead to an undefined behavior of this buffer.
@@ -1896,6 +1944,8 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf implements
         int offset; // offset of this component within this CompositeByteBuf
         int endOffset; // end offset of this component within this CompositeByteBuf
 
+        boolean mergeable; // small buffers can be appended to srcBuf, see mergeIntoLastComponent(...)
+
         private ByteBuf slice; // cached slice, may be null
 
         Component(ByteBuf srcBuf, int srcOffset, ByteBuf buf, int bufOffset,
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Gives the operating system hints about how the direct memory that backs the chunks of a pooling
+ * {@link ByteBufAllocator} is used.
+ * <p>
+ * Implementations are usually backed by a native transport. All methods must fail silently if the hint is not
+ * supported, so the allocator can just fall back to its default behaviour.
+ */
+@UnstableApi
+public interface DirectMemoryAdvisor {
+
+    /**
+     * Returns the size of a huge page in bytes, or {@code 0} if huge pages are not supported.
+     */
+    int hugePageSize();
+
+    /**
+     * Advise the operating system to back the given memory region with huge pages. The address is aligned to
+     * {@link #hugePageSize()}.
+     *
+     * @return {@code true} if the advice was accepted, {@code false} otherwise.
+     */
+    boolean adviseHugePages(long address, long length);
+
+    /**
+     * Advise the operating system that the given memory region is not needed anymore, so the pages that back it can
+     * be released. The memory stays accessible, but its content is lost. The region is not necessarily aligned to the
+     * page size of the operating system, in which case only the pages that are fully contained may be released.
+     *
+     * @return the number of bytes released, or {@code 0} if the advice was not accepted.
+     */
+    long adviseDontNeed(long address, long length);
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Notified by a pooling {@link ByteBufAllocator} whenever the direct memory it uses has changed, which happens when
+ * it allocates or releases a chunk, not on every buffer allocation.
+ * <p>
+ * Listeners are registered via {@link PooledByteBufAllocator#addDirectMemoryUsageListener(DirectMemoryUsageListener)}
+ * or {@link AdaptiveByteBufAllocator#addDirectMemoryUsageListener(DirectMemoryUsageListener)}.
+ */
+@UnstableApi
+public interface DirectMemoryUsageListener {
+
+    /**
+     * Called after the direct memory used by the allocator has changed. This is called from the allocating or
+     * releasing thread, possibly while the allocator holds internal locks, so implementations must return quickly
+     * and must not query the allocator directly. Use {@link ByteBufAllocatorMetric#usedDirectMemory()} from another
+     * thread to obtain the current usage.
+     */
+    void directMemoryUsageChanged();
+}
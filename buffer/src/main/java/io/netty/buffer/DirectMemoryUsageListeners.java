@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The {@link DirectMemoryUsageListener}s of an allocator.
+ */
+final class DirectMemoryUsageListeners {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(DirectMemoryUsageListeners.class);
+
+    private final List<DirectMemoryUsageListener> listeners = new CopyOnWriteArrayList<DirectMemoryUsageListener>();
+
+    void add(DirectMemoryUsageListener listener) {
+        listeners.add(ObjectUtil.checkNotNull(listener, "listener"));
+    }
+
+    void remove(DirectMemoryUsageListener listener) {
+        listeners.remove(listener);
+    }
+
+    void notifyListeners() {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        for (DirectMemoryUsageListener listener : listeners) {
+            try {
+                listener.directMemoryUsageChanged();
+            } catch (Throwable t) {
+                logger.warn("An exception was thrown by {}.directMemoryUsageChanged()", listener, t);
+            }
+        }
+    }
+}
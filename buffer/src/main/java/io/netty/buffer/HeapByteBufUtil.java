@@ -15,20 +15,32 @@
  */
 package io.netty.buffer;
 
+import io.netty.util.internal.ByteArrayAccess;
+import io.netty.util.internal.PlatformDependent;
+
 /**
  * Utility class for heap buffers.
  */
 final class HeapByteBufUtil {
 
+    // Uses VarHandles on Java 9+ so multi-byte values are read and written with a single memory access.
+    private static final ByteArrayAccess ACCESS = PlatformDependent.byteArrayAccess();
+
     static byte getByte(byte[] memory, int index) {
         return memory[index];
     }
 
     static short getShort(byte[] memory, int index) {
+        if (ACCESS != null) {
+            return ACCESS.getShort(memory, index);
+        }
         return (short) (memory[index] << 8 | memory[index + 1] & 0xFF);
     }
 
     static short getShortLE(byte[] memory, int index) {
+        if (ACCESS != null) {
+            return ACCESS.getShortLE(memory, index);
+        }
         return (short) (memory[index] & 0xff | memory[index + 1] << 8);
     }
 
@@ -45,6 +57,9 @@ final class HeapByteBufUtil {
     }
 
     static int getInt(byte[] memory, int index) {
+        if (ACCESS != null) {
+            return ACCESS.getInt(memory, index);
+        }
         return  (memory[index]     & 0xff) << 24 |
                 (memory[index + 1] & 0xff) << 16 |
                 (memory[index + 2] & 0xff) <<  8 |
@@ -52,6 +67,9 @@ final class HeapByteBufUtil {
     }
 
     static int getIntLE(byte[] memory, int index) {
+        if (ACCESS != null) {
+            return ACCESS.getIntLE(memory, index);
+        }
         return  memory[index]      & 0xff        |
                 (memory[index + 1] & 0xff) << 8  |
                 (memory[index + 2] & 0xff) << 16 |
@@ -59,6 +77,9 @@ final class HeapByteBufUtil {
     }
 
     static long getLong(byte[] memory, int index) {
+        if (ACCESS != null) {
+            return ACCESS.getLong(memory, index);
+        }
         return  ((long) memory[index]     & 0xff) << 56 |
                 ((long) memory[index + 1] & 0xff) << 48 |
                 ((long) memory[index + 2] & 0xff) << 40 |
@@ -70,6 +91,9 @@ final class HeapByteBufUtil {
     }
 
     static long getLongLE(byte[] memory, int index) {
+        if (ACCESS != null) {
+            return ACCESS.getLongLE(memory, index);
+        }
         return  (long) memory[index]      & 0xff        |
                 ((long) memory[index + 1] & 0xff) <<  8 |
                 ((long) memory[index + 2] & 0xff) << 16 |
@@ -85,11 +109,19 @@ final class HeapByteBufUtil {
     }
 
     static void setShort(byte[] memory, int index, int value) {
+        if (ACCESS != null) {
+            ACCESS.setShort(memory, index, value);
+            return;
+        }
         memory[index]     = (byte) (value >>> 8);
         memory[index + 1] = (byte) value;
     }
 
     static void setShortLE(byte[] memory, int index, int value) {
+        if (ACCESS != null) {
+            ACCESS.setShortLE(memory, index, value);
+            return;
+        }
         memory[index]     = (byte) value;
         memory[index + 1] = (byte) (value >>> 8);
     }
@@ -107,6 +139,10 @@ final class HeapByteBufUtil {
     }
 
     static void setInt(byte[] memory, int index, int value) {
+        if (ACCESS != null) {
+            ACCESS.setInt(memory, index, value);
+            return;
+        }
         memory[index]     = (byte) (value >>> 24);
         memory[index + 1] = (byte) (value >>> 16);
         memory[index + 2] = (byte) (value >>> 8);
@@ -114,6 +150,10 @@ final class HeapByteBufUtil {
     }
 
     static void setIntLE(byte[] memory, int index, int value) {
+        if (ACCESS != null) {
+            ACCESS.setIntLE(memory, index, value);
+            return;
+        }
         memory[index]     = (byte) value;
         memory[index + 1] = (byte) (value >>> 8);
         memory[index + 2] = (byte) (value >>> 16);
@@ -121,6 +161,10 @@ final class HeapByteBufUtil {
     }
 
     static void setLong(byte[] memory, int index, long value) {
+        if (ACCESS != null) {
+            ACCESS.setLong(memory, index, value);
+            return;
+        }
         memory[index]     = (byte) (value >>> 56);
         memory[index + 1] = (byte) (value >>> 48);
         memory[index + 2] = (byte) (value >>> 40);
@@ -132,6 +176,10 @@ final class HeapByteBufUtil {
     }
 
     static void setLongLE(byte[] memory, int index, long value) {
+        if (ACCESS != null) {
+            ACCESS.setLongLE(memory, index, value);
+            return;
+        }
         memory[index]     = (byte) value;
         memory[index + 1] = (byte) (value >>> 8);
         memory[index + 2] = (byte) (value >>> 16);
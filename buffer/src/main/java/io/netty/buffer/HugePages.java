@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.LongCounter;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Backs direct chunks with huge pages via a {@link DirectMemoryAdvisor} and keeps track of how many of these chunks
+ * are live.
+ * <p>
+ * Huge page backed chunks must be aligned to the huge page size. Every chunk is allocated on its own, so its memory
+ * is first touched by the thread of the arena that uses it, and the padding that is needed for aligning it is never
+ * touched. Without a cleaner only the chunk itself is counted against the direct memory limit.
+ */
+final class HugePages {
+    private final DirectMemoryAdvisor advisor;
+    private final int hugePageSize;
+    // The biggest multiple of the huge page size that still leaves room for aligning a chunk.
+    private final int maxChunkSize;
+    private final LongCounter liveChunks = PlatformDependent.newLongCounter();
+
+    HugePages(DirectMemoryAdvisor advisor) {
+        this.advisor = ObjectUtil.checkNotNull(advisor, "advisor");
+        int size = advisor.hugePageSize();
+        // We need Unsafe to align the memory and pass its address to the advisor.
+        hugePageSize = PlatformDependent.hasUnsafe() && size >= 8 && (size & size - 1) == 0 ? size : 0;
+        maxChunkSize = (Integer.MAX_VALUE & -hugePageSize) - hugePageSize;
+    }
+
+    /**
+     * Returns {@code true} if a chunk of the given size should be backed by huge pages. Smaller chunks would only
+     * waste memory.
+     */
+    boolean isSupported(int chunkSize) {
+        return hugePageSize != 0 && chunkSize >= hugePageSize && chunkSize <= maxChunkSize;
+    }
+
+    /**
+     * The alignment of the chunks returned by {@link #allocate(int)}.
+     */
+    int alignment() {
+        return hugePageSize;
+    }
+
+    /**
+     * Rounds the given size up to a multiple of the huge page size.
+     */
+    int roundUp(int size) {
+        return size + hugePageSize - 1 & -hugePageSize;
+    }
+
+    /**
+     * Allocates a huge page aligned chunk of the given size, which must be a multiple of the huge page size. The
+     * chunk must be given back via {@link #free(Chunk)}.
+     */
+    Chunk allocate(int chunkSize) {
+        assert isSupported(chunkSize) && chunkSize == roundUp(chunkSize);
+        final ByteBuffer base;
+        ByteBuffer memory;
+        if (PlatformDependent.useDirectBufferNoCleaner()) {
+            base = null;
+            memory = PlatformDependent.allocateAlignedDirectNoCleaner(chunkSize, hugePageSize);
+        } else {
+            // The JDK counts the padding against its direct memory limit as well, there is no way around that.
+            base = ByteBuffer.allocateDirect(chunkSize + hugePageSize);
+            memory = PlatformDependent.alignDirectBuffer(base, hugePageSize);
+            memory.limit(chunkSize);
+            memory = memory.slice();
+        }
+        // Advise before the memory is touched, so it can be faulted in as huge pages right away.
+        boolean hugePageBacked = advisor.adviseHugePages(PlatformDependent.directBufferAddress(memory), chunkSize);
+        if (hugePageBacked) {
+            liveChunks.increment();
+        }
+        return new Chunk(base, memory, hugePageBacked);
+    }
+
+    /**
+     * Gives back a chunk that was allocated via {@link #allocate(int)}.
+     */
+    void free(Chunk chunk) {
+        if (chunk.base == null) {
+            PlatformDependent.freeAlignedDirectNoCleaner(chunk.memory);
+        } else {
+            PlatformDependent.freeDirectBuffer(chunk.base);
+        }
+        if (chunk.hugePageBacked) {
+            liveChunks.decrement();
+        }
+    }
+
+    long liveChunks() {
+        return liveChunks.value();
+    }
+
+    /**
+     * A huge page aligned chunk.
+     */
+    static final class Chunk {
+        final ByteBuffer memory;
+        // The buffer the memory was sliced from, or null if it has no cleaner.
+        private final ByteBuffer base;
+        private final boolean hugePageBacked;
+
+        private Chunk(ByteBuffer base, ByteBuffer memory, boolean hugePageBacked) {
+            this.base = base;
+            this.memory = memory;
+            this.hugePageBacked = hugePageBacked;
+        }
+    }
+}
@@ -73,6 +73,18 @@ final class IntPriorityQueue {
         return size == 0;
     }
 
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value at the given index, in no particular order. The index must be in the range {@code [0, size())}.
+     */
+    public int get(int index) {
+        assert index >= 0 && index < size;
+        return array[index + 1];
+    }
+
     private void lift(int index) {
         int parentIndex;
         while (index > 1 && subord(parentIndex = index >> 1, index)) {
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only {@link ByteBuf} which is backed by a memory-mapped region of a file.
+ * <p>
+ * The region is unmapped as soon as the reference count drops to {@code 0}, so neither this buffer nor any of its
+ * derived buffers or {@link ByteBuffer}s must be used afterwards. If the JDK does not allow to unmap the region
+ * explicitly, it is unmapped once it is garbage collected.
+ * <p>
+ * As the content is still backed by the file, the buffer can also be written as a {@code FileRegion} if no
+ * transformation of the bytes is needed, see {@link #file()} and {@link #filePosition()}.
+ */
+@UnstableApi
+public final class MappedFileByteBuf extends ReadOnlyByteBufferBuf {
+
+    private final MappedByteBuffer mapped;
+    private final File file;
+    private final long filePosition;
+    private final long memoryAddress;
+
+    private MappedFileByteBuf(ByteBufAllocator allocator, MappedByteBuffer mapped, File file, long filePosition) {
+        super(allocator, mapped);
+        this.mapped = mapped;
+        this.file = file;
+        this.filePosition = filePosition;
+        // Use buffer as the super class will slice the passed in ByteBuffer.
+        memoryAddress = PlatformDependent.hasUnsafe() ? PlatformDependent.directBufferAddress(buffer) : 0;
+    }
+
+    /**
+     * Maps the whole content of the given file.
+     */
+    public static MappedFileByteBuf map(File file) throws IOException {
+        ObjectUtil.checkNotNull(file, "file");
+        long length = file.length();
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("file too big to be mapped: " + file + " (" + length + " bytes)");
+        }
+        return map(file, 0, (int) length);
+    }
+
+    /**
+     * Maps {@code length} bytes of the given file, starting at {@code position}.
+     */
+    public static MappedFileByteBuf map(File file, long position, int length) throws IOException {
+        ObjectUtil.checkNotNull(file, "file");
+        ObjectUtil.checkPositiveOrZero(position, "position");
+        ObjectUtil.checkPositiveOrZero(length, "length");
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // The mapping stays valid after the channel is closed.
+            MappedByteBuffer mapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, position, length);
+            return new MappedFileByteBuf(UnpooledByteBufAllocator.DEFAULT, mapped, file, position);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Returns the file this buffer is mapped from.
+     */
+    public File file() {
+        return file;
+    }
+
+    /**
+     * Returns the position in the {@link #file()} that corresponds to the index {@code 0} of this buffer.
+     */
+    public long filePosition() {
+        return filePosition;
+    }
+
+    /**
+     * Loads the content into physical memory, see {@link MappedByteBuffer#load()}.
+     */
+    public MappedFileByteBuf load() {
+        ensureAccessible();
+        mapped.load();
+        return this;
+    }
+
+    @Override
+    public boolean hasMemoryAddress() {
+        return memoryAddress != 0;
+    }
+
+    @Override
+    public long memoryAddress() {
+        if (memoryAddress == 0) {
+            throw new UnsupportedOperationException();
+        }
+        return memoryAddress;
+    }
+
+    @Override
+    protected void deallocate() {
+        PlatformDependent.freeDirectBuffer(mapped);
+    }
+
+    @Override
+    public String toString() {
+        if (refCnt() == 0) {
+            return super.toString();
+        }
+        return super.toString() + "(file: " + file + ", position: " + filePosition + ')';
+    }
+}
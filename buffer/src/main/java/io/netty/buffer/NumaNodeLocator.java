@@ -0,0 +1,40 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Provides the NUMA topology to a {@link PooledByteBufAllocator} so it can group its arenas per NUMA node and bind
+ * the thread local caches to an arena that lives on the node of the calling {@link Thread}.
+ * <p>
+ * Implementations are usually backed by a native transport, as the current CPU of a {@link Thread} can not be
+ * determined from Java alone.
+ */
+@UnstableApi
+public interface NumaNodeLocator {
+
+    /**
+     * Returns the number of NUMA nodes of the system. This must be at least {@code 1} and must not change.
+     */
+    int numNodes();
+
+    /**
+     * Returns the NUMA node the calling {@link Thread} currently runs on, in the range
+     * {@code [0, numNodes())}, or {@code -1} if it can not be determined.
+     */
+    int currentNode();
+}
@@ -16,6 +16,7 @@
 
 package io.netty.buffer;
 
+import io.netty.util.internal.DirectMemorySegment;
 import io.netty.util.internal.LongCounter;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
@@ -75,10 +76,18 @@ abstract class PoolArena<T> implements PoolArenaMetric {
 
     final SizeClasses sizeClass;
 
+    // The NUMA node this arena belongs to or -1 if the parent is not NUMA aware.
+    final int numaNode;
+
     protected PoolArena(PooledByteBufAllocator parent, SizeClasses sizeClass) {
+        this(parent, sizeClass, -1);
+    }
+
+    protected PoolArena(PooledByteBufAllocator parent, SizeClasses sizeClass, int numaNode) {
         assert null != sizeClass;
         this.parent = parent;
         this.sizeClass = sizeClass;
+        this.numaNode = numaNode;
         smallSubpagePools = newSubpagePoolArray(sizeClass.nSubpages);
         for (int i = 0; i < smallSubpagePools.length; i ++) {
             smallSubpagePools[i] = newSubpagePoolHead(i);
@@ -211,9 +220,41 @@ abstract class PoolArena<T> implements PoolArenaMetric {
 
         // Add a new chunk.
         PoolChunk<T> c = newChunk(sizeClass.pageSize, sizeClass.nPSizes, sizeClass.pageShifts, sizeClass.chunkSize);
+        if (PlatformDependent.isJfrEnabled()) {
+            chunkAllocated(c);
+        }
         boolean success = c.allocate(buf, reqCapacity, sizeIdx, threadCache);
         assert success;
         qInit.add(c);
+        // The new chunk is accounted for at this point, listeners must not call back into the arena though.
+        memoryUsageChanged();
+    }
+
+    private void memoryUsageChanged() {
+        if (parent != null && isDirect()) {
+            parent.directMemoryUsageListeners.notifyListeners();
+        }
+    }
+
+    // Only called if PlatformDependent.isJfrEnabled(), so the event classes are never loaded otherwise.
+    private static void chunkAllocated(PoolChunk<?> chunk) {
+        if (ChunkAllocateEvent.isEventEnabled()) {
+            ChunkAllocateEvent event = new ChunkAllocateEvent();
+            if (event.shouldCommit()) {
+                event.fill(chunk);
+                event.commit();
+            }
+        }
+    }
+
+    private static void chunkFreed(PoolChunk<?> chunk) {
+        if (ChunkFreeEvent.isEventEnabled()) {
+            ChunkFreeEvent event = new ChunkFreeEvent();
+            if (event.shouldCommit()) {
+                event.fill(chunk);
+                event.commit();
+            }
+        }
     }
 
     private void incSmallAllocation() {
@@ -222,18 +263,26 @@ abstract class PoolArena<T> implements PoolArenaMetric {
 
     private void allocateHuge(PooledByteBuf<T> buf, int reqCapacity) {
         PoolChunk<T> chunk = newUnpooledChunk(reqCapacity);
+        if (PlatformDependent.isJfrEnabled()) {
+            chunkAllocated(chunk);
+        }
         activeBytesHuge.add(chunk.chunkSize());
         buf.initUnpooled(chunk, reqCapacity);
         allocationsHuge.increment();
+        memoryUsageChanged();
     }
 
     void free(PoolChunk<T> chunk, ByteBuffer nioBuffer, long handle, int normCapacity, PoolThreadCache cache) {
         chunk.decrementPinnedMemory(normCapacity);
         if (chunk.unpooled) {
             int size = chunk.chunkSize();
+            if (PlatformDependent.isJfrEnabled()) {
+                chunkFreed(chunk);
+            }
             destroyChunk(chunk);
             activeBytesHuge.add(-size);
             deallocationsHuge.increment();
+            memoryUsageChanged();
         } else {
             SizeClass sizeClass = sizeClass(handle);
             if (cache != null && cache.add(this, chunk, nioBuffer, handle, normCapacity, sizeClass)) {
@@ -274,10 +323,104 @@ abstract class PoolArena<T> implements PoolArenaMetric {
         }
         if (destroyChunk) {
             // destroyChunk not need to be called while holding the synchronized lock.
+            if (PlatformDependent.isJfrEnabled()) {
+                chunkFreed(chunk);
+            }
             destroyChunk(chunk);
+            memoryUsageChanged();
         }
     }
 
+    /**
+     * Gives back the memory of chunks that were idle for at least {@code idleNanos}, as long as this arena keeps more
+     * than {@code retainBytes} of resident chunk memory. Empty chunks are released first, then the free runs of the
+     * remaining idle chunks are released to the OS if supported.
+     *
+     * @return the number of bytes that were given back.
+     */
+    long trim(long idleNanos, long retainBytes) {
+        final long nanoTime = System.nanoTime();
+        final List<PoolChunk<T>> released = new ArrayList<PoolChunk<T>>();
+        long trimmed = 0;
+        long reclaimed = 0;
+        lock();
+        try {
+            long resident = residentBytes(qInit, nanoTime) + residentBytes(q000, nanoTime) +
+                    residentBytes(q025, nanoTime) + residentBytes(q050, nanoTime) +
+                    residentBytes(q075, nanoTime) + residentBytes(q100, nanoTime);
+
+            // Empty chunks can only be in qInit as chunks in q000 are destroyed once they become empty.
+            PoolChunk<T> next;
+            for (PoolChunk<T> cur = qInit.head(); cur != null; cur = next) {
+                next = cur.next;
+                if (cur.freeBytes == cur.chunkSize && cur.idleNanos(nanoTime) >= idleNanos &&
+                        resident - cur.residentBytes() >= retainBytes) {
+                    qInit.remove(cur);
+                    resident -= cur.residentBytes();
+                    trimmed += cur.chunkSize;
+                    released.add(cur);
+                }
+            }
+
+            reclaimed += reclaimFreeRuns(qInit, nanoTime, idleNanos, resident - retainBytes);
+            reclaimed += reclaimFreeRuns(q000, nanoTime, idleNanos, resident - retainBytes - reclaimed);
+            reclaimed += reclaimFreeRuns(q025, nanoTime, idleNanos, resident - retainBytes - reclaimed);
+            reclaimed += reclaimFreeRuns(q050, nanoTime, idleNanos, resident - retainBytes - reclaimed);
+            reclaimed += reclaimFreeRuns(q075, nanoTime, idleNanos, resident - retainBytes - reclaimed);
+        } finally {
+            unlock();
+        }
+        for (PoolChunk<T> chunk: released) {
+            // destroyTrimmedChunk not need to be called while holding the lock.
+            if (PlatformDependent.isJfrEnabled()) {
+                chunkFreed(chunk);
+            }
+            destroyTrimmedChunk(chunk);
+        }
+        if (parent != null) {
+            parent.trimmedBytes.add(trimmed);
+            parent.reclaimedBytes.add(reclaimed);
+        }
+        return trimmed + reclaimed;
+    }
+
+    private static <T> long residentBytes(PoolChunkList<T> list, long nanoTime) {
+        long resident = 0;
+        for (PoolChunk<T> cur = list.head(); cur != null; cur = cur.next) {
+            // Also updates the idle state of the chunk.
+            cur.idleNanos(nanoTime);
+            resident += cur.residentBytes();
+        }
+        return resident;
+    }
+
+    private long reclaimFreeRuns(PoolChunkList<T> list, long nanoTime, long idleNanos, long maxBytes) {
+        long reclaimed = 0;
+        for (PoolChunk<T> cur = list.head(); cur != null && reclaimed < maxBytes; cur = cur.next) {
+            if (cur.idleNanos(nanoTime) >= idleNanos) {
+                reclaimed += reclaimFreeRuns(cur);
+            }
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Releases the memory of the free runs of the given chunk to the OS, if supported. Called with the lock held.
+     *
+     * @return the number of bytes released.
+     */
+    protected long reclaimFreeRuns(PoolChunk<T> chunk) {
+        return 0;
+    }
+
+    /**
+     * Destroys a chunk that was released by {@link #trim(long, long)}.
+     */
+    protected void destroyTrimmedChunk(PoolChunk<T> chunk) {
+        destroyChunk(chunk);
+        memoryUsageChanged();
+    }
+
     void reallocate(PooledByteBuf<T> buf, int newCapacity) {
         assert newCapacity >= 0 && newCapacity <= buf.maxCapacity();
 
@@ -620,7 +763,11 @@ abstract class PoolArena<T> implements PoolArenaMetric {
         private final AtomicReference<PoolChunk<byte[]>> lastDestroyedChunk;
 
         HeapArena(PooledByteBufAllocator parent, SizeClasses sizeClass) {
-            super(parent, sizeClass);
+            this(parent, sizeClass, -1);
+        }
+
+        HeapArena(PooledByteBufAllocator parent, SizeClasses sizeClass, int numaNode) {
+            super(parent, sizeClass, numaNode);
             lastDestroyedChunk = new AtomicReference<PoolChunk<byte[]>>();
         }
 
@@ -660,6 +807,11 @@ abstract class PoolArena<T> implements PoolArenaMetric {
             }
         }
 
+        @Override
+        protected void destroyTrimmedChunk(PoolChunk<byte[]> chunk) {
+            // Rely on GC. The chunk was idle for a while, so there is no point in keeping it for reuse.
+        }
+
         @Override
         protected PooledByteBuf<byte[]> newByteBuf(int maxCapacity) {
             return HAS_UNSAFE ? PooledUnsafeHeapByteBuf.newUnsafeInstance(maxCapacity)
@@ -679,7 +831,11 @@ abstract class PoolArena<T> implements PoolArenaMetric {
     static final class DirectArena extends PoolArena<ByteBuffer> {
 
         DirectArena(PooledByteBufAllocator parent, SizeClasses sizeClass) {
-            super(parent, sizeClass);
+            this(parent, sizeClass, -1);
+        }
+
+        DirectArena(PooledByteBufAllocator parent, SizeClasses sizeClass, int numaNode) {
+            super(parent, sizeClass, numaNode);
         }
 
         @Override
@@ -689,48 +845,106 @@ abstract class PoolArena<T> implements PoolArenaMetric {
 
         @Override
         protected PoolChunk<ByteBuffer> newChunk(int pageSize, int maxPageIdx, int pageShifts, int chunkSize) {
+            final HugePages hugePages = parent == null ? null : parent.hugePages;
+            // Chunk sizes are a power of two, so a supported one is already a multiple of the huge page size. The
+            // huge page alignment also satisfies any smaller cache alignment.
+            if (hugePages != null && hugePages.isSupported(chunkSize) &&
+                    sizeClass.directMemoryCacheAlignment <= hugePages.alignment()) {
+                final HugePages.Chunk hugePageChunk = hugePages.allocate(chunkSize);
+                final ByteBuffer memory = hugePageChunk.memory;
+                touchIfNumaAware(memory, chunkSize);
+                PoolChunk<ByteBuffer> chunk = new PoolChunk<ByteBuffer>(this, memory, memory, pageSize,
+                        pageShifts, chunkSize, maxPageIdx);
+                chunk.hugePageChunk = hugePageChunk;
+                return chunk;
+            }
             if (sizeClass.directMemoryCacheAlignment == 0) {
-                ByteBuffer memory = allocateDirect(chunkSize);
-                return new PoolChunk<ByteBuffer>(this, memory, memory, pageSize, pageShifts,
+                Object base = allocateDirect(true, chunkSize);
+                ByteBuffer memory = baseBuffer(base);
+                touchIfNumaAware(memory, chunkSize);
+                return new PoolChunk<ByteBuffer>(this, base, memory, pageSize, pageShifts,
                         chunkSize, maxPageIdx);
             }
 
-            final ByteBuffer base = allocateDirect(chunkSize + sizeClass.directMemoryCacheAlignment);
-            final ByteBuffer memory = PlatformDependent.alignDirectBuffer(base, sizeClass.directMemoryCacheAlignment);
+            final Object base = allocateDirect(true, chunkSize + sizeClass.directMemoryCacheAlignment);
+            final ByteBuffer memory = PlatformDependent.alignDirectBuffer(
+                    baseBuffer(base), sizeClass.directMemoryCacheAlignment);
+            touchIfNumaAware(memory, chunkSize);
             return new PoolChunk<ByteBuffer>(this, base, memory, pageSize,
                     pageShifts, chunkSize, maxPageIdx);
         }
 
+        /**
+         * Linux places a page on the NUMA node of the thread that first touches it. Chunks are only created by
+         * threads that are bound to this arena, so they already run on {@link #numaNode}. Memory allocated via
+         * {@link ByteBuffer#allocateDirect(int)} is zeroed by the JDK and so is already faulted in by the calling
+         * thread, but memory allocated without a cleaner is not and may otherwise be faulted in later by some other
+         * thread, so touch it now.
+         */
+        private void touchIfNumaAware(ByteBuffer memory, int chunkSize) {
+            if (numaNode >= 0 && PlatformDependent.useDirectBufferNoCleaner()) {
+                PlatformDependent.setMemory(PlatformDependent.directBufferAddress(memory), chunkSize, (byte) 0);
+            }
+        }
+
         @Override
         protected PoolChunk<ByteBuffer> newUnpooledChunk(int capacity) {
             if (sizeClass.directMemoryCacheAlignment == 0) {
-                ByteBuffer memory = allocateDirect(capacity);
-                return new PoolChunk<ByteBuffer>(this, memory, memory, capacity);
+                Object base = allocateDirect(false, capacity);
+                return new PoolChunk<ByteBuffer>(this, base, baseBuffer(base), capacity);
             }
 
-            final ByteBuffer base = allocateDirect(capacity + sizeClass.directMemoryCacheAlignment);
-            final ByteBuffer memory = PlatformDependent.alignDirectBuffer(base, sizeClass.directMemoryCacheAlignment);
+            final Object base = allocateDirect(false, capacity + sizeClass.directMemoryCacheAlignment);
+            final ByteBuffer memory = PlatformDependent.alignDirectBuffer(
+                    baseBuffer(base), sizeClass.directMemoryCacheAlignment);
             return new PoolChunk<ByteBuffer>(this, base, memory, capacity);
         }
 
-        private static ByteBuffer allocateDirect(int capacity) {
+        /**
+         * Returns either a {@link ByteBuffer} or a {@link DirectMemorySegment}, use {@link #baseBuffer(Object)} to
+         * access its memory. Memory segments are only used for pooled chunks, as each one comes with its own arena
+         * which is costly to create and close.
+         */
+        private static Object allocateDirect(boolean pooled, int capacity) {
+            if (pooled && PlatformDependent.useMemorySegment()) {
+                return DirectMemorySegment.allocate(capacity);
+            }
             return PlatformDependent.useDirectBufferNoCleaner() ?
                     PlatformDependent.allocateDirectNoCleaner(capacity) : ByteBuffer.allocateDirect(capacity);
         }
 
+        private static ByteBuffer baseBuffer(Object base) {
+            return base instanceof DirectMemorySegment ? ((DirectMemorySegment) base).buffer() : (ByteBuffer) base;
+        }
+
         @Override
         protected void destroyChunk(PoolChunk<ByteBuffer> chunk) {
-            if (PlatformDependent.useDirectBufferNoCleaner()) {
+            if (chunk.hugePageChunk != null) {
+                parent.hugePages.free(chunk.hugePageChunk);
+            } else if (chunk.base instanceof DirectMemorySegment) {
+                ((DirectMemorySegment) chunk.base).free();
+            } else if (PlatformDependent.useDirectBufferNoCleaner()) {
                 PlatformDependent.freeDirectNoCleaner((ByteBuffer) chunk.base);
             } else {
                 PlatformDependent.freeDirectBuffer((ByteBuffer) chunk.base);
             }
         }
 
+        @Override
+        protected long reclaimFreeRuns(PoolChunk<ByteBuffer> chunk) {
+            final DirectMemoryAdvisor advisor = parent == null ? null : parent.directMemoryAdvisor;
+            if (advisor == null || !HAS_UNSAFE) {
+                return 0;
+            }
+            return chunk.adviseDontNeedFreeRuns(advisor, PlatformDependent.directBufferAddress(chunk.memory));
+        }
+
         @Override
         protected PooledByteBuf<ByteBuffer> newByteBuf(int maxCapacity) {
             if (HAS_UNSAFE) {
                 return PooledUnsafeDirectByteBuf.newInstance(maxCapacity);
+            } else if (PlatformDependent.useMemorySegment()) {
+                return PooledMemorySegmentDirectByteBuf.newSegmentInstance(maxCapacity);
             } else {
                 return PooledDirectByteBuf.newInstance(maxCapacity);
             }
@@ -185,6 +185,16 @@ final class PoolChunk<T> implements PoolChunkMetric {
 
     int freeBytes;
 
+    // Set by the arena if the memory was carved from a huge page region, it must be given back to it once destroyed.
+    HugePages.Chunk hugePageChunk;
+
+    // Used by PoolArena.trim(...) to find idle chunks, all guarded by the arena lock. The chunk is active if a run
+    // was allocated or freed since the last trim, and reclaimedBytes are the bytes of its free runs that were released
+    // to the OS since it was active the last time.
+    private boolean active = true;
+    private long idleSinceNanos;
+    private long reclaimedBytes;
+
     PoolChunkList<T> parent;
     PoolChunk<T> prev;
     PoolChunk<T> next;
@@ -384,6 +394,7 @@ final class PoolChunk<T> implements PoolChunkMetric {
 
             int pinnedSize = runSize(pageShifts, handle);
             freeBytes -= pinnedSize;
+            active = true;
             return handle;
         } finally {
             runsAvailLock.unlock();
@@ -527,6 +538,7 @@ final class PoolChunk<T> implements PoolChunkMetric {
 
             insertAvailRun(runOffset(finalRun), runPages(finalRun), finalRun);
             freeBytes += runSize;
+            active = true;
         } finally {
             runsAvailLock.unlock();
         }
@@ -537,6 +549,54 @@ final class PoolChunk<T> implements PoolChunkMetric {
         }
     }
 
+    /**
+     * Returns for how long this chunk is idle at the given time. Must be called with the arena lock held.
+     */
+    long idleNanos(long nanoTime) {
+        if (active) {
+            // The free runs may have been reused, so assume all memory is resident again.
+            active = false;
+            idleSinceNanos = nanoTime;
+            reclaimedBytes = 0;
+        }
+        return nanoTime - idleSinceNanos;
+    }
+
+    /**
+     * Returns the number of bytes of this chunk which were not released to the OS via
+     * {@link #adviseDontNeedFreeRuns(DirectMemoryAdvisor, long)}. Must be called with the arena lock held.
+     */
+    long residentBytes() {
+        return chunkSize - reclaimedBytes;
+    }
+
+    /**
+     * Advises the OS that the memory of all free runs is not needed anymore, unless this was already done since the
+     * chunk was active the last time. Must be called with the arena lock held, so no run can be allocated meanwhile.
+     *
+     * @return the number of bytes released.
+     */
+    long adviseDontNeedFreeRuns(DirectMemoryAdvisor advisor, long memoryAddress) {
+        if (reclaimedBytes != 0) {
+            return 0;
+        }
+        long reclaimed = 0;
+        runsAvailLock.lock();
+        try {
+            for (IntPriorityQueue queue : runsAvail) {
+                for (int i = 0; i < queue.size(); i++) {
+                    long handle = (long) queue.get(i) << BITMAP_IDX_BIT_LENGTH;
+                    reclaimed += advisor.adviseDontNeed(memoryAddress + ((long) runOffset(handle) << pageShifts),
+                            (long) runPages(handle) << pageShifts);
+                }
+            }
+        } finally {
+            runsAvailLock.unlock();
+        }
+        reclaimedBytes = reclaimed;
+        return reclaimed;
+    }
+
     private long collapseRuns(long handle) {
         return collapseNext(collapsePast(handle));
     }
@@ -178,7 +178,11 @@ final class PoolChunkList<T> implements PoolChunkListMetric {
         }
     }
 
-    private void remove(PoolChunk<T> cur) {
+    PoolChunk<T> head() {
+        return head;
+    }
+
+    void remove(PoolChunk<T> cur) {
         if (cur == head) {
             head = cur.next;
             if (head != null) {
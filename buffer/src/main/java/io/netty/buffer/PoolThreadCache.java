@@ -26,6 +26,7 @@ import io.netty.util.internal.ObjectPool;
 import io.netty.util.internal.ObjectPool.Handle;
 import io.netty.util.internal.ObjectPool.ObjectCreator;
 import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.StringUtil;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
@@ -34,6 +35,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * Acts a Thread cache for allocations. This implementation is moduled after
@@ -49,6 +51,8 @@ final class PoolThreadCache {
 
     final PoolArena<byte[]> heapArena;
     final PoolArena<ByteBuffer> directArena;
+    // Whether this cache is counted in PoolArena.numThreadCaches, which is used to pick the least used arena.
+    private final boolean countedByArenas;
 
     // Hold the caches for the different size classes, which are small and normal.
     private final MemoryRegionCache<byte[]>[] smallSubPageHeapCaches;
@@ -61,22 +65,42 @@ final class PoolThreadCache {
     @SuppressWarnings("unused") // Field is only here for the finalizer.
     private final FreeOnFinalize freeOnFinalize;
 
+    private final Metric metric;
+
     private int allocations;
+    private long lastIdleCheckRequests;
 
     // TODO: Test if adding padding helps under contention
     //private long pad0, pad1, pad2, pad3, pad4, pad5, pad6, pad7;
 
     PoolThreadCache(PoolArena<byte[]> heapArena, PoolArena<ByteBuffer> directArena,
                     int smallCacheSize, int normalCacheSize, int maxCachedBufferCapacity,
-                    int freeSweepAllocationThreshold, boolean useFinalizer) {
+                    int freeSweepAllocationThreshold, boolean adaptiveCacheSize, boolean useFinalizer) {
+        this(heapArena, directArena, smallCacheSize, normalCacheSize, maxCachedBufferCapacity,
+             freeSweepAllocationThreshold, adaptiveCacheSize, useFinalizer, true);
+    }
+
+    /**
+     * @param countedByArenas {@code false} if this cache is shared by many threads, so it must not make its arenas
+     *                        look used by a single thread.
+     */
+    PoolThreadCache(PoolArena<byte[]> heapArena, PoolArena<ByteBuffer> directArena,
+                    int smallCacheSize, int normalCacheSize, int maxCachedBufferCapacity,
+                    int freeSweepAllocationThreshold, boolean adaptiveCacheSize, boolean useFinalizer,
+                    boolean countedByArenas) {
         checkPositiveOrZero(maxCachedBufferCapacity, "maxCachedBufferCapacity");
         this.freeSweepAllocationThreshold = freeSweepAllocationThreshold;
         this.heapArena = heapArena;
         this.directArena = directArena;
+        this.countedByArenas = countedByArenas;
         if (directArena != null) {
-            smallSubPageDirectCaches = createSubPageCaches(smallCacheSize, directArena.sizeClass.nSubpages);
-            normalDirectCaches = createNormalCaches(normalCacheSize, maxCachedBufferCapacity, directArena);
-            directArena.numThreadCaches.getAndIncrement();
+            smallSubPageDirectCaches = createSubPageCaches(
+                    smallCacheSize, directArena.sizeClass.nSubpages, adaptiveCacheSize);
+            normalDirectCaches = createNormalCaches(
+                    normalCacheSize, maxCachedBufferCapacity, directArena, adaptiveCacheSize);
+            if (countedByArenas) {
+                directArena.numThreadCaches.getAndIncrement();
+            }
         } else {
             // No directArea is configured so just null out all caches
             smallSubPageDirectCaches = null;
@@ -84,9 +108,13 @@ final class PoolThreadCache {
         }
         if (heapArena != null) {
             // Create the caches for the heap allocations
-            smallSubPageHeapCaches = createSubPageCaches(smallCacheSize, heapArena.sizeClass.nSubpages);
-            normalHeapCaches = createNormalCaches(normalCacheSize, maxCachedBufferCapacity, heapArena);
-            heapArena.numThreadCaches.getAndIncrement();
+            smallSubPageHeapCaches = createSubPageCaches(
+                    smallCacheSize, heapArena.sizeClass.nSubpages, adaptiveCacheSize);
+            normalHeapCaches = createNormalCaches(
+                    normalCacheSize, maxCachedBufferCapacity, heapArena, adaptiveCacheSize);
+            if (countedByArenas) {
+                heapArena.numThreadCaches.getAndIncrement();
+            }
         } else {
             // No heapArea is configured so just null out all caches
             smallSubPageHeapCaches = null;
@@ -94,23 +122,44 @@ final class PoolThreadCache {
         }
 
         // Only check if there are caches in use.
-        if ((smallSubPageDirectCaches != null || normalDirectCaches != null
-                || smallSubPageHeapCaches != null || normalHeapCaches != null)
-                && freeSweepAllocationThreshold < 1) {
+        final boolean cachesInUse = smallSubPageDirectCaches != null || normalDirectCaches != null
+                || smallSubPageHeapCaches != null || normalHeapCaches != null;
+        if (cachesInUse && freeSweepAllocationThreshold < 1) {
             throw new IllegalArgumentException("freeSweepAllocationThreshold: "
                     + freeSweepAllocationThreshold + " (expected: > 0)");
         }
         freeOnFinalize = useFinalizer ? new FreeOnFinalize(this) : null;
+        metric = new Metric(Thread.currentThread().getName());
+        if (cachesInUse) {
+            PooledByteBufAllocator parent = parent();
+            if (parent != null) {
+                parent.threadCacheMetrics.add(metric);
+            }
+        }
+    }
+
+    private PooledByteBufAllocator parent() {
+        if (directArena != null) {
+            return directArena.parent;
+        }
+        return heapArena != null ? heapArena.parent : null;
+    }
+
+    /**
+     * Returns the {@link PoolThreadCacheMetric} of this cache.
+     */
+    PoolThreadCacheMetric metric() {
+        return metric;
     }
 
     private static <T> MemoryRegionCache<T>[] createSubPageCaches(
-            int cacheSize, int numCaches) {
+            int cacheSize, int numCaches, boolean adaptive) {
         if (cacheSize > 0 && numCaches > 0) {
             @SuppressWarnings("unchecked")
             MemoryRegionCache<T>[] cache = new MemoryRegionCache[numCaches];
             for (int i = 0; i < cache.length; i++) {
                 // TODO: maybe use cacheSize / cache.length
-                cache[i] = new SubPageMemoryRegionCache<T>(cacheSize);
+                cache[i] = new SubPageMemoryRegionCache<T>(cacheSize, adaptive);
             }
             return cache;
         } else {
@@ -120,7 +169,7 @@ final class PoolThreadCache {
 
     @SuppressWarnings("unchecked")
     private static <T> MemoryRegionCache<T>[] createNormalCaches(
-            int cacheSize, int maxCachedBufferCapacity, PoolArena<T> area) {
+            int cacheSize, int maxCachedBufferCapacity, PoolArena<T> area, boolean adaptive) {
         if (cacheSize > 0 && maxCachedBufferCapacity > 0) {
             int max = Math.min(area.sizeClass.chunkSize, maxCachedBufferCapacity);
             // Create as many normal caches as we support based on how many sizeIdx we have and what the upper
@@ -128,7 +177,7 @@ final class PoolThreadCache {
             List<MemoryRegionCache<T>> cache = new ArrayList<MemoryRegionCache<T>>() ;
             for (int idx = area.sizeClass.nSubpages; idx < area.sizeClass.nSizes &&
                     area.sizeClass.sizeIdx2size(idx) <= max; idx++) {
-                cache.add(new NormalMemoryRegionCache<T>(cacheSize));
+                cache.add(new NormalMemoryRegionCache<T>(cacheSize, adaptive));
             }
             return cache.toArray(new MemoryRegionCache[0]);
         } else {
@@ -162,6 +211,14 @@ final class PoolThreadCache {
             return false;
         }
         boolean allocated = cache.allocate(buf, reqCapacity, this);
+        if (allocated) {
+            metric.incrementHits();
+        } else {
+            metric.incrementMisses();
+            if (PlatformDependent.isJfrEnabled()) {
+                cacheMiss(cache, buf, reqCapacity);
+            }
+        }
         if (++ allocations >= freeSweepAllocationThreshold) {
             allocations = 0;
             trim();
@@ -169,6 +226,19 @@ final class PoolThreadCache {
         return allocated;
     }
 
+    // Only called if PlatformDependent.isJfrEnabled(), so the event class is never loaded otherwise.
+    private static void cacheMiss(MemoryRegionCache<?> cache, PooledByteBuf<?> buf, int reqCapacity) {
+        if (ThreadCacheMissEvent.isEventEnabled()) {
+            ThreadCacheMissEvent event = new ThreadCacheMissEvent();
+            if (event.shouldCommit()) {
+                event.requestedCapacity = reqCapacity;
+                event.sizeClass = cache.sizeClass.name();
+                event.direct = buf.isDirect();
+                event.commit();
+            }
+        }
+    }
+
     /**
      * Add {@link PoolChunk} and {@code handle} to the cache if there is enough room.
      * Returns {@code true} if it fit into the cache {@code false} otherwise.
@@ -209,6 +279,10 @@ final class PoolThreadCache {
                 // Help GC: this can race with a finalizer thread, but will be null out regardless
                 freeOnFinalize.cache = null;
             }
+            PooledByteBufAllocator parent = parent();
+            if (parent != null) {
+                parent.threadCacheMetrics.remove(metric);
+            }
             int numFreed = free(smallSubPageDirectCaches, finalizer) +
                            free(normalDirectCaches, finalizer) +
                            free(smallSubPageHeapCaches, finalizer) +
@@ -219,11 +293,11 @@ final class PoolThreadCache {
                              Thread.currentThread().getName());
             }
 
-            if (directArena != null) {
+            if (directArena != null && countedByArenas) {
                 directArena.numThreadCaches.getAndDecrement();
             }
 
-            if (heapArena != null) {
+            if (heapArena != null && countedByArenas) {
                 heapArena.numThreadCaches.getAndDecrement();
             }
         }
@@ -248,6 +322,33 @@ final class PoolThreadCache {
         return cache.free(finalizer);
     }
 
+    /**
+     * Frees all cached buffers if the owning thread did not try to allocate a cacheable buffer since the last call.
+     * Must be called from the owning thread, periodically.
+     *
+     * Returns {@code true} if the cache was idle and so was trimmed, {@code false} otherwise.
+     */
+    boolean trimIfIdle() {
+        long requests = metric.hits + metric.misses;
+        if (requests != lastIdleCheckRequests) {
+            lastIdleCheckRequests = requests;
+            return false;
+        }
+        int numFreed = free(smallSubPageDirectCaches, false) +
+                       free(normalDirectCaches, false) +
+                       free(smallSubPageHeapCaches, false) +
+                       free(normalHeapCaches, false);
+        if (numFreed == 0) {
+            return false;
+        }
+        metric.incrementIdleTrims();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Freed {} thread-local buffer(s) from idle thread: {}", numFreed,
+                         Thread.currentThread().getName());
+        }
+        return true;
+    }
+
     void trim() {
         trim(smallSubPageDirectCaches);
         trim(normalDirectCaches);
@@ -298,8 +399,8 @@ final class PoolThreadCache {
      * Cache used for buffers which are backed by TINY or SMALL size.
      */
     private static final class SubPageMemoryRegionCache<T> extends MemoryRegionCache<T> {
-        SubPageMemoryRegionCache(int size) {
-            super(size, SizeClass.Small);
+        SubPageMemoryRegionCache(int size, boolean adaptive) {
+            super(size, SizeClass.Small, adaptive);
         }
 
         @Override
@@ -314,8 +415,8 @@ final class PoolThreadCache {
      * Cache used for buffers which are backed by NORMAL size.
      */
     private static final class NormalMemoryRegionCache<T> extends MemoryRegionCache<T> {
-        NormalMemoryRegionCache(int size) {
-            super(size, SizeClass.Normal);
+        NormalMemoryRegionCache(int size, boolean adaptive) {
+            super(size, SizeClass.Normal, adaptive);
         }
 
         @Override
@@ -330,12 +431,23 @@ final class PoolThreadCache {
         private final int size;
         private final Queue<Entry<T>> queue;
         private final SizeClass sizeClass;
+        private final boolean adaptive;
+        private final int minLimit;
+        // Number of entries that may be cached, always equal to size if not adaptive. Only written by the owning
+        // thread, a stale value read by another thread in add(...) is harmless.
+        private int limit;
         private int allocations;
+        private int misses;
 
-        MemoryRegionCache(int size, SizeClass sizeClass) {
-            this.size = MathUtil.safeFindNextPositivePowerOfTwo(size);
+        MemoryRegionCache(int size, SizeClass sizeClass, boolean adaptive) {
+            int initialSize = MathUtil.safeFindNextPositivePowerOfTwo(size);
+            // An adaptive cache starts at the configured size and may grow to twice of it.
+            this.size = adaptive ? MathUtil.safeFindNextPositivePowerOfTwo(initialSize + 1) : initialSize;
             queue = PlatformDependent.newFixedMpscQueue(this.size);
             this.sizeClass = sizeClass;
+            this.adaptive = adaptive;
+            limit = initialSize;
+            minLimit = Math.max(1, initialSize >>> 3);
         }
 
         /**
@@ -349,6 +461,9 @@ final class PoolThreadCache {
          */
         @SuppressWarnings("unchecked")
         public final boolean add(PoolChunk<T> chunk, ByteBuffer nioBuffer, long handle, int normCapacity) {
+            if (adaptive && queue.size() >= limit) {
+                return false;
+            }
             Entry<T> entry = newEntry(chunk, nioBuffer, handle, normCapacity);
             boolean queued = queue.offer(entry);
             if (!queued) {
@@ -365,6 +480,7 @@ final class PoolThreadCache {
         public final boolean allocate(PooledByteBuf<T> buf, int reqCapacity, PoolThreadCache threadCache) {
             Entry<T> entry = queue.poll();
             if (entry == null) {
+                ++ misses;
                 return false;
             }
             initBuf(entry.chunk, entry.nioBuffer, entry.handle, buf, reqCapacity, threadCache);
@@ -400,8 +516,10 @@ final class PoolThreadCache {
          * Free up cached {@link PoolChunk}s if not allocated frequently enough.
          */
         public final void trim() {
-            int free = size - allocations;
+            // Nothing is freed if the cache just grew, as it was obviously too small.
+            int free = adaptive && resize() ? 0 : limit - allocations;
             allocations = 0;
+            misses = 0;
 
             // We not even allocated all the number that are
             if (free > 0) {
@@ -409,6 +527,24 @@ final class PoolThreadCache {
             }
         }
 
+        /**
+         * Doubles the limit if more than a quarter of the requests since the last trim, and more than a quarter of
+         * the limit, missed the cache. Halves the limit if less than a quarter of it was used.
+         *
+         * Returns {@code true} if the limit was increased.
+         */
+        private boolean resize() {
+            int requests = allocations + misses;
+            if (misses > requests >>> 2 && misses > limit >>> 2 && limit < size) {
+                limit = Math.min(size, limit << 1);
+                return true;
+            }
+            if (allocations < limit >>> 2) {
+                limit = Math.max(minLimit, limit >>> 1);
+            }
+            return false;
+        }
+
         @SuppressWarnings({ "unchecked", "rawtypes" })
         private  void freeEntry(Entry entry, boolean finalizer) {
             // Capture entry state before we recycle the entry object.
@@ -472,6 +608,72 @@ final class PoolThreadCache {
         });
     }
 
+    private static final class Metric implements PoolThreadCacheMetric {
+        private static final AtomicLongFieldUpdater<Metric> HITS =
+                AtomicLongFieldUpdater.newUpdater(Metric.class, "hits");
+        private static final AtomicLongFieldUpdater<Metric> MISSES =
+                AtomicLongFieldUpdater.newUpdater(Metric.class, "misses");
+        private static final AtomicLongFieldUpdater<Metric> IDLE_TRIMS =
+                AtomicLongFieldUpdater.newUpdater(Metric.class, "idleTrims");
+
+        private final String threadName;
+        // Only written by the owning thread, but read by others.
+        private volatile long hits;
+        private volatile long misses;
+        private volatile long idleTrims;
+
+        Metric(String threadName) {
+            this.threadName = threadName;
+        }
+
+        // There is only a single writer, so lazySet is enough and cheaper than an atomic increment.
+        void incrementHits() {
+            HITS.lazySet(this, hits + 1);
+        }
+
+        void incrementMisses() {
+            MISSES.lazySet(this, misses + 1);
+        }
+
+        void incrementIdleTrims() {
+            IDLE_TRIMS.lazySet(this, idleTrims + 1);
+        }
+
+        @Override
+        public String threadName() {
+            return threadName;
+        }
+
+        @Override
+        public long hits() {
+            return hits;
+        }
+
+        @Override
+        public long misses() {
+            return misses;
+        }
+
+        @Override
+        public double hitRatio() {
+            long hits = this.hits;
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+
+        @Override
+        public long idleTrims() {
+            return idleTrims;
+        }
+
+        @Override
+        public String toString() {
+            return StringUtil.simpleClassName(PoolThreadCacheMetric.class) +
+                    "(threadName: " + threadName + ", hits: " + hits + ", misses: " + misses +
+                    ", idleTrims: " + idleTrims + ')';
+        }
+    }
+
     private static final class FreeOnFinalize {
 
         private volatile PoolThreadCache cache;
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Metrics for the thread local cache of a {@link PooledByteBufAllocator}. The counters are only updated by the
+ * thread that owns the cache, each of them can be read from any thread but they are not updated atomically as a
+ * whole, so {@link #hitRatio()} may combine values from slightly different points in time.
+ */
+@UnstableApi
+public interface PoolThreadCacheMetric {
+
+    /**
+     * Return the name of the thread that owns the cache.
+     */
+    String threadName();
+
+    /**
+     * Return the number of allocations that were served by the cache.
+     */
+    long hits();
+
+    /**
+     * Return the number of cacheable allocations that could not be served by the cache.
+     */
+    long misses();
+
+    /**
+     * Return the ratio of cacheable allocations that were served by the cache, or {@code 0} if nothing was allocated
+     * yet.
+     */
+    double hitRatio();
+
+    /**
+     * Return the number of times the cache was trimmed because the owning thread did not allocate anything for
+     * a whole {@code io.netty.allocator.cacheIdleTrimIntervalMillis}.
+     */
+    long idleTrims();
+}
@@ -18,6 +18,7 @@ package io.netty.buffer;
 
 import io.netty.util.Recycler.EnhancedHandle;
 import io.netty.util.internal.ObjectPool.Handle;
+import io.netty.util.internal.SystemPropertyUtil;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -26,9 +27,19 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ScatteringByteChannel;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 abstract class PooledByteBuf<T> extends AbstractReferenceCountedByteBuf {
 
+    // Thread-confined reference counting must be enabled up front, so retain() and release() don't pay for the
+    // ownership check otherwise.
+    static final boolean THREAD_CONFINED_REF_CNT =
+            SystemPropertyUtil.getBoolean("io.netty.allocator.threadConfinedRefCnt", false);
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<PooledByteBuf, Thread> OWNER_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(PooledByteBuf.class, Thread.class, "owner");
+
     private final EnhancedHandle<PooledByteBuf<T>> recyclerHandle;
 
     protected PoolChunk<T> chunk;
@@ -40,6 +51,8 @@ abstract class PooledByteBuf<T> extends AbstractReferenceCountedByteBuf {
     PoolThreadCache cache;
     ByteBuffer tmpNioBuf;
     private ByteBufAllocator allocator;
+    // The thread that may update the reference count without atomic operations or null if any thread may update it.
+    private volatile Thread owner;
 
     @SuppressWarnings("unchecked")
     protected PooledByteBuf(Handle<? extends PooledByteBuf<T>> recyclerHandle, int maxCapacity) {
@@ -81,11 +94,78 @@ abstract class PooledByteBuf<T> extends AbstractReferenceCountedByteBuf {
      */
     final void reuse(int maxCapacity) {
         maxCapacity(maxCapacity);
+        if (THREAD_CONFINED_REF_CNT) {
+            OWNER_UPDATER.lazySet(this, null);
+        }
         resetRefCnt();
         setIndex0(0, 0);
         discardMarks();
     }
 
+    /**
+     * Confines the reference count of this buffer to the current thread, so {@link #retain()} and {@link #release()}
+     * use plain stores until the buffer is used by another thread. This must be called before the buffer is published
+     * to any other thread.
+     */
+    final void confineToCurrentThread() {
+        if (THREAD_CONFINED_REF_CNT) {
+            // The buffer is not published yet, so an ordered store is enough.
+            OWNER_UPDATER.lazySet(this, Thread.currentThread());
+        }
+    }
+
+    /**
+     * Switches this buffer to atomic reference counting. Must be called by the owning thread before the buffer is
+     * handed over to another thread, the volatile store makes all previous plain updates visible to that thread.
+     */
+    final void share() {
+        // Only the owner may give up the ownership, any other thread would race with its plain stores.
+        if (THREAD_CONFINED_REF_CNT && owner == Thread.currentThread()) {
+            owner = null;
+        }
+    }
+
+    final boolean isThreadConfined() {
+        return THREAD_CONFINED_REF_CNT && owner != null;
+    }
+
+    private boolean isOwnedByCurrentThread() {
+        Thread owner = this.owner;
+        if (owner == null) {
+            return false;
+        }
+        if (owner == Thread.currentThread()) {
+            return true;
+        }
+        // The buffer was handed over without ByteBufUtil.shareRefCnt(...). The hand-off made the plain updates of the
+        // owner visible to this thread, so switch to atomic updates for good. The owner sees this with its next
+        // update.
+        OWNER_UPDATER.compareAndSet(this, owner, null);
+        return false;
+    }
+
+    @Override
+    public final ByteBuf retain() {
+        return THREAD_CONFINED_REF_CNT && isOwnedByCurrentThread() ? retainNonAtomic(1) : super.retain();
+    }
+
+    @Override
+    public final ByteBuf retain(int increment) {
+        return THREAD_CONFINED_REF_CNT && isOwnedByCurrentThread() ?
+                retainNonAtomic(increment) : super.retain(increment);
+    }
+
+    @Override
+    public final boolean release() {
+        return THREAD_CONFINED_REF_CNT && isOwnedByCurrentThread() ? releaseNonAtomic(1) : super.release();
+    }
+
+    @Override
+    public final boolean release(int decrement) {
+        return THREAD_CONFINED_REF_CNT && isOwnedByCurrentThread() ?
+                releaseNonAtomic(decrement) : super.release(decrement);
+    }
+
     @Override
     public final int capacity() {
         return length;
@@ -16,12 +16,15 @@
 
 package io.netty.buffer;
 
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
 import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
 
 import io.netty.util.NettyRuntime;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.FastThreadLocal;
 import io.netty.util.concurrent.FastThreadLocalThread;
+import io.netty.util.internal.LongCounter;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
 import io.netty.util.internal.SystemPropertyUtil;
@@ -29,10 +32,15 @@ import io.netty.util.internal.ThreadExecutorMap;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 public class PooledByteBufAllocator extends AbstractByteBufAllocator implements ByteBufAllocatorMetricProvider {
@@ -48,10 +56,17 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
     static final int DEFAULT_MAX_CACHED_BUFFER_CAPACITY;
     private static final int DEFAULT_CACHE_TRIM_INTERVAL;
     private static final long DEFAULT_CACHE_TRIM_INTERVAL_MILLIS;
+    private static final long DEFAULT_CHUNK_TRIM_INTERVAL_MILLIS;
+    private static final long DEFAULT_CHUNK_TRIM_IDLE_MILLIS;
+    private static final long DEFAULT_CHUNK_TRIM_LOW_WATER_MARK;
+    private static final boolean DEFAULT_ADAPTIVE_CACHE_SIZE;
+    private static final long DEFAULT_CACHE_IDLE_TRIM_INTERVAL_MILLIS;
     private static final boolean DEFAULT_USE_CACHE_FOR_ALL_THREADS;
+    private static final boolean DEFAULT_VIRTUAL_THREAD_SHARED_CACHE;
     private static final int DEFAULT_DIRECT_MEMORY_CACHE_ALIGNMENT;
     static final int DEFAULT_MAX_CACHED_BYTEBUFFERS_PER_CHUNK;
     private static final boolean DEFAULT_DISABLE_CACHE_FINALIZERS_FOR_FAST_THREAD_LOCAL_THREADS;
+    private static final boolean DEFAULT_THREAD_CONFINED_REF_CNT;
 
     private static final int MIN_PAGE_SIZE = 4096;
     private static final int MAX_CHUNK_SIZE = (int) (((long) Integer.MAX_VALUE + 1) / 2);
@@ -65,6 +80,16 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
         }
     };
 
+    private final Runnable idleTrimTask = new Runnable() {
+        @Override
+        public void run() {
+            PoolThreadCache cache = threadCache.getIfExists();
+            if (cache != null) {
+                cache.trimIfIdle();
+            }
+        }
+    };
+
     static {
         int defaultAlignment = SystemPropertyUtil.getInt(
                 "io.netty.allocator.directMemoryCacheAlignment", 0);
@@ -146,12 +171,35 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
                     "io.netty.allocator.cacheTrimIntervalMillis", 0);
         }
 
+        // resize the caches of each size class based on their hit and miss rates, bounded by twice the configured size
+        DEFAULT_ADAPTIVE_CACHE_SIZE = SystemPropertyUtil.getBoolean(
+                "io.netty.allocator.adaptiveCacheSize", false);
+
+        // the interval in which the caches of idle event loop threads are freed, 0 disables it
+        DEFAULT_CACHE_IDLE_TRIM_INTERVAL_MILLIS = SystemPropertyUtil.getLong(
+                "io.netty.allocator.cacheIdleTrimIntervalMillis", 0);
+
+        // the interval in which idle chunks are given back, 0 disables it
+        DEFAULT_CHUNK_TRIM_INTERVAL_MILLIS = SystemPropertyUtil.getLong(
+                "io.netty.allocator.chunkTrimIntervalMillis", 0);
+        DEFAULT_CHUNK_TRIM_IDLE_MILLIS = SystemPropertyUtil.getLong(
+                "io.netty.allocator.chunkTrimIdleMillis", 60000);
+        DEFAULT_CHUNK_TRIM_LOW_WATER_MARK = SystemPropertyUtil.getLong(
+                "io.netty.allocator.chunkTrimLowWaterMark", 0);
+
         DEFAULT_USE_CACHE_FOR_ALL_THREADS = SystemPropertyUtil.getBoolean(
                 "io.netty.allocator.useCacheForAllThreads", false);
 
+        // Virtual threads are too short-lived to benefit from a cache, so they share striped caches without any
+        // cached buffers instead of each creating their own.
+        DEFAULT_VIRTUAL_THREAD_SHARED_CACHE = SystemPropertyUtil.getBoolean(
+                "io.netty.allocator.virtualThreadSharedCache", true);
+
         DEFAULT_DISABLE_CACHE_FINALIZERS_FOR_FAST_THREAD_LOCAL_THREADS = SystemPropertyUtil.getBoolean(
                 "io.netty.allocator.disableCacheFinalizersForFastThreadLocalThreads", false);
 
+        DEFAULT_THREAD_CONFINED_REF_CNT = PooledByteBuf.THREAD_CONFINED_REF_CNT;
+
         // Use 1023 by default as we use an ArrayDeque as backing storage which will then allocate an internal array
         // of 1024 elements. Otherwise we would allocate 2048 and only use 1024 which is wasteful.
         DEFAULT_MAX_CACHED_BYTEBUFFERS_PER_CHUNK = SystemPropertyUtil.getInt(
@@ -176,11 +224,19 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
             logger.debug("-Dio.netty.allocator.maxCachedBufferCapacity: {}", DEFAULT_MAX_CACHED_BUFFER_CAPACITY);
             logger.debug("-Dio.netty.allocator.cacheTrimInterval: {}", DEFAULT_CACHE_TRIM_INTERVAL);
             logger.debug("-Dio.netty.allocator.cacheTrimIntervalMillis: {}", DEFAULT_CACHE_TRIM_INTERVAL_MILLIS);
+            logger.debug("-Dio.netty.allocator.adaptiveCacheSize: {}", DEFAULT_ADAPTIVE_CACHE_SIZE);
+            logger.debug("-Dio.netty.allocator.cacheIdleTrimIntervalMillis: {}",
+                    DEFAULT_CACHE_IDLE_TRIM_INTERVAL_MILLIS);
+            logger.debug("-Dio.netty.allocator.chunkTrimIntervalMillis: {}", DEFAULT_CHUNK_TRIM_INTERVAL_MILLIS);
+            logger.debug("-Dio.netty.allocator.chunkTrimIdleMillis: {}", DEFAULT_CHUNK_TRIM_IDLE_MILLIS);
+            logger.debug("-Dio.netty.allocator.chunkTrimLowWaterMark: {}", DEFAULT_CHUNK_TRIM_LOW_WATER_MARK);
             logger.debug("-Dio.netty.allocator.useCacheForAllThreads: {}", DEFAULT_USE_CACHE_FOR_ALL_THREADS);
+            logger.debug("-Dio.netty.allocator.virtualThreadSharedCache: {}", DEFAULT_VIRTUAL_THREAD_SHARED_CACHE);
             logger.debug("-Dio.netty.allocator.maxCachedByteBuffersPerChunk: {}",
                     DEFAULT_MAX_CACHED_BYTEBUFFERS_PER_CHUNK);
             logger.debug("-Dio.netty.allocator.disableCacheFinalizersForFastThreadLocalThreads: {}",
                          DEFAULT_DISABLE_CACHE_FINALIZERS_FOR_FAST_THREAD_LOCAL_THREADS);
+            logger.debug("-Dio.netty.allocator.threadConfinedRefCnt: {}", DEFAULT_THREAD_CONFINED_REF_CNT);
         }
     }
 
@@ -194,7 +250,20 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
     private final List<PoolArenaMetric> heapArenaMetrics;
     private final List<PoolArenaMetric> directArenaMetrics;
     private final PoolThreadLocalCache threadCache;
+    // Lazily created once the first virtual thread allocates.
+    private volatile PoolThreadCache[] sharedCaches;
     private final int chunkSize;
+    private final NumaNodeLocator numaNodeLocator;
+    final HugePages hugePages;
+    final DirectMemoryAdvisor directMemoryAdvisor;
+    private final boolean threadConfinedRefCnt;
+    final LongCounter trimmedBytes = PlatformDependent.newLongCounter();
+    final LongCounter reclaimedBytes = PlatformDependent.newLongCounter();
+    final DirectMemoryUsageListeners directMemoryUsageListeners = new DirectMemoryUsageListeners();
+    final Set<PoolThreadCacheMetric> threadCacheMetrics =
+            Collections.newSetFromMap(PlatformDependent.<PoolThreadCacheMetric, Boolean>newConcurrentHashMap());
+    private final List<List<PoolArenaMetric>> heapArenaMetricsByNode;
+    private final List<List<PoolArenaMetric>> directArenaMetricsByNode;
     private final PooledByteBufAllocatorMetric metric;
 
     public PooledByteBufAllocator() {
@@ -271,10 +340,95 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
     public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
                                   int smallCacheSize, int normalCacheSize,
                                   boolean useCacheForAllThreads, int directMemoryCacheAlignment) {
+        this(preferDirect, nHeapArena, nDirectArena, pageSize, maxOrder,
+             smallCacheSize, normalCacheSize,
+             useCacheForAllThreads, directMemoryCacheAlignment, null);
+    }
+
+    /**
+     * Creates a new instance which groups its arenas per NUMA node if a {@link NumaNodeLocator} is given.
+     * <p>
+     * The arenas are spread round-robin across the nodes reported by {@link NumaNodeLocator#numNodes()}, so
+     * {@code nHeapArena} and {@code nDirectArena} should be a multiple of it. Each thread local cache is bound to the
+     * least used arena of the node the thread runs on when the cache is created. Direct chunks are faulted in by
+     * the allocating thread, which places them on the same node on Linux.
+     *
+     * @param numaNodeLocator the {@link NumaNodeLocator} to use or {@code null} if NUMA awareness should be disabled.
+     */
+    public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
+                                  int smallCacheSize, int normalCacheSize,
+                                  boolean useCacheForAllThreads, int directMemoryCacheAlignment,
+                                  NumaNodeLocator numaNodeLocator) {
+        this(preferDirect, nHeapArena, nDirectArena, pageSize, maxOrder,
+             smallCacheSize, normalCacheSize,
+             useCacheForAllThreads, directMemoryCacheAlignment, numaNodeLocator, null);
+    }
+
+    /**
+     * Creates a new instance which backs its direct chunks with huge pages if a {@link DirectMemoryAdvisor} is given.
+     * <p>
+     * The chunks are aligned to {@link DirectMemoryAdvisor#hugePageSize()} and advised to be backed by huge pages
+     * before they are touched. This only applies to chunks that are at least as big as a huge page and silently
+     * falls back to normal pages if huge pages are not supported. The number of chunks that are backed by huge
+     * pages can be obtained via {@link PooledByteBufAllocatorMetric#numHugePageChunks()}.
+     * <p>
+     * The {@link DirectMemoryAdvisor} is also used by {@link #trimIdleChunks(long, TimeUnit, long)} to release the
+     * free memory of idle direct chunks to the OS.
+     *
+     * @param numaNodeLocator the {@link NumaNodeLocator} to use or {@code null} if NUMA awareness should be disabled.
+     * @param directMemoryAdvisor the {@link DirectMemoryAdvisor} to use or {@code null} if huge pages should not
+     *                            be used and free memory should not be released.
+     */
+    public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
+                                  int smallCacheSize, int normalCacheSize,
+                                  boolean useCacheForAllThreads, int directMemoryCacheAlignment,
+                                  NumaNodeLocator numaNodeLocator, DirectMemoryAdvisor directMemoryAdvisor) {
+        this(preferDirect, nHeapArena, nDirectArena, pageSize, maxOrder,
+             smallCacheSize, normalCacheSize,
+             useCacheForAllThreads, directMemoryCacheAlignment, numaNodeLocator, directMemoryAdvisor,
+             DEFAULT_THREAD_CONFINED_REF_CNT);
+    }
+
+    /**
+     * Creates a new instance which confines the reference count of the buffers it allocates to the allocating thread
+     * if {@code threadConfinedRefCnt} is {@code true}. This is only supported if enabled via
+     * {@code -Dio.netty.allocator.threadConfinedRefCnt=true}, otherwise {@link ByteBuf#retain()} and
+     * {@link ByteBuf#release()} don't check for the owning thread at all and the parameter is ignored.
+     * <p>
+     * Such buffers use plain stores instead of atomic operations for {@link ByteBuf#retain()} and
+     * {@link ByteBuf#release()} until another thread uses them. The first {@link ByteBuf#retain()} or
+     * {@link ByteBuf#release()} of another thread switches the buffer to atomic operations for good. This is safe
+     * for any hand-off that makes the updates of the allocating thread visible to the other thread, like
+     * {@code EventExecutor.execute(Runnable)}, a promise or a concurrent queue, as long as the allocating thread does
+     * not update the reference count concurrently. A buffer that is updated by several threads at the same time must
+     * be shared via {@link ByteBufUtil#shareRefCnt(Object)} before it is published, which the
+     * {@code ChannelPipeline} does whenever a message is handed over to another {@code EventExecutor}.
+     *
+     * @param threadConfinedRefCnt {@code true} if the reference count should be confined to the allocating thread.
+     */
+    public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
+                                  int smallCacheSize, int normalCacheSize,
+                                  boolean useCacheForAllThreads, int directMemoryCacheAlignment,
+                                  NumaNodeLocator numaNodeLocator, DirectMemoryAdvisor directMemoryAdvisor,
+                                  boolean threadConfinedRefCnt) {
         super(preferDirect);
+        this.threadConfinedRefCnt = threadConfinedRefCnt && PooledByteBuf.THREAD_CONFINED_REF_CNT;
+        this.directMemoryAdvisor = directMemoryAdvisor;
+        hugePages = directMemoryAdvisor == null ? null : new HugePages(directMemoryAdvisor);
         threadCache = new PoolThreadLocalCache(useCacheForAllThreads);
         this.smallCacheSize = smallCacheSize;
         this.normalCacheSize = normalCacheSize;
+        this.numaNodeLocator = numaNodeLocator;
+        final int numNumaNodes;
+        if (numaNodeLocator != null) {
+            numNumaNodes = numaNodeLocator.numNodes();
+            if (numNumaNodes < 1) {
+                throw new IllegalArgumentException("numaNodeLocator.numNodes(): "
+                        + numNumaNodes + " (expected: > 0)");
+            }
+        } else {
+            numNumaNodes = 1;
+        }
 
         if (directMemoryCacheAlignment != 0) {
             if (!PlatformDependent.hasAlignDirectByteBuffer()) {
@@ -308,7 +462,8 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
             List<PoolArenaMetric> metrics = new ArrayList<PoolArenaMetric>(heapArenas.length);
             final SizeClasses sizeClasses = new SizeClasses(pageSize, pageShifts, chunkSize, 0);
             for (int i = 0; i < heapArenas.length; i ++) {
-                PoolArena.HeapArena arena = new PoolArena.HeapArena(this, sizeClasses);
+                PoolArena.HeapArena arena = new PoolArena.HeapArena(this, sizeClasses,
+                        numaNodeLocator == null ? -1 : i % numNumaNodes);
                 heapArenas[i] = arena;
                 metrics.add(arena);
             }
@@ -324,7 +479,8 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
             final SizeClasses sizeClasses = new SizeClasses(pageSize, pageShifts, chunkSize,
                     directMemoryCacheAlignment);
             for (int i = 0; i < directArenas.length; i ++) {
-                PoolArena.DirectArena arena = new PoolArena.DirectArena(this, sizeClasses);
+                PoolArena.DirectArena arena = new PoolArena.DirectArena(this, sizeClasses,
+                        numaNodeLocator == null ? -1 : i % numNumaNodes);
                 directArenas[i] = arena;
                 metrics.add(arena);
             }
@@ -333,7 +489,29 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
             directArenas = null;
             directArenaMetrics = Collections.emptyList();
         }
+        heapArenaMetricsByNode = arenaMetricsByNode(heapArenas, numNumaNodes);
+        directArenaMetricsByNode = arenaMetricsByNode(directArenas, numNumaNodes);
         metric = new PooledByteBufAllocatorMetric(this);
+
+        if (DEFAULT_CHUNK_TRIM_INTERVAL_MILLIS > 0) {
+            ChunkTrimTask.schedule(this, DEFAULT_CHUNK_TRIM_INTERVAL_MILLIS);
+        }
+    }
+
+    private static List<List<PoolArenaMetric>> arenaMetricsByNode(PoolArena<?>[] arenas, int numNumaNodes) {
+        List<List<PoolArenaMetric>> metricsByNode = new ArrayList<List<PoolArenaMetric>>(numNumaNodes);
+        for (int node = 0; node < numNumaNodes; node ++) {
+            List<PoolArenaMetric> metrics = new ArrayList<PoolArenaMetric>();
+            if (arenas != null) {
+                for (PoolArena<?> arena : arenas) {
+                    if (arena.numaNode == node || arena.numaNode == -1) {
+                        metrics.add(arena);
+                    }
+                }
+            }
+            metricsByNode.add(Collections.unmodifiableList(metrics));
+        }
+        return Collections.unmodifiableList(metricsByNode);
     }
 
     @SuppressWarnings("unchecked")
@@ -378,7 +556,7 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
 
     @Override
     protected ByteBuf newHeapBuffer(int initialCapacity, int maxCapacity) {
-        PoolThreadCache cache = threadCache.get();
+        PoolThreadCache cache = threadCache();
         PoolArena<byte[]> heapArena = cache.heapArena;
 
         final ByteBuf buf;
@@ -390,12 +568,15 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
                     new UnpooledHeapByteBuf(this, initialCapacity, maxCapacity);
         }
 
+        if (threadConfinedRefCnt && buf instanceof PooledByteBuf) {
+            ((PooledByteBuf<?>) buf).confineToCurrentThread();
+        }
         return toLeakAwareBuffer(buf);
     }
 
     @Override
     protected ByteBuf newDirectBuffer(int initialCapacity, int maxCapacity) {
-        PoolThreadCache cache = threadCache.get();
+        PoolThreadCache cache = threadCache();
         PoolArena<ByteBuffer> directArena = cache.directArena;
 
         final ByteBuf buf;
@@ -407,6 +588,9 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
                     new UnpooledDirectByteBuf(this, initialCapacity, maxCapacity);
         }
 
+        if (threadConfinedRefCnt && buf instanceof PooledByteBuf) {
+            ((PooledByteBuf<?>) buf).confineToCurrentThread();
+        }
         return toLeakAwareBuffer(buf);
     }
 
@@ -446,6 +630,14 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
         return DEFAULT_DISABLE_CACHE_FINALIZERS_FOR_FAST_THREAD_LOCAL_THREADS;
     }
 
+    /**
+     * Default thread-confined reference counting - System Property: io.netty.allocator.threadConfinedRefCnt -
+     * default false
+     */
+    public static boolean defaultThreadConfinedRefCnt() {
+        return DEFAULT_THREAD_CONFINED_REF_CNT;
+    }
+
     /**
      * Default thread caching behavior - System Property: io.netty.allocator.useCacheForAllThreads - default false
      */
@@ -524,8 +716,9 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
 
         @Override
         protected synchronized PoolThreadCache initialValue() {
-            final PoolArena<byte[]> heapArena = leastUsedArena(heapArenas);
-            final PoolArena<ByteBuffer> directArena = leastUsedArena(directArenas);
+            final int numaNode = numaNodeLocator == null ? -1 : numaNodeLocator.currentNode();
+            final PoolArena<byte[]> heapArena = leastUsedArena(heapArenas, numaNode);
+            final PoolArena<ByteBuffer> directArena = leastUsedArena(directArenas, numaNode);
 
             final Thread current = Thread.currentThread();
             final EventExecutor executor = ThreadExecutorMap.currentExecutor();
@@ -538,7 +731,8 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
                     executor != null) {
                 final PoolThreadCache cache = new PoolThreadCache(
                         heapArena, directArena, smallCacheSize, normalCacheSize,
-                        DEFAULT_MAX_CACHED_BUFFER_CAPACITY, DEFAULT_CACHE_TRIM_INTERVAL, useCacheFinalizers(current));
+                        DEFAULT_MAX_CACHED_BUFFER_CAPACITY, DEFAULT_CACHE_TRIM_INTERVAL, DEFAULT_ADAPTIVE_CACHE_SIZE,
+                        useCacheFinalizers(current));
 
                 if (DEFAULT_CACHE_TRIM_INTERVAL_MILLIS > 0) {
                     if (executor != null) {
@@ -546,10 +740,16 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
                                 DEFAULT_CACHE_TRIM_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
                     }
                 }
+                if (DEFAULT_CACHE_IDLE_TRIM_INTERVAL_MILLIS > 0) {
+                    if (executor != null) {
+                        executor.scheduleAtFixedRate(idleTrimTask, DEFAULT_CACHE_IDLE_TRIM_INTERVAL_MILLIS,
+                                DEFAULT_CACHE_IDLE_TRIM_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                }
                 return cache;
             }
             // No caching so just use 0 as sizes.
-            return new PoolThreadCache(heapArena, directArena, 0, 0, 0, 0, false);
+            return new PoolThreadCache(heapArena, directArena, 0, 0, 0, 0, false, false);
         }
 
         @Override
@@ -557,10 +757,23 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
             threadCache.free(false);
         }
 
-        private <T> PoolArena<T> leastUsedArena(PoolArena<T>[] arenas) {
+        private <T> PoolArena<T> leastUsedArena(PoolArena<T>[] arenas, int numaNode) {
             if (arenas == null || arenas.length == 0) {
                 return null;
             }
+            if (numaNode >= 0) {
+                PoolArena<T> minArena = null;
+                for (PoolArena<T> arena : arenas) {
+                    if (arena.numaNode == numaNode &&
+                            (minArena == null || arena.numThreadCaches.get() < minArena.numThreadCaches.get())) {
+                        minArena = arena;
+                    }
+                }
+                if (minArena != null) {
+                    return minArena;
+                }
+                // There is no arena for the node, just fallback to the least used of all arenas.
+            }
 
             PoolArena<T> minArena = arenas[0];
             //optimized
@@ -592,6 +805,21 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
         return metric;
     }
 
+    /**
+     * Adds a {@link DirectMemoryUsageListener} which is notified whenever a direct chunk is allocated or released.
+     */
+    public void addDirectMemoryUsageListener(DirectMemoryUsageListener listener) {
+        directMemoryUsageListeners.add(listener);
+    }
+
+    /**
+     * Removes a {@link DirectMemoryUsageListener} that was added via
+     * {@link #addDirectMemoryUsageListener(DirectMemoryUsageListener)}.
+     */
+    public void removeDirectMemoryUsageListener(DirectMemoryUsageListener listener) {
+        directMemoryUsageListeners.remove(listener);
+    }
+
     /**
      * Return the number of heap arenas.
      *
@@ -632,6 +860,37 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
         return directArenaMetrics;
     }
 
+    /**
+     * Return the number of NUMA nodes the arenas are grouped by, which is {@code 1} if NUMA awareness is disabled.
+     */
+    final int numNumaNodes() {
+        return heapArenaMetricsByNode.size();
+    }
+
+    final List<PoolArenaMetric> heapArenas(int numaNode) {
+        return heapArenaMetricsByNode.get(numaNode);
+    }
+
+    final List<PoolArenaMetric> directArenas(int numaNode) {
+        return directArenaMetricsByNode.get(numaNode);
+    }
+
+    final long numHugePageChunks() {
+        return hugePages == null ? 0 : hugePages.liveChunks();
+    }
+
+    final long trimmedBytes() {
+        return trimmedBytes.value();
+    }
+
+    final long reclaimedBytes() {
+        return reclaimedBytes.value();
+    }
+
+    final List<PoolThreadCacheMetric> threadCacheMetrics() {
+        return new ArrayList<PoolThreadCacheMetric>(threadCacheMetrics);
+    }
+
     /**
      * Return the number of thread local caches used by this {@link PooledByteBufAllocator}.
      *
@@ -749,11 +1008,44 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
     }
 
     final PoolThreadCache threadCache() {
+        Thread current = Thread.currentThread();
+        if (DEFAULT_VIRTUAL_THREAD_SHARED_CACHE && PlatformDependent.isVirtualThread(current)) {
+            return sharedCache(current);
+        }
         PoolThreadCache cache =  threadCache.get();
         assert cache != null;
         return cache;
     }
 
+    private PoolThreadCache sharedCache(Thread current) {
+        PoolThreadCache[] caches = sharedCaches;
+        if (caches == null) {
+            caches = newSharedCaches();
+        }
+        // The identity hash code spreads the threads evenly over the arenas, and unlike Thread.getId() it is not
+        // deprecated.
+        return caches[(System.identityHashCode(current) & Integer.MAX_VALUE) % caches.length];
+    }
+
+    private synchronized PoolThreadCache[] newSharedCaches() {
+        PoolThreadCache[] caches = sharedCaches;
+        if (caches == null) {
+            int numHeapArenas = heapArenas == null ? 0 : heapArenas.length;
+            int numDirectArenas = directArenas == null ? 0 : directArenas.length;
+            caches = new PoolThreadCache[Math.max(1, Math.max(numHeapArenas, numDirectArenas))];
+            for (int i = 0; i < caches.length; i++) {
+                // Without cached buffers the PoolThreadCache is stateless, so it is safe to share it. It is not
+                // counted by the arenas, so the thread local caches still spread evenly over them.
+                caches[i] = new PoolThreadCache(
+                        numHeapArenas == 0 ? null : heapArenas[i % numHeapArenas],
+                        numDirectArenas == 0 ? null : directArenas[i % numDirectArenas],
+                        0, 0, 0, 0, false, false, false);
+            }
+            sharedCaches = caches;
+        }
+        return caches;
+    }
+
     /**
      * Trim thread local cache for the current {@link Thread}, which will give back any cached memory that was not
      * allocated frequently since the last trim operation.
@@ -769,6 +1061,39 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
         return false;
     }
 
+    /**
+     * Gives back pooled memory that was not used for at least the given idle time, while keeping at least
+     * {@code lowWaterMark} bytes of chunk memory for heap and direct buffers each. Empty chunks are released and if
+     * a {@link DirectMemoryAdvisor} was given, the free memory of partly used direct chunks is released to the OS.
+     * Memory that is held by thread local caches is not affected, see {@link #trimCurrentThreadCache()}.
+     * <p>
+     * A chunk counts as idle from the first trim that finds it unused, so this is meant to be called periodically.
+     * This is done in the background if {@code io.netty.allocator.chunkTrimIntervalMillis} is set.
+     *
+     * Returns the number of bytes that were given back.
+     */
+    public long trimIdleChunks(long idleTime, TimeUnit unit, long lowWaterMark) {
+        checkPositiveOrZero(idleTime, "idleTime");
+        checkNotNull(unit, "unit");
+        checkPositiveOrZero(lowWaterMark, "lowWaterMark");
+        long idleNanos = unit.toNanos(idleTime);
+        return trimIdleChunks(heapArenas, idleNanos, lowWaterMark) +
+                trimIdleChunks(directArenas, idleNanos, lowWaterMark);
+    }
+
+    private static long trimIdleChunks(PoolArena<?>[] arenas, long idleNanos, long lowWaterMark) {
+        if (arenas == null) {
+            return 0;
+        }
+        // Spread the low-water mark evenly across all arenas.
+        long retainBytes = lowWaterMark / arenas.length;
+        long trimmed = 0;
+        for (PoolArena<?> arena : arenas) {
+            trimmed += arena.trim(idleNanos, retainBytes);
+        }
+        return trimmed;
+    }
+
     /**
      * Returns the status of the allocator (which contains all metrics) as string. Be aware this may be expensive
      * and so should not called too frequently.
@@ -781,6 +1106,7 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
                 .append(StringUtil.NEWLINE);
         if (heapArenasLen > 0) {
             for (PoolArena<byte[]> a: heapArenas) {
+                appendNumaNode(buf, a);
                 buf.append(a);
             }
         }
@@ -792,10 +1118,62 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
            .append(StringUtil.NEWLINE);
         if (directArenasLen > 0) {
             for (PoolArena<ByteBuffer> a: directArenas) {
+                appendNumaNode(buf, a);
                 buf.append(a);
             }
         }
 
         return buf.toString();
     }
+
+    /**
+     * Periodically trims the idle chunks of an allocator. It only holds a weak reference to the allocator, so the
+     * allocator can still be collected and the task cancels itself once that happened.
+     */
+    private static final class ChunkTrimTask implements Runnable {
+        // Only created once trimming is used the first time.
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(
+                new DefaultThreadFactory("pooledByteBufAllocatorChunkTrimmer", true, Thread.MIN_PRIORITY));
+
+        private final WeakReference<PooledByteBufAllocator> allocatorRef;
+        private volatile ScheduledFuture<?> future;
+
+        private ChunkTrimTask(PooledByteBufAllocator allocator) {
+            allocatorRef = new WeakReference<PooledByteBufAllocator>(allocator);
+        }
+
+        static void schedule(PooledByteBufAllocator allocator, long intervalMillis) {
+            ChunkTrimTask task = new ChunkTrimTask(allocator);
+            task.future = EXECUTOR.scheduleWithFixedDelay(
+                    task, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run() {
+            PooledByteBufAllocator allocator = allocatorRef.get();
+            if (allocator == null) {
+                ScheduledFuture<?> future = this.future;
+                if (future != null) {
+                    future.cancel(false);
+                }
+                return;
+            }
+            try {
+                allocator.trimIdleChunks(DEFAULT_CHUNK_TRIM_IDLE_MILLIS, TimeUnit.MILLISECONDS,
+                        DEFAULT_CHUNK_TRIM_LOW_WATER_MARK);
+            } catch (Throwable t) {
+                // Never let an exception escape as otherwise the task would not run again.
+                logger.warn("Failed to trim idle chunks", t);
+            }
+        }
+    }
+
+    private static void appendNumaNode(StringBuilder buf, PoolArena<?> arena) {
+        if (arena.numaNode >= 0) {
+            buf.append("NUMA node ")
+               .append(arena.numaNode)
+               .append(':')
+               .append(StringUtil.NEWLINE);
+        }
+    }
 }
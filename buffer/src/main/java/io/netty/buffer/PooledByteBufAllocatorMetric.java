@@ -59,6 +59,51 @@ public final class PooledByteBufAllocatorMetric implements ByteBufAllocatorMetri
         return allocator.directArenas();
     }
 
+    /**
+     * Return the number of NUMA nodes the arenas are grouped by. This is {@code 1} if the
+     * {@link PooledByteBufAllocator} was not created with a {@link NumaNodeLocator}.
+     */
+    public int numNumaNodes() {
+        return allocator.numNumaNodes();
+    }
+
+    /**
+     * Return a {@link List} of the heap {@link PoolArenaMetric}s that belong to the given NUMA node.
+     */
+    public List<PoolArenaMetric> heapArenas(int numaNode) {
+        return allocator.heapArenas(numaNode);
+    }
+
+    /**
+     * Return a {@link List} of the direct {@link PoolArenaMetric}s that belong to the given NUMA node.
+     */
+    public List<PoolArenaMetric> directArenas(int numaNode) {
+        return allocator.directArenas(numaNode);
+    }
+
+    /**
+     * Return the number of live direct chunks that are backed by huge pages.
+     */
+    public long numHugePageChunks() {
+        return allocator.numHugePageChunks();
+    }
+
+    /**
+     * Return the number of bytes of empty chunks that were released by
+     * {@link PooledByteBufAllocator#trimIdleChunks(long, java.util.concurrent.TimeUnit, long)} so far.
+     */
+    public long trimmedBytes() {
+        return allocator.trimmedBytes();
+    }
+
+    /**
+     * Return the number of bytes of free memory in partly used direct chunks that was released to the OS by
+     * {@link PooledByteBufAllocator#trimIdleChunks(long, java.util.concurrent.TimeUnit, long)} so far.
+     */
+    public long reclaimedBytes() {
+        return allocator.reclaimedBytes();
+    }
+
     /**
      * Return the number of thread local caches used by this {@link PooledByteBufAllocator}.
      */
@@ -66,6 +111,14 @@ public final class PooledByteBufAllocatorMetric implements ByteBufAllocatorMetri
         return allocator.numThreadLocalCaches();
     }
 
+    /**
+     * Return a {@link List} of the {@link PoolThreadCacheMetric}s of all thread local caches that are currently used
+     * by this {@link PooledByteBufAllocator}.
+     */
+    public List<PoolThreadCacheMetric> threadCaches() {
+        return allocator.threadCacheMetrics();
+    }
+
     /**
      * Return the size of the tiny cache.
      *
@@ -115,6 +168,10 @@ public final class PooledByteBufAllocatorMetric implements ByteBufAllocatorMetri
                 .append("; usedDirectMemory: ").append(usedDirectMemory())
                 .append("; numHeapArenas: ").append(numHeapArenas())
                 .append("; numDirectArenas: ").append(numDirectArenas())
+                .append("; numNumaNodes: ").append(numNumaNodes())
+                .append("; numHugePageChunks: ").append(numHugePageChunks())
+                .append("; trimmedBytes: ").append(trimmedBytes())
+                .append("; reclaimedBytes: ").append(reclaimedBytes())
                 .append("; smallCacheSize: ").append(smallCacheSize())
                 .append("; normalCacheSize: ").append(normalCacheSize())
                 .append("; numThreadLocalCaches: ").append(numThreadLocalCaches())
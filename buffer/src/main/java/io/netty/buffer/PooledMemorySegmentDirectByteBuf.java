@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.DirectMemorySegment;
+import io.netty.util.internal.ObjectPool;
+import io.netty.util.internal.ObjectPool.Handle;
+import io.netty.util.internal.ObjectPool.ObjectCreator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link PooledDirectByteBuf} that reads and writes single values directly via the {@link DirectMemorySegment} of
+ * its chunk instead of going through the {@link ByteBuffer}. Only used without {@code sun.misc.Unsafe}, as
+ * {@link PooledUnsafeDirectByteBuf} is faster. Buffers of chunks that are not backed by a segment, like unpooled huge
+ * allocations, fall back to the {@link ByteBuffer}.
+ */
+final class PooledMemorySegmentDirectByteBuf extends PooledDirectByteBuf {
+
+    private static final ObjectPool<PooledMemorySegmentDirectByteBuf> RECYCLER = ObjectPool.newPool(
+            new ObjectCreator<PooledMemorySegmentDirectByteBuf>() {
+        @Override
+        public PooledMemorySegmentDirectByteBuf newObject(Handle<PooledMemorySegmentDirectByteBuf> handle) {
+            return new PooledMemorySegmentDirectByteBuf(handle, 0);
+        }
+    });
+
+    static PooledMemorySegmentDirectByteBuf newSegmentInstance(int maxCapacity) {
+        PooledMemorySegmentDirectByteBuf buf = RECYCLER.get();
+        buf.reuse(maxCapacity);
+        return buf;
+    }
+
+    private DirectMemorySegment segment;
+
+    private PooledMemorySegmentDirectByteBuf(Handle<PooledMemorySegmentDirectByteBuf> recyclerHandle,
+                                             int maxCapacity) {
+        super(recyclerHandle, maxCapacity);
+    }
+
+    @Override
+    void init(PoolChunk<ByteBuffer> chunk, ByteBuffer nioBuffer,
+              long handle, int offset, int length, int maxLength, PoolThreadCache cache) {
+        super.init(chunk, nioBuffer, handle, offset, length, maxLength, cache);
+        initSegment(chunk);
+    }
+
+    @Override
+    void initUnpooled(PoolChunk<ByteBuffer> chunk, int length) {
+        super.initUnpooled(chunk, length);
+        initSegment(chunk);
+    }
+
+    private void initSegment(PoolChunk<ByteBuffer> chunk) {
+        // The offsets of the segment only match the ones of the memory if the memory was not sliced for alignment.
+        segment = chunk.base instanceof DirectMemorySegment && ((DirectMemorySegment) chunk.base).buffer() == memory ?
+                (DirectMemorySegment) chunk.base : null;
+    }
+
+    @Override
+    protected byte _getByte(int index) {
+        DirectMemorySegment segment = this.segment;
+        return segment != null ? segment.getByte(idx(index)) : super._getByte(index);
+    }
+
+    @Override
+    protected short _getShort(int index) {
+        DirectMemorySegment segment = this.segment;
+        return segment != null ? segment.getShort(idx(index)) : super._getShort(index);
+    }
+
+    @Override
+    protected int _getInt(int index) {
+        DirectMemorySegment segment = this.segment;
+        return segment != null ? segment.getInt(idx(index)) : super._getInt(index);
+    }
+
+    @Override
+    protected long _getLong(int index) {
+        DirectMemorySegment segment = this.segment;
+        return segment != null ? segment.getLong(idx(index)) : super._getLong(index);
+    }
+
+    @Override
+    protected void _setByte(int index, int value) {
+        DirectMemorySegment segment = this.segment;
+        if (segment != null) {
+            segment.setByte(idx(index), (byte) value);
+        } else {
+            super._setByte(index, value);
+        }
+    }
+
+    @Override
+    protected void _setShort(int index, int value) {
+        DirectMemorySegment segment = this.segment;
+        if (segment != null) {
+            segment.setShort(idx(index), (short) value);
+        } else {
+            super._setShort(index, value);
+        }
+    }
+
+    @Override
+    protected void _setInt(int index, int value) {
+        DirectMemorySegment segment = this.segment;
+        if (segment != null) {
+            segment.setInt(idx(index), value);
+        } else {
+            super._setInt(index, value);
+        }
+    }
+
+    @Override
+    protected void _setLong(int index, long value) {
+        DirectMemorySegment segment = this.segment;
+        if (segment != null) {
+            segment.setLong(idx(index), value);
+        } else {
+            super._setLong(index, value);
+        }
+    }
+}
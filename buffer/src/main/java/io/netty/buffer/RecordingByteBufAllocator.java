@@ -0,0 +1,224 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.ResourceLeakTracker;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link ByteBufAllocator} which delegates to another {@link ByteBufAllocator} and writes an {@link AllocationTrace}
+ * of all the heap and direct buffers it allocates. A record is written once a buffer is released, so buffers that are
+ * still in use when this allocator is {@linkplain #close() closed} are not part of the trace.
+ * <p>
+ * Composite buffers are passed through without being recorded, as they do not hold memory on their own.
+ * <p>
+ * Recording adds overhead to every allocation, so this is meant to capture the allocation pattern of an application
+ * which then can be replayed against different allocators, not to be used in production all the time.
+ */
+@UnstableApi
+public final class RecordingByteBufAllocator implements ByteBufAllocator, Closeable {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(RecordingByteBufAllocator.class);
+
+    private final ByteBufAllocator delegate;
+    private final OutputStream out;
+    private final long startNanos;
+    private boolean closed;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param delegate the {@link ByteBufAllocator} which does the actual allocations.
+     * @param out the {@link OutputStream} to write the trace to. It is closed by {@link #close()}.
+     */
+    public RecordingByteBufAllocator(ByteBufAllocator delegate, OutputStream out) throws IOException {
+        this.delegate = ObjectUtil.checkNotNull(delegate, "delegate");
+        this.out = new BufferedOutputStream(ObjectUtil.checkNotNull(out, "out"));
+        AllocationTrace.writeHeader(this.out);
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public ByteBuf buffer() {
+        return record(delegate.buffer());
+    }
+
+    @Override
+    public ByteBuf buffer(int initialCapacity) {
+        return record(delegate.buffer(initialCapacity));
+    }
+
+    @Override
+    public ByteBuf buffer(int initialCapacity, int maxCapacity) {
+        return record(delegate.buffer(initialCapacity, maxCapacity));
+    }
+
+    @Override
+    public ByteBuf ioBuffer() {
+        return record(delegate.ioBuffer());
+    }
+
+    @Override
+    public ByteBuf ioBuffer(int initialCapacity) {
+        return record(delegate.ioBuffer(initialCapacity));
+    }
+
+    @Override
+    public ByteBuf ioBuffer(int initialCapacity, int maxCapacity) {
+        return record(delegate.ioBuffer(initialCapacity, maxCapacity));
+    }
+
+    @Override
+    public ByteBuf heapBuffer() {
+        return record(delegate.heapBuffer());
+    }
+
+    @Override
+    public ByteBuf heapBuffer(int initialCapacity) {
+        return record(delegate.heapBuffer(initialCapacity));
+    }
+
+    @Override
+    public ByteBuf heapBuffer(int initialCapacity, int maxCapacity) {
+        return record(delegate.heapBuffer(initialCapacity, maxCapacity));
+    }
+
+    @Override
+    public ByteBuf directBuffer() {
+        return record(delegate.directBuffer());
+    }
+
+    @Override
+    public ByteBuf directBuffer(int initialCapacity) {
+        return record(delegate.directBuffer(initialCapacity));
+    }
+
+    @Override
+    public ByteBuf directBuffer(int initialCapacity, int maxCapacity) {
+        return record(delegate.directBuffer(initialCapacity, maxCapacity));
+    }
+
+    @Override
+    public CompositeByteBuf compositeBuffer() {
+        return delegate.compositeBuffer();
+    }
+
+    @Override
+    public CompositeByteBuf compositeBuffer(int maxNumComponents) {
+        return delegate.compositeBuffer(maxNumComponents);
+    }
+
+    @Override
+    public CompositeByteBuf compositeHeapBuffer() {
+        return delegate.compositeHeapBuffer();
+    }
+
+    @Override
+    public CompositeByteBuf compositeHeapBuffer(int maxNumComponents) {
+        return delegate.compositeHeapBuffer(maxNumComponents);
+    }
+
+    @Override
+    public CompositeByteBuf compositeDirectBuffer() {
+        return delegate.compositeDirectBuffer();
+    }
+
+    @Override
+    public CompositeByteBuf compositeDirectBuffer(int maxNumComponents) {
+        return delegate.compositeDirectBuffer(maxNumComponents);
+    }
+
+    @Override
+    public boolean isDirectBufferPooled() {
+        return delegate.isDirectBufferPooled();
+    }
+
+    @Override
+    public int calculateNewCapacity(int minNewCapacity, int maxCapacity) {
+        return delegate.calculateNewCapacity(minNewCapacity, maxCapacity);
+    }
+
+    /**
+     * Flushes the trace and closes the underlying {@link OutputStream}. Buffers released after this are not recorded
+     * anymore.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (out) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            out.close();
+        }
+    }
+
+    private ByteBuf record(ByteBuf buf) {
+        // The tracker is closed by SimpleLeakAwareByteBuf once the buffer and all its derived buffers are released.
+        return new SimpleLeakAwareByteBuf(buf, new Allocation(buf.capacity(), buf.isDirect()));
+    }
+
+    private void write(Allocation allocation, long releaseNanos) {
+        synchronized (out) {
+            if (closed) {
+                return;
+            }
+            try {
+                AllocationTrace.writeRecord(out, allocation.capacity, allocation.direct,
+                        allocation.allocationNanos - startNanos, releaseNanos - allocation.allocationNanos,
+                        allocation.allocationThread, Thread.currentThread().getId());
+            } catch (IOException e) {
+                closed = true;
+                logger.warn("Failed to write allocation trace, stop recording", e);
+            }
+        }
+    }
+
+    private final class Allocation implements ResourceLeakTracker<ByteBuf> {
+        final int capacity;
+        final boolean direct;
+        final long allocationNanos = System.nanoTime();
+        final long allocationThread = Thread.currentThread().getId();
+
+        Allocation(int capacity, boolean direct) {
+            this.capacity = capacity;
+            this.direct = direct;
+        }
+
+        @Override
+        public void record() {
+            // NOOP
+        }
+
+        @Override
+        public void record(Object hint) {
+            // NOOP
+        }
+
+        @Override
+        public boolean close(ByteBuf trackedObject) {
+            write(this, System.nanoTime());
+            return true;
+        }
+    }
+}
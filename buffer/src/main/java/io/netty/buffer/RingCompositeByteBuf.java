@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.UnstableApi;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
+
+/**
+ * A {@link CompositeByteBuf} optimized for queue-like usage where buffers are appended at the end and discarded
+ * from the start once read, for example when cumulating inbound data.
+ * <p>
+ * {@link #discardSomeReadBytes()} only discards the read components once they make up at least half of all
+ * components. As discarding shifts the remaining components, the work done per discarded component is constant
+ * this way, independent of how many components this buffer holds, and the component array never needs to be
+ * bigger than twice the number of unread components.
+ * <p>
+ * Components smaller than the {@code consolidateThreshold} are copied into a buffer owned by this instance when
+ * appended next to another small component, so that a stream of tiny buffers does not end up as a long list of
+ * tiny components.
+ */
+@UnstableApi
+public final class RingCompositeByteBuf extends CompositeByteBuf {
+
+    static final int DEFAULT_CONSOLIDATE_THRESHOLD = 128;
+
+    private final int consolidateThreshold;
+
+    public RingCompositeByteBuf(ByteBufAllocator alloc, boolean direct, int maxNumComponents) {
+        this(alloc, direct, maxNumComponents, DEFAULT_CONSOLIDATE_THRESHOLD);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param alloc                 the {@link ByteBufAllocator} used to allocate consolidated and padding buffers.
+     * @param direct                {@code true} if buffers allocated by this instance should be direct.
+     * @param maxNumComponents      the number of components at which all components are consolidated into one.
+     * @param consolidateThreshold  components smaller than this are merged with a small neighbour when added,
+     *                              {@code 0} disables merging.
+     */
+    public RingCompositeByteBuf(ByteBufAllocator alloc, boolean direct, int maxNumComponents,
+                                int consolidateThreshold) {
+        super(alloc, direct, maxNumComponents);
+        this.consolidateThreshold = checkPositiveOrZero(consolidateThreshold, "consolidateThreshold");
+    }
+
+    @Override
+    public RingCompositeByteBuf addComponent(ByteBuf buffer) {
+        return addComponent(false, buffer);
+    }
+
+    @Override
+    public RingCompositeByteBuf addComponent(boolean increaseWriterIndex, ByteBuf buffer) {
+        return addComponent(increaseWriterIndex, numComponents(), buffer);
+    }
+
+    @Override
+    public RingCompositeByteBuf addComponent(boolean increaseWriterIndex, int cIndex, ByteBuf buffer) {
+        checkNotNull(buffer, "buffer");
+        if (cIndex == numComponents()) {
+            final int len = buffer.readableBytes();
+            if (mergeIntoLastComponent(buffer, consolidateThreshold)) {
+                if (increaseWriterIndex) {
+                    writerIndex += len;
+                }
+                return this;
+            }
+        }
+        super.addComponent(increaseWriterIndex, cIndex, buffer);
+        return this;
+    }
+
+    @Override
+    public RingCompositeByteBuf addComponents(boolean increaseWriterIndex, ByteBuf... buffers) {
+        checkNotNull(buffers, "buffers");
+        int i = 0;
+        try {
+            for (; i < buffers.length; i++) {
+                ByteBuf b = buffers[i];
+                if (b == null) {
+                    break;
+                }
+                addComponent(increaseWriterIndex, b);
+            }
+        } finally {
+            for (i++; i < buffers.length; i++) {
+                ByteBuf b = buffers[i];
+                if (b != null) {
+                    b.release();
+                }
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public RingCompositeByteBuf addFlattenedComponents(boolean increaseWriterIndex, ByteBuf buffer) {
+        checkNotNull(buffer, "buffer");
+        if (buffer instanceof CompositeByteBuf || !buffer.isReadable()) {
+            super.addFlattenedComponents(increaseWriterIndex, buffer);
+        } else {
+            addComponent(increaseWriterIndex, buffer);
+        }
+        return this;
+    }
+
+    /**
+     * Discards the read components once they make up at least half of all components.
+     */
+    @Override
+    public RingCompositeByteBuf discardSomeReadBytes() {
+        ensureAccessible();
+        final int readerIndex = readerIndex();
+        if (readerIndex == capacity() || readerIndex > 0 && toComponentIndex(readerIndex) << 1 >= numComponents()) {
+            discardReadComponents();
+        }
+        return this;
+    }
+}
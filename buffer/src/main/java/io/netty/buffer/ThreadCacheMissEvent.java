@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.SuppressJava6Requirement;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event which is emitted if a {@link PoolThreadCache} had no cached memory for a small or normal allocation,
+ * so it had to be served by the {@link PoolArena}. Disabled by default as misses may be frequent.
+ */
+@SuppressJava6Requirement(reason = "Usage guarded by PlatformDependent.isJfrEnabled()")
+@Name(ThreadCacheMissEvent.NAME)
+@Label("Thread Cache Miss")
+@Category({ "Netty", "Buffer" })
+@Enabled(false)
+@StackTrace(false)
+final class ThreadCacheMissEvent extends Event {
+    static final String NAME = "io.netty.ThreadCacheMiss";
+    private static final ThreadCacheMissEvent INSTANCE = new ThreadCacheMissEvent();
+
+    @DataAmount
+    @Description("Requested capacity of the buffer")
+    public int requestedCapacity;
+
+    @Description("Size class of the allocation, either Small or Normal")
+    public String sizeClass;
+
+    @Description("Is the allocation for a direct buffer?")
+    public boolean direct;
+
+    /**
+     * Returns {@code true} if this event is enabled in any running recording.
+     */
+    static boolean isEventEnabled() {
+        return INSTANCE.isEnabled();
+    }
+}
@@ -91,4 +91,27 @@ public abstract class AbstractMultiSearchProcessorFactory implements MultiSearch
         return new AhoCorasicSearchProcessorFactory(needles);
     }
 
+    /**
+     * Creates a {@link MultiSearchProcessorFactory} based on
+     * <a href="https://en.wikipedia.org/wiki/Aho%E2%80%93Corasick_algorithm">Aho–Corasick</a>
+     * string search algorithm, which uses a compact transition table.
+     * <br>
+     * Precomputation (this method) time is linear in the size of input ({@code O(Σ|needles|)}).
+     * <br>
+     * The factory allocates and retains an array of C * X ints plus another array of X ints, where C is the number
+     * of distinct bytes in the {@code needles} plus one, and X is the same as for
+     * {@link #newAhoCorasicSearchProcessorFactory(byte[]...)}.
+     * <br>
+     * Search time is linear in the size of {@link io.netty.buffer.ByteBuf} on which the search is performed
+     * ({@code O(|haystack|)}), same as for {@link #newAhoCorasicSearchProcessorFactory(byte[]...)}.
+     *
+     * @param needles a varargs array of arrays of bytes to search for
+     * @return a new instance of {@link CompactAhoCorasicSearchProcessorFactory} precomputed for the given
+     * {@code needles}
+     */
+    public static CompactAhoCorasicSearchProcessorFactory newCompactAhoCorasicSearchProcessorFactory(
+            byte[]... needles) {
+        return new CompactAhoCorasicSearchProcessorFactory(needles);
+    }
+
 }
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer.search;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.SWARUtil;
+import io.netty.util.internal.UnstableApi;
+
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+
+/**
+ * Implements <a href="https://en.wikipedia.org/wiki/Aho%E2%80%93Corasick_algorithm">Aho–Corasick</a>
+ * string search algorithm with a compact transition table.
+ * Use static {@link AbstractMultiSearchProcessorFactory#newCompactAhoCorasicSearchProcessorFactory}
+ * to create an instance of this factory.
+ * Use {@link CompactAhoCorasicSearchProcessorFactory#newSearchProcessor} to get an instance of
+ * {@link io.netty.util.ByteProcessor} implementation for performing the actual search.
+ * <br>
+ * Unlike {@link AhoCorasicSearchProcessorFactory}, which stores 256 transitions per state, the bytes are first mapped
+ * to equivalence classes: every byte that occurs in the {@code needles} gets its own class and all other bytes share
+ * a single one. The transition table then only stores one entry per class and state, which makes it a lot smaller for
+ * typical {@code needles} that only use a fraction of all possible bytes.
+ * <br>
+ * {@link Processor#forEachByte(ByteBuf, int, int)} skips over the bytes that can not start a match while no match is
+ * in progress. They are looked up in a 256-bit bitmap of the first bytes of all {@code needles}, or compared eight
+ * at a time if there are at most four distinct first bytes.
+ * @see AbstractMultiSearchProcessorFactory
+ */
+@UnstableApi
+public class CompactAhoCorasicSearchProcessorFactory extends AbstractMultiSearchProcessorFactory {
+
+    // Up to this many distinct first bytes are compared eight at a time, the bitmap is used for more.
+    static final int MAX_SWAR_PREFILTER_BYTES = 4;
+
+    private final int[] byteClasses = new int[256];
+    private final int numClasses;
+    private final int[] jumpTable;
+    private final int[] matchForNeedleId;
+    private final long[] prefilterPatterns;
+    private final long[] firstBytes;
+
+    public static class Processor implements MultiSearchProcessor {
+
+        private final int[] byteClasses;
+        private final int numClasses;
+        private final int[] jumpTable;
+        private final int[] matchForNeedleId;
+        private final long[] prefilterPatterns;
+        private final long[] firstBytes;
+        private int currentPosition;
+
+        Processor(int[] byteClasses, int numClasses, int[] jumpTable, int[] matchForNeedleId,
+                  long[] prefilterPatterns, long[] firstBytes) {
+            this.byteClasses = byteClasses;
+            this.numClasses = numClasses;
+            this.jumpTable = jumpTable;
+            this.matchForNeedleId = matchForNeedleId;
+            this.prefilterPatterns = prefilterPatterns;
+            this.firstBytes = firstBytes;
+        }
+
+        @Override
+        public boolean process(byte value) {
+            currentPosition = PlatformDependent.getInt(
+                    jumpTable, currentPosition + PlatformDependent.getInt(byteClasses, value & 0xffL));
+            if (currentPosition < 0) {
+                currentPosition = -currentPosition;
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Searches the given range of the {@link ByteBuf} in the same way as
+         * {@link ByteBuf#forEachByte(int, int, io.netty.util.ByteProcessor)} does with this processor, but skips over
+         * the bytes that can not start a match while no match is in progress.
+         *
+         * @return the index of the last byte of the found {@code needle}, or {@code -1} if none was found.
+         */
+        public int forEachByte(ByteBuf buffer, int index, int length) {
+            final int end = index + length;
+            if (firstBytes == null) {
+                return buffer.forEachByte(index, length, this);
+            }
+            final boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+            while (index < end) {
+                if (currentPosition == 0) {
+                    index = prefilterPatterns != null ? skipToCandidate(buffer, index, end, bigEndian)
+                            : skipToFirstByte(buffer, index, end, bigEndian);
+                    if (index == end) {
+                        break;
+                    }
+                }
+                if (!process(buffer.getByte(index))) {
+                    return index;
+                }
+                index++;
+            }
+            return -1;
+        }
+
+        private int skipToCandidate(ByteBuf buffer, int index, int end, boolean bigEndian) {
+            final long[] patterns = prefilterPatterns;
+            while (end - index >= Long.BYTES) {
+                final long word = buffer.getLong(index);
+                long result = 0;
+                for (long pattern : patterns) {
+                    result |= SWARUtil.applyPattern(word, pattern);
+                }
+                if (result != 0) {
+                    return index + SWARUtil.getIndex(result, bigEndian);
+                }
+                index += Long.BYTES;
+            }
+            // The remaining bytes are processed one by one.
+            return index;
+        }
+
+        private int skipToFirstByte(ByteBuf buffer, int index, int end, boolean bigEndian) {
+            while (end - index >= Long.BYTES) {
+                // A single bounds check for eight bytes, which are then looked up one by one.
+                final long word = buffer.getLong(index);
+                for (int i = 0; i < Long.BYTES; i++) {
+                    final int shift = bigEndian ? Long.SIZE - Byte.SIZE - (i << 3) : i << 3;
+                    if (isFirstByte((int) (word >>> shift) & 0xff)) {
+                        return index + i;
+                    }
+                }
+                index += Long.BYTES;
+            }
+            while (index < end && !isFirstByte(buffer.getByte(index) & 0xff)) {
+                index++;
+            }
+            return index;
+        }
+
+        private boolean isFirstByte(int value) {
+            return (firstBytes[value >>> 6] & 1L << value) != 0;
+        }
+
+        @Override
+        public int getFoundNeedleId() {
+            return matchForNeedleId[currentPosition / numClasses];
+        }
+
+        @Override
+        public void reset() {
+            currentPosition = 0;
+        }
+    }
+
+    CompactAhoCorasicSearchProcessorFactory(byte[]... needles) {
+        long[] firstBytes = new long[256 / Long.SIZE];
+        for (byte[] needle : needles) {
+            if (needle.length == 0) {
+                throw new IllegalArgumentException("Needle must be non empty");
+            }
+            final int first = needle[0] & 0xff;
+            firstBytes[first >>> 6] |= 1L << first;
+            for (byte b : needle) {
+                byteClasses[b & 0xff] = -1;
+            }
+        }
+
+        // Class 0 is shared by all the bytes that do not occur in any needle.
+        int classes = 1;
+        for (int i = 0; i < byteClasses.length; i++) {
+            byteClasses[i] = byteClasses[i] == -1 ? classes++ : 0;
+        }
+        numClasses = classes;
+
+        int numStates = 1;
+        for (byte[] needle : needles) {
+            numStates += needle.length;
+        }
+        int[] table = new int[numClasses * Math.min(numStates, 16)];
+        Arrays.fill(table, -1);
+        int[] matches = new int[numStates];
+        Arrays.fill(matches, -1);
+
+        // Build the trie, states are identified by the offset of their row in the table.
+        int size = numClasses;
+        for (int needleId = 0; needleId < needles.length; needleId++) {
+            int currentPosition = 0;
+            for (byte b : needles[needleId]) {
+                final int next = currentPosition + byteClasses[b & 0xff];
+                if (table[next] == -1) {
+                    if (size == table.length) {
+                        int oldLength = table.length;
+                        table = Arrays.copyOf(table, Math.min(oldLength << 1, numClasses * numStates));
+                        Arrays.fill(table, oldLength, table.length, -1);
+                    }
+                    table[next] = size;
+                    size += numClasses;
+                }
+                currentPosition = table[next];
+            }
+            matches[currentPosition / numClasses] = needleId;
+        }
+        jumpTable = table.length == size ? table : Arrays.copyOf(table, size);
+        matchForNeedleId = Arrays.copyOf(matches, size / numClasses);
+
+        linkSuffixes();
+
+        for (int i = 0; i < jumpTable.length; i++) {
+            if (matchForNeedleId[jumpTable[i] / numClasses] >= 0) {
+                jumpTable[i] = -jumpTable[i];
+            }
+        }
+
+        int numFirstBytes = 0;
+        for (long bits : firstBytes) {
+            numFirstBytes += Long.bitCount(bits);
+        }
+        // Nothing can be skipped if every byte can start a match.
+        this.firstBytes = numFirstBytes == 256 ? null : firstBytes;
+        prefilterPatterns = numFirstBytes <= MAX_SWAR_PREFILTER_BYTES ?
+                compilePrefilterPatterns(firstBytes, numFirstBytes) : null;
+    }
+
+    private void linkSuffixes() {
+        Queue<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(0);
+
+        int[] suffixLinks = new int[matchForNeedleId.length];
+
+        while (!queue.isEmpty()) {
+            final int v = queue.remove();
+            final int vState = v / numClasses;
+            final int u = suffixLinks[vState];
+
+            if (matchForNeedleId[vState] == -1) {
+                matchForNeedleId[vState] = matchForNeedleId[u / numClasses];
+            }
+
+            for (int c = 0; c < numClasses; c++) {
+                final int jumpV = jumpTable[v + c];
+                if (jumpV != -1) {
+                    // Children of the root fall back to the root, everything else to the transition of the suffix.
+                    suffixLinks[jumpV / numClasses] = v == 0 ? 0 : jumpTable[u + c];
+                    queue.add(jumpV);
+                } else {
+                    jumpTable[v + c] = v == 0 ? 0 : jumpTable[u + c];
+                }
+            }
+        }
+    }
+
+    private static long[] compilePrefilterPatterns(long[] firstBytes, int count) {
+        long[] patterns = new long[count];
+        int idx = 0;
+        for (int i = 0; i < 256; i++) {
+            if ((firstBytes[i >>> 6] & 1L << i) != 0) {
+                patterns[idx++] = SWARUtil.compilePattern((byte) i);
+            }
+        }
+        return patterns;
+    }
+
+    /**
+     * Returns the number of entries in the transition table, which makes up the majority of the memory retained by
+     * this factory.
+     */
+    int jumpTableSize() {
+        return jumpTable.length;
+    }
+
+    /**
+     * Returns a new {@link Processor}.
+     */
+    @Override
+    public Processor newSearchProcessor() {
+        return new Processor(byteClasses, numClasses, jumpTable, matchForNeedleId, prefilterPatterns, firstBytes);
+    }
+
+}
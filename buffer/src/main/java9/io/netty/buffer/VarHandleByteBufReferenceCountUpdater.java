@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.AbstractReferenceCountUpdater;
+import io.netty.util.internal.SuppressJava6Requirement;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * {@link AbstractReferenceCountUpdater} for {@link AbstractReferenceCountedByteBuf} which accesses the reference
+ * count field via a {@link VarHandle}. Used when {@code sun.misc.Unsafe} is not available, so the plain accesses of
+ * the non-atomic operations do not need to fall back to volatile ones.
+ * <p>
+ * This class is only compiled when building with Java 9 or later and is loaded reflectively via
+ * {@link AbstractReferenceCountUpdater#newVarHandleUpdater(Class, String)}.
+ */
+@SuppressJava6Requirement(reason = "Only loaded on Java 9+")
+final class VarHandleByteBufReferenceCountUpdater
+        extends AbstractReferenceCountUpdater<AbstractReferenceCountedByteBuf> {
+
+    private static final VarHandle REFCNT;
+
+    static {
+        try {
+            REFCNT = MethodHandles.privateLookupIn(AbstractReferenceCountedByteBuf.class, MethodHandles.lookup())
+                    .findVarHandle(AbstractReferenceCountedByteBuf.class, "refCnt", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    protected boolean hasPlainAccess() {
+        return true;
+    }
+
+    @Override
+    protected int getPlain(AbstractReferenceCountedByteBuf instance) {
+        return (int) REFCNT.get(instance);
+    }
+
+    @Override
+    protected void setPlain(AbstractReferenceCountedByteBuf instance, int value) {
+        REFCNT.set(instance, value);
+    }
+
+    @Override
+    protected int get(AbstractReferenceCountedByteBuf instance) {
+        return (int) REFCNT.getVolatile(instance);
+    }
+
+    @Override
+    protected void set(AbstractReferenceCountedByteBuf instance, int value) {
+        REFCNT.setVolatile(instance, value);
+    }
+
+    @Override
+    protected void lazySet(AbstractReferenceCountedByteBuf instance, int value) {
+        REFCNT.setRelease(instance, value);
+    }
+
+    @Override
+    protected int getAndAdd(AbstractReferenceCountedByteBuf instance, int delta) {
+        return (int) REFCNT.getAndAdd(instance, delta);
+    }
+
+    @Override
+    protected boolean compareAndSet(AbstractReferenceCountedByteBuf instance, int expect, int update) {
+        return REFCNT.compareAndSet(instance, expect, update);
+    }
+
+    @Override
+    public void setInitialValue(AbstractReferenceCountedByteBuf instance) {
+        REFCNT.set(instance, initialValue());
+        VarHandle.releaseFence();
+    }
+}
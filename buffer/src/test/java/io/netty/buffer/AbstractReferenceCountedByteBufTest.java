@@ -16,12 +16,15 @@
 package io.netty.buffer;
 
 import io.netty.util.IllegalReferenceCountException;
+import io.netty.util.internal.AbstractReferenceCountUpdater;
+import io.netty.util.internal.PlatformDependent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.Constructor;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
@@ -29,9 +32,11 @@ import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ScatteringByteChannel;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class AbstractReferenceCountedByteBufTest {
 
@@ -111,6 +116,47 @@ public class AbstractReferenceCountedByteBufTest {
         });
     }
 
+    @Test
+    public void testVarHandleUpdater() throws Exception {
+        assumeTrue(PlatformDependent.hasVarHandle());
+        // Only used by default when Unsafe is not available, so exercise it directly.
+        Constructor<?> constructor = Class.forName("io.netty.buffer.VarHandleByteBufReferenceCountUpdater")
+                .getDeclaredConstructor();
+        constructor.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        final AbstractReferenceCountUpdater<AbstractReferenceCountedByteBuf> updater =
+                (AbstractReferenceCountUpdater<AbstractReferenceCountedByteBuf>) constructor.newInstance();
+        final AbstractReferenceCountedByteBuf referenceCounted = newReferenceCounted();
+
+        updater.setInitialValue(referenceCounted);
+        assertEquals(1, updater.refCnt(referenceCounted));
+        assertTrue(updater.isLiveNonVolatile(referenceCounted));
+        updater.retain(referenceCounted, 2);
+        // Updates the same field as the default updater.
+        assertEquals(3, referenceCounted.refCnt());
+        updater.retainNonAtomic(referenceCounted, 1);
+        assertEquals(4, updater.refCnt(referenceCounted));
+        assertFalse(updater.releaseNonAtomic(referenceCounted, 2));
+        assertFalse(updater.release(referenceCounted));
+        assertEquals(1, updater.refCnt(referenceCounted));
+        assertTrue(updater.release(referenceCounted));
+        assertEquals(0, referenceCounted.refCnt());
+        assertFalse(updater.isLiveNonVolatile(referenceCounted));
+        assertThrows(IllegalReferenceCountException.class, new Executable() {
+            @Override
+            public void execute() {
+                updater.retain(referenceCounted);
+            }
+        });
+
+        updater.resetRefCnt(referenceCounted);
+        assertEquals(1, updater.refCnt(referenceCounted));
+        updater.setRefCnt(referenceCounted, 5);
+        assertEquals(5, updater.refCnt(referenceCounted));
+        assertTrue(updater.releaseNonAtomic(referenceCounted, 5));
+        assertEquals(0, updater.refCnt(referenceCounted));
+    }
+
     private static AbstractReferenceCountedByteBuf newReferenceCounted() {
         return new AbstractReferenceCountedByteBuf(Integer.MAX_VALUE) {
 
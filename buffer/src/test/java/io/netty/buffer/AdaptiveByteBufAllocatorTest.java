@@ -15,14 +15,20 @@
  */
 package io.netty.buffer;
 
+import io.netty.util.internal.PlatformDependent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class AdaptiveByteBufAllocatorTest extends AbstractByteBufAllocatorTest<AdaptiveByteBufAllocator> {
     @Override
@@ -83,6 +89,104 @@ public class AdaptiveByteBufAllocatorTest extends AbstractByteBufAllocatorTest<A
         assertEquals(2 * 128 * 1024, allocator.usedHeapMemory());
     }
 
+    @Test
+    void poolMetrics() {
+        AdaptiveByteBufAllocator allocator = newAllocator(false);
+        AdaptivePoolMetric metric = allocator.heapPoolMetric();
+        assertEquals(4, metric.numMagazines());
+        assertEquals(0, metric.numThreadLocalMagazines());
+        assertEquals(4, metric.magazines().size());
+
+        ByteBuf a = allocator.heapBuffer(8192);
+        ByteBuf b = allocator.heapBuffer(120 * 1024);
+        assertEquals(2, metric.numAllocations());
+        assertEquals(1, metric.numChunkAllocations());
+        assertEquals(0, metric.numUnpooledAllocations());
+        int[] histogram = metric.sizeHistogram();
+        assertEquals(8, histogram.length);
+        assertEquals(1, histogram[0]);
+        assertEquals(1, histogram[4]);
+
+        // The chunk was used up, so it will be reused once both buffers are released.
+        a.release();
+        assertEquals(0, metric.numChunkReuses());
+        b.release();
+        assertEquals(1, metric.numChunkReuses());
+        assertEquals(0, metric.numChunkReleases());
+
+        // Too big to be pooled.
+        allocator.heapBuffer(16 * 1024 * 1024).release();
+        assertEquals(1, metric.numUnpooledAllocations());
+        assertEquals(2, metric.numAllocations());
+
+        assertEquals(allocator.usedHeapMemory(), metric.usedMemory());
+        assertEquals(0, metric.numStripeExpansions());
+        assertTrue(metric.centralQueueCapacity() > 0);
+        assertEquals(0, allocator.directPoolMetric().numAllocations());
+    }
+
+    @Test
+    void directMemoryUsageListener() {
+        AdaptiveByteBufAllocator allocator = newAllocator(true);
+        final AtomicInteger changes = new AtomicInteger();
+        DirectMemoryUsageListener listener = new DirectMemoryUsageListener() {
+            @Override
+            public void directMemoryUsageChanged() {
+                changes.incrementAndGet();
+            }
+        };
+        allocator.addDirectMemoryUsageListener(listener);
+
+        // Heap chunks are not reported.
+        allocator.heapBuffer(8192).release();
+        assertEquals(0, changes.get());
+
+        // The first allocation needs a new chunk, which is kept by the magazine after the release.
+        allocator.directBuffer(8192).release();
+        assertEquals(1, changes.get());
+
+        allocator.removeDirectMemoryUsageListener(listener);
+        // Needs another chunk, but nobody is listening anymore.
+        allocator.directBuffer(256 * 1024).release();
+        assertEquals(1, changes.get());
+    }
+
+    @Test
+    void hugePageBackedDirectChunks() {
+        assumeTrue(PlatformDependent.hasUnsafe());
+        final int hugePageSize = 128 * 1024;
+        final List<Long> advised = new ArrayList<Long>();
+        AdaptiveByteBufAllocator allocator = new AdaptiveByteBufAllocator(true, false, new DirectMemoryAdvisor() {
+            @Override
+            public int hugePageSize() {
+                return hugePageSize;
+            }
+
+            @Override
+            public boolean adviseHugePages(long address, long length) {
+                advised.add(address);
+                return true;
+            }
+
+            @Override
+            public long adviseDontNeed(long address, long length) {
+                return 0;
+            }
+        });
+        ByteBuf buffer = allocator.directBuffer(8192);
+        assertEquals(1, allocator.numHugePageChunks());
+        assertEquals(1, advised.size());
+        assertEquals(0, advised.get(0) % hugePageSize);
+
+        buffer.writeLong(42);
+        assertEquals(42, buffer.readLong());
+        assertTrue(buffer.release());
+
+        // Heap buffers are never backed by huge pages.
+        allocator.heapBuffer(8192).release();
+        assertEquals(1, advised.size());
+    }
+
     @ParameterizedTest
     @ValueSource(booleans = { true, false })
     void sliceOrDuplicateUnwrapLetNotEscapeRootParent(boolean slice) {
@@ -18,9 +18,12 @@ package io.netty.buffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AdaptivePoolingAllocatorTest implements Supplier<String> {
     private int i;
@@ -62,4 +65,32 @@ class AdaptivePoolingAllocatorTest implements Supplier<String> {
             assertEquals(expectedSizeBucket, AdaptivePoolingAllocator.sizeBucket(i), this);
         }
     }
+
+    @Test
+    void droppedChunksAreSubtractedFromUsedMemory() {
+        AdaptiveByteBufAllocator allocator = new AdaptiveByteBufAllocator(false);
+        AdaptivePoolMetric metric = allocator.heapPoolMetric();
+        // Allocate more chunks than can be pooled, so some of them are dropped once all buffers are released.
+        int buffers = 10 * (metric.centralQueueCapacity() + 2 * metric.numMagazines() + 8);
+        long usedMemory = -1;
+        for (int round = 0; round < 10; round++) {
+            allocateAndRelease(allocator, buffers);
+            if (round == 1) {
+                usedMemory = allocator.usedHeapMemory();
+            }
+        }
+        assertTrue(metric.numChunkReleases() > 0);
+        // Only the pooled chunks may be counted, so the used memory must not grow from one round to the next.
+        assertEquals(usedMemory, allocator.usedHeapMemory());
+    }
+
+    private static void allocateAndRelease(ByteBufAllocator allocator, int count) {
+        List<ByteBuf> buffers = new ArrayList<ByteBuf>(count);
+        for (int i = 0; i < count; i++) {
+            buffers.add(allocator.heapBuffer(120 * 1024));
+        }
+        for (ByteBuf buffer : buffers) {
+            buffer.release();
+        }
+    }
 }
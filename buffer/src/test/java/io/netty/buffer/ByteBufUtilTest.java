@@ -168,6 +168,69 @@ public class ByteBufUtilTest {
         assertTrue(ByteBufUtil.equals(Unpooled.wrappedBuffer(b1), iB1, Unpooled.wrappedBuffer(b2), iB2, length));
     }
 
+    @ParameterizedTest(name = PARAMETERIZED_NAME)
+    @MethodSource("noUnsafe")
+    public void vectorizedEquals(BufferType bufferType) {
+        byte[] bytes = new byte[1024];
+        new Random().nextBytes(bytes);
+        ByteBuf a = buffer(bufferType, bytes.length).writeBytes(bytes);
+        ByteBuf b = buffer(bufferType, bytes.length + 3).writeZero(3).writeBytes(bytes);
+        try {
+            int length = bytes.length - 5;
+            assertTrue(ByteBufUtil.vectorizedEquals(a, 5, b, 8, length));
+            assertFalse(ByteBufUtil.vectorizedEquals(a, 5, b, 9, length - 1));
+            b.setByte(8 + length - 1, bytes[bytes.length - 1] + 1);
+            assertFalse(ByteBufUtil.vectorizedEquals(a, 5, b, 8, length));
+            assertTrue(ByteBufUtil.vectorizedEquals(a, 5, b, 8, length - 1));
+        } finally {
+            a.release();
+            b.release();
+        }
+    }
+
+    @ParameterizedTest(name = PARAMETERIZED_NAME)
+    @MethodSource("noUnsafe")
+    public void vectorizedEqualsSameBuffer(BufferType bufferType) {
+        byte[] bytes = new byte[512];
+        new Random().nextBytes(bytes);
+        ByteBuf buf = buffer(bufferType, bytes.length * 2).writeBytes(bytes).writeBytes(bytes);
+        try {
+            // Both ranges, and both slices, end up with the same internal NIO buffer.
+            assertTrue(ByteBufUtil.vectorizedEquals(buf, 0, buf, bytes.length, bytes.length));
+            assertFalse(ByteBufUtil.vectorizedEquals(buf, 0, buf, 1, bytes.length));
+            ByteBuf first = buf.slice(0, bytes.length);
+            ByteBuf second = buf.slice(bytes.length, bytes.length);
+            assertTrue(ByteBufUtil.vectorizedEquals(first, 0, second, 0, bytes.length));
+            assertEquals(bytes.length - bytes.length % ByteBufUtil.VECTORIZED_COMPARE_BLOCK_SIZE,
+                    ByteBufUtil.vectorizedEqualPrefixLength(first, 0, second, 0, bytes.length));
+            second.setByte(bytes.length - 1, bytes[bytes.length - 1] + 1);
+            assertFalse(ByteBufUtil.vectorizedEquals(first, 0, second, 0, bytes.length));
+        } finally {
+            buf.release();
+        }
+    }
+
+    @ParameterizedTest(name = PARAMETERIZED_NAME)
+    @MethodSource("noUnsafe")
+    public void vectorizedEqualPrefixLength(BufferType bufferType) {
+        int blockSize = ByteBufUtil.VECTORIZED_COMPARE_BLOCK_SIZE;
+        byte[] bytes = new byte[blockSize * 4 + 7];
+        new Random().nextBytes(bytes);
+        ByteBuf a = buffer(bufferType, bytes.length).writeBytes(bytes);
+        ByteBuf b = buffer(bufferType, bytes.length + 1).writeByte(0).writeBytes(bytes);
+        try {
+            assertEquals(blockSize * 4, ByteBufUtil.vectorizedEqualPrefixLength(a, 0, b, 1, bytes.length));
+            assertEquals(blockSize * 3, ByteBufUtil.vectorizedEqualPrefixLength(a, 8, b, 9, bytes.length - 8));
+            assertEquals(0, ByteBufUtil.vectorizedEqualPrefixLength(a, 0, b, 1, blockSize - 1));
+
+            b.setByte(1 + blockSize * 2 + 3, bytes[blockSize * 2 + 3] + 1);
+            assertEquals(blockSize * 2, ByteBufUtil.vectorizedEqualPrefixLength(a, 0, b, 1, bytes.length));
+        } finally {
+            a.release();
+            b.release();
+        }
+    }
+
     private static int random(Random r, int min, int max) {
         return r.nextInt((max - min) + 1) + min;
     }
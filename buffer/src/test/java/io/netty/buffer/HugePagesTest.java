@@ -0,0 +1,110 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.PlatformDependent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class HugePagesTest {
+    private static final int HUGE_PAGE_SIZE = 64 * 1024;
+
+    private final List<Long> advised = new ArrayList<Long>();
+    private final List<Long> released = new ArrayList<Long>();
+    private HugePages hugePages;
+
+    @BeforeEach
+    public void setUp() {
+        assumeTrue(PlatformDependent.hasUnsafe());
+        hugePages = new HugePages(new DirectMemoryAdvisor() {
+            @Override
+            public int hugePageSize() {
+                return HUGE_PAGE_SIZE;
+            }
+
+            @Override
+            public boolean adviseHugePages(long address, long length) {
+                advised.add(address);
+                return true;
+            }
+
+            @Override
+            public long adviseDontNeed(long address, long length) {
+                released.add(address);
+                return length;
+            }
+        });
+    }
+
+    @Test
+    public void testRoundUp() {
+        assertEquals(HUGE_PAGE_SIZE, hugePages.roundUp(1));
+        assertEquals(HUGE_PAGE_SIZE, hugePages.roundUp(HUGE_PAGE_SIZE));
+        assertEquals(2 * HUGE_PAGE_SIZE, hugePages.roundUp(HUGE_PAGE_SIZE + 1));
+        assertFalse(hugePages.isSupported(HUGE_PAGE_SIZE - 1));
+        assertTrue(hugePages.isSupported(HUGE_PAGE_SIZE));
+        assertFalse(hugePages.isSupported(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testChunksAreAligned() {
+        int chunkSize = 2 * HUGE_PAGE_SIZE;
+        HugePages.Chunk first = hugePages.allocate(chunkSize);
+        HugePages.Chunk second = hugePages.allocate(chunkSize);
+        assertEquals(2, hugePages.liveChunks());
+        assertEquals(chunkSize, first.memory.capacity());
+        assertEquals(chunkSize, second.memory.capacity());
+
+        long firstAddress = PlatformDependent.directBufferAddress(first.memory);
+        long secondAddress = PlatformDependent.directBufferAddress(second.memory);
+        assertEquals(0, firstAddress % HUGE_PAGE_SIZE);
+        assertEquals(0, secondAddress % HUGE_PAGE_SIZE);
+        assertEquals(2, advised.size());
+        assertTrue(advised.contains(firstAddress));
+        assertTrue(advised.contains(secondAddress));
+
+        // The whole chunk can be used.
+        first.memory.putLong(0, 42);
+        first.memory.putLong(chunkSize - 8, 42);
+        assertEquals(42, first.memory.getLong(chunkSize - 8));
+
+        hugePages.free(first);
+        assertEquals(1, hugePages.liveChunks());
+        hugePages.free(second);
+        assertEquals(0, hugePages.liveChunks());
+        assertTrue(released.isEmpty());
+    }
+
+    @Test
+    public void testOnlyChunkIsCounted() {
+        assumeTrue(PlatformDependent.useDirectBufferNoCleaner());
+        int chunkSize = 2 * HUGE_PAGE_SIZE;
+        long usedDirectMemory = PlatformDependent.usedDirectMemory();
+        HugePages.Chunk chunk = hugePages.allocate(chunkSize);
+        // The padding that is needed for aligning the chunk is not counted.
+        assertEquals(usedDirectMemory + chunkSize, PlatformDependent.usedDirectMemory());
+        hugePages.free(chunk);
+        assertEquals(usedDirectMemory, PlatformDependent.usedDirectMemory());
+    }
+}
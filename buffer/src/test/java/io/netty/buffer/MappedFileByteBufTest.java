@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.IllegalReferenceCountException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ReadOnlyBufferException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedFileByteBufTest {
+
+    private static File newFile(File dir, int length) throws IOException {
+        File file = new File(dir, "mapped");
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    @Test
+    public void testMapWholeFile(@TempDir File dir) throws IOException {
+        File file = newFile(dir, 1024);
+        MappedFileByteBuf buf = MappedFileByteBuf.map(file);
+        try {
+            assertSame(file, buf.file());
+            assertEquals(0, buf.filePosition());
+            assertEquals(1024, buf.readableBytes());
+            assertTrue(buf.isDirect());
+            assertTrue(buf.isReadOnly());
+            assertFalse(buf.isWritable());
+            for (int i = 0; i < 1024; i++) {
+                assertEquals((byte) i, buf.getByte(i));
+            }
+            assertEquals(0x00010203, buf.getInt(0));
+        } finally {
+            assertTrue(buf.release());
+        }
+    }
+
+    @Test
+    public void testMapRegion(@TempDir File dir) throws IOException {
+        File file = newFile(dir, 1024);
+        MappedFileByteBuf buf = MappedFileByteBuf.map(file, 100, 200);
+        try {
+            assertEquals(100, buf.filePosition());
+            assertEquals(200, buf.readableBytes());
+            assertEquals(100, buf.getByte(0));
+            assertEquals(ByteBufUtil.indexOf(Unpooled.wrappedBuffer(new byte[] { (byte) 150, (byte) 151 }), buf), 50);
+        } finally {
+            assertTrue(buf.release());
+        }
+    }
+
+    @Test
+    public void testSlicesKeepMapping(@TempDir File dir) throws IOException {
+        File file = newFile(dir, 1024);
+        MappedFileByteBuf buf = MappedFileByteBuf.map(file);
+        final ByteBuf slice = buf.retainedSlice(10, 10);
+        assertFalse(buf.release());
+        assertEquals(10, slice.getByte(0));
+        assertTrue(slice.isReadOnly());
+        assertThrows(ReadOnlyBufferException.class, new Executable() {
+            @Override
+            public void execute() {
+                slice.setByte(0, 1);
+            }
+        });
+        assertTrue(slice.release());
+        assertEquals(0, buf.refCnt());
+    }
+
+    @Test
+    public void testAccessAfterRelease(@TempDir File dir) throws IOException {
+        final MappedFileByteBuf buf = MappedFileByteBuf.map(newFile(dir, 16));
+        assertTrue(buf.release());
+        assertThrows(IllegalReferenceCountException.class, new Executable() {
+            @Override
+            public void execute() {
+                buf.getByte(0);
+            }
+        });
+    }
+}
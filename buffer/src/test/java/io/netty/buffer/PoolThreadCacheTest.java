@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PoolThreadCacheTest {
+
+    private static final int PAGE_SIZE = 8192;
+    private static final int PAGE_SHIFTS = 11;
+    private static final int CHUNK_SIZE = 16777216;
+
+    private static PoolArena<ByteBuffer> newArena() {
+        return new PoolArena.DirectArena(null, new SizeClasses(PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 0));
+    }
+
+    private static PoolThreadCache newCache(PoolArena<ByteBuffer> arena, boolean adaptive) {
+        return new PoolThreadCache(null, arena, 4, 4, 32 * 1024, 8192, adaptive, false);
+    }
+
+    private static void allocateAndRelease(PoolArena<ByteBuffer> arena, PoolThreadCache cache, int count) {
+        ByteBuf[] buffers = new ByteBuf[count];
+        for (int i = 0; i < count; i++) {
+            buffers[i] = arena.allocate(cache, 64, 64);
+        }
+        for (ByteBuf buffer : buffers) {
+            assertTrue(buffer.release());
+        }
+    }
+
+    @Test
+    public void testFixedCacheSize() {
+        PoolArena<ByteBuffer> arena = newArena();
+        PoolThreadCache cache = newCache(arena, false);
+        allocateAndRelease(arena, cache, 8);
+        // Frees the 4 cached buffers as none of them was used.
+        cache.trim();
+        allocateAndRelease(arena, cache, 8);
+        allocateAndRelease(arena, cache, 8);
+
+        PoolThreadCacheMetric metric = cache.metric();
+        assertEquals(4, metric.hits());
+        assertEquals(20, metric.misses());
+        cache.free(false);
+    }
+
+    @Test
+    public void testAdaptiveCacheGrowsOnMisses() {
+        PoolArena<ByteBuffer> arena = newArena();
+        PoolThreadCache cache = newCache(arena, true);
+        // All misses, only 4 of the 8 buffers are cached.
+        allocateAndRelease(arena, cache, 8);
+        // The miss rate is above the threshold so the cache may now hold 8 buffers.
+        cache.trim();
+        allocateAndRelease(arena, cache, 8);
+        allocateAndRelease(arena, cache, 8);
+
+        PoolThreadCacheMetric metric = cache.metric();
+        assertEquals(12, metric.hits());
+        assertEquals(12, metric.misses());
+        assertEquals(0.5, metric.hitRatio(), 0.0001);
+        cache.free(false);
+    }
+
+    @Test
+    public void testAdaptiveCacheShrinksIfUnused() {
+        PoolArena<ByteBuffer> arena = newArena();
+        PoolThreadCache cache = newCache(arena, true);
+        allocateAndRelease(arena, cache, 4);
+        allocateAndRelease(arena, cache, 4);
+        // Half of the requests missed, so the limit grows to 8.
+        cache.trim();
+        // Nothing was requested, so the limit shrinks to 4 and the unused buffers are freed.
+        cache.trim();
+        // A single miss is not enough to grow the limit, and less than a quarter of it was used.
+        allocateAndRelease(arena, cache, 1);
+        cache.trim();
+        // The limit is 2 now, so only 2 of 4 buffers are cached.
+        allocateAndRelease(arena, cache, 4);
+        long hits = cache.metric().hits();
+        allocateAndRelease(arena, cache, 4);
+        assertEquals(hits + 2, cache.metric().hits());
+        cache.free(false);
+    }
+
+    @Test
+    public void testTrimIfIdle() {
+        PoolArena<ByteBuffer> arena = newArena();
+        PoolThreadCache cache = newCache(arena, false);
+        allocateAndRelease(arena, cache, 2);
+        // There was some activity since the last check.
+        assertFalse(cache.trimIfIdle());
+        assertTrue(cache.trimIfIdle());
+        assertEquals(1, cache.metric().idleTrims());
+        // Nothing is cached anymore.
+        assertFalse(cache.trimIfIdle());
+
+        long misses = cache.metric().misses();
+        allocateAndRelease(arena, cache, 1);
+        assertEquals(misses + 1, cache.metric().misses());
+        cache.free(false);
+    }
+
+    @Test
+    public void testThreadCacheMetrics() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 9, 256, 64, true, 0);
+        allocator.directBuffer(64).release();
+        allocator.directBuffer(64).release();
+
+        List<PoolThreadCacheMetric> caches = allocator.metric().threadCaches();
+        assertEquals(1, caches.size());
+        PoolThreadCacheMetric metric = caches.get(0);
+        assertEquals(Thread.currentThread().getName(), metric.threadName());
+        assertEquals(1, metric.hits());
+        assertEquals(1, metric.misses());
+
+        allocator.freeThreadLocalCache();
+        assertTrue(allocator.metric().threadCaches().isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.PlatformDependent;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class PooledByteBufAllocatorJfrTest {
+
+    @Test
+    public void testChunkAndCacheMissEvents() throws Exception {
+        assumeTrue(PlatformDependent.isJfrEnabled());
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 9, 256, 64, true, 0);
+        int chunkSize = allocator.metric().chunkSize();
+
+        List<RecordedEvent> events;
+        Recording recording = new Recording();
+        File file = File.createTempFile("netty-jfr", ".jfr");
+        try {
+            recording.enable(ChunkAllocateEvent.NAME);
+            recording.enable(ChunkFreeEvent.NAME);
+            recording.enable(ThreadCacheMissEvent.NAME);
+            recording.start();
+
+            // Served by a new pooled chunk after a miss in the empty thread cache.
+            allocator.directBuffer(1024).release();
+            // Served by an unpooled chunk, which is destroyed once the buffer is released.
+            allocator.directBuffer(chunkSize * 2).release();
+
+            recording.stop();
+            recording.dump(file.toPath());
+            events = RecordingFile.readAllEvents(file.toPath());
+        } finally {
+            recording.close();
+            assertTrue(file.delete());
+        }
+
+        List<RecordedEvent> allocated = events(events, ChunkAllocateEvent.NAME);
+        assertEquals(2, allocated.size());
+        assertTrue(allocated.get(0).getBoolean("pooled"));
+        assertTrue(allocated.get(0).getBoolean("direct"));
+        assertEquals(chunkSize, allocated.get(0).getInt("capacity"));
+        assertFalse(allocated.get(1).getBoolean("pooled"));
+        assertEquals(chunkSize * 2, allocated.get(1).getInt("capacity"));
+
+        List<RecordedEvent> freed = events(events, ChunkFreeEvent.NAME);
+        assertEquals(1, freed.size());
+        assertFalse(freed.get(0).getBoolean("pooled"));
+
+        List<RecordedEvent> misses = events(events, ThreadCacheMissEvent.NAME);
+        assertEquals(1, misses.size());
+        assertEquals(1024, misses.get(0).getInt("requestedCapacity"));
+        assertEquals("Small", misses.get(0).getString("sizeClass"));
+    }
+
+    private static List<RecordedEvent> events(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = new ArrayList<RecordedEvent>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                matching.add(event);
+            }
+        }
+        return matching;
+    }
+}
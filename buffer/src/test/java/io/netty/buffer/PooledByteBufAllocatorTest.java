@@ -16,33 +16,43 @@
 
 package io.netty.buffer;
 
+import io.netty.util.IllegalReferenceCountException;
 import io.netty.util.concurrent.FastThreadLocal;
 import io.netty.util.concurrent.FastThreadLocalThread;
+import io.netty.util.concurrent.VirtualThreadEventExecutorGroup;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.SystemPropertyUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.function.Executable;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 
 import static io.netty.buffer.PoolChunk.runOffset;
 import static io.netty.buffer.PoolChunk.runPages;
+import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
@@ -164,6 +174,373 @@ public class PooledByteBufAllocatorTest extends AbstractByteBufAllocatorTest<Poo
         testArenaMetrics0(new PooledByteBufAllocator(true, 2, 2, 8192, 9, 1000, 1000, 1000, true, 64), 100, 1, 1, 0);
     }
 
+    @Test
+    public void testNumaAwareArenaSelection() throws Exception {
+        final AtomicInteger currentNode = new AtomicInteger();
+        NumaNodeLocator locator = new NumaNodeLocator() {
+            @Override
+            public int numNodes() {
+                return 2;
+            }
+
+            @Override
+            public int currentNode() {
+                return currentNode.get();
+            }
+        };
+        final PooledByteBufAllocator allocator = new PooledByteBufAllocator(
+                true, 4, 4, 8192, 9, 0, 0, true, 0, locator);
+        PooledByteBufAllocatorMetric metric = allocator.metric();
+        assertEquals(2, metric.numNumaNodes());
+        assertEquals(2, metric.heapArenas(0).size());
+        assertEquals(2, metric.directArenas(1).size());
+
+        for (int node = 0; node < 2; node++) {
+            currentNode.set(node);
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    allocator.directBuffer(128).release();
+                    allocator.heapBuffer(128).release();
+                }
+            });
+            thread.start();
+            thread.join();
+            assertArenaMetrics(metric.directArenas(node), 0, 1, 1);
+            assertArenaMetrics(metric.heapArenas(node), 0, 1, 1);
+        }
+    }
+
+    @Test
+    public void testNumaNodesWithoutLocator() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 2, 2, 8192, 9, 0, 0, true, 0);
+        assertEquals(1, allocator.metric().numNumaNodes());
+        assertEquals(allocator.metric().directArenas(), allocator.metric().directArenas(0));
+        assertEquals(allocator.metric().heapArenas(), allocator.metric().heapArenas(0));
+    }
+
+    @Test
+    public void testHugePageBackedChunks() {
+        assumeTrue(PlatformDependent.hasUnsafe());
+        final int hugePageSize = 2 * 1024 * 1024;
+        final List<Long> advised = new ArrayList<Long>();
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(
+                true, 1, 1, 8192, 9, 0, 0, true, 0, null, new DirectMemoryAdvisor() {
+            @Override
+            public int hugePageSize() {
+                return hugePageSize;
+            }
+
+            @Override
+            public boolean adviseHugePages(long address, long length) {
+                advised.add(address);
+                return true;
+            }
+
+            @Override
+            public long adviseDontNeed(long address, long length) {
+                return 0;
+            }
+        });
+        ByteBuf buffer = allocator.directBuffer(1024);
+        assertEquals(1, allocator.metric().numHugePageChunks());
+        assertEquals(1, advised.size());
+        assertEquals(0, advised.get(0) % hugePageSize);
+
+        buffer.writeLong(42);
+        assertEquals(42, buffer.readLong());
+        buffer.release();
+
+        allocator.heapBuffer(1024).release();
+        assertEquals(1, allocator.metric().numHugePageChunks());
+    }
+
+    @Test
+    public void testHugePagesNotSupported() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(
+                true, 1, 1, 8192, 9, 0, 0, true, 0, null, new DirectMemoryAdvisor() {
+            @Override
+            public int hugePageSize() {
+                return 0;
+            }
+
+            @Override
+            public boolean adviseHugePages(long address, long length) {
+                throw new AssertionError();
+            }
+
+            @Override
+            public long adviseDontNeed(long address, long length) {
+                return 0;
+            }
+        });
+        allocator.directBuffer(1024).release();
+        assertEquals(0, allocator.metric().numHugePageChunks());
+    }
+
+    @Test
+    public void testTrimIdleChunks() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 1, 1, 8192, 9, 0, 0, true, 0);
+        int chunkSize = allocator.metric().chunkSize();
+        // Use normal sized buffers, as the last subpage of a size is never freed.
+        allocator.heapBuffer(65536).release();
+        allocator.directBuffer(65536).release();
+        assertEquals(chunkSize, allocator.metric().usedHeapMemory());
+        assertEquals(chunkSize, allocator.metric().usedDirectMemory());
+
+        // The chunks were just used, so they are not idle yet.
+        assertEquals(0, allocator.trimIdleChunks(1, HOURS, 0));
+        // Keep the chunks because of the low-water mark.
+        assertEquals(0, allocator.trimIdleChunks(0, MILLISECONDS, chunkSize));
+        assertEquals(chunkSize, allocator.metric().usedDirectMemory());
+
+        assertEquals(2L * chunkSize, allocator.trimIdleChunks(0, MILLISECONDS, 0));
+        assertEquals(0, allocator.metric().usedHeapMemory());
+        assertEquals(0, allocator.metric().usedDirectMemory());
+        assertEquals(2L * chunkSize, allocator.metric().trimmedBytes());
+        assertEquals(0, allocator.metric().reclaimedBytes());
+
+        // New chunks are created on demand.
+        ByteBuf buffer = allocator.directBuffer(65536);
+        buffer.writeLong(42);
+        assertEquals(42, buffer.readLong());
+        assertTrue(buffer.release());
+    }
+
+    @Test
+    public void testTrimIdleChunksKeepsUsedChunks() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 1, 1, 8192, 9, 0, 0, true, 0);
+        ByteBuf buffer = allocator.directBuffer(65536);
+        assertEquals(0, allocator.trimIdleChunks(0, MILLISECONDS, 0));
+        assertEquals(allocator.metric().chunkSize(), allocator.metric().usedDirectMemory());
+        assertTrue(buffer.release());
+    }
+
+    @Test
+    public void testTrimIdleChunksReclaimsFreeRuns() {
+        assumeTrue(PlatformDependent.hasUnsafe());
+        final List<long[]> advised = new ArrayList<long[]>();
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(
+                true, 0, 1, 8192, 9, 0, 0, true, 0, null, new DirectMemoryAdvisor() {
+            @Override
+            public int hugePageSize() {
+                return 0;
+            }
+
+            @Override
+            public boolean adviseHugePages(long address, long length) {
+                throw new AssertionError();
+            }
+
+            @Override
+            public long adviseDontNeed(long address, long length) {
+                advised.add(new long[] { address, length });
+                return length;
+            }
+        });
+        int chunkSize = allocator.metric().chunkSize();
+        ByteBuf buffer = allocator.directBuffer(65536);
+        long bufferAddress = buffer.memoryAddress();
+
+        assertEquals(chunkSize - 65536, allocator.trimIdleChunks(0, MILLISECONDS, 0));
+        assertEquals(1, advised.size());
+        assertEquals(bufferAddress + 65536, advised.get(0)[0]);
+        assertEquals(chunkSize - 65536, advised.get(0)[1]);
+        assertEquals(chunkSize - 65536, allocator.metric().reclaimedBytes());
+        assertEquals(0, allocator.metric().trimmedBytes());
+
+        // Nothing changed since the last trim, so the free runs were already released.
+        assertEquals(0, allocator.trimIdleChunks(0, MILLISECONDS, 0));
+        assertEquals(1, advised.size());
+
+        // The low-water mark also applies to the memory that is released to the OS.
+        allocator.directBuffer(65536).release();
+        assertEquals(0, allocator.trimIdleChunks(0, MILLISECONDS, chunkSize));
+        assertEquals(1, advised.size());
+
+        assertTrue(buffer.release());
+        assertEquals(chunkSize, allocator.trimIdleChunks(0, MILLISECONDS, 0));
+        assertEquals(chunkSize, allocator.metric().trimmedBytes());
+    }
+
+    @Test
+    public void testThreadConfinedRefCnt() {
+        assumeTrue(PooledByteBuf.THREAD_CONFINED_REF_CNT);
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(
+                true, 1, 1, 8192, 9, 0, 0, true, 0, null, null, true);
+        for (ByteBuf buffer : new ByteBuf[] { allocator.heapBuffer(64), allocator.directBuffer(64) }) {
+            PooledByteBuf<?> unwrapped = unwrapLeakAware(buffer);
+            assertTrue(unwrapped.isThreadConfined());
+            buffer.retain();
+            assertFalse(buffer.release());
+            assertTrue(buffer.release());
+            assertEquals(0, buffer.refCnt());
+        }
+
+        ByteBuf buffer = allocator.directBuffer(64);
+        assertTrue(buffer.release());
+        // Reused buffers are confined again.
+        buffer = allocator.directBuffer(64);
+        assertTrue(unwrapLeakAware(buffer).isThreadConfined());
+        assertTrue(buffer.release());
+
+        allocator = new PooledByteBufAllocator(true, 1, 1, 8192, 9, 0, 0, true, 0, null, null, false);
+        buffer = allocator.directBuffer(64);
+        assertFalse(unwrapLeakAware(buffer).isThreadConfined());
+        assertTrue(buffer.release());
+    }
+
+    @Test
+    public void testShareThreadConfinedRefCnt() {
+        assumeTrue(PooledByteBuf.THREAD_CONFINED_REF_CNT);
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(
+                true, 1, 1, 8192, 9, 0, 0, true, 0, null, null, true);
+        ByteBuf buffer = allocator.directBuffer(64).writeLong(1);
+        ByteBuf slice = buffer.retainedSlice();
+        ByteBufUtil.shareRefCnt(slice);
+        assertFalse(unwrapLeakAware(buffer).isThreadConfined());
+        assertTrue(slice.release());
+        assertTrue(buffer.release());
+
+        buffer = allocator.directBuffer(64);
+        ByteBufUtil.shareRefCnt(new DefaultByteBufHolder(buffer));
+        assertFalse(unwrapLeakAware(buffer).isThreadConfined());
+        assertTrue(buffer.release());
+
+        buffer = allocator.heapBuffer(64);
+        CompositeByteBuf composite = allocator.compositeBuffer().addComponent(buffer);
+        ByteBufUtil.shareRefCnt(composite);
+        assertFalse(unwrapLeakAware(buffer).isThreadConfined());
+        assertTrue(composite.release());
+        assertEquals(0, buffer.refCnt());
+
+        // Released buffers and other messages are ignored.
+        ByteBufUtil.shareRefCnt(buffer);
+        ByteBufUtil.shareRefCnt("msg");
+    }
+
+    @Test
+    public void testThreadConfinedRetainRelease() {
+        assumeTrue(PooledByteBuf.THREAD_CONFINED_REF_CNT);
+        PooledByteBuf<?> buffer = newThreadConfinedBuffer();
+        assertSame(buffer, buffer.retain());
+        assertSame(buffer, buffer.retain(2));
+        assertEquals(4, buffer.refCnt());
+        assertFalse(buffer.release(3));
+        assertEquals(1, buffer.refCnt());
+        assertTrue(buffer.isThreadConfined());
+        assertTrue(buffer.release());
+        assertEquals(0, buffer.refCnt());
+    }
+
+    @Test
+    public void testThreadConfinedRefCntOverflow() {
+        assumeTrue(PooledByteBuf.THREAD_CONFINED_REF_CNT);
+        final PooledByteBuf<?> buffer = newThreadConfinedBuffer();
+        buffer.setRefCnt(Integer.MAX_VALUE);
+        assertThrows(IllegalReferenceCountException.class, new Executable() {
+            @Override
+            public void execute() {
+                buffer.retain();
+            }
+        });
+        assertEquals(Integer.MAX_VALUE, buffer.refCnt());
+        buffer.setRefCnt(1);
+        assertThrows(IllegalReferenceCountException.class, new Executable() {
+            @Override
+            public void execute() {
+                buffer.release(2);
+            }
+        });
+        assertTrue(buffer.release());
+        assertThrows(IllegalReferenceCountException.class, new Executable() {
+            @Override
+            public void execute() {
+                buffer.retain();
+            }
+        });
+    }
+
+    @Test
+    public void testThreadConfinedRefCntUsedByOtherThread() throws Exception {
+        assumeTrue(PooledByteBuf.THREAD_CONFINED_REF_CNT);
+        final PooledByteBuf<?> buffer = newThreadConfinedBuffer();
+        buffer.retain();
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        // The buffer is handed over without ByteBufUtil.shareRefCnt(...).
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    buffer.release();
+                } catch (Throwable cause) {
+                    error.set(cause);
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+        assertNull(error.get());
+        // The other thread switched the buffer to atomic updates.
+        assertFalse(buffer.isThreadConfined());
+        assertEquals(1, buffer.refCnt());
+        assertTrue(buffer.release());
+    }
+
+    @Test
+    @Timeout(30)
+    public void testThreadConfinedRefCntHandedOverViaQueue() throws Exception {
+        assumeTrue(PooledByteBuf.THREAD_CONFINED_REF_CNT);
+        final int buffers = 10000;
+        final BlockingQueue<ByteBuf> queue = new LinkedBlockingQueue<ByteBuf>();
+        final AtomicInteger released = new AtomicInteger();
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < buffers; i++) {
+                        ByteBuf buffer = queue.take();
+                        buffer.retain();
+                        buffer.release();
+                        if (buffer.release()) {
+                            released.incrementAndGet();
+                        }
+                    }
+                } catch (Throwable cause) {
+                    error.set(cause);
+                }
+            }
+        });
+        consumer.start();
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(
+                true, 1, 1, 8192, 9, 0, 0, true, 0, null, null, true);
+        for (int i = 0; i < buffers; i++) {
+            ByteBuf buffer = allocator.directBuffer(64);
+            buffer.retain();
+            buffer.release();
+            queue.add(buffer);
+        }
+        consumer.join();
+        assertNull(error.get());
+        assertEquals(buffers, released.get());
+    }
+
+    private static PooledByteBuf<?> newThreadConfinedBuffer() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(
+                true, 1, 1, 8192, 9, 0, 0, true, 0, null, null, true);
+        PooledByteBuf<?> buffer = unwrapLeakAware(allocator.heapBuffer(64));
+        assertTrue(buffer.isThreadConfined());
+        return buffer;
+    }
+
+    private static PooledByteBuf<?> unwrapLeakAware(ByteBuf buffer) {
+        while (buffer instanceof WrappedByteBuf) {
+            buffer = buffer.unwrap();
+        }
+        return (PooledByteBuf<?>) buffer;
+    }
+
     private static void testArenaMetrics0(
             PooledByteBufAllocator allocator, int num, int expectedActive, int expectedAlloc, int expectedDealloc) {
         for (int i = 0; i < num; i++) {
@@ -957,4 +1334,30 @@ public class PooledByteBufAllocatorTest extends AbstractByteBufAllocatorTest<Poo
             }
         }
     }
+
+    @Test
+    @Timeout(value = 10000, unit = MILLISECONDS)
+    public void testVirtualThreadsShareCaches() throws Exception {
+        assumeTrue(VirtualThreadEventExecutorGroup.isAvailable());
+        final PooledByteBufAllocator allocator = new PooledByteBufAllocator(false, 2, 2, 8192, 9, 64, 64, true);
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup();
+        try {
+            for (int i = 0; i < 100; i++) {
+                // Every task runs on a new virtual thread.
+                group.next().submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        allocator.heapBuffer(128).release();
+                    }
+                }).sync();
+            }
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+        // The virtual threads share caches that are not counted by the arenas, so they do not skew which arena the
+        // next platform thread is bound to.
+        assertEquals(0, allocator.metric().numThreadLocalCaches());
+        allocator.heapBuffer(128).release();
+        assertEquals(1, allocator.metric().numThreadLocalCaches());
+    }
 }
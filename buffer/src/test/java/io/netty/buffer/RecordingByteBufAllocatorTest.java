@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RecordingByteBufAllocatorTest {
+
+    @Test
+    public void testRecordAndRead() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecordingByteBufAllocator allocator = new RecordingByteBufAllocator(UnpooledByteBufAllocator.DEFAULT, out);
+
+        ByteBuf heap = allocator.heapBuffer(100);
+        final ByteBuf direct = allocator.directBuffer(1 << 20);
+        ByteBuf notReleased = allocator.heapBuffer(7);
+
+        // Derived buffers share the reference count, only the final release is recorded.
+        ByteBuf slice = heap.retainedSlice();
+        assertFalse(heap.release());
+        Thread.sleep(1);
+        assertTrue(slice.release());
+
+        Thread releaser = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                direct.release();
+            }
+        });
+        releaser.start();
+        releaser.join();
+
+        allocator.close();
+        notReleased.release();
+
+        AllocationTrace trace = AllocationTrace.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(2, trace.size());
+        long currentThread = Thread.currentThread().getId();
+
+        assertEquals(100, trace.capacity(0));
+        assertFalse(trace.isDirect(0));
+        assertEquals(currentThread, trace.allocationThread(0));
+        assertEquals(currentThread, trace.releaseThread(0));
+        assertTrue(trace.lifetime(0) >= 1000000);
+
+        assertEquals(1 << 20, trace.capacity(1));
+        assertTrue(trace.isDirect(1));
+        assertEquals(currentThread, trace.allocationThread(1));
+        assertEquals(releaser.getId(), trace.releaseThread(1));
+        assertTrue(trace.allocationTime(0) <= trace.allocationTime(1));
+    }
+
+    @Test
+    public void testReadInvalid() {
+        assertThrows(IOException.class, new Executable() {
+            @Override
+            public void execute() throws Throwable {
+                AllocationTrace.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 1 }));
+            }
+        });
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.ByteProcessor;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static io.netty.buffer.Unpooled.wrappedBuffer;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RingCompositeByteBufTest {
+
+    private static RingCompositeByteBuf newBuffer(int maxNumComponents, int consolidateThreshold) {
+        return new RingCompositeByteBuf(UnpooledByteBufAllocator.DEFAULT, false, maxNumComponents,
+                consolidateThreshold);
+    }
+
+    private static ByteBuf bytes(int from, int length) {
+        byte[] array = new byte[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = (byte) (from + i);
+        }
+        return wrappedBuffer(array);
+    }
+
+    @Test
+    public void testReadAcrossComponents() {
+        RingCompositeByteBuf buf = newBuffer(Integer.MAX_VALUE, 0);
+        buf.addComponent(true, bytes(0, 3)).addComponent(true, bytes(3, 5)).addComponent(true, bytes(8, 8));
+        assertEquals(3, buf.numComponents());
+        assertEquals(16, buf.capacity());
+        assertEquals(16, buf.readableBytes());
+
+        assertEquals(0x00010203, buf.getInt(0));
+        assertEquals(0x02030405, buf.getInt(2));
+        assertEquals(0x0706050403020100L, buf.getLongLE(0));
+        assertEquals(0x0708090a0b0c0d0eL, buf.getLong(7));
+        for (int i = 0; i < 16; i++) {
+            assertEquals(i, buf.readByte());
+        }
+
+        buf.setInt(1, 0x11223344);
+        assertEquals(0x11223344, buf.getInt(1));
+        assertEquals(0x44, buf.getByte(4));
+        assertTrue(buf.release());
+    }
+
+    @Test
+    public void testDiscardReadComponents() {
+        RingCompositeByteBuf buf = newBuffer(Integer.MAX_VALUE, 0);
+        ByteBuf first = bytes(0, 4);
+        ByteBuf second = bytes(4, 4);
+        buf.addComponent(true, first).addComponent(true, second).addComponent(true, bytes(8, 4));
+
+        buf.skipBytes(6);
+        buf.discardReadComponents();
+        assertEquals(0, first.refCnt());
+        assertEquals(1, second.refCnt());
+        assertEquals(2, buf.numComponents());
+        assertEquals(2, buf.readerIndex());
+        assertEquals(8, buf.writerIndex());
+        assertEquals(6, buf.readByte());
+
+        buf.skipBytes(buf.readableBytes());
+        buf.discardReadComponents();
+        assertEquals(0, second.refCnt());
+        assertEquals(0, buf.numComponents());
+        assertEquals(0, buf.capacity());
+        assertTrue(buf.release());
+    }
+
+    @Test
+    public void testDiscardReadBytesTrimsFirstComponent() {
+        RingCompositeByteBuf buf = newBuffer(Integer.MAX_VALUE, 0);
+        buf.addComponent(true, bytes(0, 4)).addComponent(true, bytes(4, 4));
+
+        buf.skipBytes(5).markReaderIndex();
+        buf.discardReadBytes();
+        assertEquals(1, buf.numComponents());
+        assertEquals(0, buf.readerIndex());
+        assertEquals(3, buf.writerIndex());
+        assertEquals(3, buf.capacity());
+        assertEquals(5, buf.getByte(0));
+        assertEquals(0x0506, buf.getShort(0));
+        assertTrue(buf.release());
+    }
+
+    @Test
+    public void testQueueLikeUsage() {
+        RingCompositeByteBuf buf = newBuffer(Integer.MAX_VALUE, 0);
+        int next = 0;
+        for (int i = 0; i < 1000; i++) {
+            int length = 1 + i % 7;
+            buf.addComponent(true, bytes(next, length));
+            next += length;
+            // Keep a few components in flight so the read ones are discarded many times.
+            while (buf.readableBytes() > 20) {
+                assertEquals((byte) (next - buf.readableBytes()), buf.readByte());
+                buf.discardSomeReadBytes();
+            }
+            // At most 21 unread components, and at most as many read ones.
+            assertTrue(buf.numComponents() <= 42);
+        }
+        while (buf.isReadable()) {
+            assertEquals((byte) (next - buf.readableBytes()), buf.readByte());
+        }
+        assertTrue(buf.release());
+    }
+
+    @Test
+    public void testDiscardSomeReadBytesDefersUntilHalfRead() {
+        RingCompositeByteBuf buf = newBuffer(Integer.MAX_VALUE, 0);
+        ByteBuf first = bytes(0, 4);
+        buf.addComponent(true, first);
+        for (int i = 1; i < 4; i++) {
+            buf.addComponent(true, bytes(i * 4, 4));
+        }
+
+        buf.skipBytes(4).discardSomeReadBytes();
+        assertEquals(4, buf.numComponents());
+        assertEquals(4, buf.readerIndex());
+        assertEquals(1, first.refCnt());
+
+        buf.skipBytes(4).discardSomeReadBytes();
+        assertEquals(2, buf.numComponents());
+        assertEquals(0, buf.readerIndex());
+        assertEquals(8, buf.readableBytes());
+        assertEquals(0, first.refCnt());
+        assertEquals(8, buf.readByte());
+
+        buf.skipBytes(buf.readableBytes()).discardSomeReadBytes();
+        assertEquals(0, buf.numComponents());
+        assertEquals(0, buf.capacity());
+        assertTrue(buf.release());
+    }
+
+    @Test
+    public void testConsolidateSmallComponents() {
+        RingCompositeByteBuf buf = newBuffer(Integer.MAX_VALUE, 16);
+        ByteBuf small = bytes(0, 3);
+        ByteBuf large = bytes(0, 64);
+        buf.addComponent(true, small);
+        for (int i = 0; i < 5; i++) {
+            buf.addComponent(true, bytes(3 + i * 3, 3));
+        }
+        // All small components end up in a single owned buffer, the added ones are released.
+        assertEquals(1, buf.numComponents());
+        assertEquals(0, small.refCnt());
+        buf.addComponent(true, large);
+        assertEquals(2, buf.numComponents());
+        assertEquals(1, large.refCnt());
+        buf.addComponent(true, bytes(0, 3));
+        assertEquals(3, buf.numComponents());
+
+        assertEquals(18 + 64 + 3, buf.readableBytes());
+        for (int i = 0; i < 18; i++) {
+            assertEquals(i, buf.getByte(i));
+        }
+        assertTrue(buf.release());
+        assertEquals(0, large.refCnt());
+    }
+
+    @Test
+    public void testMaxNumComponents() {
+        RingCompositeByteBuf buf = newBuffer(4, 0);
+        for (int i = 0; i < 5; i++) {
+            buf.addComponent(true, bytes(i * 2, 2));
+        }
+        assertEquals(1, buf.numComponents());
+        byte[] expected = new byte[10];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) i;
+        }
+        assertArrayEquals(expected, ByteBufUtil.getBytes(buf));
+        assertTrue(buf.release());
+    }
+
+    @Test
+    public void testWriteGrowsCapacity() {
+        RingCompositeByteBuf buf = newBuffer(Integer.MAX_VALUE, 16);
+        buf.writeBytes("hello ".getBytes(CharsetUtil.US_ASCII));
+        assertTrue(buf.capacity() >= 6);
+        // Trim the padding so the next component directly follows the written bytes.
+        buf.capacity(buf.writerIndex());
+        buf.addComponent(true, wrappedBuffer("netty".getBytes(CharsetUtil.US_ASCII)));
+        buf.writeByte('!');
+        assertEquals("hello netty!", buf.toString(CharsetUtil.US_ASCII));
+
+        buf.capacity(5);
+        assertEquals(5, buf.writerIndex());
+        assertEquals("hello", buf.toString(CharsetUtil.US_ASCII));
+        assertTrue(buf.release());
+    }
+
+    @Test
+    public void testForEachByte() {
+        RingCompositeByteBuf buf = newBuffer(Integer.MAX_VALUE, 0);
+        buf.addComponent(true, bytes(0, 5)).addComponent(true, bytes(5, 5)).addComponent(true, bytes(10, 5));
+        buf.skipBytes(7);
+        buf.discardReadComponents();
+        // bytes 5..14 are at indexes 0..9 now, the readerIndex is 2
+        assertEquals(2, buf.readerIndex());
+        assertEquals(7, buf.forEachByte(new IndexOfProcessor((byte) 12)));
+        assertEquals(7, buf.forEachByteDesc(new IndexOfProcessor((byte) 12)));
+        assertEquals(-1, buf.forEachByteDesc(new IndexOfProcessor((byte) 6)));
+        assertEquals(1, buf.forEachByteDesc(0, 10, new IndexOfProcessor((byte) 6)));
+        assertEquals(-1, buf.forEachByte(0, 3, new IndexOfProcessor((byte) 8)));
+        assertEquals(9, buf.forEachByteDesc(5, 5, new IndexOfProcessor((byte) 14)));
+        assertTrue(buf.release());
+    }
+
+    @Test
+    public void testNioBuffers() {
+        RingCompositeByteBuf buf = newBuffer(Integer.MAX_VALUE, 0);
+        buf.addComponent(true, bytes(0, 4)).addComponent(true, bytes(4, 4));
+        ByteBuffer[] buffers = buf.nioBuffers(2, 4);
+        assertEquals(2, buffers.length);
+        assertEquals(2, buffers[0].remaining());
+        assertEquals(2, buffers[1].remaining());
+        assertEquals(4, buffers[1].get());
+
+        ByteBuffer merged = buf.nioBuffer(2, 4);
+        assertEquals(0x02030405, merged.getInt());
+        assertFalse(buf.isDirect());
+        assertTrue(buf.release());
+    }
+
+    private static final class IndexOfProcessor implements ByteProcessor {
+        private final byte value;
+
+        IndexOfProcessor(byte value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean process(byte value) {
+            return value != this.value;
+        }
+    }
+}
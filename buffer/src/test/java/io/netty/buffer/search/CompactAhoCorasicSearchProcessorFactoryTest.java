@@ -0,0 +1,163 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer.search;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactAhoCorasicSearchProcessorFactoryTest {
+
+    private static final byte[][] NEEDLES = {
+            bytes("select"), bytes("union"), bytes("insert"), bytes("<script"), bytes("onerror="),
+            bytes("../"), bytes("etc/passwd"), bytes("lect"), bytes("sleep("), bytes("--")
+    };
+
+    @Test
+    public void testSameResultsAsAhoCorasic() throws Exception {
+        Random random = new Random(42);
+        byte[] alphabet = bytes("selctunio<>rp=./-(ad ");
+        byte[] data = new byte[64 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        MultiSearchProcessor expected =
+                AbstractMultiSearchProcessorFactory.newAhoCorasicSearchProcessorFactory(NEEDLES).newSearchProcessor();
+        MultiSearchProcessor actual = AbstractMultiSearchProcessorFactory
+                .newCompactAhoCorasicSearchProcessorFactory(NEEDLES).newSearchProcessor();
+
+        int matches = 0;
+        for (int i = 0; i < data.length; i++) {
+            boolean expectedMatch = !expected.process(data[i]);
+            assertEquals(expectedMatch, !actual.process(data[i]));
+            assertEquals(expected.getFoundNeedleId(), actual.getFoundNeedleId());
+            if (expectedMatch) {
+                matches++;
+            }
+        }
+        assertTrue(matches > 0);
+    }
+
+    @Test
+    public void testPrefilter() {
+        ByteBuf haystack = Unpooled.copiedBuffer(
+                "GET /index.html?file=../../etc/passwd HTTP/1.1 <script>alert(1)</script> x--", CharsetUtil.US_ASCII);
+        testPrefilter(haystack);
+        testPrefilter(haystack.order(ByteOrder.LITTLE_ENDIAN));
+        haystack.release();
+    }
+
+    private static void testPrefilter(ByteBuf haystack) {
+        CompactAhoCorasicSearchProcessorFactory factory =
+                AbstractMultiSearchProcessorFactory.newCompactAhoCorasicSearchProcessorFactory(
+                        bytes("../"), bytes("etc/passwd"), bytes("<script"), bytes("--"));
+        assertEquals(5, testPrefilter(factory, haystack));
+    }
+
+    @Test
+    public void testPrefilterManyKeywords() {
+        // Too many distinct first bytes to compare them eight at a time, so the bitmap is used.
+        Random random = new Random(42);
+        byte[][] needles = new byte[1000][];
+        for (int i = 0; i < needles.length; i++) {
+            byte[] needle = new byte[3 + random.nextInt(8)];
+            for (int j = 0; j < needle.length; j++) {
+                needle[j] = (byte) ('a' + random.nextInt(26));
+            }
+            needles[i] = needle;
+        }
+        CompactAhoCorasicSearchProcessorFactory factory =
+                AbstractMultiSearchProcessorFactory.newCompactAhoCorasicSearchProcessorFactory(needles);
+
+        // Mostly bytes that can not start a match, with some of the keywords in between.
+        byte[] alphabet = bytes("ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 \r\n<>/=.,;:'\"abcdefghijklmnopqrstuvwxyz");
+        ByteBuf haystack = Unpooled.buffer(64 * 1024);
+        while (haystack.isWritable(16)) {
+            if (random.nextInt(8) == 0) {
+                haystack.writeBytes(needles[random.nextInt(needles.length)]);
+            } else {
+                haystack.writeByte(alphabet[random.nextInt(alphabet.length)]);
+            }
+        }
+        assertTrue(testPrefilter(factory, haystack) > 100);
+        assertTrue(testPrefilter(factory, haystack.order(ByteOrder.LITTLE_ENDIAN)) > 100);
+        haystack.release();
+    }
+
+    private static int testPrefilter(CompactAhoCorasicSearchProcessorFactory factory, ByteBuf haystack) {
+        CompactAhoCorasicSearchProcessorFactory.Processor prefiltered = factory.newSearchProcessor();
+        MultiSearchProcessor plain = factory.newSearchProcessor();
+
+        final int length = haystack.readableBytes();
+        int found = 0;
+        int pos = 0;
+        for (;;) {
+            int expected = haystack.forEachByte(pos, length - pos, plain);
+            int actual = prefiltered.forEachByte(haystack, pos, length - pos);
+            assertEquals(expected, actual);
+            if (actual == -1) {
+                break;
+            }
+            assertEquals(plain.getFoundNeedleId(), prefiltered.getFoundNeedleId());
+            found++;
+            pos = actual + 1;
+        }
+        return found;
+    }
+
+    @Test
+    public void testSmallerJumpTable() {
+        String[] keywords = { "select", "union", "insert", "update", "delete", "drop", "alter", "exec", "script",
+                "javascript", "onload", "onerror", "iframe", "document.cookie", "eval(", "base64", "passwd" };
+        byte[][] needles = new byte[keywords.length * 4][];
+        for (int i = 0; i < keywords.length; i++) {
+            needles[i * 4] = bytes(keywords[i]);
+            needles[i * 4 + 1] = bytes(keywords[i].toUpperCase());
+            needles[i * 4 + 2] = bytes(' ' + keywords[i] + ' ');
+            needles[i * 4 + 3] = bytes('/' + keywords[i]);
+        }
+        CompactAhoCorasicSearchProcessorFactory factory =
+                AbstractMultiSearchProcessorFactory.newCompactAhoCorasicSearchProcessorFactory(needles);
+        // The dense table has one row of 256 entries per state.
+        int states = factory.jumpTableSize() / distinctBytes(needles);
+        assertTrue(factory.jumpTableSize() * 4 < states * AhoCorasicSearchProcessorFactory.ALPHABET_SIZE);
+    }
+
+    private static int distinctBytes(byte[][] needles) {
+        boolean[] seen = new boolean[256];
+        int count = 1;
+        for (byte[] needle : needles) {
+            for (byte b : needle) {
+                if (!seen[b & 0xff]) {
+                    seen[b & 0xff] = true;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(CharsetUtil.UTF_8);
+    }
+}
@@ -45,6 +45,12 @@ public class SearchProcessorTest {
             SearchProcessorFactory newFactory(byte[] needle) {
                 return AbstractMultiSearchProcessorFactory.newAhoCorasicSearchProcessorFactory(needle);
             }
+        },
+        COMPACT_AHO_CORASIC {
+            @Override
+            SearchProcessorFactory newFactory(byte[] needle) {
+                return AbstractMultiSearchProcessorFactory.newCompactAhoCorasicSearchProcessorFactory(needle);
+            }
         };
         abstract SearchProcessorFactory newFactory(byte[] needle);
     }
@@ -16,7 +16,14 @@
 
 package io.netty.handler.codec.http;
 
+import io.netty.handler.codec.AsciiStringInterner;
 import io.netty.util.AsciiString;
+import io.netty.util.internal.UnstableApi;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Standard HTTP header names.
@@ -382,5 +389,31 @@ public final class HttpHeaderNames {
      */
     public static final AsciiString ALT_SVC = AsciiString.cached("alt-svc");
 
+    /**
+     * Returns an {@link AsciiStringInterner} which maps the bytes of the header names above to their constants.
+     */
+    @UnstableApi
+    public static AsciiStringInterner interner() {
+        return InternerHolder.INTERNER;
+    }
+
+    private static final class InternerHolder {
+        static final AsciiStringInterner INTERNER = newInterner();
+
+        private static AsciiStringInterner newInterner() {
+            List<AsciiString> names = new ArrayList<AsciiString>();
+            for (Field field : HttpHeaderNames.class.getFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && field.getType() == AsciiString.class) {
+                    try {
+                        names.add((AsciiString) field.get(null));
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+            return new AsciiStringInterner(names);
+        }
+    }
+
     private HttpHeaderNames() { }
 }
@@ -19,6 +19,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.AsciiStringInterner;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.DecoderResult;
 import io.netty.handler.codec.PrematureChannelClosureException;
@@ -27,6 +28,7 @@ import io.netty.util.AsciiString;
 import io.netty.util.ByteProcessor;
 import io.netty.util.internal.StringUtil;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -151,6 +153,7 @@ public abstract class HttpObjectDecoder extends ByteToMessageDecoder {
     public static final boolean DEFAULT_VALIDATE_HEADERS = true;
     public static final int DEFAULT_INITIAL_BUFFER_SIZE = 128;
     public static final boolean DEFAULT_ALLOW_DUPLICATE_CONTENT_LENGTHS = false;
+    private static final AsciiStringInterner HEADER_NAMES = newHeaderNameInterner();
     private final int maxChunkSize;
     private final boolean chunkedSupported;
     private final boolean allowPartialChunks;
@@ -1055,7 +1058,29 @@ public abstract class HttpObjectDecoder extends ByteToMessageDecoder {
     }
 
     protected AsciiString splitHeaderName(byte[] sb, int start, int length) {
-        return new AsciiString(sb, start, length, true);
+        // Well-known names are mapped to shared constants, which saves the allocation and makes later lookups cheaper.
+        AsciiString name = HEADER_NAMES.intern(sb, start, length);
+        return name != null ? name : new AsciiString(sb, start, length, true);
+    }
+
+    private static AsciiStringInterner newHeaderNameInterner() {
+        // Most peers send the capitalized form like "Content-Length", so intern that as well.
+        List<AsciiString> lowerCaseNames = HttpHeaderNames.interner().strings();
+        List<AsciiString> names = new ArrayList<AsciiString>(lowerCaseNames.size() << 1);
+        names.addAll(lowerCaseNames);
+        for (AsciiString name : lowerCaseNames) {
+            byte[] bytes = name.toByteArray();
+            boolean wordStart = true;
+            for (int i = 0; i < bytes.length; i++) {
+                byte b = bytes[i];
+                if (wordStart && b >= 'a' && b <= 'z') {
+                    bytes[i] = (byte) (b - 'a' + 'A');
+                }
+                wordStart = b == '-';
+            }
+            names.add(new AsciiString(bytes, false));
+        }
+        return new AsciiStringInterner(names);
     }
 
     private static int findNonSPLenient(byte[] sb, int offset, int end) {
@@ -29,6 +29,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -42,7 +43,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class HttpRequestDecoderTest {
@@ -740,6 +743,41 @@ public class HttpRequestDecoderTest {
         assertFalse(channel.finish());
     }
 
+    @Test
+    public void testWellKnownHeaderNamesAreInterned() {
+        String requestStr = "GET /some/path HTTP/1.1\r\n" +
+                "content-type: text/plain\r\n" +
+                "Content-Length: 0\r\n" +
+                "X-Custom: value\r\n\r\n";
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpRequestDecoder());
+        assertTrue(channel.writeInbound(Unpooled.copiedBuffer(requestStr, CharsetUtil.US_ASCII)));
+        assertTrue(channel.writeInbound(Unpooled.copiedBuffer(requestStr, CharsetUtil.US_ASCII)));
+        List<CharSequence> names = new ArrayList<CharSequence>();
+        for (;;) {
+            Object msg = channel.readInbound();
+            if (msg == null) {
+                break;
+            }
+            if (msg instanceof HttpRequest) {
+                Iterator<Map.Entry<CharSequence, CharSequence>> iterator =
+                        ((HttpRequest) msg).headers().iteratorCharSequence();
+                while (iterator.hasNext()) {
+                    names.add(iterator.next().getKey());
+                }
+            }
+            ReferenceCountUtil.release(msg);
+        }
+        assertEquals(6, names.size());
+        assertSame(CONTENT_TYPE, names.get(0));
+        assertSame(CONTENT_TYPE, names.get(3));
+        // The capitalized form is interned as well, but keeps its case.
+        assertEquals("Content-Length", names.get(1).toString());
+        assertSame(names.get(1), names.get(4));
+        assertEquals("X-Custom", names.get(2).toString());
+        assertNotSame(names.get(2), names.get(5));
+        assertFalse(channel.finish());
+    }
+
     private static void testInvalidHeaders0(String requestStr) {
         testInvalidHeaders0(Unpooled.copiedBuffer(requestStr, CharsetUtil.US_ASCII));
     }
@@ -32,10 +32,16 @@
 package io.netty.handler.codec.http2;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.AsciiStringInterner;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValidationUtil;
 import io.netty.handler.codec.http2.HpackUtil.IndexType;
+import io.netty.handler.codec.http2.Http2Headers.PseudoHeaderName;
 import io.netty.util.AsciiString;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_HEADER_TABLE_SIZE;
 import static io.netty.handler.codec.http2.Http2CodecUtil.MAX_HEADER_LIST_SIZE;
 import static io.netty.handler.codec.http2.Http2CodecUtil.MAX_HEADER_TABLE_SIZE;
@@ -78,6 +84,8 @@ final class HpackDecoder {
     private static final Http2Exception MAX_DYNAMIC_TABLE_SIZE_CHANGE_REQUIRED =
             Http2Exception.newStatic(COMPRESSION_ERROR, "HPACK - max dynamic table size change required",
                     Http2Exception.ShutdownHint.HARD_SHUTDOWN, HpackDecoder.class, "decode(..)");
+    // Literal header names are mapped to the well-known constants, so they are neither copied nor hashed again.
+    private static final AsciiStringInterner HEADER_NAMES = newHeaderNameInterner();
     private static final byte READ_HEADER_REPRESENTATION = 0;
     private static final byte READ_INDEXED_HEADER = 1;
     private static final byte READ_INDEXED_HEADER_NAME = 2;
@@ -262,7 +270,7 @@ final class HpackDecoder {
                         throw notEnoughDataException(in);
                     }
 
-                    name = readStringLiteral(in, nameLength, huffmanEncoded);
+                    name = readNameLiteral(in, nameLength, huffmanEncoded);
 
                     state = READ_LITERAL_HEADER_VALUE_LENGTH_PREFIX;
                     break;
@@ -447,6 +455,26 @@ final class HpackDecoder {
         }
     }
 
+    private AsciiString readNameLiteral(ByteBuf in, int length, boolean huffmanEncoded) throws Http2Exception {
+        if (huffmanEncoded) {
+            return HEADER_NAMES.intern(huffmanDecoder.decode(in, length));
+        }
+        AsciiString name = HEADER_NAMES.intern(in, in.readerIndex(), length);
+        if (name != null) {
+            in.skipBytes(length);
+            return name;
+        }
+        return readStringLiteral(in, length, false);
+    }
+
+    private static AsciiStringInterner newHeaderNameInterner() {
+        List<AsciiString> names = new ArrayList<AsciiString>(HttpHeaderNames.interner().strings());
+        for (PseudoHeaderName pseudoHeader : PseudoHeaderName.values()) {
+            names.add(pseudoHeader.value());
+        }
+        return new AsciiStringInterner(names);
+    }
+
     private AsciiString readStringLiteral(ByteBuf in, int length, boolean huffmanEncoded) throws Http2Exception {
         if (huffmanEncoded) {
             return huffmanDecoder.decode(in, length);
@@ -27,6 +27,7 @@ import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http2.Http2Exception.CompositeStreamException;
 import io.netty.handler.codec.http2.Http2Exception.StreamException;
 import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.Future;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
@@ -975,6 +976,12 @@ public class Http2ConnectionHandler extends ByteToMessageDecoder implements Http
             timeoutTask = ctx.executor().schedule(new Runnable() {
                 @Override
                 public void run() {
+                    EventExecutor executor = ctx.executor();
+                    if (!executor.inEventLoop()) {
+                        // The Channel was migrated to another EventLoop since the task was scheduled.
+                        executor.execute(this);
+                        return;
+                    }
                     doClose();
                 }
             }, timeout, unit);
@@ -33,6 +33,7 @@ package io.netty.handler.codec.http2;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.util.AsciiString;
 import io.netty.util.internal.StringUtil;
 import org.junit.jupiter.api.BeforeEach;
@@ -44,6 +45,8 @@ import org.mockito.MockingDetails;
 import org.mockito.invocation.Invocation;
 
 import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.Map;
 
 import static io.netty.handler.codec.http2.HpackDecoder.decodeULE128;
 import static io.netty.handler.codec.http2.Http2Error.PROTOCOL_ERROR;
@@ -609,6 +612,33 @@ public class HpackDecoderTest {
         }
     }
 
+    @ParameterizedTest
+    @CsvSource({"0", "512"})
+    public void testLiteralHeaderNamesAreInterned(int huffCodeThreshold) throws Http2Exception {
+        ByteBuf in = Unpooled.buffer();
+        try {
+            // Encode with and without huffman coding, neither name is part of the static table.
+            HpackEncoder hpackEncoder = new HpackEncoder(false, 16, huffCodeThreshold);
+            Http2Headers toEncode = new DefaultHttp2Headers();
+            toEncode.add(new AsciiString("x-requested-with"), "XMLHttpRequest");
+            toEncode.add(new AsciiString("x-custom"), "value");
+            hpackEncoder.encodeHeaders(1, in, toEncode, NEVER_SENSITIVE);
+
+            Http2Headers decoded = new DefaultHttp2Headers();
+            hpackDecoder.decode(1, in, decoded, true);
+            assertEquals(2, decoded.size());
+            Iterator<Map.Entry<CharSequence, CharSequence>> iterator = decoded.iterator();
+            Map.Entry<CharSequence, CharSequence> first = iterator.next();
+            Map.Entry<CharSequence, CharSequence> second = iterator.next();
+            Map.Entry<CharSequence, CharSequence> requestedWith = first.getKey().length() == 16 ? first : second;
+            Map.Entry<CharSequence, CharSequence> custom = requestedWith == first ? second : first;
+            assertSame(HttpHeaderNames.X_REQUESTED_WITH, requestedWith.getKey());
+            assertEquals("x-custom", custom.getKey().toString());
+        } finally {
+            in.release();
+        }
+    }
+
     @Test
     public void testDecodeCountsNamesOnlyOnce() throws Http2Exception {
         ByteBuf in = Unpooled.buffer(200);
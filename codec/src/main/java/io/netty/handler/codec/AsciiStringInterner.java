@@ -0,0 +1,248 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AsciiString;
+import io.netty.util.internal.MathUtil;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maps raw bytes to one of a fixed set of {@link AsciiString} constants without allocating, for example to turn
+ * decoded header names into the constants of {@code HttpHeaderNames}. Matching is case-sensitive.
+ * <p>
+ * The lookup uses a perfect hash keyed on the length and four sampled bytes (the first, the middle, the one at three
+ * quarters and the last), which is computed when the instance is created. A lookup thus reads four bytes, picks the
+ * only possible candidate and compares it with the given bytes. Only if no perfect hash could be found (for example
+ * because two strings share the same length and sampled bytes) the lookup falls back to probing neighbouring slots.
+ */
+@UnstableApi
+public final class AsciiStringInterner {
+
+    // While searching for a perfect hash the table grows up to this factor times its initial size.
+    private static final int MAX_TABLE_SIZE_FACTOR = 16;
+    private static final int MAX_SEED_ATTEMPTS = 1024;
+
+    private final List<AsciiString> strings;
+    private final AsciiString[] table;
+    private final int shift;
+    private final int seed;
+    private final boolean perfect;
+
+    /**
+     * Create a new instance for the given strings, duplicates are ignored.
+     */
+    public AsciiStringInterner(AsciiString... strings) {
+        this(Arrays.asList(ObjectUtil.checkNotNull(strings, "strings")));
+    }
+
+    /**
+     * Create a new instance for the given strings, duplicates are ignored.
+     */
+    public AsciiStringInterner(Iterable<? extends AsciiString> strings) {
+        ObjectUtil.checkNotNull(strings, "strings");
+        List<AsciiString> unique = new ArrayList<AsciiString>();
+        for (AsciiString string : strings) {
+            ObjectUtil.checkNotNull(string, "string");
+            if (!string.isEmpty() && !unique.contains(string)) {
+                unique.add(string);
+            }
+        }
+        this.strings = Collections.unmodifiableList(unique);
+
+        int minTableSize = MathUtil.findNextPositivePowerOfTwo(Math.max(unique.size(), 1) << 1);
+        int maxTableSize = minTableSize * MAX_TABLE_SIZE_FACTOR;
+        for (int tableSize = minTableSize; tableSize <= maxTableSize; tableSize <<= 1) {
+            int shift = 32 - Integer.numberOfTrailingZeros(tableSize);
+            AsciiString[] table = new AsciiString[tableSize];
+            for (int attempt = 0; attempt < MAX_SEED_ATTEMPTS; attempt++) {
+                int seed = seed(attempt);
+                Arrays.fill(table, null);
+                if (fill(table, unique, shift, seed, false)) {
+                    this.table = table;
+                    this.shift = shift;
+                    this.seed = seed;
+                    perfect = true;
+                    return;
+                }
+            }
+        }
+        // Some strings can not be told apart by the sampled bytes, use linear probing for these.
+        AsciiString[] table = new AsciiString[maxTableSize];
+        int shift = 32 - Integer.numberOfTrailingZeros(maxTableSize);
+        int seed = seed(0);
+        fill(table, unique, shift, seed, true);
+        this.table = table;
+        this.shift = shift;
+        this.seed = seed;
+        perfect = false;
+    }
+
+    private static int seed(int attempt) {
+        // Odd multipliers taken from the fractional part of the golden ratio.
+        return (int) ((attempt + 1) * 0x9E3779B97F4A7C15L >>> 32) | 1;
+    }
+
+    private static boolean fill(AsciiString[] table, List<AsciiString> strings, int shift, int seed, boolean probe) {
+        int mask = table.length - 1;
+        for (AsciiString string : strings) {
+            byte[] array = string.array();
+            int offset = string.arrayOffset();
+            int length = string.length();
+            int slot = slot(key(array, offset, length), shift, seed);
+            if (table[slot] != null) {
+                if (!probe) {
+                    return false;
+                }
+                do {
+                    slot = slot + 1 & mask;
+                } while (table[slot] != null);
+            }
+            table[slot] = string;
+        }
+        return true;
+    }
+
+    private static int key(byte[] bytes, int index, int length) {
+        return key(bytes[index], bytes[index + (length >>> 1)], bytes[index + (length * 3 >>> 2)],
+                bytes[index + length - 1], length);
+    }
+
+    private static int key(ByteBuf buf, int index, int length) {
+        return key(buf.getByte(index), buf.getByte(index + (length >>> 1)), buf.getByte(index + (length * 3 >>> 2)),
+                buf.getByte(index + length - 1), length);
+    }
+
+    private static int key(byte first, byte middle, byte threeQuarters, byte last, int length) {
+        return (first & 0xFF | (middle & 0xFF) << 8 | (threeQuarters & 0xFF) << 16 | last << 24) +
+                length * 0x9E3779B9;
+    }
+
+    private static int slot(int key, int shift, int seed) {
+        return key * seed >>> shift;
+    }
+
+    /**
+     * Returns the strings of this instance.
+     */
+    public List<AsciiString> strings() {
+        return strings;
+    }
+
+    /**
+     * Returns {@code true} if a lookup never needs to look at more than one candidate.
+     */
+    public boolean isPerfect() {
+        return perfect;
+    }
+
+    /**
+     * Returns the string which consists of the {@code length} bytes of {@code bytes} starting at {@code index}, or
+     * {@code null} if there is no such string.
+     */
+    public AsciiString intern(byte[] bytes, int index, int length) {
+        if (length <= 0) {
+            return null;
+        }
+        int slot = slot(key(bytes, index, length), shift, seed);
+        AsciiString candidate = table[slot];
+        if (candidate == null || equals(candidate, bytes, index, length)) {
+            return candidate;
+        }
+        return perfect ? null : probe(slot, bytes, index, length);
+    }
+
+    private AsciiString probe(int slot, byte[] bytes, int index, int length) {
+        int mask = table.length - 1;
+        for (;;) {
+            slot = slot + 1 & mask;
+            AsciiString candidate = table[slot];
+            if (candidate == null || equals(candidate, bytes, index, length)) {
+                return candidate;
+            }
+        }
+    }
+
+    private static boolean equals(AsciiString candidate, byte[] bytes, int index, int length) {
+        return candidate.length() == length &&
+                PlatformDependent.equals(candidate.array(), candidate.arrayOffset(), bytes, index, length);
+    }
+
+    /**
+     * Returns the string which consists of the {@code length} readable or non-readable bytes of {@code buf} starting
+     * at {@code index}, or {@code null} if there is no such string. The indexes of {@code buf} are not modified.
+     */
+    public AsciiString intern(ByteBuf buf, int index, int length) {
+        if (length <= 0) {
+            return null;
+        }
+        if (buf.hasArray()) {
+            if (MathUtil.isOutOfBounds(index, length, buf.capacity())) {
+                throw new IndexOutOfBoundsException(
+                        "index: " + index + ", length: " + length + " (expected: range(0, " + buf.capacity() + "))");
+            }
+            return intern(buf.array(), buf.arrayOffset() + index, length);
+        }
+        int slot = slot(key(buf, index, length), shift, seed);
+        int mask = table.length - 1;
+        for (;;) {
+            AsciiString candidate = table[slot];
+            if (candidate == null || equals(candidate, buf, index, length)) {
+                return candidate;
+            }
+            if (perfect) {
+                return null;
+            }
+            slot = slot + 1 & mask;
+        }
+    }
+
+    private static boolean equals(AsciiString candidate, ByteBuf buf, int index, int length) {
+        if (candidate.length() != length) {
+            return false;
+        }
+        byte[] array = candidate.array();
+        int offset = candidate.arrayOffset();
+        for (int i = 0; i < length; i++) {
+            if (array[offset + i] != buf.getByte(index + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the string of this instance which is equal to the given {@link AsciiString}, or the given
+     * {@link AsciiString} itself if there is no such string.
+     */
+    public AsciiString intern(AsciiString string) {
+        AsciiString interned = intern(string.array(), string.arrayOffset(), string.length());
+        return interned != null ? interned : string;
+    }
+
+    @Override
+    public String toString() {
+        return "AsciiStringInterner(size: " + strings.size() + ", slots: " + table.length +
+                ", perfect: " + perfect + ')';
+    }
+}
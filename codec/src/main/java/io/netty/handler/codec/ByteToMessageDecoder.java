@@ -18,6 +18,7 @@ package io.netty.handler.codec;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.RingCompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelConfig;
 import io.netty.channel.ChannelHandlerContext;
@@ -118,9 +119,41 @@ public abstract class ByteToMessageDecoder extends ChannelInboundHandlerAdapter
      * Be aware that {@link CompositeByteBuf} use a more complex indexing implementation so depending on your use-case
      * and the decoder implementation this may be slower than just use the {@link #MERGE_CUMULATOR}.
      */
-    public static final Cumulator COMPOSITE_CUMULATOR = new Cumulator() {
+    public static final Cumulator COMPOSITE_CUMULATOR = new CompositeCumulator(CompositeByteBuf.class) {
         @Override
-        public ByteBuf cumulate(ByteBufAllocator alloc, ByteBuf cumulation, ByteBuf in) {
+        CompositeByteBuf newComposite(ByteBufAllocator alloc, ByteBuf in) {
+            return alloc.compositeBuffer(Integer.MAX_VALUE);
+        }
+    };
+
+    /**
+     * Cumulate {@link ByteBuf}s by add them to a {@link RingCompositeByteBuf} and so do no memory copy whenever
+     * possible. In contrast to {@link #COMPOSITE_CUMULATOR} the read components are only discarded in batches,
+     * so the remaining components are not shifted on every {@link ByteBuf#discardSomeReadBytes()}, and small
+     * buffers are merged, which makes it a better fit for decoders that keep a lot of small buffers around.
+     */
+    public static final Cumulator RING_COMPOSITE_CUMULATOR = new CompositeCumulator(RingCompositeByteBuf.class) {
+        @Override
+        CompositeByteBuf newComposite(ByteBufAllocator alloc, ByteBuf in) {
+            return new RingCompositeByteBuf(alloc, in.isDirect(), Integer.MAX_VALUE);
+        }
+    };
+
+    /**
+     * Cumulates by adding the buffers as components to a {@link CompositeByteBuf} created by
+     * {@link #newComposite(ByteBufAllocator, ByteBuf)}.
+     */
+    private abstract static class CompositeCumulator implements Cumulator {
+        private final Class<? extends CompositeByteBuf> compositeType;
+
+        CompositeCumulator(Class<? extends CompositeByteBuf> compositeType) {
+            this.compositeType = compositeType;
+        }
+
+        abstract CompositeByteBuf newComposite(ByteBufAllocator alloc, ByteBuf in);
+
+        @Override
+        public final ByteBuf cumulate(ByteBufAllocator alloc, ByteBuf cumulation, ByteBuf in) {
             if (cumulation == in) {
                 // when the in buffer is the same as the cumulation it is doubly retained, release it once
                 in.release();
@@ -132,7 +165,7 @@ public abstract class ByteToMessageDecoder extends ChannelInboundHandlerAdapter
             }
             CompositeByteBuf composite = null;
             try {
-                if (cumulation instanceof CompositeByteBuf && cumulation.refCnt() == 1) {
+                if (compositeType.isInstance(cumulation) && cumulation.refCnt() == 1) {
                     composite = (CompositeByteBuf) cumulation;
                     // Writer index must equal capacity if we are going to "write"
                     // new components to the end
@@ -140,7 +173,7 @@ public abstract class ByteToMessageDecoder extends ChannelInboundHandlerAdapter
                         composite.capacity(composite.writerIndex());
                     }
                 } else {
-                    composite = alloc.compositeBuffer(Integer.MAX_VALUE).addFlattenedComponents(true, cumulation);
+                    composite = newComposite(alloc, in).addFlattenedComponents(true, cumulation);
                 }
                 composite.addFlattenedComponents(true, in);
                 in = null;
@@ -156,7 +189,7 @@ public abstract class ByteToMessageDecoder extends ChannelInboundHandlerAdapter
                 }
             }
         }
-    };
+    }
 
     private static final byte STATE_INIT = 0;
     private static final byte STATE_CALLING_CHILD_DECODE = 1;
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.AsciiString;
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsciiStringInternerTest {
+
+    private static final AsciiString[] NAMES = {
+            AsciiString.cached("accept"), AsciiString.cached("accept-encoding"), AsciiString.cached("age"),
+            AsciiString.cached("content-length"), AsciiString.cached("content-type"), AsciiString.cached("host"),
+            AsciiString.cached("te"), AsciiString.cached("x")
+    };
+
+    @Test
+    public void testInternFromArray() {
+        AsciiStringInterner interner = new AsciiStringInterner(NAMES);
+        assertTrue(interner.isPerfect());
+        assertEquals(NAMES.length, interner.strings().size());
+        for (AsciiString name : NAMES) {
+            byte[] bytes = ("  " + name + ": ").getBytes(CharsetUtil.US_ASCII);
+            assertSame(name, interner.intern(bytes, 2, name.length()));
+            assertSame(name, interner.intern(new AsciiString(name.toByteArray(), false)));
+        }
+
+        byte[] bytes = "content-lengthx".getBytes(CharsetUtil.US_ASCII);
+        assertNull(interner.intern(bytes, 0, 15));
+        assertNull(interner.intern(bytes, 0, 13));
+        assertNull(interner.intern(bytes, 1, 14));
+        assertNull(interner.intern(bytes, 0, 0));
+        // Same length and sampled bytes, but different content.
+        assertNull(interner.intern("content-lxngth".getBytes(CharsetUtil.US_ASCII), 0, 14));
+        // Matching is case-sensitive.
+        assertNull(interner.intern("Content-Length".getBytes(CharsetUtil.US_ASCII), 0, 14));
+
+        AsciiString unknown = new AsciiString("unknown");
+        assertSame(unknown, interner.intern(unknown));
+    }
+
+    @Test
+    public void testInternFromByteBuf() {
+        AsciiStringInterner interner = new AsciiStringInterner(NAMES);
+        for (AsciiString name : NAMES) {
+            byte[] bytes = ("  " + name + ": ").getBytes(CharsetUtil.US_ASCII);
+            ByteBuf heap = Unpooled.wrappedBuffer(bytes);
+            ByteBuf direct = Unpooled.directBuffer().writeBytes(bytes);
+            try {
+                assertSame(name, interner.intern(heap, 2, name.length()));
+                assertSame(name, interner.intern(direct, 2, name.length()));
+                assertNull(interner.intern(heap, 1, name.length()));
+                assertNull(interner.intern(direct, 1, name.length()));
+                assertEquals(0, heap.readerIndex());
+                assertEquals(0, direct.readerIndex());
+            } finally {
+                heap.release();
+                direct.release();
+            }
+        }
+    }
+
+    @Test
+    public void testSampledBytesCollide() {
+        // All strings share the length and the first, middle and last byte, so no perfect hash can be found.
+        List<AsciiString> names = new ArrayList<AsciiString>();
+        for (char c = 'a'; c <= 'z'; c++) {
+            names.add(new AsciiString("a" + c + "cd"));
+        }
+        AsciiStringInterner interner = new AsciiStringInterner(names);
+        assertFalse(interner.isPerfect());
+        for (AsciiString name : names) {
+            assertSame(name, interner.intern(name.toByteArray(), 0, name.length()));
+            ByteBuf direct = Unpooled.directBuffer().writeBytes(name.toByteArray());
+            try {
+                assertSame(name, interner.intern(direct, 0, name.length()));
+            } finally {
+                direct.release();
+            }
+        }
+        assertNull(interner.intern("a0cd".getBytes(CharsetUtil.US_ASCII), 0, 4));
+    }
+
+    @Test
+    public void testDuplicatesAndEmptyStringsAreIgnored() {
+        AsciiStringInterner interner = new AsciiStringInterner(
+                NAMES[0], new AsciiString(NAMES[0].toString()), AsciiString.EMPTY_STRING);
+        assertEquals(1, interner.strings().size());
+        assertSame(NAMES[0], interner.strings().get(0));
+    }
+}
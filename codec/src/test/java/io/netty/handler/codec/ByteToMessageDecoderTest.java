@@ -635,6 +635,16 @@ public class ByteToMessageDecoderTest {
         testReusedBuffer(Unpooled.buffer(1024), true, ByteToMessageDecoder.COMPOSITE_CUMULATOR);
     }
 
+    @Test
+    public void testReuseInputBufferJustLargeEnoughToContainMessage_RingCompositeCumulator() {
+        testReusedBuffer(Unpooled.buffer(16), false, ByteToMessageDecoder.RING_COMPOSITE_CUMULATOR);
+    }
+
+    @Test
+    public void testReuseInputBufferSufficientlyLargeToContainDuplicateMessagePartiallyReceived2x_RingCumulator() {
+        testReusedBuffer(Unpooled.buffer(1024), true, ByteToMessageDecoder.RING_COMPOSITE_CUMULATOR);
+    }
+
     static void testReusedBuffer(ByteBuf buffer, boolean secondPartial, ByteToMessageDecoder.Cumulator cumulator) {
         ByteToMessageDecoder decoder = new ByteToMessageDecoder() {
             @Override
@@ -17,6 +17,7 @@ package io.netty.util;
 
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
+import io.netty.util.internal.AbstractReferenceCountUpdater;
 import io.netty.util.internal.ReferenceCountUpdater;
 
 /**
@@ -28,17 +29,26 @@ public abstract class AbstractReferenceCounted implements ReferenceCounted {
     private static final AtomicIntegerFieldUpdater<AbstractReferenceCounted> AIF_UPDATER =
             AtomicIntegerFieldUpdater.newUpdater(AbstractReferenceCounted.class, "refCnt");
 
-    private static final ReferenceCountUpdater<AbstractReferenceCounted> updater =
-            new ReferenceCountUpdater<AbstractReferenceCounted>() {
-        @Override
-        protected AtomicIntegerFieldUpdater<AbstractReferenceCounted> updater() {
-            return AIF_UPDATER;
-        }
-        @Override
-        protected long unsafeOffset() {
-            return REFCNT_FIELD_OFFSET;
+    private static final AbstractReferenceCountUpdater<AbstractReferenceCounted> updater = newUpdater();
+
+    private static AbstractReferenceCountUpdater<AbstractReferenceCounted> newUpdater() {
+        AbstractReferenceCountUpdater<AbstractReferenceCounted> updater =
+                AbstractReferenceCountUpdater.newVarHandleUpdater(
+                        AbstractReferenceCounted.class, "io.netty.util.VarHandleReferenceCountUpdater");
+        if (updater != null) {
+            return updater;
         }
-    };
+        return new ReferenceCountUpdater<AbstractReferenceCounted>() {
+            @Override
+            protected AtomicIntegerFieldUpdater<AbstractReferenceCounted> updater() {
+                return AIF_UPDATER;
+            }
+            @Override
+            protected long unsafeOffset() {
+                return REFCNT_FIELD_OFFSET;
+            }
+        };
+    }
 
     // Value might not equal "real" reference count, all access should be via the updater
     @SuppressWarnings({"unused", "FieldMayBeFinal"})
@@ -535,17 +535,7 @@ public final class AsciiString implements CharSequence, Comparable<CharSequence>
 
         if (string instanceof AsciiString) {
             AsciiString other = (AsciiString) string;
-            byte[] value = this.value;
-            if (offset == 0 && other.offset == 0 && length == value.length) {
-                byte[] otherValue = other.value;
-                for (int i = 0; i < value.length; ++i) {
-                    if (!equalsIgnoreCase(value[i], otherValue[i])) {
-                        return false;
-                    }
-                }
-                return true;
-            }
-            return misalignedEqualsIgnoreCase(other);
+            return AsciiStringUtil.equalsIgnoreCase(value, offset, other.value, other.offset, length);
         }
 
         byte[] value = this.value;
@@ -557,17 +547,6 @@ public final class AsciiString implements CharSequence, Comparable<CharSequence>
         return true;
     }
 
-    private boolean misalignedEqualsIgnoreCase(AsciiString other) {
-        byte[] value = this.value;
-        byte[] otherValue = other.value;
-        for (int i = offset, j = other.offset, end = offset + length; i < end; ++i, ++j) {
-            if (!equalsIgnoreCase(value[i], otherValue[j])) {
-                return false;
-            }
-        }
-        return true;
-    }
-
     /**
      * Copies the characters in this string to a character array.
      *
@@ -710,16 +689,15 @@ public final class AsciiString implements CharSequence, Comparable<CharSequence>
             return INDEX_NOT_FOUND;
         }
         final byte firstCharAsByte = c2b0(firstChar);
-        final int len = offset + length - subCount;
-        for (int i = start + offset; i <= len; ++i) {
-            if (value[i] == firstCharAsByte) {
-                int o1 = i, o2 = 0;
-                while (++o2 < subCount && b2c(value[++o1]) == subString.charAt(o2)) {
-                    // Intentionally empty
-                }
-                if (o2 == subCount) {
-                    return i - offset;
-                }
+        final int end = offset + length - subCount + 1;
+        for (int i = AsciiStringUtil.firstIndexOf(value, start + offset, end, firstCharAsByte); i >= 0;
+             i = AsciiStringUtil.firstIndexOf(value, i + 1, end, firstCharAsByte)) {
+            int o1 = i, o2 = 0;
+            while (++o2 < subCount && b2c(value[++o1]) == subString.charAt(o2)) {
+                // Intentionally empty
+            }
+            if (o2 == subCount) {
+                return i - offset;
             }
         }
         return INDEX_NOT_FOUND;
@@ -743,14 +721,8 @@ public final class AsciiString implements CharSequence, Comparable<CharSequence>
             start = 0;
         }
 
-        final byte chAsByte = c2b0(ch);
-        final int len = offset + length;
-        for (int i = start + offset; i < len; ++i) {
-            if (value[i] == chAsByte) {
-                return i - offset;
-            }
-        }
-        return INDEX_NOT_FOUND;
+        final int index = AsciiStringUtil.firstIndexOf(value, start + offset, offset + length, c2b0(ch));
+        return index < 0 ? INDEX_NOT_FOUND : index - offset;
     }
 
     /**
@@ -1792,10 +1764,6 @@ public final class AsciiString implements CharSequence, Comparable<CharSequence>
         return INDEX_NOT_FOUND;
     }
 
-    private static boolean equalsIgnoreCase(byte a, byte b) {
-        return a == b || AsciiStringUtil.toLowerCase(a) == AsciiStringUtil.toLowerCase(b);
-    }
-
     private static boolean equalsIgnoreCase(char a, char b) {
         return a == b || toLowerCase(a) == toLowerCase(b);
     }
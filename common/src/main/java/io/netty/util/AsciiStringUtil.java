@@ -251,6 +251,84 @@ final class AsciiStringUtil {
         }
     }
 
+    /**
+     * Returns {@code true} if the given ranges of the two byte arrays are equal when ignoring the case of ASCII
+     * characters.
+     */
+    static boolean equalsIgnoreCase(final byte[] a, int aOffset, final byte[] b, int bOffset, final int length) {
+        if (!PlatformDependent.isUnaligned()) {
+            return linearEqualsIgnoreCase(a, aOffset, b, bOffset, length);
+        }
+
+        final int longCount = length >>> 3;
+        for (int i = 0; i < longCount; ++i) {
+            final long aWord = PlatformDependent.getLong(a, aOffset);
+            final long bWord = PlatformDependent.getLong(b, bOffset);
+            if (aWord != bWord && SWARUtil.toLowerCase(aWord) != SWARUtil.toLowerCase(bWord)) {
+                return false;
+            }
+            aOffset += Long.BYTES;
+            bOffset += Long.BYTES;
+        }
+        final int byteCount = length & 7;
+        if ((byteCount & Integer.BYTES) != 0) {
+            final int aWord = PlatformDependent.getInt(a, aOffset);
+            final int bWord = PlatformDependent.getInt(b, bOffset);
+            if (aWord != bWord && SWARUtil.toLowerCase(aWord) != SWARUtil.toLowerCase(bWord)) {
+                return false;
+            }
+            aOffset += Integer.BYTES;
+            bOffset += Integer.BYTES;
+        }
+        return linearEqualsIgnoreCase(a, aOffset, b, bOffset, byteCount & 3);
+    }
+
+    private static boolean linearEqualsIgnoreCase(final byte[] a, final int aOffset,
+                                                  final byte[] b, final int bOffset, final int length) {
+        for (int i = 0; i < length; ++i) {
+            final byte aValue = a[aOffset + i];
+            final byte bValue = b[bOffset + i];
+            if (aValue != bValue && toLowerCase(aValue) != toLowerCase(bValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code value} in the byte array, searching from
+     * {@code fromIndex} (inclusive) to {@code toIndex} (exclusive), or {@code -1} if it is not found.
+     */
+    static int firstIndexOf(final byte[] byteArray, int fromIndex, final int toIndex, final byte value) {
+        if (!PlatformDependent.isUnaligned()) {
+            return linearFirstIndexOf(byteArray, fromIndex, toIndex, value);
+        }
+
+        final int longCount = Math.max(0, toIndex - fromIndex) >>> 3;
+        if (longCount > 0) {
+            final long pattern = SWARUtil.compilePattern(value);
+            for (int i = 0; i < longCount; ++i) {
+                final long word = PlatformDependent.getLong(byteArray, fromIndex);
+                final long result = SWARUtil.applyPattern(word, pattern);
+                if (result != 0) {
+                    return fromIndex + SWARUtil.getIndex(result, PlatformDependent.BIG_ENDIAN_NATIVE_ORDER);
+                }
+                fromIndex += Long.BYTES;
+            }
+        }
+        return linearFirstIndexOf(byteArray, fromIndex, toIndex, value);
+    }
+
+    private static int linearFirstIndexOf(final byte[] byteArray, final int fromIndex, final int toIndex,
+                                          final byte value) {
+        for (int idx = fromIndex; idx < toIndex; ++idx) {
+            if (byteArray[idx] == value) {
+                return idx;
+            }
+        }
+        return -1;
+    }
+
     private static boolean isLowerCase(final byte value) {
         return value >= 'a' && value <= 'z';
     }
@@ -22,11 +22,14 @@ import static io.netty.util.internal.ObjectUtil.checkNotNull;
 import io.netty.util.concurrent.ImmediateExecutor;
 import io.netty.util.internal.MathUtil;
 import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -82,6 +85,21 @@ import static io.netty.util.internal.StringUtil.simpleClassName;
  * and Hierarchical Timing Wheels: data structures to efficiently implement a
  * timer facility'</a>.  More comprehensive slides are located
  * <a href="https://www.cse.wustl.edu/~cdgill/courses/cs6874/TimingWheels.ppt">here</a>.
+ *
+ * <h3>Hierarchical Wheel</h3>
+ *
+ * By default a timeout whose deadline is more than one wheel revolution away is put into the bucket of its
+ * deadline together with the number of remaining rounds, which means the worker has to visit it on every
+ * revolution. With many long timeouts (for example session expiry) this makes the worker spend most of its time
+ * walking buckets. In hierarchical mode the wheel is backed by additional levels whose buckets each cover a whole
+ * revolution of the level below, and the timeouts of a bucket are only moved down one level once the worker
+ * reaches it. Every timeout is therefore visited at most once per level.
+ *
+ * <h3>Batched Expiry</h3>
+ *
+ * By default each expired {@link TimerTask} is submitted to the task {@link Executor} on its own. If an expiry
+ * batch size greater than {@code 1} is configured, the tasks that expire within the same tick are submitted
+ * together in batches of up to that size, which reduces the overhead of executors that are expensive to submit to.
  */
 public class HashedWheelTimer implements Timer {
 
@@ -117,6 +135,18 @@ public class HashedWheelTimer implements Timer {
     private final AtomicLong pendingTimeouts = new AtomicLong(0);
     private final long maxPendingTimeouts;
     private final Executor taskExecutor;
+    // The levels of the wheel in hierarchical mode, levels[0] is the wheel itself. null otherwise.
+    private final HashedWheelBucket[][] levels;
+    private final int wheelBits;
+    private final int expiryBatchSize;
+    private final HashedWheelTimerMetric metric = new HashedWheelTimerMetric(this);
+
+    // Only modified by the worker thread, published to the metric once per tick.
+    private int occupiedBuckets;
+    private volatile int occupiedBucketsSnapshot;
+    private volatile long tickLagNanos;
+    private volatile long maxTickLagNanos;
+    private volatile long expiredTimeouts;
 
     private volatile long startTime;
 
@@ -279,16 +309,68 @@ public class HashedWheelTimer implements Timer {
             ThreadFactory threadFactory,
             long tickDuration, TimeUnit unit, int ticksPerWheel, boolean leakDetection,
             long maxPendingTimeouts, Executor taskExecutor) {
+        this(threadFactory, tickDuration, unit, ticksPerWheel, leakDetection, maxPendingTimeouts, taskExecutor,
+                false, 1);
+    }
+
+    /**
+     * Creates a new timer.
+     *
+     * @param threadFactory        a {@link ThreadFactory} that creates a
+     *                             background {@link Thread} which is dedicated to
+     *                             {@link TimerTask} execution.
+     * @param tickDuration         the duration between tick
+     * @param unit                 the time unit of the {@code tickDuration}
+     * @param ticksPerWheel        the size of the wheel, and of each level of the wheel in hierarchical mode
+     * @param leakDetection        {@code true} if leak detection should be enabled always,
+     *                             if false it will only be enabled if the worker thread is not
+     *                             a daemon thread.
+     * @param maxPendingTimeouts   The maximum number of pending timeouts after which call to
+     *                             {@code newTimeout} will result in
+     *                             {@link java.util.concurrent.RejectedExecutionException}
+     *                             being thrown. No maximum pending timeouts limit is assumed if
+     *                             this value is 0 or negative.
+     * @param taskExecutor         The {@link Executor} that is used to execute the submitted {@link TimerTask}s.
+     *                             The caller is responsible to shutdown the {@link Executor} once it is not needed
+     *                             anymore.
+     * @param hierarchical         {@code true} if timeouts that are more than one revolution away should be kept
+     *                             in the higher levels of a hierarchical wheel.
+     * @param expiryBatchSize      the maximum number of {@link TimerTask}s that expire within the same tick and
+     *                             are submitted to the {@code taskExecutor} together, {@code 1} to submit each
+     *                             {@link TimerTask} on its own.
+     * @throws NullPointerException     if either of {@code threadFactory} and {@code unit} is {@code null}
+     * @throws IllegalArgumentException if either of {@code tickDuration}, {@code ticksPerWheel} and
+     *                                  {@code expiryBatchSize} is &lt;= 0, or if {@code hierarchical} is
+     *                                  {@code true} and {@code ticksPerWheel} is &lt; 2
+     */
+    @UnstableApi
+    public HashedWheelTimer(
+            ThreadFactory threadFactory,
+            long tickDuration, TimeUnit unit, int ticksPerWheel, boolean leakDetection,
+            long maxPendingTimeouts, Executor taskExecutor, boolean hierarchical, int expiryBatchSize) {
 
         checkNotNull(threadFactory, "threadFactory");
         checkNotNull(unit, "unit");
         checkPositive(tickDuration, "tickDuration");
         checkPositive(ticksPerWheel, "ticksPerWheel");
         this.taskExecutor = checkNotNull(taskExecutor, "taskExecutor");
+        this.expiryBatchSize = checkPositive(expiryBatchSize, "expiryBatchSize");
 
         // Normalize ticksPerWheel to power of two and initialize the wheel.
         wheel = createWheel(ticksPerWheel);
         mask = wheel.length - 1;
+        wheelBits = Integer.numberOfTrailingZeros(wheel.length);
+        if (hierarchical) {
+            if (wheelBits == 0) {
+                throw new IllegalArgumentException(
+                        "ticksPerWheel: " + ticksPerWheel + " (expected: >= 2 for a hierarchical wheel)");
+            }
+            // Enough levels to cover all positive ticks, the higher levels are created on demand.
+            levels = new HashedWheelBucket[(Long.SIZE - 1 + wheelBits - 1) / wheelBits][];
+            levels[0] = wheel;
+        } else {
+            levels = null;
+        }
 
         // Convert tickDuration to nanos.
         long duration = unit.toNanos(tickDuration);
@@ -464,6 +546,37 @@ public class HashedWheelTimer implements Timer {
         return pendingTimeouts.get();
     }
 
+    /**
+     * Returns a {@link HashedWheelTimerMetric} for this {@link Timer}.
+     */
+    @UnstableApi
+    public HashedWheelTimerMetric metric() {
+        return metric;
+    }
+
+    /**
+     * Returns {@code true} if this timer uses a hierarchical wheel.
+     */
+    boolean isHierarchical() {
+        return levels != null;
+    }
+
+    long tickLagNanos() {
+        return tickLagNanos;
+    }
+
+    long maxTickLagNanos() {
+        return maxTickLagNanos;
+    }
+
+    int occupiedBuckets() {
+        return occupiedBucketsSnapshot;
+    }
+
+    long expiredTimeouts() {
+        return expiredTimeouts;
+    }
+
     private static void reportTooManyInstances() {
         if (logger.isErrorEnabled()) {
             String resourceType = simpleClassName(HashedWheelTimer.class);
@@ -475,6 +588,8 @@ public class HashedWheelTimer implements Timer {
 
     private final class Worker implements Runnable {
         private final Set<Timeout> unprocessedTimeouts = new HashSet<Timeout>();
+        // Timeouts that expired within the current tick and are not submitted yet, only used if batching.
+        private final List<HashedWheelTimeout> expired = new ArrayList<HashedWheelTimeout>();
 
         private long tick;
 
@@ -498,14 +613,31 @@ public class HashedWheelTimer implements Timer {
                     HashedWheelBucket bucket =
                             wheel[idx];
                     transferTimeoutsToBuckets();
-                    bucket.expireTimeouts(deadline);
+                    if (levels != null) {
+                        cascadeTimeouts();
+                    }
+                    bucket.expireTimeouts(deadline, expiryBatchSize > 1 ? expired : null);
+                    if (!expired.isEmpty()) {
+                        submitExpired();
+                    }
+                    recordTick();
                     tick++;
                 }
             } while (WORKER_STATE_UPDATER.get(HashedWheelTimer.this) == WORKER_STATE_STARTED);
 
             // Fill the unprocessedTimeouts so we can return them from stop() method.
-            for (HashedWheelBucket bucket: wheel) {
-                bucket.clearTimeouts(unprocessedTimeouts);
+            if (levels != null) {
+                for (HashedWheelBucket[] level : levels) {
+                    if (level != null) {
+                        for (HashedWheelBucket bucket : level) {
+                            bucket.clearTimeouts(unprocessedTimeouts);
+                        }
+                    }
+                }
+            } else {
+                for (HashedWheelBucket bucket: wheel) {
+                    bucket.clearTimeouts(unprocessedTimeouts);
+                }
             }
             for (;;) {
                 HashedWheelTimeout timeout = timeouts.poll();
@@ -534,9 +666,13 @@ public class HashedWheelTimer implements Timer {
                 }
 
                 long calculated = timeout.deadline / tickDuration;
+                final long ticks = Math.max(calculated, tick); // Ensure we don't schedule for past.
+                if (levels != null) {
+                    levelBucket(ticks).addTimeout(timeout);
+                    continue;
+                }
                 timeout.remainingRounds = (calculated - tick) / wheel.length;
 
-                final long ticks = Math.max(calculated, tick); // Ensure we don't schedule for past.
                 int stopIndex = (int) (ticks & mask);
 
                 HashedWheelBucket bucket = wheel[stopIndex];
@@ -544,6 +680,71 @@ public class HashedWheelTimer implements Timer {
             }
         }
 
+        /**
+         * Returns the bucket of the hierarchical wheel for the given tick, which is the bucket on the highest level
+         * in which {@code ticks} differs from the current tick.
+         */
+        private HashedWheelBucket levelBucket(long ticks) {
+            long diff = ticks ^ tick;
+            int level = diff == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(diff)) / wheelBits;
+            HashedWheelBucket[] buckets = levels[level];
+            if (buckets == null) {
+                buckets = levels[level] = createWheel(wheel.length);
+            }
+            return buckets[(int) (ticks >>> level * wheelBits) & mask];
+        }
+
+        /**
+         * Move the timeouts of all higher level buckets that start at the current tick one or more levels down.
+         * The highest level goes first, so that its timeouts can be moved down further in the same tick.
+         */
+        private void cascadeTimeouts() {
+            for (int level = levels.length - 1; level > 0; level--) {
+                HashedWheelBucket[] buckets = levels[level];
+                int shift = level * wheelBits;
+                if (buckets == null || (tick & (1L << shift) - 1) != 0) {
+                    continue;
+                }
+                HashedWheelBucket bucket = buckets[(int) (tick >>> shift) & mask];
+                for (;;) {
+                    HashedWheelTimeout timeout = bucket.pollTimeout();
+                    if (timeout == null) {
+                        break;
+                    }
+                    if (timeout.isCancelled()) {
+                        // Accounted for once processCancelledTasks() picks it up.
+                        continue;
+                    }
+                    levelBucket(Math.max(timeout.deadline / tickDuration, tick)).addTimeout(timeout);
+                }
+            }
+        }
+
+        private void submitExpired() {
+            int size = expired.size();
+            for (int i = 0; i < size; i += expiryBatchSize) {
+                List<HashedWheelTimeout> batch = expired.subList(i, Math.min(size, i + expiryBatchSize));
+                try {
+                    taskExecutor.execute(new ExpiryBatch(batch.toArray(new HashedWheelTimeout[0])));
+                } catch (Throwable t) {
+                    if (logger.isWarnEnabled()) {
+                        logger.warn("An exception was thrown while submit " + TimerTask.class.getSimpleName()
+                                + "s for execution.", t);
+                    }
+                }
+            }
+            expired.clear();
+        }
+
+        private void recordTick() {
+            long lag = System.nanoTime() - startTime - tickDuration * (tick + 1);
+            tickLagNanos = lag;
+            if (lag > maxTickLagNanos) {
+                maxTickLagNanos = lag;
+            }
+            occupiedBucketsSnapshot = occupiedBuckets;
+        }
+
         private void processCancelledTasks() {
             for (;;) {
                 HashedWheelTimeout timeout = cancelledTimeouts.poll();
@@ -609,6 +810,24 @@ public class HashedWheelTimer implements Timer {
         }
     }
 
+    /**
+     * Runs {@link HashedWheelTimeout}s that expired within the same tick.
+     */
+    private static final class ExpiryBatch implements Runnable {
+        private final HashedWheelTimeout[] timeouts;
+
+        ExpiryBatch(HashedWheelTimeout[] timeouts) {
+            this.timeouts = timeouts;
+        }
+
+        @Override
+        public void run() {
+            for (HashedWheelTimeout timeout : timeouts) {
+                timeout.run();
+            }
+        }
+    }
+
     private static final class HashedWheelTimeout implements Timeout, Runnable {
 
         private static final int ST_INIT = 0;
@@ -693,7 +912,7 @@ public class HashedWheelTimer implements Timer {
         }
 
         public void expire() {
-            if (!compareAndSetState(ST_INIT, ST_EXPIRED)) {
+            if (!markExpired()) {
                 return;
             }
 
@@ -707,6 +926,14 @@ public class HashedWheelTimer implements Timer {
             }
         }
 
+        boolean markExpired() {
+            if (!compareAndSetState(ST_INIT, ST_EXPIRED)) {
+                return false;
+            }
+            timer.expiredTimeouts++;
+            return true;
+        }
+
         @Override
         public void run() {
             try {
@@ -765,6 +992,7 @@ public class HashedWheelTimer implements Timer {
             assert timeout.bucket == null;
             timeout.bucket = this;
             if (head == null) {
+                timeout.timer.occupiedBuckets++;
                 head = tail = timeout;
             } else {
                 tail.next = timeout;
@@ -774,9 +1002,10 @@ public class HashedWheelTimer implements Timer {
         }
 
         /**
-         * Expire all {@link HashedWheelTimeout}s for the given {@code deadline}.
+         * Expire all {@link HashedWheelTimeout}s for the given {@code deadline}. If {@code batch} is not
+         * {@code null} the expired {@link HashedWheelTimeout}s are added to it instead of being submitted.
          */
-        public void expireTimeouts(long deadline) {
+        public void expireTimeouts(long deadline, List<HashedWheelTimeout> batch) {
             HashedWheelTimeout timeout = head;
 
             // process all timeouts
@@ -785,7 +1014,11 @@ public class HashedWheelTimer implements Timer {
                 if (timeout.remainingRounds <= 0) {
                     next = remove(timeout);
                     if (timeout.deadline <= deadline) {
-                        timeout.expire();
+                        if (batch == null) {
+                            timeout.expire();
+                        } else if (timeout.markExpired()) {
+                            batch.add(timeout);
+                        }
                     } else {
                         // The timeout was placed into a wrong slot. This should never happen.
                         throw new IllegalStateException(String.format(
@@ -815,6 +1048,7 @@ public class HashedWheelTimer implements Timer {
                 if (timeout == tail) {
                     tail = null;
                     head = null;
+                    timeout.timer.occupiedBuckets--;
                 } else {
                     head = next;
                 }
@@ -854,6 +1088,7 @@ public class HashedWheelTimer implements Timer {
             HashedWheelTimeout next = head.next;
             if (next == null) {
                 tail = this.head =  null;
+                head.timer.occupiedBuckets--;
             } else {
                 this.head = next;
                 next.prev = null;
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util;
+
+import io.netty.util.internal.StringUtil;
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Exposed metric for {@link HashedWheelTimer}. All values except {@link #pendingTimeouts()} are updated by the worker
+ * thread once per tick.
+ */
+@UnstableApi
+public final class HashedWheelTimerMetric {
+
+    private final HashedWheelTimer timer;
+
+    HashedWheelTimerMetric(HashedWheelTimer timer) {
+        this.timer = timer;
+    }
+
+    /**
+     * Return the number of pending timeouts, which includes timeouts that were not yet moved into the wheel.
+     */
+    public long pendingTimeouts() {
+        return timer.pendingTimeouts();
+    }
+
+    /**
+     * Return {@code true} if the timer uses a hierarchical wheel.
+     */
+    public boolean isHierarchical() {
+        return timer.isHierarchical();
+    }
+
+    /**
+     * Return how many nanoseconds the processing of the last tick finished after the tick was due. A value that is
+     * close to or larger than the tick duration means the worker thread can not keep up.
+     */
+    public long tickLagNanos() {
+        return timer.tickLagNanos();
+    }
+
+    /**
+     * Return the largest {@link #tickLagNanos()} that was observed since the timer was started.
+     */
+    public long maxTickLagNanos() {
+        return timer.maxTickLagNanos();
+    }
+
+    /**
+     * Return the number of buckets that hold at least one timeout, including the buckets on higher levels of a
+     * hierarchical wheel.
+     */
+    public int occupiedBuckets() {
+        return timer.occupiedBuckets();
+    }
+
+    /**
+     * Return the number of timeouts that expired since the timer was started.
+     */
+    public long expiredTimeouts() {
+        return timer.expiredTimeouts();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(192);
+        sb.append(StringUtil.simpleClassName(this))
+                .append("(pendingTimeouts: ").append(pendingTimeouts())
+                .append("; hierarchical: ").append(isHierarchical())
+                .append("; tickLagNanos: ").append(tickLagNanos())
+                .append("; maxTickLagNanos: ").append(maxTickLagNanos())
+                .append("; occupiedBuckets: ").append(occupiedBuckets())
+                .append("; expiredTimeouts: ").append(expiredTimeouts())
+                .append(')');
+        return sb.toString();
+    }
+}
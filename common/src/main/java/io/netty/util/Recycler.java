@@ -17,6 +17,7 @@ package io.netty.util;
 
 import io.netty.util.concurrent.FastThreadLocal;
 import io.netty.util.concurrent.FastThreadLocalThread;
+import io.netty.util.internal.MathUtil;
 import io.netty.util.internal.ObjectPool;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.SystemPropertyUtil;
@@ -30,6 +31,7 @@ import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
+import static io.netty.util.internal.PlatformDependent.newFixedMpmcQueue;
 import static io.netty.util.internal.PlatformDependent.newMpscQueue;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
@@ -63,6 +65,9 @@ public abstract class Recycler<T> {
     private static final int DEFAULT_QUEUE_CHUNK_SIZE_PER_THREAD;
     private static final boolean BLOCKING_POOL;
     private static final boolean BATCH_FAST_TL_ONLY;
+    private static final boolean VIRTUAL_THREAD_SHARED_POOL;
+    private static final int VIRTUAL_THREAD_POOL_STRIPES =
+            MathUtil.findNextPositivePowerOfTwo(NettyRuntime.availableProcessors());
 
     static {
         // In the future, we might have different maxCapacity for different object types.
@@ -84,6 +89,8 @@ public abstract class Recycler<T> {
 
         BLOCKING_POOL = SystemPropertyUtil.getBoolean("io.netty.recycler.blocking", false);
         BATCH_FAST_TL_ONLY = SystemPropertyUtil.getBoolean("io.netty.recycler.batchFastThreadLocalOnly", true);
+        // Virtual threads are too short-lived to benefit from a pool of their own, so they share striped pools.
+        VIRTUAL_THREAD_SHARED_POOL = SystemPropertyUtil.getBoolean("io.netty.recycler.virtualThreadSharedPool", true);
 
         if (logger.isDebugEnabled()) {
             if (DEFAULT_MAX_CAPACITY_PER_THREAD == 0) {
@@ -92,12 +99,14 @@ public abstract class Recycler<T> {
                 logger.debug("-Dio.netty.recycler.chunkSize: disabled");
                 logger.debug("-Dio.netty.recycler.blocking: disabled");
                 logger.debug("-Dio.netty.recycler.batchFastThreadLocalOnly: disabled");
+                logger.debug("-Dio.netty.recycler.virtualThreadSharedPool: disabled");
             } else {
                 logger.debug("-Dio.netty.recycler.maxCapacityPerThread: {}", DEFAULT_MAX_CAPACITY_PER_THREAD);
                 logger.debug("-Dio.netty.recycler.ratio: {}", RATIO);
                 logger.debug("-Dio.netty.recycler.chunkSize: {}", DEFAULT_QUEUE_CHUNK_SIZE_PER_THREAD);
                 logger.debug("-Dio.netty.recycler.blocking: {}", BLOCKING_POOL);
                 logger.debug("-Dio.netty.recycler.batchFastThreadLocalOnly: {}", BATCH_FAST_TL_ONLY);
+                logger.debug("-Dio.netty.recycler.virtualThreadSharedPool: {}", VIRTUAL_THREAD_SHARED_POOL);
             }
         }
     }
@@ -108,7 +117,7 @@ public abstract class Recycler<T> {
     private final FastThreadLocal<LocalPool<T>> threadLocal = new FastThreadLocal<LocalPool<T>>() {
         @Override
         protected LocalPool<T> initialValue() {
-            return new LocalPool<T>(maxCapacityPerThread, interval, chunkSize);
+            return new LocalPool<T>(maxCapacityPerThread, interval, chunkSize, false);
         }
 
         @Override
@@ -120,6 +129,8 @@ public abstract class Recycler<T> {
             handles.clear();
         }
     };
+    // Lazily created once the first virtual thread uses this Recycler.
+    private volatile LocalPool<T>[] sharedPools;
 
     protected Recycler() {
         this(DEFAULT_MAX_CAPACITY_PER_THREAD);
@@ -177,7 +188,9 @@ public abstract class Recycler<T> {
         if (maxCapacityPerThread == 0) {
             return newObject((Handle<T>) NOOP_HANDLE);
         }
-        LocalPool<T> localPool = threadLocal.get();
+        Thread currentThread = Thread.currentThread();
+        LocalPool<T> localPool = VIRTUAL_THREAD_SHARED_POOL && PlatformDependent.isVirtualThread(currentThread) ?
+                sharedPool(currentThread) : threadLocal.get();
         DefaultHandle<T> handle = localPool.claim();
         T obj;
         if (handle == null) {
@@ -195,6 +208,30 @@ public abstract class Recycler<T> {
         return obj;
     }
 
+    private LocalPool<T> sharedPool(Thread currentThread) {
+        LocalPool<T>[] pools = sharedPools;
+        if (pools == null) {
+            pools = newSharedPools();
+        }
+        // The identity hash code spreads the threads evenly, and unlike Thread.getId() it is not deprecated.
+        return pools[System.identityHashCode(currentThread) & pools.length - 1];
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized LocalPool<T>[] newSharedPools() {
+        LocalPool<T>[] pools = sharedPools;
+        if (pools == null) {
+            pools = new LocalPool[VIRTUAL_THREAD_POOL_STRIPES];
+            // All stripes together hold about as many objects as the pool of a single platform thread.
+            int maxCapacity = max(chunkSize, maxCapacityPerThread / pools.length);
+            for (int i = 0; i < pools.length; i++) {
+                pools[i] = new LocalPool<T>(maxCapacity, interval, chunkSize, true);
+            }
+            sharedPools = pools;
+        }
+        return pools;
+    }
+
     /**
      * @deprecated use {@link Handle#recycle(Object)}.
      */
@@ -297,20 +334,26 @@ public abstract class Recycler<T> {
     private static final class LocalPool<T> implements MessagePassingQueue.Consumer<DefaultHandle<T>> {
         private final int ratioInterval;
         private final int chunkSize;
+        // Shared by many threads, so handles are claimed directly from the MPMC queue without batching.
+        private final boolean shared;
         private final ArrayDeque<DefaultHandle<T>> batch;
         private volatile Thread owner;
         private volatile MessagePassingQueue<DefaultHandle<T>> pooledHandles;
         private int ratioCounter;
 
         @SuppressWarnings("unchecked")
-        LocalPool(int maxCapacity, int ratioInterval, int chunkSize) {
+        LocalPool(int maxCapacity, int ratioInterval, int chunkSize, boolean shared) {
             this.ratioInterval = ratioInterval;
             this.chunkSize = chunkSize;
-            batch = new ArrayDeque<DefaultHandle<T>>(chunkSize);
+            this.shared = shared;
+            batch = new ArrayDeque<DefaultHandle<T>>(shared ? 0 : chunkSize);
             Thread currentThread = Thread.currentThread();
-            owner = !BATCH_FAST_TL_ONLY || currentThread instanceof FastThreadLocalThread ? currentThread : null;
+            owner = !shared && (!BATCH_FAST_TL_ONLY || currentThread instanceof FastThreadLocalThread) ?
+                    currentThread : null;
             if (BLOCKING_POOL) {
                 pooledHandles = new BlockingMessageQueue<DefaultHandle<T>>(maxCapacity);
+            } else if (shared) {
+                pooledHandles = (MessagePassingQueue<DefaultHandle<T>>) newFixedMpmcQueue(maxCapacity);
             } else {
                 pooledHandles = (MessagePassingQueue<DefaultHandle<T>>) newMpscQueue(chunkSize, maxCapacity);
             }
@@ -322,6 +365,13 @@ public abstract class Recycler<T> {
             if (handles == null) {
                 return null;
             }
+            if (shared) {
+                DefaultHandle<T> handle = handles.relaxedPoll();
+                if (handle != null) {
+                    handle.toClaimed();
+                }
+                return handle;
+            }
             if (batch.isEmpty()) {
                 handles.drain(this, chunkSize);
             }
@@ -359,6 +409,7 @@ public abstract class Recycler<T> {
         }
 
         DefaultHandle<T> newHandle() {
+            // Racy if shared, which is fine as the ratio does not need to be exact.
             if (++ratioCounter >= ratioInterval) {
                 ratioCounter = 0;
                 return new DefaultHandle<T>(this);
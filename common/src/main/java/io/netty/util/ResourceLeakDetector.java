@@ -26,12 +26,21 @@ import io.netty.util.internal.logging.InternalLoggerFactory;
 import java.lang.ref.WeakReference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
@@ -52,8 +61,23 @@ public class ResourceLeakDetector<T> {
     // There is a minor performance benefit in TLR if this is a power of 2.
     private static final int DEFAULT_SAMPLING_INTERVAL = 128;
 
+    private static final String PROP_SITES = "io.netty.leakDetection.allocationSites";
+    private static final boolean DEFAULT_SITES = false;
+
+    private static final String PROP_SITE_DEPTH = "io.netty.leakDetection.allocationSiteDepth";
+    private static final int DEFAULT_SITE_DEPTH = 4;
+
+    private static final String PROP_MAX_SITES = "io.netty.leakDetection.maxAllocationSites";
+    private static final int DEFAULT_MAX_SITES = 1024;
+
+    // Used for all allocation sites once maxAllocationSites distinct sites are known.
+    private static final String OTHER_SITE = "<other>";
+
     private static final int TARGET_RECORDS;
     static final int SAMPLING_INTERVAL;
+    private static final boolean SITES;
+    private static final int SITE_DEPTH;
+    private static final int MAX_SITES;
 
     /**
      * Represents the level of resource leak detection.
@@ -123,11 +147,17 @@ public class ResourceLeakDetector<T> {
 
         TARGET_RECORDS = SystemPropertyUtil.getInt(PROP_TARGET_RECORDS, DEFAULT_TARGET_RECORDS);
         SAMPLING_INTERVAL = SystemPropertyUtil.getInt(PROP_SAMPLING_INTERVAL, DEFAULT_SAMPLING_INTERVAL);
+        SITES = SystemPropertyUtil.getBoolean(PROP_SITES, DEFAULT_SITES);
+        SITE_DEPTH = Math.max(1, SystemPropertyUtil.getInt(PROP_SITE_DEPTH, DEFAULT_SITE_DEPTH));
+        MAX_SITES = Math.max(1, SystemPropertyUtil.getInt(PROP_MAX_SITES, DEFAULT_MAX_SITES));
 
         ResourceLeakDetector.level = level;
         if (logger.isDebugEnabled()) {
             logger.debug("-D{}: {}", PROP_LEVEL, level.name().toLowerCase());
             logger.debug("-D{}: {}", PROP_TARGET_RECORDS, TARGET_RECORDS);
+            logger.debug("-D{}: {}", PROP_SITES, SITES);
+            logger.debug("-D{}: {}", PROP_SITE_DEPTH, SITE_DEPTH);
+            logger.debug("-D{}: {}", PROP_MAX_SITES, MAX_SITES);
         }
     }
 
@@ -165,9 +195,14 @@ public class ResourceLeakDetector<T> {
             Collections.newSetFromMap(new ConcurrentHashMap<DefaultResourceLeak<?>, Boolean>());
 
     private final ReferenceQueue<Object> refQueue = new ReferenceQueue<Object>();
+    /** the records of the leaks that were collected but not reported yet */
+    private final Queue<String> unreportedLeaks = new ConcurrentLinkedQueue<String>();
     private final Set<String> reportedLeaks =
             Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
+    /** the number of leaks detected per allocation site, bounded by {@link #MAX_SITES} */
+    private final ConcurrentMap<String, AtomicLong> leaksPerSite = new ConcurrentHashMap<String, AtomicLong>();
+
     private final String resourceType;
     private final int samplingInterval;
 
@@ -176,6 +211,8 @@ public class ResourceLeakDetector<T> {
      */
     private volatile LeakListener leakListener;
 
+    private volatile boolean allocationSitesEnabled = SITES;
+
     /**
      * @deprecated use {@link ResourceLeakDetectorFactory#newResourceLeakDetector(Class, int, long)}.
      */
@@ -271,19 +308,32 @@ public class ResourceLeakDetector<T> {
                 level == Level.PARANOID ||
                 (level != Level.DISABLED && PlatformDependent.threadLocalRandom().nextInt(samplingInterval) == 0)) {
             reportLeak();
-            return new DefaultResourceLeak(obj, refQueue, allLeaks, getInitialHint(resourceType));
+            return new DefaultResourceLeak(obj, refQueue, allLeaks, getInitialHint(resourceType),
+                    allocationSitesEnabled);
         }
         return null;
     }
 
-    private void clearRefQueue() {
-        for (;;) {
-            DefaultResourceLeak ref = (DefaultResourceLeak) refQueue.poll();
-            if (ref == null) {
-                break;
+    private void countLeak(DefaultResourceLeak<?> ref) {
+        String site = ref.allocationSite();
+        if (site == null) {
+            return;
+        }
+        AtomicLong count = leaksPerSite.get(site);
+        if (count == null) {
+            if (leaksPerSite.size() >= MAX_SITES) {
+                site = OTHER_SITE;
+            }
+            count = leaksPerSite.get(site);
+            if (count == null) {
+                AtomicLong newCount = new AtomicLong();
+                count = leaksPerSite.putIfAbsent(site, newCount);
+                if (count == null) {
+                    count = newCount;
+                }
             }
-            ref.dispose();
         }
+        count.incrementAndGet();
     }
 
     /**
@@ -296,13 +346,12 @@ public class ResourceLeakDetector<T> {
         return logger.isErrorEnabled();
     }
 
-    private void reportLeak() {
-        if (!needReport()) {
-            clearRefQueue();
-            return;
-        }
-
-        // Detect and report previous leaks.
+    /**
+     * Detects the objects that were garbage collected without being released since the last call and counts them
+     * per allocation site. Their records are queued for {@link #reportLeak()} if reporting is enabled.
+     */
+    private void collectLeaks() {
+        final boolean needReport = needReport();
         for (;;) {
             DefaultResourceLeak ref = (DefaultResourceLeak) refQueue.poll();
             if (ref == null) {
@@ -312,8 +361,24 @@ public class ResourceLeakDetector<T> {
             if (!ref.dispose()) {
                 continue;
             }
+            countLeak(ref);
+
+            if (needReport) {
+                unreportedLeaks.add(ref.getReportAndClearRecords());
+            }
+        }
+    }
+
+    private void reportLeak() {
+        collectLeaks();
+
+        // Report the leaks that were collected by this call or by allocationSites().
+        for (;;) {
+            String records = unreportedLeaks.poll();
+            if (records == null) {
+                break;
+            }
 
-            String records = ref.getReportAndClearRecords();
             if (reportedLeaks.add(records)) {
                 if (records.isEmpty()) {
                     reportUntracedLeak(resourceType);
@@ -376,6 +441,150 @@ public class ResourceLeakDetector<T> {
         this.leakListener = leakListener;
     }
 
+    /**
+     * Enables or disables the {@link #allocationSites()} table for the objects that are tracked from now on. It is
+     * disabled by default unless {@code io.netty.leakDetection.allocationSites} is set to {@code true}, as each
+     * sampled object has to keep its creation stack trace until it is garbage collected.
+     */
+    public void setAllocationSitesEnabled(boolean allocationSitesEnabled) {
+        this.allocationSitesEnabled = allocationSitesEnabled;
+    }
+
+    /**
+     * Returns {@code true} if the {@link #allocationSites()} table is maintained for newly tracked objects.
+     */
+    public boolean isAllocationSitesEnabled() {
+        return allocationSitesEnabled;
+    }
+
+    /**
+     * Returns a snapshot of the sampled objects tracked by this detector, aggregated by the site that allocated them.
+     * <p>
+     * The allocation site of an object consists of the first {@code io.netty.leakDetection.allocationSiteDepth}
+     * (default 4) frames of the stack trace that is captured when the object is tracked.
+     * No additional stack traces are captured to build this table, so it is available with the
+     * {@link Level#SIMPLE} level, for the objects selected by the sampling interval. Only objects that were tracked
+     * while {@link #setAllocationSitesEnabled(boolean) allocation sites were enabled} are included. At most
+     * {@code io.netty.leakDetection.maxAllocationSites} (default 1024) distinct sites are
+     * reported, all other sites are merged into a single site called {@code <other>}.
+     * <p>
+     * Leaks that were garbage collected since the last call are counted before taking the snapshot, they are still
+     * reported the next time an object is tracked, not by this method. The sites are
+     * ordered by the number of leaks, followed by the number of live objects, both in descending order.
+     * Building the snapshot visits all live sampled objects, so it is meant to be called periodically (e.g. by a
+     * metrics scraper), not on a hot path.
+     */
+    public List<AllocationSite> allocationSites() {
+        collectLeaks();
+
+        long now = System.nanoTime();
+        Map<String, AllocationSite> sites = new HashMap<String, AllocationSite>();
+        for (Map.Entry<String, AtomicLong> e : leaksPerSite.entrySet()) {
+            sites.put(e.getKey(), new AllocationSite(e.getKey(), e.getValue().get()));
+        }
+        for (DefaultResourceLeak<?> leak : allLeaks) {
+            String site = leak.allocationSite();
+            if (site == null) {
+                continue;
+            }
+            AllocationSite allocationSite = sites.get(site);
+            if (allocationSite == null) {
+                if (sites.size() >= MAX_SITES) {
+                    site = OTHER_SITE;
+                    allocationSite = sites.get(site);
+                }
+                if (allocationSite == null) {
+                    allocationSite = new AllocationSite(site, 0);
+                    sites.put(site, allocationSite);
+                }
+            }
+            allocationSite.addLive(now - leak.creationNanos);
+        }
+
+        List<AllocationSite> result = new ArrayList<AllocationSite>(sites.values());
+        Collections.sort(result, ALLOCATION_SITE_COMPARATOR);
+        return result;
+    }
+
+    private static final Comparator<AllocationSite> ALLOCATION_SITE_COMPARATOR = new Comparator<AllocationSite>() {
+        @Override
+        public int compare(AllocationSite o1, AllocationSite o2) {
+            if (o1.leakCount != o2.leakCount) {
+                return o1.leakCount > o2.leakCount ? -1 : 1;
+            }
+            return o2.liveCount - o1.liveCount;
+        }
+    };
+
+    /**
+     * The sampled objects of a {@link ResourceLeakDetector} that were allocated at the same site.
+     *
+     * @see #allocationSites()
+     */
+    public static final class AllocationSite {
+        private final String site;
+        private final long leakCount;
+        private int liveCount;
+        private long maxLiveAgeNanos;
+        private long totalLiveAgeNanos;
+
+        AllocationSite(String site, long leakCount) {
+            this.site = site;
+            this.leakCount = leakCount;
+        }
+
+        void addLive(long ageNanos) {
+            liveCount++;
+            totalLiveAgeNanos += ageNanos;
+            maxLiveAgeNanos = Math.max(maxLiveAgeNanos, ageNanos);
+        }
+
+        /**
+         * Returns the stack frames of the allocation site, one frame per line.
+         */
+        public String site() {
+            return site;
+        }
+
+        /**
+         * Returns the number of sampled objects allocated at this site that were garbage collected without being
+         * released.
+         */
+        public long leakCount() {
+            return leakCount;
+        }
+
+        /**
+         * Returns the number of sampled objects allocated at this site that were not released yet.
+         */
+        public int liveCount() {
+            return liveCount;
+        }
+
+        /**
+         * Returns the age of the oldest sampled object allocated at this site that was not released yet, in
+         * nanoseconds.
+         */
+        public long maxLiveAgeNanos() {
+            return maxLiveAgeNanos;
+        }
+
+        /**
+         * Returns the mean age of the sampled objects allocated at this site that were not released yet, in
+         * nanoseconds.
+         */
+        public long meanLiveAgeNanos() {
+            return liveCount == 0 ? 0 : totalLiveAgeNanos / liveCount;
+        }
+
+        @Override
+        public String toString() {
+            return "AllocationSite(leaks: " + leakCount + ", live: " + liveCount +
+                    ", maxLiveAgeNanos: " + maxLiveAgeNanos + ", meanLiveAgeNanos: " + meanLiveAgeNanos() + ')' +
+                    NEWLINE + site;
+        }
+    }
+
     public interface LeakListener {
 
         /**
@@ -405,12 +614,17 @@ public class ResourceLeakDetector<T> {
 
         private final Set<DefaultResourceLeak<?>> allLeaks;
         private final int trackedHash;
+        // Only kept if allocation sites are enabled, head drops it on close() otherwise.
+        private final TraceRecord creationRecord;
+        final long creationNanos;
+        private String allocationSite;
 
         DefaultResourceLeak(
                 Object referent,
                 ReferenceQueue<Object> refQueue,
                 Set<DefaultResourceLeak<?>> allLeaks,
-                Object initialHint) {
+                Object initialHint,
+                boolean keepCreationRecord) {
             super(referent, refQueue);
 
             assert referent != null;
@@ -419,13 +633,26 @@ public class ResourceLeakDetector<T> {
             // It's important that we not store a reference to the referent as this would disallow it from
             // be collected via the WeakReference.
             trackedHash = System.identityHashCode(referent);
+            creationNanos = System.nanoTime();
             allLeaks.add(this);
             // Create a new Record so we always have the creation stacktrace included.
-            headUpdater.set(this, initialHint == null ?
-                    new TraceRecord(TraceRecord.BOTTOM) : new TraceRecord(TraceRecord.BOTTOM, initialHint));
+            TraceRecord record = initialHint == null ?
+                    new TraceRecord(TraceRecord.BOTTOM) : new TraceRecord(TraceRecord.BOTTOM, initialHint);
+            creationRecord = keepCreationRecord ? record : null;
+            headUpdater.set(this, record);
             this.allLeaks = allLeaks;
         }
 
+        // Computed lazily, so the stack trace is only materialized when the site table is used. Returns null if
+        // allocation sites were disabled when this object was tracked.
+        String allocationSite() {
+            String site = allocationSite;
+            if (site == null && creationRecord != null) {
+                allocationSite = site = creationRecord.frames(SITE_DEPTH);
+            }
+            return site;
+        }
+
         @Override
         public void record() {
             record0(null);
@@ -685,11 +912,22 @@ public class ResourceLeakDetector<T> {
             if (hintString != null) {
                 buf.append("\tHint: ").append(hintString).append(NEWLINE);
             }
+            appendFrames(buf, Integer.MAX_VALUE);
+            return buf.toString();
+        }
+
+        // Returns at most maxFrames elements of the stack trace, without the hint.
+        String frames(int maxFrames) {
+            StringBuilder buf = new StringBuilder(128 * maxFrames);
+            appendFrames(buf, maxFrames);
+            return buf.toString();
+        }
 
+        private void appendFrames(StringBuilder buf, int maxFrames) {
             // Append the stack trace.
             StackTraceElement[] array = getStackTrace();
             // Skip the first three elements.
-            out: for (int i = 3; i < array.length; i++) {
+            out: for (int i = 3, frames = 0; i < array.length && frames < maxFrames; i++) {
                 StackTraceElement element = array[i];
                 // Strip the noisy stack trace elements.
                 String[] exclusions = excludedMethods.get();
@@ -705,8 +943,8 @@ public class ResourceLeakDetector<T> {
                 buf.append('\t');
                 buf.append(element.toString());
                 buf.append(NEWLINE);
+                frames++;
             }
-            return buf.toString();
         }
     }
 }
@@ -18,6 +18,9 @@ package io.netty.util.concurrent;
 import io.netty.util.internal.DefaultPriorityQueue;
 import io.netty.util.internal.ObjectUtil;
 import io.netty.util.internal.PriorityQueue;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
 
 import java.util.Comparator;
 import java.util.Queue;
@@ -28,6 +31,15 @@ import java.util.concurrent.TimeUnit;
  * Abstract base class for {@link EventExecutor}s that want to support scheduling.
  */
 public abstract class AbstractScheduledEventExecutor extends AbstractEventExecutor {
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(AbstractScheduledEventExecutor.class);
+
+    // Use a hierarchical timing wheel instead of a binary heap for the scheduled tasks.
+    private static final boolean TIMING_WHEEL =
+            SystemPropertyUtil.getBoolean("io.netty.eventexecutor.timingWheel", false);
+    private static final long TIMING_WHEEL_TICK_NANOS = Math.max(1,
+            SystemPropertyUtil.getLong("io.netty.eventexecutor.timingWheelTickNanos", 1000000));
+
     private static final Comparator<ScheduledFutureTask<?>> SCHEDULED_FUTURE_TASK_COMPARATOR =
             new Comparator<ScheduledFutureTask<?>>() {
                 @Override
@@ -38,6 +50,13 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
 
     private static final long START_TIME = System.nanoTime();
 
+    static {
+        if (logger.isDebugEnabled()) {
+            logger.debug("-Dio.netty.eventexecutor.timingWheel: {}", TIMING_WHEEL);
+            logger.debug("-Dio.netty.eventexecutor.timingWheelTickNanos: {}", TIMING_WHEEL_TICK_NANOS);
+        }
+    }
+
     static final Runnable WAKEUP_TASK = new Runnable() {
        @Override
        public void run() { } // Do nothing
@@ -106,10 +125,11 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
 
     PriorityQueue<ScheduledFutureTask<?>> scheduledTaskQueue() {
         if (scheduledTaskQueue == null) {
-            scheduledTaskQueue = new DefaultPriorityQueue<ScheduledFutureTask<?>>(
-                    SCHEDULED_FUTURE_TASK_COMPARATOR,
-                    // Use same initial capacity as java.util.PriorityQueue
-                    11);
+            scheduledTaskQueue = TIMING_WHEEL ? new ScheduledTaskTimingWheel(this, TIMING_WHEEL_TICK_NANOS) :
+                    new DefaultPriorityQueue<ScheduledFutureTask<?>>(
+                            SCHEDULED_FUTURE_TASK_COMPARATOR,
+                            // Use same initial capacity as java.util.PriorityQueue
+                            11);
         }
         return scheduledTaskQueue;
     }
@@ -15,6 +15,8 @@
  */
 package io.netty.util.concurrent;
 
+import io.netty.util.internal.PlatformDependent;
+
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 
@@ -63,7 +65,11 @@ public final class DefaultEventExecutor extends SingleThreadEventExecutor {
         for (;;) {
             Runnable task = takeTask();
             if (task != null) {
-                runTask(task);
+                if (PlatformDependent.isJfrEnabled()) {
+                    runTaskRecorded(task, false);
+                } else {
+                    runTask(task);
+                }
                 updateLastExecutionTime();
             }
 
@@ -99,7 +99,10 @@ public class FastThreadLocal<V> {
         Object v = threadLocalMap.indexedVariable(VARIABLES_TO_REMOVE_INDEX);
         Set<FastThreadLocal<?>> variablesToRemove;
         if (v == InternalThreadLocalMap.UNSET || v == null) {
-            variablesToRemove = Collections.newSetFromMap(new IdentityHashMap<FastThreadLocal<?>, Boolean>());
+            // Keep it small for short-lived virtual threads, the default is sized for 21 variables.
+            variablesToRemove = Collections.newSetFromMap(threadLocalMap.isCompact() ?
+                    new IdentityHashMap<FastThreadLocal<?>, Boolean>(4) :
+                    new IdentityHashMap<FastThreadLocal<?>, Boolean>());
             threadLocalMap.setIndexedVariable(VARIABLES_TO_REMOVE_INDEX, variablesToRemove);
         } else {
             variablesToRemove = (Set<FastThreadLocal<?>>) v;
@@ -16,6 +16,7 @@
 package io.netty.util.concurrent;
 
 import io.netty.util.internal.InternalThreadLocalMap;
+import io.netty.util.internal.UnstableApi;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
@@ -122,4 +123,16 @@ public class FastThreadLocalThread extends Thread {
     public boolean permitBlockingCalls() {
         return false;
     }
+
+    /**
+     * Returns the CPU this thread is pinned to, or {@code -1} if it is not pinned to a single CPU.
+     * <p>
+     * Subclasses of {@link FastThreadLocalThread} that set the CPU affinity of the thread can override this method.
+     *
+     * @return {@code -1}, unless overriden by a subclass.
+     */
+    @UnstableApi
+    public int cpu() {
+        return -1;
+    }
 }
@@ -212,7 +212,7 @@ public final class NonStickyEventExecutorGroup implements EventExecutorGroup {
         group.execute(command);
     }
 
-    private static final class NonStickyOrderedEventExecutor extends AbstractEventExecutor
+    static final class NonStickyOrderedEventExecutor extends AbstractEventExecutor
             implements Runnable, OrderedEventExecutor {
         private final EventExecutor executor;
         private final Queue<Runnable> tasks = PlatformDependent.newMpscQueue();
@@ -227,7 +227,11 @@ public final class NonStickyEventExecutorGroup implements EventExecutorGroup {
         private final AtomicReference<Thread> executingThread = new AtomicReference<Thread>();
 
         NonStickyOrderedEventExecutor(EventExecutor executor, int maxTaskExecutePerRun) {
-            super(executor);
+            this(executor, executor, maxTaskExecutePerRun);
+        }
+
+        NonStickyOrderedEventExecutor(EventExecutorGroup parent, EventExecutor executor, int maxTaskExecutePerRun) {
+            super(parent);
             this.executor = executor;
             this.maxTaskExecutePerRun = maxTaskExecutePerRun;
         }
@@ -0,0 +1,469 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.DefaultPriorityQueue;
+import io.netty.util.internal.PriorityQueue;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+import static io.netty.util.internal.PriorityQueueNode.INDEX_NOT_IN_QUEUE;
+
+/**
+ * A hierarchical timing wheel that can be used instead of the binary heap to hold the {@link ScheduledFutureTask}s
+ * of an {@link AbstractScheduledEventExecutor}.
+ * <p>
+ * The deadline of each task is divided into ticks of {@code tickNanos}. The wheel consists of {@value #LEVELS} levels
+ * of {@value #SLOTS} slots, a task is stored in the slot of the highest level in which its tick differs from the
+ * tick of the wheel's cursor. Adding and removing a task that is stored in a slot is {@code O(1)}, as the slot is
+ * derived from the deadline and the position within the slot is kept in the task's queue index.
+ * <p>
+ * All tasks whose tick is not after the cursor are kept in a small binary heap, so that {@link #peek()} and
+ * {@link #poll()} always return the task with the earliest deadline, like {@link DefaultPriorityQueue} does. The tick
+ * precision therefore only affects how tasks are grouped, not the order in which they expire.
+ * <p>
+ * The cursor follows the clock of the executor: it is only advanced by {@link #poll()} once the heap is empty, and
+ * never beyond the current tick. Only the slots whose tick has been reached are drained, their tasks are either moved
+ * to the heap or cascaded to the lower levels. {@link #peek()} never moves the cursor, as the event loop peeks all the
+ * time to compute how long it may block. If no task is due it returns the earliest task of the wheel, which is looked
+ * up in the first non-empty slot and cached until the wheel changes.
+ */
+final class ScheduledTaskTimingWheel extends AbstractQueue<ScheduledFutureTask<?>>
+        implements PriorityQueue<ScheduledFutureTask<?>> {
+
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    // Enough levels to cover all positive long ticks.
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+    private static final ScheduledFutureTask<?>[] EMPTY = new ScheduledFutureTask<?>[0];
+
+    private static final Comparator<ScheduledFutureTask<?>> COMPARATOR = new Comparator<ScheduledFutureTask<?>>() {
+        @Override
+        public int compare(ScheduledFutureTask<?> o1, ScheduledFutureTask<?> o2) {
+            return o1.compareTo(o2);
+        }
+    };
+
+    private final AbstractScheduledEventExecutor executor;
+    private final long tickNanos;
+    // The tasks whose tick is not after the cursor.
+    private final DefaultPriorityQueue<ScheduledFutureTask<?>> ready =
+            new DefaultPriorityQueue<ScheduledFutureTask<?>>(COMPARATOR, 11);
+    private final Slot[][] slots = new Slot[LEVELS][];
+    // One bit per non-empty slot.
+    private final long[][] occupied = new long[LEVELS][SLOTS / Long.SIZE];
+
+    private long cursor;
+    // The number of tasks that are stored in the slots.
+    private int wheelSize;
+    // The task with the earliest deadline in the slots, or null if it needs to be looked up again.
+    private ScheduledFutureTask<?> earliest;
+
+    ScheduledTaskTimingWheel(AbstractScheduledEventExecutor executor, long tickNanos) {
+        this.executor = checkNotNull(executor, "executor");
+        this.tickNanos = checkPositive(tickNanos, "tickNanos");
+    }
+
+    long tickNanos() {
+        return tickNanos;
+    }
+
+    // Visible for testing.
+    long cursor() {
+        return cursor;
+    }
+
+    @Override
+    public int size() {
+        return ready.size() + wheelSize;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return wheelSize == 0 && ready.isEmpty();
+    }
+
+    @Override
+    public boolean offer(ScheduledFutureTask<?> task) {
+        if (task.priorityQueueIndex(null) != INDEX_NOT_IN_QUEUE) {
+            throw new IllegalArgumentException("task.priorityQueueIndex(): " + task.priorityQueueIndex(null) +
+                    " (expected: " + INDEX_NOT_IN_QUEUE + ") + task: " + task);
+        }
+        insert(task, tick(task));
+        return true;
+    }
+
+    @Override
+    public ScheduledFutureTask<?> peek() {
+        // All tasks in ready expire before the tasks in the slots.
+        ScheduledFutureTask<?> task = ready.peek();
+        return task != null ? task : earliest();
+    }
+
+    @Override
+    public ScheduledFutureTask<?> poll() {
+        if (ready.isEmpty() && wheelSize != 0) {
+            long tick = executor.getCurrentTimeNanos() / tickNanos;
+            if (tick > cursor) {
+                advance(tick);
+            }
+            if (ready.isEmpty()) {
+                // The task is not due yet, take it out of its slot without moving the cursor.
+                ScheduledFutureTask<?> task = earliest();
+                removeTyped(task);
+                return task;
+            }
+        }
+        return ready.poll();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof ScheduledFutureTask && removeTyped((ScheduledFutureTask<?>) o);
+    }
+
+    @Override
+    public boolean removeTyped(ScheduledFutureTask<?> task) {
+        if (ready.removeTyped(task)) {
+            return true;
+        }
+        Slot slot = slotOf(task);
+        if (slot == null || !slot.remove(task)) {
+            return false;
+        }
+        long tick = tick(task);
+        int level = level(tick);
+        removed(task, slot, level, index(tick, level));
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof ScheduledFutureTask && containsTyped((ScheduledFutureTask<?>) o);
+    }
+
+    @Override
+    public boolean containsTyped(ScheduledFutureTask<?> task) {
+        if (ready.containsTyped(task)) {
+            return true;
+        }
+        Slot slot = slotOf(task);
+        return slot != null && slot.contains(task);
+    }
+
+    @Override
+    public void priorityChanged(ScheduledFutureTask<?> task) {
+        if (ready.containsTyped(task)) {
+            if (tick(task) <= cursor) {
+                ready.priorityChanged(task);
+                return;
+            }
+            ready.removeTyped(task);
+        } else if (!removeFromAnySlot(task)) {
+            return;
+        }
+        insert(task, tick(task));
+    }
+
+    /**
+     * The slot of a task is derived from its deadline, so once the deadline was changed all non-empty slots need to
+     * be checked. As the position within the slot is stored in the task this is one lookup per non-empty slot.
+     */
+    private boolean removeFromAnySlot(ScheduledFutureTask<?> task) {
+        for (int level = 0; level < LEVELS; level++) {
+            for (int index = nextOccupied(level, 0); index >= 0; index = nextOccupied(level, index + 1)) {
+                Slot slot = slots[level][index];
+                if (slot.remove(task)) {
+                    removed(task, slot, level, index);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        ready.clear();
+        clearSlots(true);
+    }
+
+    @Override
+    public void clearIgnoringIndexes() {
+        ready.clearIgnoringIndexes();
+        clearSlots(false);
+    }
+
+    /**
+     * This iterator does not return elements in any particular order.
+     */
+    @Override
+    public Iterator<ScheduledFutureTask<?>> iterator() {
+        return new WheelIterator();
+    }
+
+    private long tick(ScheduledFutureTask<?> task) {
+        return task.deadlineNanos() / tickNanos;
+    }
+
+    // Only valid for tick > cursor.
+    private int level(long tick) {
+        return (Long.SIZE - 1 - Long.numberOfLeadingZeros(tick ^ cursor)) / SLOT_BITS;
+    }
+
+    private static int index(long tick, int level) {
+        return (int) (tick >>> level * SLOT_BITS) & SLOT_MASK;
+    }
+
+    private Slot slotOf(ScheduledFutureTask<?> task) {
+        long tick = tick(task);
+        if (tick <= cursor) {
+            return null;
+        }
+        int level = level(tick);
+        Slot[] levelSlots = slots[level];
+        return levelSlots == null ? null : levelSlots[index(tick, level)];
+    }
+
+    private void insert(ScheduledFutureTask<?> task, long tick) {
+        if (tick <= cursor) {
+            ready.offer(task);
+            return;
+        }
+        int level = level(tick);
+        int index = index(tick, level);
+        Slot[] levelSlots = slots[level];
+        if (levelSlots == null) {
+            levelSlots = slots[level] = new Slot[SLOTS];
+        }
+        Slot slot = levelSlots[index];
+        if (slot == null) {
+            slot = levelSlots[index] = new Slot();
+        }
+        slot.add(task);
+        occupied[level][index >>> 6] |= 1L << index;
+        wheelSize++;
+        if (earliest != null && task.compareTo(earliest) < 0) {
+            earliest = task;
+        }
+    }
+
+    private void removed(ScheduledFutureTask<?> task, Slot slot, int level, int index) {
+        wheelSize--;
+        if (slot.size == 0) {
+            clearOccupied(level, index);
+        }
+        if (task == earliest) {
+            earliest = null;
+        }
+    }
+
+    /**
+     * Returns the task with the earliest deadline that is stored in the slots, without moving the cursor.
+     */
+    private ScheduledFutureTask<?> earliest() {
+        ScheduledFutureTask<?> earliest = this.earliest;
+        if (earliest != null || wheelSize == 0) {
+            return earliest;
+        }
+        // All tasks of a level expire before the tasks of the next level, and all non-empty slots of a level are
+        // after the cursor, so the first non-empty slot of the lowest non-empty level holds the earliest task.
+        int level = 0;
+        int index;
+        while ((index = nextOccupied(level, 0)) < 0) {
+            level++;
+        }
+        Slot slot = slots[level][index];
+        earliest = slot.tasks[0];
+        for (int i = 1; i < slot.size; i++) {
+            ScheduledFutureTask<?> task = slot.tasks[i];
+            if (task.compareTo(earliest) < 0) {
+                earliest = task;
+            }
+        }
+        return this.earliest = earliest;
+    }
+
+    /**
+     * Drains all slots whose start is not after the given tick. The tasks of a drained slot are either moved to
+     * {@link #ready} or cascaded to the lower levels, and the cursor never moves beyond the given tick.
+     */
+    private void advance(long tick) {
+        int level = 0;
+        while (wheelSize != 0 && level < LEVELS) {
+            int index = nextOccupied(level, 0);
+            if (index < 0) {
+                // No tasks on this level, the next non-empty slot may be on the next level.
+                level++;
+                continue;
+            }
+            // The start of the slot, which is before or equal to the tick of all its tasks.
+            int shift = level * SLOT_BITS;
+            long mask = level == LEVELS - 1 ? -1L : (1L << shift + SLOT_BITS) - 1;
+            long start = cursor & ~mask | (long) index << shift;
+            if (start > tick) {
+                // All remaining tasks expire after the given tick.
+                return;
+            }
+            cursor = start;
+            earliest = null;
+
+            Slot slot = slots[level][index];
+            ScheduledFutureTask<?>[] tasks = slot.tasks;
+            int size = slot.size;
+            slot.size = 0;
+            clearOccupied(level, index);
+            wheelSize -= size;
+            for (int i = 0; i < size; i++) {
+                ScheduledFutureTask<?> task = tasks[i];
+                tasks[i] = null;
+                task.priorityQueueIndex(null, INDEX_NOT_IN_QUEUE);
+                // Lands either in ready or on a lower level, never in this slot again.
+                insert(task, tick(task));
+            }
+            level = 0;
+        }
+    }
+
+    private int nextOccupied(int level, int fromIndex) {
+        long[] bits = occupied[level];
+        for (int i = fromIndex >>> 6; i < bits.length && fromIndex < SLOTS; i++) {
+            long word = bits[i] & -1L << fromIndex;
+            if (word != 0) {
+                return (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+            fromIndex = (i + 1) << 6;
+        }
+        return -1;
+    }
+
+    private void clearOccupied(int level, int index) {
+        occupied[level][index >>> 6] &= ~(1L << index);
+    }
+
+    private void clearSlots(boolean resetIndexes) {
+        for (int level = 0; level < LEVELS; level++) {
+            Slot[] levelSlots = slots[level];
+            if (levelSlots == null) {
+                continue;
+            }
+            for (Slot slot : levelSlots) {
+                if (slot != null) {
+                    slot.clear(resetIndexes);
+                }
+            }
+            Arrays.fill(occupied[level], 0);
+        }
+        wheelSize = 0;
+        earliest = null;
+    }
+
+    /**
+     * The tasks of a single slot, the index of a task within {@link #tasks} is stored as its queue index.
+     */
+    private static final class Slot {
+        ScheduledFutureTask<?>[] tasks = EMPTY;
+        int size;
+
+        void add(ScheduledFutureTask<?> task) {
+            if (size == tasks.length) {
+                tasks = Arrays.copyOf(tasks, Math.max(4, size << 1));
+            }
+            task.priorityQueueIndex(null, size);
+            tasks[size++] = task;
+        }
+
+        boolean contains(ScheduledFutureTask<?> task) {
+            int i = task.priorityQueueIndex(null);
+            return i >= 0 && i < size && tasks[i] == task;
+        }
+
+        boolean remove(ScheduledFutureTask<?> task) {
+            if (!contains(task)) {
+                return false;
+            }
+            int i = task.priorityQueueIndex(null);
+            task.priorityQueueIndex(null, INDEX_NOT_IN_QUEUE);
+            ScheduledFutureTask<?> last = tasks[--size];
+            tasks[size] = null;
+            if (i != size) {
+                tasks[i] = last;
+                last.priorityQueueIndex(null, i);
+            }
+            return true;
+        }
+
+        void clear(boolean resetIndexes) {
+            if (resetIndexes) {
+                for (int i = 0; i < size; i++) {
+                    tasks[i].priorityQueueIndex(null, INDEX_NOT_IN_QUEUE);
+                }
+            }
+            Arrays.fill(tasks, 0, size, null);
+            size = 0;
+        }
+    }
+
+    private final class WheelIterator implements Iterator<ScheduledFutureTask<?>> {
+        private final Iterator<ScheduledFutureTask<?>> readyIterator = ready.iterator();
+        private int level;
+        private int slot;
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+            if (readyIterator.hasNext()) {
+                return true;
+            }
+            for (; level < LEVELS; level++, slot = 0) {
+                Slot[] levelSlots = slots[level];
+                if (levelSlots == null) {
+                    continue;
+                }
+                for (; slot < SLOTS; slot++, index = 0) {
+                    Slot s = levelSlots[slot];
+                    if (s != null && index < s.size) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public ScheduledFutureTask<?> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (readyIterator.hasNext()) {
+                return readyIterator.next();
+            }
+            return slots[level][slot].tasks[index++];
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+    }
+}
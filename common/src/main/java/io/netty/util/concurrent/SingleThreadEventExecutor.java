@@ -309,7 +309,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
             return false;
         }
         do {
-            safeExecute(scheduledTask);
+            executeTask(scheduledTask);
         } while ((scheduledTask = pollScheduledTask(nanoTime)) != null);
         return true;
     }
@@ -425,7 +425,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
             return false;
         }
         for (;;) {
-            safeExecute(task);
+            executeTask(task);
             task = pollTaskFrom(taskQueue);
             if (task == null) {
                 return true;
@@ -444,11 +444,11 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
             return false;
         }
         int remaining = Math.min(maxPendingTasks, taskQueue.size());
-        safeExecute(task);
+        executeTask(task);
         // Use taskQueue.poll() directly rather than pollTaskFrom() since the latter may
         // silently consume more than one item from the queue (skips over WAKEUP_TASK instances)
         while (remaining-- > 0 && (task = taskQueue.poll()) != null) {
-            safeExecute(task);
+            executeTask(task);
         }
         return true;
     }
@@ -469,7 +469,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         long runTasks = 0;
         long lastExecutionTime;
         for (;;) {
-            safeExecute(task);
+            executeTask(task);
 
             runTasks ++;
 
@@ -494,6 +494,45 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         return true;
     }
 
+    private void executeTask(Runnable task) {
+        if (PlatformDependent.isJfrEnabled()) {
+            runTaskRecorded(task, true);
+        } else {
+            safeExecute(task);
+        }
+    }
+
+    /**
+     * Runs the given task and emits a {@link TaskExecutionEvent} if it took longer than the threshold. Only called
+     * if {@link PlatformDependent#isJfrEnabled()}, so the event class is never loaded otherwise.
+     */
+    final void runTaskRecorded(Runnable task, boolean safe) {
+        if (!TaskExecutionEvent.isEventEnabled()) {
+            runTask(task, safe);
+            return;
+        }
+        TaskExecutionEvent event = new TaskExecutionEvent();
+        event.begin();
+        try {
+            runTask(task, safe);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.taskClass = task.getClass();
+                event.queueDepth = pendingTasks();
+                event.commit();
+            }
+        }
+    }
+
+    private static void runTask(Runnable task, boolean safe) {
+        if (safe) {
+            safeExecute(task);
+        } else {
+            runTask(task);
+        }
+    }
+
     /**
      * Invoked before returning from {@link #runAllTasks()} and {@link #runAllTasks(long)}.
      */
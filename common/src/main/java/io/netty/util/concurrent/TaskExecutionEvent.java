@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.SuppressJava6Requirement;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event which is emitted once a {@link SingleThreadEventExecutor} ran a task that took longer than the
+ * threshold. Must only be touched if {@link io.netty.util.internal.PlatformDependent#isJfrEnabled()} returns
+ * {@code true}.
+ */
+@SuppressJava6Requirement(reason = "Usage guarded by PlatformDependent.isJfrEnabled()")
+@Name(TaskExecutionEvent.NAME)
+@Label("Task Execution")
+@Category({ "Netty", "Event Loop" })
+@Threshold("10 ms")
+@StackTrace(false)
+final class TaskExecutionEvent extends Event {
+    static final String NAME = "io.netty.TaskExecution";
+    private static final TaskExecutionEvent INSTANCE = new TaskExecutionEvent();
+
+    @Description("Class of the task")
+    public Class<?> taskClass;
+
+    @Description("Number of tasks that were pending once the task completed")
+    public int queueDepth;
+
+    /**
+     * Returns {@code true} if this event is enabled in any running recording.
+     */
+    static boolean isEventEnabled() {
+        return INSTANCE.isEnabled();
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.concurrent.NonStickyEventExecutorGroup.NonStickyOrderedEventExecutor;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
+
+/**
+ * {@link EventExecutorGroup} which runs tasks on virtual threads (Java 21+), meant for handlers that block, like
+ * handlers that talk to a database via JDBC.
+ * <p>
+ * Every call to {@link #next()} returns a new {@link OrderedEventExecutor}, so each {@link io.netty.channel.Channel}
+ * that adds a handler via {@code ChannelPipeline.addLast(group, handler)} gets its own executor: the tasks of a
+ * {@link io.netty.channel.Channel} are executed one after the other, but a blocking call only stalls the
+ * {@link io.netty.channel.Channel} that made it. The executors do not own a thread; while one has tasks they are
+ * executed on a virtual thread which is released again once the executor ran out of tasks.
+ * <p>
+ * The number of executors that run tasks at the same time can be bounded via {@code maxConcurrency}, for example to
+ * not open more connections to a database than its connection pool allows. Executors that are over the bound wait
+ * for a permit without blocking a carrier thread.
+ * <p>
+ * Scheduling tasks is not supported.
+ */
+@UnstableApi
+public final class VirtualThreadEventExecutorGroup extends AbstractEventExecutorGroup {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(
+            VirtualThreadEventExecutorGroup.class);
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        if (PlatformDependent.javaVersion() >= 21) {
+            try {
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                ofVirtual = Thread.class.getMethod("ofVirtual");
+                name = builderClass.getMethod("name", String.class, long.class);
+                factory = builderClass.getMethod("factory");
+            } catch (Throwable t) {
+                logger.debug("Unable to find the virtual thread builder methods", t);
+                ofVirtual = null;
+            }
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+        logger.debug("Virtual threads available: {}", OF_VIRTUAL != null);
+    }
+
+    private final VirtualThreadExecutor executor;
+    private final int maxTaskExecutePerRun;
+
+    /**
+     * Returns {@code true} if virtual threads are available, which is the case on Java 21 and later.
+     */
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Create a new instance which does not bound the number of executors that run tasks at the same time.
+     *
+     * @throws UnsupportedOperationException if virtual threads are not {@linkplain #isAvailable() available}.
+     */
+    public VirtualThreadEventExecutorGroup() {
+        this(0);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param maxConcurrency the maximum number of executors that run tasks at the same time, or {@code 0} for no
+     *                       bound.
+     * @throws UnsupportedOperationException if virtual threads are not {@linkplain #isAvailable() available}.
+     */
+    public VirtualThreadEventExecutorGroup(int maxConcurrency) {
+        this(newVirtualThreadFactory(DefaultThreadFactory.toPoolName(VirtualThreadEventExecutorGroup.class) + '-'),
+                maxConcurrency, 1024);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param threadFactory         the {@link ThreadFactory} that is used to create a {@link Thread} whenever an
+     *                              executor starts to run tasks. This should create virtual threads.
+     * @param maxConcurrency        the maximum number of executors that run tasks at the same time, or {@code 0}
+     *                              for no bound.
+     * @param maxTaskExecutePerRun  the maximum number of tasks an executor runs before it hands its thread (and its
+     *                              permit if {@code maxConcurrency} is used) to the next executor.
+     */
+    public VirtualThreadEventExecutorGroup(ThreadFactory threadFactory, int maxConcurrency,
+                                           int maxTaskExecutePerRun) {
+        ObjectUtil.checkNotNull(threadFactory, "threadFactory");
+        checkPositiveOrZero(maxConcurrency, "maxConcurrency");
+        this.maxTaskExecutePerRun = checkPositive(maxTaskExecutePerRun, "maxTaskExecutePerRun");
+        executor = new VirtualThreadExecutor(this, threadFactory,
+                maxConcurrency == 0 ? null : new Semaphore(maxConcurrency));
+    }
+
+    private static ThreadFactory newVirtualThreadFactory(String prefix) {
+        if (OF_VIRTUAL == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        try {
+            Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (Exception e) {
+            throw new UnsupportedOperationException("Unable to create a virtual thread factory", e);
+        }
+    }
+
+    /**
+     * Returns the number of executors that currently run tasks.
+     */
+    public int activeExecutors() {
+        return executor.active.get();
+    }
+
+    /**
+     * Returns a new {@link OrderedEventExecutor} whose tasks are executed on virtual threads.
+     */
+    @Override
+    public EventExecutor next() {
+        return new NonStickyOrderedEventExecutor(this, executor, maxTaskExecutePerRun);
+    }
+
+    /**
+     * Returns an {@link Iterator} over the unordered {@link EventExecutor} that runs the tasks of all executors
+     * returned by {@link #next()}.
+     */
+    @Override
+    public Iterator<EventExecutor> iterator() {
+        return Collections.<EventExecutor>singleton(executor).iterator();
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        return executor.isShuttingDown();
+    }
+
+    @Override
+    public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        return executor.shutdownGracefully(quietPeriod, timeout, unit);
+    }
+
+    @Override
+    public Future<?> terminationFuture() {
+        return executor.terminationFuture();
+    }
+
+    @Override
+    @Deprecated
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    @Deprecated
+    public List<Runnable> shutdownNow() {
+        executor.shutdown();
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Unordered {@link EventExecutor} which runs every task on a new thread.
+     */
+    private static final class VirtualThreadExecutor extends AbstractEventExecutor {
+        private final ThreadFactory threadFactory;
+        private final Semaphore permits;
+        private final Promise<?> terminationFuture = GlobalEventExecutor.INSTANCE.newPromise();
+        final AtomicInteger active = new AtomicInteger();
+        private volatile boolean shutdown;
+
+        VirtualThreadExecutor(EventExecutorGroup parent, ThreadFactory threadFactory, Semaphore permits) {
+            super(parent);
+            this.threadFactory = threadFactory;
+            this.permits = permits;
+        }
+
+        @Override
+        public void execute(final Runnable task) {
+            ObjectUtil.checkNotNull(task, "task");
+            // Increment first, so a concurrent shutdown() either sees the task or the task sees the shutdown.
+            active.incrementAndGet();
+            if (shutdown) {
+                done();
+                throw new RejectedExecutionException("event executor terminated");
+            }
+            Thread thread;
+            try {
+                thread = threadFactory.newThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (permits == null) {
+                                task.run();
+                            } else {
+                                permits.acquireUninterruptibly();
+                                try {
+                                    task.run();
+                                } finally {
+                                    permits.release();
+                                }
+                            }
+                        } finally {
+                            done();
+                        }
+                    }
+                });
+                thread.start();
+            } catch (Throwable t) {
+                done();
+                throw new RejectedExecutionException("failed to start a thread", t);
+            }
+        }
+
+        private void done() {
+            if (active.decrementAndGet() == 0 && shutdown) {
+                terminationFuture.trySuccess(null);
+            }
+        }
+
+        @Override
+        public boolean inEventLoop(Thread thread) {
+            return false;
+        }
+
+        @Override
+        public boolean isShuttingDown() {
+            return shutdown;
+        }
+
+        @Override
+        public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+            // Tasks that are running already are completed, new tasks are rejected.
+            shutdown();
+            return terminationFuture;
+        }
+
+        @Override
+        public Future<?> terminationFuture() {
+            return terminationFuture;
+        }
+
+        @Override
+        @Deprecated
+        public void shutdown() {
+            shutdown = true;
+            if (active.get() == 0) {
+                terminationFuture.trySuccess(null);
+            }
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return terminationFuture.isDone();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return terminationFuture.await(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+
+import java.lang.reflect.Constructor;
+
+import io.netty.util.IllegalReferenceCountException;
+import io.netty.util.ReferenceCounted;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+/**
+ * Common logic for {@link ReferenceCounted} implementations, independent of how the reference count field is
+ * accessed. See {@link ReferenceCountUpdater} for the implementation that uses {@code sun.misc.Unsafe} or an
+ * {@link java.util.concurrent.atomic.AtomicIntegerFieldUpdater}.
+ */
+public abstract class AbstractReferenceCountUpdater<T extends ReferenceCounted> {
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(AbstractReferenceCountUpdater.class);
+
+    /*
+     * Implementation notes:
+     *
+     * For the updated int field:
+     *   Even => "real" refcount is (refCnt >>> 1)
+     *   Odd  => "real" refcount is 0
+     *
+     * (x & y) appears to be surprisingly expensive relative to (x == y). Thus this class uses
+     * a fast-path in some places for most common low values when checking for live (even) refcounts,
+     * for example: if (rawCnt == 2 || rawCnt == 4 || (rawCnt & 1) == 0) { ...
+     */
+
+    protected AbstractReferenceCountUpdater() { }
+
+    /**
+     * Returns an updater for the given class that accesses its reference count field via a {@code VarHandle}, or
+     * {@code null} if {@code sun.misc.Unsafe} can be used instead or
+     * {@link PlatformDependent#hasVarHandle() VarHandles are not available}.
+     * <p>
+     * As {@code VarHandle}s can only be used when compiling against Java 9+ the implementation is loaded by name, it
+     * must live in the same package as the given class and provide a no-args constructor. The updater is only used
+     * when {@code sun.misc.Unsafe} is unavailable, as plain accesses are used via {@code sun.misc.Unsafe} otherwise
+     * anyway.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends ReferenceCounted> AbstractReferenceCountUpdater<T> newVarHandleUpdater(
+            Class<T> clz, String updaterClassName) {
+        if (PlatformDependent.hasUnsafe() || !PlatformDependent.hasVarHandle()) {
+            return null;
+        }
+        try {
+            Class<?> updaterClass = Class.forName(updaterClassName, true, PlatformDependent.getClassLoader(clz));
+            Constructor<?> constructor = updaterClass.getDeclaredConstructor();
+            Throwable cause = ReflectionUtil.trySetAccessible(constructor, false);
+            if (cause != null) {
+                throw cause;
+            }
+            return (AbstractReferenceCountUpdater<T>) constructor.newInstance();
+        } catch (Throwable t) {
+            logger.debug("Unable to load {}, falling back to AtomicIntegerFieldUpdater", updaterClassName, t);
+            return null;
+        }
+    }
+
+    /*
+     * Field access primitives. All reads and writes of the reference count field go through these.
+     */
+
+    /**
+     * Returns {@code true} if {@link #getPlain(ReferenceCounted)} and {@link #setPlain(ReferenceCounted, int)}
+     * use plain instead of volatile memory accesses.
+     */
+    protected abstract boolean hasPlainAccess();
+
+    protected abstract int getPlain(T instance);
+
+    protected abstract void setPlain(T instance, int value);
+
+    protected abstract int get(T instance);
+
+    protected abstract void set(T instance, int value);
+
+    protected abstract void lazySet(T instance, int value);
+
+    protected abstract int getAndAdd(T instance, int delta);
+
+    protected abstract boolean compareAndSet(T instance, int expect, int update);
+
+    public final int initialValue() {
+        return 2;
+    }
+
+    /**
+     * Sets the initial reference count of a newly constructed instance.
+     */
+    public abstract void setInitialValue(T instance);
+
+    private static int realRefCnt(int rawCnt) {
+        return rawCnt != 2 && rawCnt != 4 && (rawCnt & 1) != 0 ? 0 : rawCnt >>> 1;
+    }
+
+    /**
+     * Like {@link #realRefCnt(int)} but throws if refCnt == 0
+     */
+    private static int toLiveRealRefCnt(int rawCnt, int decrement) {
+        if (rawCnt == 2 || rawCnt == 4 || (rawCnt & 1) == 0) {
+            return rawCnt >>> 1;
+        }
+        // odd rawCnt => already deallocated
+        throw new IllegalReferenceCountException(0, -decrement);
+    }
+
+    private int nonVolatileRawCnt(T instance) {
+        return getPlain(instance);
+    }
+
+    public final int refCnt(T instance) {
+        return realRefCnt(get(instance));
+    }
+
+    public final boolean isLiveNonVolatile(T instance) {
+        final int rawCnt = getPlain(instance);
+
+        // The "real" ref count is > 0 if the rawCnt is even.
+        return rawCnt == 2 || rawCnt == 4 || rawCnt == 6 || rawCnt == 8 || (rawCnt & 1) == 0;
+    }
+
+    /**
+     * An unsafe operation that sets the reference count directly
+     */
+    public final void setRefCnt(T instance, int refCnt) {
+        set(instance, refCnt > 0 ? refCnt << 1 : 1); // overflow OK here
+    }
+
+    /**
+     * Resets the reference count to 1
+     */
+    public final void resetRefCnt(T instance) {
+        // no need of a volatile set, it should happen in a quiescent state
+        lazySet(instance, initialValue());
+    }
+
+    public final T retain(T instance) {
+        return retain0(instance, 1, 2);
+    }
+
+    public final T retain(T instance, int increment) {
+        // all changes to the raw count are 2x the "real" change - overflow is OK
+        int rawIncrement = checkPositive(increment, "increment") << 1;
+        return retain0(instance, increment, rawIncrement);
+    }
+
+    // rawIncrement == increment << 1
+    private T retain0(T instance, final int increment, final int rawIncrement) {
+        int oldRef = getAndAdd(instance, rawIncrement);
+        if (oldRef != 2 && oldRef != 4 && (oldRef & 1) != 0) {
+            throw new IllegalReferenceCountException(0, increment);
+        }
+        // don't pass 0!
+        if ((oldRef <= 0 && oldRef + rawIncrement >= 0)
+                || (oldRef >= 0 && oldRef + rawIncrement < oldRef)) {
+            // overflow case
+            getAndAdd(instance, -rawIncrement);
+            throw new IllegalReferenceCountException(realRefCnt(oldRef), increment);
+        }
+        return instance;
+    }
+
+    /**
+     * Like {@link #retain(ReferenceCounted, int)} but uses plain loads and stores instead of atomic operations.
+     * This must only be used while no other thread can update the reference count of the instance.
+     */
+    public final T retainNonAtomic(T instance, int increment) {
+        // all changes to the raw count are 2x the "real" change - overflow is OK
+        int rawIncrement = checkPositive(increment, "increment") << 1;
+        if (!hasPlainAccess()) {
+            return retain0(instance, increment, rawIncrement);
+        }
+        int oldRef = getPlain(instance);
+        if ((oldRef & 1) != 0) {
+            throw new IllegalReferenceCountException(0, increment);
+        }
+        // don't pass 0!
+        if ((oldRef <= 0 && oldRef + rawIncrement >= 0)
+                || (oldRef >= 0 && oldRef + rawIncrement < oldRef)) {
+            throw new IllegalReferenceCountException(realRefCnt(oldRef), increment);
+        }
+        setPlain(instance, oldRef + rawIncrement);
+        return instance;
+    }
+
+    /**
+     * Like {@link #release(ReferenceCounted, int)} but uses plain loads and stores instead of atomic operations.
+     * This must only be used while no other thread can update the reference count of the instance.
+     */
+    public final boolean releaseNonAtomic(T instance, int decrement) {
+        if (!hasPlainAccess()) {
+            return release(instance, decrement);
+        }
+        int rawCnt = getPlain(instance);
+        int realCnt = toLiveRealRefCnt(rawCnt, checkPositive(decrement, "decrement"));
+        if (decrement == realCnt) {
+            setPlain(instance, 1); // any odd number will work
+            return true;
+        }
+        if (decrement < realCnt) {
+            // all changes to the raw count are 2x the "real" change
+            setPlain(instance, rawCnt - (decrement << 1));
+            return false;
+        }
+        throw new IllegalReferenceCountException(realCnt, -decrement);
+    }
+
+    public final boolean release(T instance) {
+        int rawCnt = nonVolatileRawCnt(instance);
+        return rawCnt == 2 ? tryFinalRelease0(instance, 2) || retryRelease0(instance, 1)
+                : nonFinalRelease0(instance, 1, rawCnt, toLiveRealRefCnt(rawCnt, 1));
+    }
+
+    public final boolean release(T instance, int decrement) {
+        int rawCnt = nonVolatileRawCnt(instance);
+        int realCnt = toLiveRealRefCnt(rawCnt, checkPositive(decrement, "decrement"));
+        return decrement == realCnt ? tryFinalRelease0(instance, rawCnt) || retryRelease0(instance, decrement)
+                : nonFinalRelease0(instance, decrement, rawCnt, realCnt);
+    }
+
+    private boolean tryFinalRelease0(T instance, int expectRawCnt) {
+        return compareAndSet(instance, expectRawCnt, 1); // any odd number will work
+    }
+
+    private boolean nonFinalRelease0(T instance, int decrement, int rawCnt, int realCnt) {
+        if (decrement < realCnt
+                // all changes to the raw count are 2x the "real" change - overflow is OK
+                && compareAndSet(instance, rawCnt, rawCnt - (decrement << 1))) {
+            return false;
+        }
+        return retryRelease0(instance, decrement);
+    }
+
+    private boolean retryRelease0(T instance, int decrement) {
+        for (;;) {
+            int rawCnt = get(instance), realCnt = toLiveRealRefCnt(rawCnt, decrement);
+            if (decrement == realCnt) {
+                if (tryFinalRelease0(instance, rawCnt)) {
+                    return true;
+                }
+            } else if (decrement < realCnt) {
+                // all changes to the raw count are 2x the "real" change
+                if (compareAndSet(instance, rawCnt, rawCnt - (decrement << 1))) {
+                    return false;
+                }
+            } else {
+                throw new IllegalReferenceCountException(realCnt, -decrement);
+            }
+            Thread.yield(); // this benefits throughput under high contention
+        }
+    }
+}
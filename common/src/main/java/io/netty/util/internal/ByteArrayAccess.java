@@ -0,0 +1,51 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+/**
+ * Reads and writes multi-byte values from and to {@code byte[]}s in big endian or little endian byte order.
+ * <p>
+ * Unlike assembling the values byte by byte, implementations are expected to translate every call into a single
+ * (potentially unaligned) memory access. Obtain the implementation of the running JVM via
+ * {@link PlatformDependent#byteArrayAccess()}. Bounds are checked by the implementation, an
+ * {@link IndexOutOfBoundsException} is thrown if the value does not fit into the array at the given index.
+ */
+public interface ByteArrayAccess {
+
+    short getShort(byte[] array, int index);
+
+    short getShortLE(byte[] array, int index);
+
+    int getInt(byte[] array, int index);
+
+    int getIntLE(byte[] array, int index);
+
+    long getLong(byte[] array, int index);
+
+    long getLongLE(byte[] array, int index);
+
+    void setShort(byte[] array, int index, int value);
+
+    void setShortLE(byte[] array, int index, int value);
+
+    void setInt(byte[] array, int index, int value);
+
+    void setIntLE(byte[] array, int index, int value);
+
+    void setLong(byte[] array, int index, long value);
+
+    void setLongLE(byte[] array, int index, long value);
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Direct memory that is allocated from its own shared {@code java.lang.foreign.Arena}, so it can be freed
+ * deterministically without {@code sun.misc.Unsafe}. The FFM API is accessed via reflection as it is only available
+ * on Java 21+. The memory is counted against {@link PlatformDependent#maxDirectMemory()}.
+ * <p>
+ * Besides the {@link ByteBuffer} view, the segment can be accessed directly via the big endian
+ * {@code get}/{@code set} methods. These use {@code MemorySegment.get}/{@code MemorySegment.set} through constant
+ * {@link MethodHandle}s, which the JIT compiles down to a plain memory access plus a bounds check.
+ * <p>
+ * Closing a shared arena requires a handshake with all threads, so this should only be used for memory that lives
+ * for a long time, like the chunks of a pooled allocator.
+ */
+@SuppressJava6Requirement(reason = "MethodHandles are only used on Java 21+")
+public final class DirectMemorySegment {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(DirectMemorySegment.class);
+
+    private static final Method OF_SHARED;
+    private static final Method ALLOCATE;
+    private static final Method AS_BYTE_BUFFER;
+    private static final Method CLOSE;
+    private static final MethodHandle GET_BYTE;
+    private static final MethodHandle SET_BYTE;
+    private static final MethodHandle GET_SHORT;
+    private static final MethodHandle SET_SHORT;
+    private static final MethodHandle GET_INT;
+    private static final MethodHandle SET_INT;
+    private static final MethodHandle GET_LONG;
+    private static final MethodHandle SET_LONG;
+
+    static {
+        Method[] methods = null;
+        MethodHandle[] handles = null;
+        Throwable error = null;
+        // Not PlatformDependent, as its static initializer asks whether segments are available.
+        if (PlatformDependent0.javaVersion() >= 21) {
+            try {
+                Class<?> arenaClass = Class.forName("java.lang.foreign.Arena");
+                Class<?> segmentClass = Class.forName("java.lang.foreign.MemorySegment");
+                methods = new Method[] {
+                        arenaClass.getMethod("ofShared"),
+                        arenaClass.getMethod("allocate", long.class, long.class),
+                        segmentClass.getMethod("asByteBuffer"),
+                        arenaClass.getMethod("close")
+                };
+                handles = new MethodHandle[] {
+                        accessor(segmentClass, "JAVA_BYTE", byte.class, false),
+                        accessor(segmentClass, "JAVA_BYTE", byte.class, true),
+                        accessor(segmentClass, "JAVA_SHORT_UNALIGNED", short.class, false),
+                        accessor(segmentClass, "JAVA_SHORT_UNALIGNED", short.class, true),
+                        accessor(segmentClass, "JAVA_INT_UNALIGNED", int.class, false),
+                        accessor(segmentClass, "JAVA_INT_UNALIGNED", int.class, true),
+                        accessor(segmentClass, "JAVA_LONG_UNALIGNED", long.class, false),
+                        accessor(segmentClass, "JAVA_LONG_UNALIGNED", long.class, true)
+                };
+                // Make sure we can actually allocate, access and free memory.
+                Object arena = methods[0].invoke(null);
+                Object segment = methods[1].invoke(arena, 8L, 1L);
+                ByteBuffer buffer = (ByteBuffer) methods[2].invoke(segment);
+                handles[7].invokeExact(segment, 0L, 0x0102030405060708L);
+                if (!buffer.isDirect() || buffer.capacity() != 8 || buffer.getLong(0) != 0x0102030405060708L ||
+                        (long) handles[6].invokeExact(segment, 0L) != 0x0102030405060708L) {
+                    error = new IllegalStateException("Unexpected buffer: " + buffer);
+                }
+                methods[3].invoke(arena);
+            } catch (Throwable cause) {
+                error = cause;
+            }
+        } else {
+            error = new UnsupportedOperationException("java.lang.foreign requires Java 21+");
+        }
+        if (error == null) {
+            logger.debug("java.lang.foreign.Arena: available");
+        } else {
+            logger.debug("java.lang.foreign.Arena: unavailable", error);
+            methods = new Method[4];
+            handles = new MethodHandle[8];
+        }
+        OF_SHARED = methods[0];
+        ALLOCATE = methods[1];
+        AS_BYTE_BUFFER = methods[2];
+        CLOSE = methods[3];
+        GET_BYTE = handles[0];
+        SET_BYTE = handles[1];
+        GET_SHORT = handles[2];
+        SET_SHORT = handles[3];
+        GET_INT = handles[4];
+        SET_INT = handles[5];
+        GET_LONG = handles[6];
+        SET_LONG = handles[7];
+    }
+
+    /**
+     * Returns a {@link MethodHandle} of type {@code (Object, long)type} for {@code MemorySegment.get} or of type
+     * {@code (Object, long, type)void} for {@code MemorySegment.set}, bound to the big endian variant of the given
+     * {@code ValueLayout} constant.
+     */
+    private static MethodHandle accessor(Class<?> segmentClass, String layoutName, Class<?> type, boolean set)
+            throws Exception {
+        Class<?> valueLayoutClass = Class.forName("java.lang.foreign.ValueLayout");
+        Field field = valueLayoutClass.getField(layoutName);
+        // The public type of the layout, e.g. ValueLayout.OfInt, as the implementation is not exported.
+        Class<?> layoutClass = field.getType();
+        Object layout = layoutClass.getMethod("withOrder", ByteOrder.class)
+                .invoke(field.get(null), ByteOrder.BIG_ENDIAN);
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle handle;
+        if (set) {
+            handle = lookup.findVirtual(segmentClass, "set",
+                    MethodType.methodType(void.class, layoutClass, long.class, type));
+            handle = MethodHandles.insertArguments(handle, 1, layout);
+            return handle.asType(MethodType.methodType(void.class, Object.class, long.class, type));
+        }
+        handle = lookup.findVirtual(segmentClass, "get", MethodType.methodType(type, layoutClass, long.class));
+        handle = MethodHandles.insertArguments(handle, 1, layout);
+        return handle.asType(MethodType.methodType(type, Object.class, long.class));
+    }
+
+    private final Object arena;
+    private final Object segment;
+    private final ByteBuffer buffer;
+
+    private DirectMemorySegment(Object arena, Object segment, ByteBuffer buffer) {
+        this.arena = arena;
+        this.segment = segment;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Returns {@code true} if memory can be allocated via {@code java.lang.foreign.Arena}.
+     */
+    public static boolean isAvailable() {
+        return OF_SHARED != null;
+    }
+
+    /**
+     * Allocates a new zeroed segment of the given capacity, which must be freed via {@link #free()}.
+     *
+     * @throws OutOfMemoryError if the memory could not be allocated or the direct memory limit would be exceeded.
+     */
+    public static DirectMemorySegment allocate(int capacity) {
+        ObjectUtil.checkPositiveOrZero(capacity, "capacity");
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("java.lang.foreign.Arena unavailable");
+        }
+        PlatformDependent.incrementMemoryCounter(capacity);
+        Object arena = null;
+        try {
+            arena = invoke(OF_SHARED, null);
+            // Allocate at least one byte, as an empty segment is not backed by any memory.
+            Object segment = invoke(ALLOCATE, arena, (long) Math.max(capacity, 1), 1L);
+            ByteBuffer buffer = (ByteBuffer) invoke(AS_BYTE_BUFFER, segment);
+            buffer.limit(capacity);
+            return new DirectMemorySegment(arena, segment, buffer.slice());
+        } catch (Throwable cause) {
+            if (arena != null) {
+                invoke(CLOSE, arena);
+            }
+            PlatformDependent.decrementMemoryCounter(capacity);
+            PlatformDependent.throwException(cause);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the direct {@link ByteBuffer} that covers the whole segment. It must not be used after {@link #free()}.
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Frees the memory of this segment.
+     *
+     * @throws IllegalStateException if the segment was freed already.
+     */
+    public void free() {
+        invoke(CLOSE, arena);
+        PlatformDependent.decrementMemoryCounter(buffer.capacity());
+    }
+
+    public byte getByte(long offset) {
+        try {
+            return (byte) GET_BYTE.invokeExact(segment, offset);
+        } catch (Throwable cause) {
+            PlatformDependent.throwException(cause);
+            return 0;
+        }
+    }
+
+    public void setByte(long offset, byte value) {
+        try {
+            SET_BYTE.invokeExact(segment, offset, value);
+        } catch (Throwable cause) {
+            PlatformDependent.throwException(cause);
+        }
+    }
+
+    public short getShort(long offset) {
+        try {
+            return (short) GET_SHORT.invokeExact(segment, offset);
+        } catch (Throwable cause) {
+            PlatformDependent.throwException(cause);
+            return 0;
+        }
+    }
+
+    public void setShort(long offset, short value) {
+        try {
+            SET_SHORT.invokeExact(segment, offset, value);
+        } catch (Throwable cause) {
+            PlatformDependent.throwException(cause);
+        }
+    }
+
+    public int getInt(long offset) {
+        try {
+            return (int) GET_INT.invokeExact(segment, offset);
+        } catch (Throwable cause) {
+            PlatformDependent.throwException(cause);
+            return 0;
+        }
+    }
+
+    public void setInt(long offset, int value) {
+        try {
+            SET_INT.invokeExact(segment, offset, value);
+        } catch (Throwable cause) {
+            PlatformDependent.throwException(cause);
+        }
+    }
+
+    public long getLong(long offset) {
+        try {
+            return (long) GET_LONG.invokeExact(segment, offset);
+        } catch (Throwable cause) {
+            PlatformDependent.throwException(cause);
+            return 0;
+        }
+    }
+
+    public void setLong(long offset, long value) {
+        try {
+            SET_LONG.invokeExact(segment, offset, value);
+        } catch (Throwable cause) {
+            PlatformDependent.throwException(cause);
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            PlatformDependent.throwException(e.getCause());
+        } catch (IllegalAccessException e) {
+            PlatformDependent.throwException(e);
+        }
+        return null;
+    }
+}
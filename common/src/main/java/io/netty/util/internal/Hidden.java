@@ -162,7 +162,7 @@ class Hidden {
                     "io.netty.util.NetUtil$SoMaxConnAction",
                     "run");
 
-            builder.allowBlockingCallsInside("io.netty.util.internal.ReferenceCountUpdater",
+            builder.allowBlockingCallsInside("io.netty.util.internal.AbstractReferenceCountUpdater",
                     "retryRelease0");
 
             builder.allowBlockingCallsInside("io.netty.util.internal.PlatformDependent", "createTempFile");
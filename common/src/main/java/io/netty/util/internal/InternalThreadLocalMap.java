@@ -52,6 +52,8 @@ public final class InternalThreadLocalMap extends UnpaddedInternalThreadLocalMap
 
     private static final int HANDLER_SHARABLE_CACHE_INITIAL_CAPACITY = 4;
     private static final int INDEXED_VARIABLE_TABLE_INITIAL_SIZE = 32;
+    // Virtual threads are short-lived and usually only touch a few variables.
+    private static final int VIRTUAL_THREAD_INDEXED_VARIABLE_TABLE_INITIAL_SIZE = 4;
 
     private static final int STRING_BUILDER_INITIAL_SIZE;
     private static final int STRING_BUILDER_MAX_SIZE;
@@ -62,6 +64,7 @@ public final class InternalThreadLocalMap extends UnpaddedInternalThreadLocalMap
 
     /** Used by {@link FastThreadLocal} */
     private Object[] indexedVariables;
+    private final boolean compact;
 
     // Core thread-locals
     private int futureListenerStackDepth;
@@ -129,7 +132,9 @@ public final class InternalThreadLocalMap extends UnpaddedInternalThreadLocalMap
     private static InternalThreadLocalMap slowGet() {
         InternalThreadLocalMap ret = slowThreadLocalMap.get();
         if (ret == null) {
-            ret = new InternalThreadLocalMap();
+            ret = PlatformDependent.isVirtualThread(Thread.currentThread()) ?
+                    new InternalThreadLocalMap(VIRTUAL_THREAD_INDEXED_VARIABLE_TABLE_INITIAL_SIZE) :
+                    new InternalThreadLocalMap();
             slowThreadLocalMap.set(ret);
         }
         return ret;
@@ -162,11 +167,23 @@ public final class InternalThreadLocalMap extends UnpaddedInternalThreadLocalMap
     }
 
     private InternalThreadLocalMap() {
-        indexedVariables = newIndexedVariableTable();
+        this(INDEXED_VARIABLE_TABLE_INITIAL_SIZE);
     }
 
-    private static Object[] newIndexedVariableTable() {
-        Object[] array = new Object[INDEXED_VARIABLE_TABLE_INITIAL_SIZE];
+    private InternalThreadLocalMap(int initialSize) {
+        indexedVariables = newIndexedVariableTable(initialSize);
+        compact = initialSize < INDEXED_VARIABLE_TABLE_INITIAL_SIZE;
+    }
+
+    /**
+     * Returns {@code true} if this map belongs to a short-lived virtual thread and so was sized small.
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+
+    private static Object[] newIndexedVariableTable(int initialSize) {
+        Object[] array = new Object[initialSize];
         Arrays.fill(array, UNSET);
         return array;
     }
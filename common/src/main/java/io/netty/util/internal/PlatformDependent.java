@@ -111,9 +111,13 @@ public final class PlatformDependent {
     private static final boolean IS_OSX = isOsx0();
     private static final boolean IS_J9_JVM = isJ9Jvm0();
     private static final boolean IS_IVKVM_DOT_NET = isIkvmDotNet0();
+    private static final Class<?> VIRTUAL_THREAD_CLASS = virtualThreadClass0();
+    private static final ByteArrayAccess BYTE_ARRAY_ACCESS = byteArrayAccess0();
 
     private static final int ADDRESS_SIZE = addressSize0();
     private static final boolean USE_DIRECT_BUFFER_NO_CLEANER;
+    private static final boolean USE_MEMORY_SEGMENT;
+    private static final boolean JFR;
     private static final AtomicLong DIRECT_MEMORY_COUNTER;
     private static final long DIRECT_MEMORY_LIMIT;
     private static final ThreadLocalRandomProvider RANDOM_PROVIDER;
@@ -150,6 +154,17 @@ public final class PlatformDependent {
             };
         }
 
+        // Without Unsafe we can neither free direct buffers via their cleaner nor allocate them without one, so use
+        // memory segments for pooled chunks which can be freed deterministically if they are available.
+        boolean useMemorySegment = SystemPropertyUtil.getBoolean("io.netty.useMemorySegment",
+                javaVersion() >= 22 && !hasUnsafe());
+        if (useMemorySegment && !DirectMemorySegment.isAvailable()) {
+            logger.debug("java.lang.foreign.Arena unavailable, will not use memory segments for direct buffers");
+            useMemorySegment = false;
+        }
+        USE_MEMORY_SEGMENT = useMemorySegment;
+        logger.debug("-Dio.netty.useMemorySegment: {}", USE_MEMORY_SEGMENT);
+
         // Here is how the system property is used:
         //
         // * <  0  - Don't use cleaner, and inherit max direct memory from java. In this case the
@@ -157,13 +172,18 @@ public final class PlatformDependent {
         // * == 0  - Use cleaner, Netty will not enforce max memory, and instead will defer to JDK.
         // * >  0  - Don't use cleaner. This will limit Netty's total direct memory
         //           (note: that JDK's direct memory limit is independent of this).
+        //
+        // Memory segments are counted and limited the same way as buffers without a cleaner.
         long maxDirectMemory = SystemPropertyUtil.getLong("io.netty.maxDirectMemory", -1);
 
         if (maxDirectMemory == 0 || !hasUnsafe() || !PlatformDependent0.hasDirectBufferNoCleanerConstructor()) {
             USE_DIRECT_BUFFER_NO_CLEANER = false;
-            DIRECT_MEMORY_COUNTER = null;
         } else {
             USE_DIRECT_BUFFER_NO_CLEANER = true;
+        }
+        if (maxDirectMemory == 0 || !USE_DIRECT_BUFFER_NO_CLEANER && !USE_MEMORY_SEGMENT) {
+            DIRECT_MEMORY_COUNTER = null;
+        } else {
             if (maxDirectMemory < 0) {
                 maxDirectMemory = MAX_DIRECT_MEMORY;
                 if (maxDirectMemory <= 0) {
@@ -198,6 +218,16 @@ public final class PlatformDependent {
             CLEANER = NOOP;
         }
 
+        // The JFR events are only loaded if this is true, so JDKs without jdk.jfr never touch them. Recording is
+        // opt-in, as every instrumented call site pays an event isEnabled() check once the events are loaded.
+        boolean jfr = SystemPropertyUtil.getBoolean("io.netty.jfr.enabled", false);
+        if (jfr && !isJfrAvailable0()) {
+            logger.debug("jdk.jfr.FlightRecorder unavailable, will not emit JFR events");
+            jfr = false;
+        }
+        JFR = jfr;
+        logger.debug("-Dio.netty.jfr.enabled: {}", JFR);
+
         // We should always prefer direct buffers by default if we can use a Cleaner to release direct buffers.
         DIRECT_BUFFER_PREFERRED = CLEANER != NOOP
                                   && !SystemPropertyUtil.getBoolean("io.netty.noPreferDirect", false);
@@ -543,6 +573,10 @@ public final class PlatformDependent {
         return PlatformDependent0.getInt(object, fieldOffset);
     }
 
+    static void putInt(Object object, long fieldOffset, int value) {
+        PlatformDependent0.putInt(object, fieldOffset, value);
+    }
+
     static void safeConstructPutInt(Object object, long fieldOffset, int value) {
         PlatformDependent0.safeConstructPutInt(object, fieldOffset, value);
     }
@@ -827,6 +861,44 @@ public final class PlatformDependent {
         decrementMemoryCounter(capacity);
     }
 
+    /**
+     * Allocate a new {@link ByteBuffer} with the given {@code capacity} whose memory address is a multiple of the
+     * given {@code alignment}, which must be a power of two of at least 8. Only the {@code capacity} is counted
+     * against the direct memory limit, the padding in front of the buffer is never used. {@link ByteBuffer}s
+     * allocated with this method <strong>MUST</strong> be deallocated via
+     * {@link #freeAlignedDirectNoCleaner(ByteBuffer)}.
+     */
+    public static ByteBuffer allocateAlignedDirectNoCleaner(int capacity, int alignment) {
+        assert USE_DIRECT_BUFFER_NO_CLEANER;
+        assert alignment >= 8 && (alignment & alignment - 1) == 0;
+
+        incrementMemoryCounter(capacity);
+        try {
+            // malloc returns memory that is at least 8 byte aligned, so the padding always leaves room to store the
+            // address that has to be freed right in front of the aligned memory.
+            long base = PlatformDependent0.allocateMemory((long) capacity + alignment);
+            long address = align(base + 8, alignment);
+            PlatformDependent0.putLong(address - 8, base);
+            return PlatformDependent0.newDirectBuffer(address, capacity);
+        } catch (Throwable e) {
+            decrementMemoryCounter(capacity);
+            throwException(e);
+            return null;
+        }
+    }
+
+    /**
+     * This method <strong>MUST</strong> only be called for {@link ByteBuffer}s that were allocated via
+     * {@link #allocateAlignedDirectNoCleaner(int, int)}.
+     */
+    public static void freeAlignedDirectNoCleaner(ByteBuffer buffer) {
+        assert USE_DIRECT_BUFFER_NO_CLEANER;
+
+        int capacity = buffer.capacity();
+        PlatformDependent0.freeMemory(PlatformDependent0.getLong(PlatformDependent0.directBufferAddress(buffer) - 8));
+        decrementMemoryCounter(capacity);
+    }
+
     public static boolean hasAlignDirectByteBuffer() {
         return hasUnsafe() || PlatformDependent0.hasAlignSliceMethod();
     }
@@ -853,7 +925,7 @@ public final class PlatformDependent {
         return Pow2.align(value, alignment);
     }
 
-    private static void incrementMemoryCounter(int capacity) {
+    static void incrementMemoryCounter(int capacity) {
         if (DIRECT_MEMORY_COUNTER != null) {
             long newUsedMemory = DIRECT_MEMORY_COUNTER.addAndGet(capacity);
             if (newUsedMemory > DIRECT_MEMORY_LIMIT) {
@@ -865,7 +937,7 @@ public final class PlatformDependent {
         }
     }
 
-    private static void decrementMemoryCounter(int capacity) {
+    static void decrementMemoryCounter(int capacity) {
         if (DIRECT_MEMORY_COUNTER != null) {
             long usedMemory = DIRECT_MEMORY_COUNTER.addAndGet(-capacity);
             assert usedMemory >= 0;
@@ -876,6 +948,39 @@ public final class PlatformDependent {
         return USE_DIRECT_BUFFER_NO_CLEANER;
     }
 
+    /**
+     * Returns {@code true} if pooled allocators should allocate the memory of their direct chunks via
+     * {@link DirectMemorySegment}. Unpooled direct buffers never use it, as every segment comes with its own arena
+     * which is costly to create and close.
+     */
+    public static boolean useMemorySegment() {
+        return USE_MEMORY_SEGMENT;
+    }
+
+    /**
+     * Returns {@code true} if Java Flight Recorder events may be emitted. This is {@code false} unless
+     * {@code -Dio.netty.jfr.enabled=true} is set and {@code jdk.jfr} is available. If {@code false} the event classes
+     * must not be touched at all, so each instrumented call site costs a single check of this flag. If {@code true}
+     * each call site additionally checks whether its event is enabled in the running recording.
+     */
+    public static boolean isJfrEnabled() {
+        return JFR;
+    }
+
+    private static boolean isJfrAvailable0() {
+        if (isAndroid() || javaVersion() < 8) {
+            return false;
+        }
+        try {
+            Class<?> flightRecorder = Class.forName(
+                    "jdk.jfr.FlightRecorder", false, getSystemClassLoader());
+            return (Boolean) flightRecorder.getMethod("isAvailable").invoke(null);
+        } catch (Throwable t) {
+            logger.debug("Unable to load jdk.jfr.FlightRecorder", t);
+            return false;
+        }
+    }
+
     /**
      * Compare two {@code byte} arrays for equality. For performance reasons no bounds checking on the
      * parameters is performed.
@@ -1217,6 +1322,67 @@ public final class PlatformDependent {
         return vmName.equals("IKVM.NET");
     }
 
+    /**
+     * Returns {@code true} if the given {@link Thread} is a virtual thread, which can only be the case on Java 21 and
+     * later. Virtual threads are cheap and short-lived, so caching state per virtual thread is usually a waste.
+     */
+    public static boolean isVirtualThread(Thread thread) {
+        return VIRTUAL_THREAD_CLASS != null && VIRTUAL_THREAD_CLASS.isInstance(thread);
+    }
+
+    private static Class<?> virtualThreadClass0() {
+        if (javaVersion() < 21) {
+            return null;
+        }
+        // Class.isInstance(...) is an intrinsic, so this is a lot cheaper than calling Thread.isVirtual() reflectively.
+        // All virtual thread implementations extend BaseVirtualThread.
+        try {
+            return Class.forName("java.lang.BaseVirtualThread", false, null);
+        } catch (Throwable t) {
+            logger.debug("Unable to load java.lang.BaseVirtualThread", t);
+            return null;
+        }
+    }
+
+    /**
+     * Returns {@code true} if {@code java.lang.invoke.VarHandle}s can be used, which requires Java 9 or later. They
+     * are used in place of {@code sun.misc.Unsafe} where {@link #hasUnsafe()} returns {@code false}, and for byte
+     * order aware access to byte arrays, see {@link #byteArrayAccess()}.
+     */
+    public static boolean hasVarHandle() {
+        return BYTE_ARRAY_ACCESS != null;
+    }
+
+    /**
+     * Returns a {@link ByteArrayAccess} that reads and writes multi-byte values from and to byte arrays with a
+     * single memory access, or {@code null} if {@link #hasVarHandle() VarHandles are not available}.
+     */
+    public static ByteArrayAccess byteArrayAccess() {
+        return BYTE_ARRAY_ACCESS;
+    }
+
+    private static ByteArrayAccess byteArrayAccess0() {
+        if (javaVersion() < 9) {
+            return null;
+        }
+        boolean noVarHandle = SystemPropertyUtil.getBoolean("io.netty.noVarHandle", false);
+        logger.debug("-Dio.netty.noVarHandle: {}", noVarHandle);
+        if (noVarHandle) {
+            return null;
+        }
+        // Only compiled when building with Java 9+, so load it by name.
+        try {
+            Class<?> clazz = Class.forName("io.netty.util.internal.VarHandleByteArrayAccess", true,
+                    getClassLoader(PlatformDependent.class));
+            ByteArrayAccess access = (ByteArrayAccess) clazz.getDeclaredConstructor().newInstance();
+            logger.debug("java.lang.invoke.VarHandle: available");
+            return access;
+        } catch (Throwable t) {
+            logger.debug("java.lang.invoke.VarHandle: unavailable", t);
+            return null;
+        }
+    }
+
     private static Pattern getMaxDirectMemorySizeArgPattern() {
         // Pattern's is immutable so it's always safe published
         Pattern pattern = MAX_DIRECT_MEMORY_SIZE_ARG_PATTERN;
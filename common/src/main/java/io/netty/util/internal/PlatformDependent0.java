@@ -683,6 +683,10 @@ final class PlatformDependent0 {
         return UNSAFE.getInt(object, fieldOffset);
     }
 
+    static void putInt(Object object, long fieldOffset, int value) {
+        UNSAFE.putInt(object, fieldOffset, value);
+    }
+
     static void safeConstructPutInt(Object object, long fieldOffset, int value) {
         if (STORE_FENCE_AVAILABLE) {
             UNSAFE.putInt(object, fieldOffset, value);
@@ -15,28 +15,15 @@
  */
 package io.netty.util.internal;
 
-import static io.netty.util.internal.ObjectUtil.checkPositive;
-
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
-import io.netty.util.IllegalReferenceCountException;
 import io.netty.util.ReferenceCounted;
 
 /**
- * Common logic for {@link ReferenceCounted} implementations
+ * Common logic for {@link ReferenceCounted} implementations which access their reference count field via
+ * {@code sun.misc.Unsafe} if available, or an {@link AtomicIntegerFieldUpdater} otherwise.
  */
-public abstract class ReferenceCountUpdater<T extends ReferenceCounted> {
-    /*
-     * Implementation notes:
-     *
-     * For the updated int field:
-     *   Even => "real" refcount is (refCnt >>> 1)
-     *   Odd  => "real" refcount is 0
-     *
-     * (x & y) appears to be surprisingly expensive relative to (x == y). Thus this class uses
-     * a fast-path in some places for most common low values when checking for live (even) refcounts,
-     * for example: if (rawCnt == 2 || rawCnt == 4 || (rawCnt & 1) == 0) { ...
-     */
+public abstract class ReferenceCountUpdater<T extends ReferenceCounted> extends AbstractReferenceCountUpdater<T> {
 
     protected ReferenceCountUpdater() { }
 
@@ -55,135 +42,59 @@ public abstract class ReferenceCountUpdater<T extends ReferenceCounted> {
 
     protected abstract long unsafeOffset();
 
-    public final int initialValue() {
-        return 2;
-    }
-
-    public void setInitialValue(T instance) {
-        final long offset = unsafeOffset();
-        if (offset == -1) {
-            updater().set(instance, initialValue());
-        } else {
-            PlatformDependent.safeConstructPutInt(instance, offset, initialValue());
-        }
-    }
-
-    private static int realRefCnt(int rawCnt) {
-        return rawCnt != 2 && rawCnt != 4 && (rawCnt & 1) != 0 ? 0 : rawCnt >>> 1;
-    }
-
-    /**
-     * Like {@link #realRefCnt(int)} but throws if refCnt == 0
-     */
-    private static int toLiveRealRefCnt(int rawCnt, int decrement) {
-        if (rawCnt == 2 || rawCnt == 4 || (rawCnt & 1) == 0) {
-            return rawCnt >>> 1;
-        }
-        // odd rawCnt => already deallocated
-        throw new IllegalReferenceCountException(0, -decrement);
+    @Override
+    protected final boolean hasPlainAccess() {
+        return unsafeOffset() != -1;
     }
 
-    private int nonVolatileRawCnt(T instance) {
-        // TODO: Once we compile against later versions of Java we can replace the Unsafe usage here by varhandles.
+    @Override
+    protected final int getPlain(T instance) {
         final long offset = unsafeOffset();
         return offset != -1 ? PlatformDependent.getInt(instance, offset) : updater().get(instance);
     }
 
-    public final int refCnt(T instance) {
-        return realRefCnt(updater().get(instance));
-    }
-
-    public final boolean isLiveNonVolatile(T instance) {
+    @Override
+    protected final void setPlain(T instance, int value) {
         final long offset = unsafeOffset();
-        final int rawCnt = offset != -1 ? PlatformDependent.getInt(instance, offset) : updater().get(instance);
-
-        // The "real" ref count is > 0 if the rawCnt is even.
-        return rawCnt == 2 || rawCnt == 4 || rawCnt == 6 || rawCnt == 8 || (rawCnt & 1) == 0;
-    }
-
-    /**
-     * An unsafe operation that sets the reference count directly
-     */
-    public final void setRefCnt(T instance, int refCnt) {
-        updater().set(instance, refCnt > 0 ? refCnt << 1 : 1); // overflow OK here
-    }
-
-    /**
-     * Resets the reference count to 1
-     */
-    public final void resetRefCnt(T instance) {
-        // no need of a volatile set, it should happen in a quiescent state
-        updater().lazySet(instance, initialValue());
-    }
-
-    public final T retain(T instance) {
-        return retain0(instance, 1, 2);
-    }
-
-    public final T retain(T instance, int increment) {
-        // all changes to the raw count are 2x the "real" change - overflow is OK
-        int rawIncrement = checkPositive(increment, "increment") << 1;
-        return retain0(instance, increment, rawIncrement);
+        if (offset != -1) {
+            PlatformDependent.putInt(instance, offset, value);
+        } else {
+            updater().set(instance, value);
+        }
     }
 
-    // rawIncrement == increment << 1
-    private T retain0(T instance, final int increment, final int rawIncrement) {
-        int oldRef = updater().getAndAdd(instance, rawIncrement);
-        if (oldRef != 2 && oldRef != 4 && (oldRef & 1) != 0) {
-            throw new IllegalReferenceCountException(0, increment);
-        }
-        // don't pass 0!
-        if ((oldRef <= 0 && oldRef + rawIncrement >= 0)
-                || (oldRef >= 0 && oldRef + rawIncrement < oldRef)) {
-            // overflow case
-            updater().getAndAdd(instance, -rawIncrement);
-            throw new IllegalReferenceCountException(realRefCnt(oldRef), increment);
-        }
-        return instance;
+    @Override
+    protected final int get(T instance) {
+        return updater().get(instance);
     }
 
-    public final boolean release(T instance) {
-        int rawCnt = nonVolatileRawCnt(instance);
-        return rawCnt == 2 ? tryFinalRelease0(instance, 2) || retryRelease0(instance, 1)
-                : nonFinalRelease0(instance, 1, rawCnt, toLiveRealRefCnt(rawCnt, 1));
+    @Override
+    protected final void set(T instance, int value) {
+        updater().set(instance, value);
     }
 
-    public final boolean release(T instance, int decrement) {
-        int rawCnt = nonVolatileRawCnt(instance);
-        int realCnt = toLiveRealRefCnt(rawCnt, checkPositive(decrement, "decrement"));
-        return decrement == realCnt ? tryFinalRelease0(instance, rawCnt) || retryRelease0(instance, decrement)
-                : nonFinalRelease0(instance, decrement, rawCnt, realCnt);
+    @Override
+    protected final void lazySet(T instance, int value) {
+        updater().lazySet(instance, value);
     }
 
-    private boolean tryFinalRelease0(T instance, int expectRawCnt) {
-        return updater().compareAndSet(instance, expectRawCnt, 1); // any odd number will work
+    @Override
+    protected final int getAndAdd(T instance, int delta) {
+        return updater().getAndAdd(instance, delta);
     }
 
-    private boolean nonFinalRelease0(T instance, int decrement, int rawCnt, int realCnt) {
-        if (decrement < realCnt
-                // all changes to the raw count are 2x the "real" change - overflow is OK
-                && updater().compareAndSet(instance, rawCnt, rawCnt - (decrement << 1))) {
-            return false;
-        }
-        return retryRelease0(instance, decrement);
+    @Override
+    protected final boolean compareAndSet(T instance, int expect, int update) {
+        return updater().compareAndSet(instance, expect, update);
     }
 
-    private boolean retryRelease0(T instance, int decrement) {
-        for (;;) {
-            int rawCnt = updater().get(instance), realCnt = toLiveRealRefCnt(rawCnt, decrement);
-            if (decrement == realCnt) {
-                if (tryFinalRelease0(instance, rawCnt)) {
-                    return true;
-                }
-            } else if (decrement < realCnt) {
-                // all changes to the raw count are 2x the "real" change
-                if (updater().compareAndSet(instance, rawCnt, rawCnt - (decrement << 1))) {
-                    return false;
-                }
-            } else {
-                throw new IllegalReferenceCountException(realCnt, -decrement);
-            }
-            Thread.yield(); // this benefits throughput under high contention
+    @Override
+    public void setInitialValue(T instance) {
+        final long offset = unsafeOffset();
+        if (offset == -1) {
+            set(instance, initialValue());
+        } else {
+            PlatformDependent.safeConstructPutInt(instance, offset, initialValue());
         }
     }
 }
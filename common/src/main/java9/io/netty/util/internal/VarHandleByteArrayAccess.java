@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * {@link ByteArrayAccess} which is backed by {@link MethodHandles#byteArrayViewVarHandle(Class, ByteOrder)}s. The
+ * {@link VarHandle}s are constants, so the JIT compiles every access down to a single load or store (plus a byte
+ * swap if needed).
+ * <p>
+ * This class is only compiled when building with Java 9 or later and is loaded reflectively by
+ * {@link PlatformDependent}.
+ */
+@SuppressJava6Requirement(reason = "Only loaded on Java 9+")
+final class VarHandleByteArrayAccess implements ByteArrayAccess {
+
+    private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle SHORT_LE =
+            MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    @Override
+    public short getShort(byte[] array, int index) {
+        return (short) SHORT_BE.get(array, index);
+    }
+
+    @Override
+    public short getShortLE(byte[] array, int index) {
+        return (short) SHORT_LE.get(array, index);
+    }
+
+    @Override
+    public int getInt(byte[] array, int index) {
+        return (int) INT_BE.get(array, index);
+    }
+
+    @Override
+    public int getIntLE(byte[] array, int index) {
+        return (int) INT_LE.get(array, index);
+    }
+
+    @Override
+    public long getLong(byte[] array, int index) {
+        return (long) LONG_BE.get(array, index);
+    }
+
+    @Override
+    public long getLongLE(byte[] array, int index) {
+        return (long) LONG_LE.get(array, index);
+    }
+
+    @Override
+    public void setShort(byte[] array, int index, int value) {
+        SHORT_BE.set(array, index, (short) value);
+    }
+
+    @Override
+    public void setShortLE(byte[] array, int index, int value) {
+        SHORT_LE.set(array, index, (short) value);
+    }
+
+    @Override
+    public void setInt(byte[] array, int index, int value) {
+        INT_BE.set(array, index, value);
+    }
+
+    @Override
+    public void setIntLE(byte[] array, int index, int value) {
+        INT_LE.set(array, index, value);
+    }
+
+    @Override
+    public void setLong(byte[] array, int index, long value) {
+        LONG_BE.set(array, index, value);
+    }
+
+    @Override
+    public void setLongLE(byte[] array, int index, long value) {
+        LONG_LE.set(array, index, value);
+    }
+}
@@ -15,11 +15,14 @@
  */
 package io.netty.util;
 
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.AbstractReferenceCountUpdater;
 import io.netty.util.internal.ThreadLocalRandom;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.function.Executable;
 
+import java.lang.reflect.Constructor;
 import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.concurrent.CountDownLatch;
@@ -30,9 +33,11 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class AbstractReferenceCountedTest {
 
@@ -215,6 +220,47 @@ public class AbstractReferenceCountedTest {
         }
     }
 
+    @Test
+    public void testVarHandleUpdater() throws Exception {
+        assumeTrue(PlatformDependent.hasVarHandle());
+        // Only used by default when Unsafe is not available, so exercise it directly.
+        Constructor<?> constructor = Class.forName("io.netty.util.VarHandleReferenceCountUpdater")
+                .getDeclaredConstructor();
+        constructor.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        final AbstractReferenceCountUpdater<AbstractReferenceCounted> updater =
+                (AbstractReferenceCountUpdater<AbstractReferenceCounted>) constructor.newInstance();
+        final AbstractReferenceCounted referenceCounted = newReferenceCounted();
+
+        updater.setInitialValue(referenceCounted);
+        assertEquals(1, updater.refCnt(referenceCounted));
+        assertTrue(updater.isLiveNonVolatile(referenceCounted));
+        updater.retain(referenceCounted, 2);
+        // Updates the same field as the default updater.
+        assertEquals(3, referenceCounted.refCnt());
+        updater.retainNonAtomic(referenceCounted, 1);
+        assertEquals(4, updater.refCnt(referenceCounted));
+        assertFalse(updater.releaseNonAtomic(referenceCounted, 2));
+        assertFalse(updater.release(referenceCounted));
+        assertEquals(1, updater.refCnt(referenceCounted));
+        assertTrue(updater.release(referenceCounted));
+        assertEquals(0, referenceCounted.refCnt());
+        assertFalse(updater.isLiveNonVolatile(referenceCounted));
+        assertThrows(IllegalReferenceCountException.class, new Executable() {
+            @Override
+            public void execute() {
+                updater.retain(referenceCounted);
+            }
+        });
+
+        updater.resetRefCnt(referenceCounted);
+        assertEquals(1, updater.refCnt(referenceCounted));
+        updater.setRefCnt(referenceCounted, 5);
+        assertEquals(5, updater.refCnt(referenceCounted));
+        assertTrue(updater.releaseNonAtomic(referenceCounted, 5));
+        assertEquals(0, updater.refCnt(referenceCounted));
+    }
+
     private static AbstractReferenceCounted newReferenceCounted() {
         return new AbstractReferenceCounted() {
             @Override
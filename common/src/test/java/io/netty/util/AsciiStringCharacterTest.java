@@ -19,6 +19,7 @@ import org.junit.jupiter.api.Test;
 
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Random;
 
 import static io.netty.util.AsciiString.contains;
@@ -46,6 +47,43 @@ public class AsciiStringCharacterTest {
         assertFalse(asciiString.contentEqualsIgnoreCase(AsciiString.of("b")));
     }
 
+    @Test
+    public void testContentEqualsIgnoreCaseLong() {
+        String lower = "content-type: application/x-www-form-urlencoded; charset=utf-8";
+        String upper = lower.toUpperCase();
+        for (int start = 0; start < 9; start++) {
+            for (int end = start; end <= lower.length(); end++) {
+                AsciiString a = new AsciiString(lower).subSequence(start, end, false);
+                AsciiString b = new AsciiString(
+                        ("x" + upper).getBytes(CharsetUtil.US_ASCII), start + 1, end - start, false);
+                assertTrue(a.contentEqualsIgnoreCase(b));
+                assertTrue(b.contentEqualsIgnoreCase(a));
+                for (int i = 0; i < a.length(); i++) {
+                    byte[] changed = a.toByteArray();
+                    changed[i] = (byte) (changed[i] ^ 0x01);
+                    assertFalse(new AsciiString(changed, false).contentEqualsIgnoreCase(b));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testContentEqualsIgnoreCaseNonAscii() {
+        byte[] a = new byte[17];
+        byte[] b = new byte[17];
+        // Bytes which only differ in the bit that distinguishes upper and lower case ASCII letters.
+        for (int i = 0; i < a.length; i++) {
+            a[i] = (byte) (0xC1 + i);
+            b[i] = (byte) (0xE1 + i);
+        }
+        for (int i = 0; i < a.length; i++) {
+            for (int j = i; j < a.length; j++) {
+                assertFalse(new AsciiString(a, i, j - i + 1, false)
+                        .contentEqualsIgnoreCase(new AsciiString(b, i, j - i + 1, false)));
+            }
+        }
+    }
+
     @Test
     public void testGetBytesStringBuilder() {
         final StringBuilder b = new StringBuilder();
@@ -320,6 +358,24 @@ public class AsciiStringCharacterTest {
         assertEquals(-1, new AsciiString("abcd", 1, 3).indexOf('a', 0));
     }
 
+    @Test
+    public void testIndexOfCharLong() {
+        byte[] bytes = new byte[67];
+        Arrays.fill(bytes, (byte) 'a');
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) 0xFF;
+            for (int offset = 0; offset <= i; offset += 3) {
+                AsciiString string = new AsciiString(bytes, offset, bytes.length - offset, false);
+                assertEquals(i - offset, string.indexOf((char) 0xFF, 0));
+                assertEquals(i - offset, string.indexOf((char) 0xFF, i - offset));
+                assertEquals(-1, string.indexOf((char) 0xFF, i - offset + 1));
+                assertEquals(i == bytes.length - 1 ? -1 : i - offset,
+                        string.indexOf(new String(new char[] { (char) 0xFF, 'a' }), 0));
+            }
+            bytes[i] = 'a';
+        }
+    }
+
     @Test
     public void testIndexOfCharSequence() {
         assertEquals(0, new AsciiString("abcd").indexOf("abcd", 0));
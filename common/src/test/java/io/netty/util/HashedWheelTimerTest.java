@@ -15,8 +15,10 @@
  */
 package io.netty.util;
 
+import io.netty.util.concurrent.ImmediateExecutor;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
@@ -24,6 +26,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -298,6 +301,92 @@ public class HashedWheelTimerTest {
         }
     }
 
+    @Test
+    @org.junit.jupiter.api.Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testHierarchicalWheel() throws InterruptedException {
+        // 4 ticks per wheel, so timeouts are spread over several levels and cascaded down a few times.
+        final HashedWheelTimer timer = new HashedWheelTimer(Executors.defaultThreadFactory(), 1,
+                TimeUnit.MILLISECONDS, 4, true, -1, ImmediateExecutor.INSTANCE, true, 1);
+        assertTrue(timer.metric().isHierarchical());
+        int scheduledTasks = 1000;
+        final CountDownLatch latch = new CountDownLatch(scheduledTasks / 2);
+        final AtomicInteger tooEarly = new AtomicInteger();
+        final AtomicInteger cancelledRun = new AtomicInteger();
+        Random random = new Random(1);
+        for (int i = 0; i < scheduledTasks; i++) {
+            final long start = System.nanoTime();
+            final long delay = random.nextInt(1000);
+            final boolean cancel = (i & 1) == 0;
+            Timeout timeout = timer.newTimeout(new TimerTask() {
+                @Override
+                public void run(Timeout timeout) {
+                    if (cancel) {
+                        cancelledRun.incrementAndGet();
+                    }
+                    if (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(delay)) {
+                        tooEarly.incrementAndGet();
+                    }
+                    latch.countDown();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+            if (cancel) {
+                assertTrue(timeout.cancel());
+            }
+        }
+
+        latch.await();
+        assertEquals(0, tooEarly.get());
+        assertEquals(0, cancelledRun.get());
+        assertEquals(scheduledTasks / 2, timer.metric().expiredTimeouts());
+        // Cancelled timeouts are accounted for on the next tick.
+        while (timer.pendingTimeouts() != 0) {
+            Thread.sleep(10);
+        }
+        assertTrue(timer.stop().isEmpty());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+    public void testHierarchicalWheelStopReturnsUnprocessed() throws InterruptedException {
+        final HashedWheelTimer timer = new HashedWheelTimer(Executors.defaultThreadFactory(), 10,
+                TimeUnit.MILLISECONDS, 8, true, -1, ImmediateExecutor.INSTANCE, true, 1);
+        for (int i = 1; i <= 5; i++) {
+            timer.newTimeout(createNoOpTimerTask(), i, TimeUnit.HOURS);
+        }
+        // Wait until the timeouts were moved into the wheel.
+        while (timer.metric().occupiedBuckets() == 0) {
+            Thread.sleep(10);
+        }
+        assertEquals(5, timer.metric().pendingTimeouts());
+        assertEquals(5, timer.stop().size());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+    public void testBatchedExpiry() throws InterruptedException {
+        final AtomicInteger executions = new AtomicInteger();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executions.incrementAndGet();
+                command.run();
+            }
+        };
+        final HashedWheelTimer timer = new HashedWheelTimer(Executors.defaultThreadFactory(), 100,
+                TimeUnit.MILLISECONDS, 32, true, -1, executor, false, 32);
+        int scheduledTasks = 100;
+        CountDownLatch latch = new CountDownLatch(scheduledTasks);
+        timer.start();
+        for (int i = 0; i < scheduledTasks; i++) {
+            timer.newTimeout(createCountDownLatchTimerTask(latch), 10, TimeUnit.MILLISECONDS);
+        }
+        latch.await();
+        // All timeouts expire within one or two ticks, so there are at most two partial batches.
+        assertTrue(executions.get() <= 5, "executions: " + executions.get());
+        assertTrue(timer.metric().maxTickLagNanos() >= 0);
+        timer.stop();
+    }
+
     private static TimerTask createNoOpTimerTask() {
         return new TimerTask() {
             @Override
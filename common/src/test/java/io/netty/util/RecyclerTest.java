@@ -15,6 +15,8 @@
 */
 package io.netty.util;
 
+import io.netty.util.concurrent.VirtualThreadEventExecutorGroup;
+import io.netty.util.internal.MathUtil;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
@@ -38,6 +40,7 @@ import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class RecyclerTest {
 
@@ -98,6 +101,37 @@ public class RecyclerTest {
         reference.getAndSet(null).recycle();
     }
 
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testVirtualThreadsSharePools() throws Exception {
+        assumeTrue(VirtualThreadEventExecutorGroup.isAvailable());
+        final AtomicInteger created = new AtomicInteger();
+        final Recycler<HandledObject> recycler = new Recycler<HandledObject>(1024, 0, 16) {
+            @Override
+            protected HandledObject newObject(Handle<HandledObject> handle) {
+                created.incrementAndGet();
+                return new HandledObject(handle);
+            }
+        };
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                // Every task runs on a new virtual thread.
+                group.next().submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        recycler.get().recycle();
+                    }
+                }).sync();
+            }
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+        // With a pool per thread every virtual thread would have created its own object.
+        assertTrue(created.get() <= MathUtil.findNextPositivePowerOfTwo(NettyRuntime.availableProcessors()),
+                "created: " + created.get());
+    }
+
     @Test
     public void verySmallRecycer() {
         newRecycler(2, 0, 1).get();
@@ -19,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 
 import java.util.ArrayDeque;
+import java.util.List;
 import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.CyclicBarrier;
@@ -132,6 +133,64 @@ public class ResourceLeakDetectorTest {
         DefaultResource.detectorWithSetupHint.track(resource);
     }
 
+    @Timeout(10)
+    @Test
+    public void testAllocationSites() throws Throwable {
+        SiteLeakDetector<Resource> detector = new SiteLeakDetector<Resource>(Resource.class);
+        Resource resource = new DefaultResource();
+        ResourceLeakTracker<Resource> tracker = detector.track(resource);
+        leakResource(detector);
+
+        List<ResourceLeakDetector.AllocationSite> sites;
+        do {
+            // Trigger GC.
+            System.gc();
+            // Give the GC something to work on.
+            for (int i = 0; i < 1000; i++) {
+                sink = System.identityHashCode(new byte[10000]);
+            }
+            sites = detector.allocationSites();
+        } while (sites.get(0).leakCount() < 1 && !Thread.interrupted());
+
+        // Building the table only collects the leak, it is reported once the next object is tracked.
+        assertThat(detector.reported.get()).isZero();
+        Resource other = new DefaultResource();
+        assertThat(detector.track(other).close(other)).isTrue();
+        assertThat(detector.reported.get()).isOne();
+
+        assertThat(sites).hasSize(2);
+        ResourceLeakDetector.AllocationSite leaked = sites.get(0);
+        assertThat(leaked.leakCount()).isOne();
+        assertThat(leaked.liveCount()).isZero();
+        assertThat(leaked.site()).contains("leakResource");
+
+        ResourceLeakDetector.AllocationSite live = sites.get(1);
+        assertThat(live.leakCount()).isZero();
+        assertThat(live.liveCount()).isOne();
+        assertThat(live.maxLiveAgeNanos()).isEqualTo(live.meanLiveAgeNanos());
+        assertThat(live.site()).contains("testAllocationSites");
+
+        assertThat(tracker.close(resource)).isTrue();
+        sites = detector.allocationSites();
+        assertThat(sites).hasSize(1);
+        assertThat(sites.get(0).site()).isEqualTo(leaked.site());
+    }
+
+    @Test
+    public void testAllocationSitesDisabled() {
+        SiteLeakDetector<Resource> detector = new SiteLeakDetector<Resource>(Resource.class);
+        detector.setAllocationSitesEnabled(false);
+        Resource resource = new DefaultResource();
+        ResourceLeakTracker<Resource> tracker = detector.track(resource);
+        assertThat(detector.allocationSites()).isEmpty();
+        assertThat(tracker.close(resource)).isTrue();
+    }
+
+    private static void leakResource(ResourceLeakDetector<Resource> detector) {
+        // We'll never close this ResourceLeakTracker.
+        detector.track(new DefaultResource());
+    }
+
     // Mimic the way how we implement our classes that should help with leak detection
     private static final  class LeakAwareResource implements Resource {
         private final Resource resource;
@@ -209,6 +268,26 @@ public class ResourceLeakDetectorTest {
         }
     }
 
+    private static final class SiteLeakDetector<T> extends ResourceLeakDetector<T> {
+        final AtomicInteger reported = new AtomicInteger();
+
+        SiteLeakDetector(Class<?> resourceType) {
+            // Sample every allocation
+            super(resourceType, 1);
+            setAllocationSitesEnabled(true);
+        }
+
+        @Override
+        protected void reportTracedLeak(String resourceType, String records) {
+            reported.incrementAndGet();
+        }
+
+        @Override
+        protected void reportUntracedLeak(String resourceType) {
+            reported.incrementAndGet();
+        }
+    }
+
     private static final class CreationRecordLeakDetector<T> extends ResourceLeakDetector<T> {
         private String canaryString;
 
@@ -25,6 +25,7 @@ import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
 
 import java.lang.reflect.Field;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -36,8 +37,10 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class FastThreadLocalTest {
     @BeforeEach
@@ -360,4 +363,26 @@ public class FastThreadLocalTest {
         fastThreadLocalThread.join();
         assertThat(throwable.get(), is(instanceOf(IllegalArgumentException.class)));
     }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testCompactMapForVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreadEventExecutorGroup.isAvailable());
+        final FastThreadLocal<Integer> threadLocal = new FastThreadLocal<Integer>();
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup();
+        try {
+            boolean compact = group.next().submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    threadLocal.set(1);
+                    assertEquals(1, threadLocal.get());
+                    return InternalThreadLocalMap.get().isCompact();
+                }
+            }).sync().getNow();
+            assertTrue(compact);
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+        assertFalse(InternalThreadLocalMap.get().isCompact());
+    }
 }
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.DefaultPriorityQueue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScheduledTaskTimingWheelTest {
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private static final Comparator<ScheduledFutureTask<?>> COMPARATOR = new Comparator<ScheduledFutureTask<?>>() {
+        @Override
+        public int compare(ScheduledFutureTask<?> o1, ScheduledFutureTask<?> o2) {
+            return o1.compareTo(o2);
+        }
+    };
+
+    private final TestScheduledEventExecutor executor = new TestScheduledEventExecutor();
+    private long nextId;
+
+    private ScheduledFutureTask<Void> newTask(long deadlineNanos) {
+        return new ScheduledFutureTask<Void>(executor, NOOP, deadlineNanos).setId(++nextId);
+    }
+
+    @Test
+    public void testPollInDeadlineOrder() {
+        ScheduledTaskTimingWheel wheel = new ScheduledTaskTimingWheel(executor, 1000);
+        // Same tick, different levels and the overflow guard value.
+        long[] deadlines = { 5000, 5001, 999, 0, 256000, 255999, 1L << 40, Long.MAX_VALUE, 5000, 70000000000L };
+        List<ScheduledFutureTask<?>> tasks = new ArrayList<ScheduledFutureTask<?>>();
+        for (long deadline : deadlines) {
+            ScheduledFutureTask<?> task = newTask(deadline);
+            tasks.add(task);
+            assertTrue(wheel.offer(task));
+        }
+        assertEquals(deadlines.length, wheel.size());
+        Collections.sort(tasks, COMPARATOR);
+        for (ScheduledFutureTask<?> task : tasks) {
+            assertSame(task, wheel.peek());
+            assertSame(task, wheel.poll());
+        }
+        assertTrue(wheel.isEmpty());
+        assertNull(wheel.peek());
+        assertNull(wheel.poll());
+    }
+
+    @Test
+    public void testMatchesHeapWithRandomOperations() {
+        Random random = new Random(42);
+        ScheduledTaskTimingWheel wheel = new ScheduledTaskTimingWheel(executor, 1 + random.nextInt(100000));
+        DefaultPriorityQueue<ScheduledFutureTask<?>> heap =
+                new DefaultPriorityQueue<ScheduledFutureTask<?>>(COMPARATOR, 16);
+        List<ScheduledFutureTask<?>> pending = new ArrayList<ScheduledFutureTask<?>>();
+        List<ScheduledFutureTask<?>> wheelTasks = new ArrayList<ScheduledFutureTask<?>>();
+        long now = 0;
+        for (int i = 0; i < 100000; i++) {
+            int op = random.nextInt(10);
+            if (op < 5) {
+                long deadline = now + (long) (Math.pow(10, random.nextInt(13)) * random.nextDouble());
+                // A twin for the heap, as both queues store their index in the task.
+                ScheduledFutureTask<?> task = newTask(deadline);
+                ScheduledFutureTask<?> twin = newTask(deadline);
+                assertTrue(wheel.offer(task));
+                assertTrue(heap.offer(twin));
+                pending.add(twin);
+                wheelTasks.add(task);
+            } else if (op < 7 && !pending.isEmpty()) {
+                int index = random.nextInt(pending.size());
+                assertTrue(heap.removeTyped(pending.remove(index)));
+                ScheduledFutureTask<?> task = wheelTasks.remove(index);
+                assertTrue(wheel.containsTyped(task));
+                assertTrue(wheel.removeTyped(task));
+                assertFalse(wheel.containsTyped(task));
+                assertFalse(wheel.removeTyped(task));
+            } else {
+                // Sometimes the head is not due yet, so it has to be taken out of the wheel directly.
+                executor.now = now + (random.nextBoolean() ? 0 : (long) (Math.pow(10, random.nextInt(13))));
+                ScheduledFutureTask<?> expected = heap.poll();
+                ScheduledFutureTask<?> actual = wheel.poll();
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertEquals(expected.deadlineNanos(), actual.deadlineNanos());
+                    int index = wheelTasks.indexOf(actual);
+                    assertEquals(pending.indexOf(expected), index);
+                    pending.remove(index);
+                    wheelTasks.remove(index);
+                    now = Math.max(now, actual.deadlineNanos());
+                }
+            }
+            assertEquals(heap.size(), wheel.size());
+        }
+        int size = 0;
+        for (ScheduledFutureTask<?> task : wheel) {
+            assertTrue(wheelTasks.contains(task));
+            size++;
+        }
+        assertEquals(wheel.size(), size);
+        assertEquals(size, wheel.toArray(new ScheduledFutureTask<?>[0]).length);
+
+        wheel.clear();
+        assertTrue(wheel.isEmpty());
+        for (ScheduledFutureTask<?> task : wheelTasks) {
+            assertFalse(wheel.containsTyped(task));
+            // The index was reset, so the task can be added again.
+            assertTrue(wheel.offer(task));
+        }
+        assertEquals(wheelTasks.size(), wheel.size());
+    }
+
+    @Test
+    public void testPeekDoesNotMoveCursor() {
+        ScheduledTaskTimingWheel wheel = new ScheduledTaskTimingWheel(executor, 1000);
+        ScheduledFutureTask<?> farTask = newTask(TimeUnit.DAYS.toNanos(1));
+        assertTrue(wheel.offer(farTask));
+        for (int i = 0; i < 10; i++) {
+            assertSame(farTask, wheel.peek());
+        }
+        assertEquals(0, wheel.cursor());
+
+        // A new earlier task must still go into a slot and become the head.
+        ScheduledFutureTask<?> nearTask = newTask(5000);
+        assertTrue(wheel.offer(nearTask));
+        assertSame(nearTask, wheel.peek());
+        assertEquals(0, wheel.cursor());
+
+        // Polling moves the cursor only up to the current time, even though the head is later.
+        executor.now = 3000;
+        assertSame(nearTask, wheel.poll());
+        assertEquals(0, wheel.cursor());
+        executor.now = 10000;
+        assertSame(farTask, wheel.poll());
+        assertEquals(0, wheel.cursor());
+
+        ScheduledFutureTask<?> dueTask = newTask(7000);
+        ScheduledFutureTask<?> laterTask = newTask(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(wheel.offer(laterTask));
+        assertTrue(wheel.offer(dueTask));
+        assertSame(dueTask, wheel.poll());
+        assertEquals(7, wheel.cursor());
+        assertSame(laterTask, wheel.peek());
+        assertEquals(7, wheel.cursor());
+        assertTrue(wheel.removeTyped(laterTask));
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testPriorityChanged() {
+        ScheduledTaskTimingWheel wheel = new ScheduledTaskTimingWheel(executor, 1000);
+        ScheduledFutureTask<?> first = newTask(TimeUnit.SECONDS.toNanos(1));
+        ScheduledFutureTask<?> second = newTask(TimeUnit.SECONDS.toNanos(2));
+        assertTrue(wheel.offer(first));
+        assertTrue(wheel.offer(second));
+        assertSame(first, wheel.peek());
+
+        // setConsumed() resets the deadline to 0 while the task is still in its slot.
+        executor.now = TimeUnit.SECONDS.toNanos(2);
+        second.setConsumed();
+        wheel.priorityChanged(second);
+        assertEquals(2, wheel.size());
+        assertTrue(wheel.containsTyped(second));
+        assertSame(second, wheel.poll());
+        assertSame(first, wheel.poll());
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testScheduleAndCancelOnExecutor() {
+        executor.scheduledTaskQueue = new ScheduledTaskTimingWheel(executor, TimeUnit.MILLISECONDS.toNanos(1));
+        List<ScheduledFuture<?>> futures = new ArrayList<ScheduledFuture<?>>();
+        for (int i = 10; i > 0; i--) {
+            futures.add(executor.schedule(NOOP, i, TimeUnit.SECONDS));
+        }
+        assertTrue(futures.get(0).cancel(false));
+        assertEquals(9, executor.scheduledTaskQueue.size());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), executor.nextScheduledTaskNano());
+
+        executor.now = TimeUnit.SECONDS.toNanos(5);
+        for (int i = 1; i <= 5; i++) {
+            ScheduledFutureTask<?> task = (ScheduledFutureTask<?>) executor.pollScheduledTask();
+            assertSame(futures.get(10 - i), task);
+        }
+        assertNull(executor.pollScheduledTask());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), executor.nextScheduledTaskNano());
+
+        executor.cancelScheduledTasks();
+        assertTrue(executor.scheduledTaskQueue.isEmpty());
+        assertTrue(futures.get(1).isCancelled());
+    }
+
+    private static final class TestScheduledEventExecutor extends AbstractScheduledEventExecutor {
+        long now;
+
+        @Override
+        protected long getCurrentTimeNanos() {
+            return now;
+        }
+
+        @Override
+        public boolean isShuttingDown() {
+            return false;
+        }
+
+        @Override
+        public boolean inEventLoop(Thread thread) {
+            return true;
+        }
+
+        @Override
+        public void shutdown() {
+            // NOOP
+        }
+
+        @Override
+        public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<?> terminationFuture() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
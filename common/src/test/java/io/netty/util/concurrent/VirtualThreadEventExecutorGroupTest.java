@@ -0,0 +1,195 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class VirtualThreadEventExecutorGroupTest {
+
+    // Platform threads behave the same, just more expensive, so the tests also run before Java 21.
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testBlockedExecutorDoesNotStallOthers() throws Exception {
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup(THREAD_FACTORY, 0, 1024);
+        try {
+            EventExecutor blocked = group.next();
+            EventExecutor other = group.next();
+            assertNotSame(blocked, other);
+            assertTrue(blocked instanceof OrderedEventExecutor);
+
+            final CountDownLatch release = new CountDownLatch(1);
+            final BlockingQueue<Integer> order = new LinkedBlockingQueue<Integer>();
+            blocked.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    order.add(0);
+                }
+            });
+            for (int i = 1; i <= 100; i++) {
+                final int value = i;
+                blocked.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        order.add(value);
+                    }
+                });
+            }
+            assertTrue(other.submit(new Runnable() {
+                @Override
+                public void run() {
+                    // NOOP
+                }
+            }).await(5, TimeUnit.SECONDS));
+            assertTrue(order.isEmpty());
+
+            release.countDown();
+            for (int i = 0; i <= 100; i++) {
+                assertEquals(i, (int) order.take());
+            }
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testMaxConcurrency() throws Exception {
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup(THREAD_FACTORY, 2, 1024);
+        try {
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(group.next().submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        int now = running.incrementAndGet();
+                        for (;;) {
+                            int max = maxRunning.get();
+                            if (now <= max || maxRunning.compareAndSet(max, now)) {
+                                break;
+                            }
+                        }
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        running.decrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.sync();
+            }
+            assertEquals(2, maxRunning.get());
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testShutdown() throws Exception {
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup(THREAD_FACTORY, 0, 1024);
+        final EventExecutor executor = group.next();
+        final CountDownLatch release = new CountDownLatch(1);
+        Future<?> running = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        Future<?> termination = group.shutdownGracefully();
+        assertTrue(group.isShuttingDown());
+        assertTrue(executor.isShuttingDown());
+        // The running task is completed before the group terminates.
+        assertFalse(termination.await(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        running.sync();
+        termination.sync();
+        assertTrue(group.isTerminated());
+        assertThrows(RejectedExecutionException.class, new Executable() {
+            @Override
+            public void execute() {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // NOOP
+                    }
+                });
+            }
+        });
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreadEventExecutorGroup.isAvailable());
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup();
+        try {
+            final EventExecutor executor = group.next();
+            String name = executor.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    assertTrue(executor.inEventLoop());
+                    return Thread.currentThread().getName();
+                }
+            }).sync().getNow();
+            assertTrue(name.startsWith("virtualThreadEventExecutorGroup-"), name);
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+}
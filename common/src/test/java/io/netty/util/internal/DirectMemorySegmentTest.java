@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class DirectMemorySegmentTest {
+
+    @BeforeEach
+    public void setUp() {
+        assumeTrue(DirectMemorySegment.isAvailable(), "java.lang.foreign.Arena not available");
+    }
+
+    @Test
+    public void testAllocateAndFree() {
+        final DirectMemorySegment segment = DirectMemorySegment.allocate(1024);
+        ByteBuffer buffer = segment.buffer();
+        assertTrue(buffer.isDirect());
+        assertEquals(1024, buffer.capacity());
+        assertEquals(0, buffer.getLong(1016));
+        buffer.putLong(1016, 42);
+        assertEquals(42, buffer.getLong(1016));
+        segment.free();
+
+        assertThrows(IllegalStateException.class, new Executable() {
+            @Override
+            public void execute() {
+                segment.free();
+            }
+        });
+    }
+
+    @Test
+    public void testAccessors() {
+        final DirectMemorySegment segment = DirectMemorySegment.allocate(16);
+        ByteBuffer buffer = segment.buffer();
+        segment.setLong(0, 0x0102030405060708L);
+        assertEquals(0x0102030405060708L, buffer.getLong(0));
+        segment.setInt(9, 0x0a0b0c0d);
+        assertEquals(0x0a0b0c0d, buffer.getInt(9));
+        segment.setShort(13, (short) 0x0e0f);
+        assertEquals((short) 0x0e0f, buffer.getShort(13));
+        segment.setByte(15, (byte) 0x10);
+        assertEquals((byte) 0x10, buffer.get(15));
+
+        buffer.putLong(8, 0x1112131415161718L);
+        assertEquals(0x1112131415161718L, segment.getLong(8));
+        assertEquals(0x15161718, segment.getInt(12));
+        assertEquals((short) 0x1314, segment.getShort(10));
+        assertEquals((byte) 0x08, segment.getByte(7));
+
+        assertThrows(IndexOutOfBoundsException.class, new Executable() {
+            @Override
+            public void execute() {
+                segment.getLong(9);
+            }
+        });
+        segment.free();
+    }
+
+    @Test
+    public void testMemoryIsCounted() {
+        assumeTrue(PlatformDependent.usedDirectMemory() >= 0, "direct memory is not counted");
+        long usedMemory = PlatformDependent.usedDirectMemory();
+        DirectMemorySegment segment = DirectMemorySegment.allocate(1024);
+        assertEquals(usedMemory + 1024, PlatformDependent.usedDirectMemory());
+        segment.free();
+        assertEquals(usedMemory, PlatformDependent.usedDirectMemory());
+    }
+
+    @Test
+    public void testAllocateEmpty() {
+        DirectMemorySegment segment = DirectMemorySegment.allocate(0);
+        assertEquals(0, segment.buffer().capacity());
+        segment.free();
+    }
+
+    @Test
+    public void testAllocateNegative() {
+        assertThrows(IllegalArgumentException.class, new Executable() {
+            @Override
+            public void execute() {
+                DirectMemorySegment.allocate(-1);
+            }
+        });
+    }
+}
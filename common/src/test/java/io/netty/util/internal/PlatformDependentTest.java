@@ -18,10 +18,12 @@ package io.netty.util.internal;
 import org.junit.jupiter.api.Test;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Random;
 
 import static io.netty.util.internal.PlatformDependent.hashCodeAscii;
 import static io.netty.util.internal.PlatformDependent.hashCodeAsciiSafe;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -158,4 +160,48 @@ public class PlatformDependentTest {
         assertEquals(0, buffer.capacity());
         PlatformDependent.freeDirectNoCleaner(buffer);
     }
+
+    @Test
+    public void testByteArrayAccess() {
+        assumeTrue(PlatformDependent.hasVarHandle());
+        ByteArrayAccess access = PlatformDependent.byteArrayAccess();
+        byte[] bytes = new byte[16];
+        r.nextBytes(bytes);
+        ByteBuffer be = ByteBuffer.wrap(bytes).order(ByteOrder.BIG_ENDIAN);
+        ByteBuffer le = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        // Use all offsets so unaligned accesses are covered as well.
+        for (int i = 0; i <= bytes.length - 8; i++) {
+            assertEquals(be.getShort(i), access.getShort(bytes, i));
+            assertEquals(le.getShort(i), access.getShortLE(bytes, i));
+            assertEquals(be.getInt(i), access.getInt(bytes, i));
+            assertEquals(le.getInt(i), access.getIntLE(bytes, i));
+            assertEquals(be.getLong(i), access.getLong(bytes, i));
+            assertEquals(le.getLong(i), access.getLongLE(bytes, i));
+        }
+
+        byte[] expected = bytes.clone();
+        ByteBuffer expectedBe = ByteBuffer.wrap(expected).order(ByteOrder.BIG_ENDIAN);
+        ByteBuffer expectedLe = ByteBuffer.wrap(expected).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i <= bytes.length - 8; i++) {
+            long value = r.nextLong();
+            access.setShort(bytes, i, (int) value);
+            expectedBe.putShort(i, (short) value);
+            assertArrayEquals(expected, bytes);
+            access.setShortLE(bytes, i, (int) value);
+            expectedLe.putShort(i, (short) value);
+            assertArrayEquals(expected, bytes);
+            access.setInt(bytes, i, (int) value);
+            expectedBe.putInt(i, (int) value);
+            assertArrayEquals(expected, bytes);
+            access.setIntLE(bytes, i, (int) value);
+            expectedLe.putInt(i, (int) value);
+            assertArrayEquals(expected, bytes);
+            access.setLong(bytes, i, value);
+            expectedBe.putLong(i, value);
+            assertArrayEquals(expected, bytes);
+            access.setLongLE(bytes, i, value);
+            expectedLe.putLong(i, value);
+            assertArrayEquals(expected, bytes);
+        }
+    }
 }
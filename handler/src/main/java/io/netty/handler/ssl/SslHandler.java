@@ -2259,7 +2259,7 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
         final Future<?> timeoutFuture = ctx.executor().schedule(new Runnable() {
             @Override
             public void run() {
-                if (localHandshakePromise.isDone()) {
+                if (localHandshakePromise.isDone() || forwardIfMigrated(ctx, this)) {
                     return;
                 }
                 SSLException exception =
@@ -2283,6 +2283,20 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
         });
     }
 
+    /**
+     * Runs the scheduled task on the {@link EventExecutor} of the {@link ChannelHandlerContext} and returns
+     * {@code true} if it fired on another one, which happens if the {@link Channel} was migrated to another
+     * EventLoop since the task was scheduled.
+     */
+    private static boolean forwardIfMigrated(ChannelHandlerContext ctx, Runnable task) {
+        EventExecutor executor = ctx.executor();
+        if (executor.inEventLoop()) {
+            return false;
+        }
+        executor.execute(task);
+        return true;
+    }
+
     private void forceFlush(ChannelHandlerContext ctx) {
         clearState(STATE_NEEDS_FLUSH);
         ctx.flush();
@@ -2323,7 +2337,7 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
                     @Override
                     public void run() {
                         // May be done in the meantime as cancel(...) is only best effort.
-                        if (!flushFuture.isDone()) {
+                        if (!flushFuture.isDone() && !forwardIfMigrated(ctx, this)) {
                             logger.warn("{} Last write attempt timed out; force-closing the connection.",
                                     ctx.channel());
                             addCloseListener(ctx.close(ctx.newPromise()), promise);
@@ -2356,7 +2370,7 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
                         closeNotifyReadTimeoutFuture = ctx.executor().schedule(new Runnable() {
                             @Override
                             public void run() {
-                                if (!sslClosePromise.isDone()) {
+                                if (!sslClosePromise.isDone() && !forwardIfMigrated(ctx, this)) {
                                     logger.debug(
                                             "{} did not receive close_notify in {}ms; force-closing the connection.",
                                             ctx.channel(), closeNotifyReadTimeout);
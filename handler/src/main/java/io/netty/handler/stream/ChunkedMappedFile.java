@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.stream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.MappedFileByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.internal.ObjectUtil;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A {@link ChunkedInput} that slices a memory-mapped file chunk by chunk.
+ * <p>
+ * Unlike {@link ChunkedFile} and {@link ChunkedNioFile} no bytes are copied, each chunk is a retained slice of the
+ * {@link MappedFileByteBuf}, which is unmapped once this input is closed and all chunks were released.
+ */
+public class ChunkedMappedFile implements ChunkedInput<ByteBuf> {
+
+    private final MappedFileByteBuf buffer;
+    private final int startOffset;
+    private final int chunkSize;
+    private boolean closed;
+
+    /**
+     * Creates a new instance that maps the whole specified file.
+     */
+    public ChunkedMappedFile(File file) throws IOException {
+        this(file, ChunkedStream.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new instance that maps the whole specified file.
+     *
+     * @param chunkSize the number of bytes to slice on each
+     *                  {@link #readChunk(ChannelHandlerContext)} call
+     */
+    public ChunkedMappedFile(File file, int chunkSize) throws IOException {
+        this(MappedFileByteBuf.map(file), chunkSize);
+    }
+
+    /**
+     * Creates a new instance that slices the readable bytes of the specified buffer. The ownership of the buffer is
+     * transferred to this instance, so it is released on {@link #close()}.
+     *
+     * @param chunkSize the number of bytes to slice on each
+     *                  {@link #readChunk(ChannelHandlerContext)} call
+     */
+    public ChunkedMappedFile(MappedFileByteBuf buffer, int chunkSize) {
+        this.buffer = ObjectUtil.checkNotNull(buffer, "buffer");
+        this.chunkSize = ObjectUtil.checkPositive(chunkSize, "chunkSize");
+        startOffset = buffer.readerIndex();
+    }
+
+    @Override
+    public boolean isEndOfInput() throws Exception {
+        return closed || !buffer.isReadable();
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (!closed) {
+            closed = true;
+            // Chunks that were not released yet keep the file mapped.
+            buffer.release();
+        }
+    }
+
+    @Deprecated
+    @Override
+    public ByteBuf readChunk(ChannelHandlerContext ctx) throws Exception {
+        return readChunk(ctx.alloc());
+    }
+
+    @Override
+    public ByteBuf readChunk(ByteBufAllocator allocator) throws Exception {
+        if (isEndOfInput()) {
+            return null;
+        }
+        return buffer.readRetainedSlice(Math.min(chunkSize, buffer.readableBytes()));
+    }
+
+    @Override
+    public long length() {
+        return buffer.writerIndex() - startOffset;
+    }
+
+    @Override
+    public long progress() {
+        return buffer.readerIndex() - startOffset;
+    }
+}
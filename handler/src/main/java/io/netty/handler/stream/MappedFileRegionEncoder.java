@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.stream;
+
+import io.netty.buffer.MappedFileByteBuf;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.handler.ssl.SslHandler;
+
+import java.util.List;
+
+/**
+ * Writes a {@link MappedFileByteBuf} as a {@link FileRegion}, so it can be transferred via zero-copy file transfer
+ * such as {@code sendfile()}, as long as the pipeline does not contain a {@link SslHandler}. Otherwise the buffer is
+ * passed on as it is, so it can be encrypted without copying it first.
+ * <p>
+ * This handler must be placed after the {@link SslHandler} and all other handlers that transform outbound bytes,
+ * and must only be used with transports that support {@link FileRegion}s.
+ */
+@Sharable
+public class MappedFileRegionEncoder extends MessageToMessageEncoder<MappedFileByteBuf> {
+
+    public MappedFileRegionEncoder() {
+        super(MappedFileByteBuf.class);
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, MappedFileByteBuf msg, List<Object> out) throws Exception {
+        if (!msg.isReadable() || !isPlaintext(ctx)) {
+            out.add(msg.retain());
+            return;
+        }
+        // The region opens the file lazily, so the mapping is not needed anymore and can be released by the caller.
+        out.add(new DefaultFileRegion(msg.file(), msg.filePosition() + msg.readerIndex(), msg.readableBytes()));
+    }
+
+    /**
+     * Returns {@code true} if the bytes that are written by this handler are not transformed anymore and so can be
+     * written as {@link FileRegion}.
+     */
+    protected boolean isPlaintext(ChannelHandlerContext ctx) {
+        return ctx.pipeline().get(SslHandler.class) == null;
+    }
+}
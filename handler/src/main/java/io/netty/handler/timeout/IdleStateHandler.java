@@ -25,6 +25,7 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.Future;
 import io.netty.util.internal.ObjectUtil;
 
@@ -493,6 +494,12 @@ public class IdleStateHandler extends ChannelDuplexHandler {
             if (!ctx.channel().isOpen()) {
                 return;
             }
+            EventExecutor executor = ctx.executor();
+            if (!executor.inEventLoop()) {
+                // The Channel was migrated to another EventLoop since the task was scheduled.
+                executor.execute(this);
+                return;
+            }
 
             run(ctx);
         }
@@ -111,6 +111,13 @@ public class ChunkedWriteHandlerTest {
         check(new ChunkedNioFile(TMP), new ChunkedNioFile(TMP), new ChunkedNioFile(TMP));
     }
 
+    @Test
+    public void testChunkedMappedFile() throws IOException {
+        check(new ChunkedMappedFile(TMP));
+
+        check(new ChunkedMappedFile(TMP), new ChunkedMappedFile(TMP), new ChunkedMappedFile(TMP));
+    }
+
     @Test
     public void testChunkedNioFileLeftPositionUnchanged() throws IOException {
         FileChannel in = null;
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.stream;
+
+import io.netty.buffer.MappedFileByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedFileRegionEncoderTest {
+
+    private static File newFile(File dir) throws IOException {
+        File file = new File(dir, "mapped");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[1024]);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    @Test
+    public void testWriteAsFileRegion(@TempDir File dir) throws IOException {
+        EmbeddedChannel ch = new EmbeddedChannel(new MappedFileRegionEncoder());
+        MappedFileByteBuf buf = MappedFileByteBuf.map(newFile(dir), 100, 200);
+        buf.skipBytes(50);
+        assertTrue(ch.writeOutbound(buf));
+        assertEquals(0, buf.refCnt());
+
+        DefaultFileRegion region = ch.readOutbound();
+        assertEquals(150, region.position());
+        assertEquals(150, region.count());
+        assertTrue(region.release());
+        assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testPassThroughIfNotPlaintext(@TempDir File dir) throws IOException {
+        EmbeddedChannel ch = new EmbeddedChannel(new MappedFileRegionEncoder() {
+            @Override
+            protected boolean isPlaintext(ChannelHandlerContext ctx) {
+                return false;
+            }
+        });
+        MappedFileByteBuf buf = MappedFileByteBuf.map(newFile(dir));
+        assertTrue(ch.writeOutbound(buf));
+
+        Object written = ch.readOutbound();
+        assertSame(buf, written);
+        assertTrue(buf.release());
+        assertFalse(ch.finish());
+    }
+}
@@ -15,18 +15,30 @@
  */
 package io.netty.handler.timeout;
 
+import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.EventLoop;
 import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.Future;
 import org.junit.jupiter.api.Test;
 
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -36,6 +48,7 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class IdleStateHandlerTest {
 
@@ -354,6 +367,42 @@ public class IdleStateHandlerTest {
         }
     }
 
+    @Test
+    public void testIdleEventAfterMigration() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(2);
+        ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Socket peer = null;
+        try {
+            EventLoop oldLoop = group.next();
+            final EventLoop newLoop = group.next();
+            final BlockingQueue<Boolean> events = new LinkedBlockingQueue<Boolean>();
+            Channel channel = new Bootstrap().group(oldLoop).channel(NioSocketChannel.class)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            ch.pipeline().addLast(new IdleStateHandler(0, 0, 500, TimeUnit.MILLISECONDS) {
+                                @Override
+                                protected void channelIdle(ChannelHandlerContext ctx, IdleStateEvent evt) {
+                                    events.add(newLoop.inEventLoop());
+                                }
+                            });
+                        }
+                    }).connect(serverSocket.getLocalSocketAddress()).sync().channel();
+            peer = serverSocket.accept();
+
+            // The idle timeout was scheduled on the old EventLoop, but the handler must only be called on the new one.
+            assertTrue(((AbstractChannel) channel).migrate(newLoop).sync().isSuccess());
+            assertEquals(Boolean.TRUE, events.poll(10, TimeUnit.SECONDS));
+            channel.close().sync();
+        } finally {
+            if (peer != null) {
+                peer.close();
+            }
+            serverSocket.close();
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
     private static void assertNotNullAndRelease(Object msg) {
         assertNotNull(msg);
         ReferenceCountUtil.release(msg);
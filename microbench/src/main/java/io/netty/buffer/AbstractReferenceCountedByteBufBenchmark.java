@@ -27,8 +27,10 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.BenchmarkParams;
 import org.openjdk.jmh.infra.Blackhole;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 @State(Scope.Benchmark)
@@ -37,11 +39,34 @@ public class AbstractReferenceCountedByteBufBenchmark extends AbstractMicrobench
     @Param({ "1", "10", "100", "1000", "10000" })
     public int delay;
 
-    AbstractReferenceCountedByteBuf buf;
+    @Param({ "false", "true" })
+    public boolean threadConfined;
+
+    ByteBufAllocator allocator;
+    ByteBuf buf;
+
+    @Override
+    protected String[] jvmArgs() {
+        // Thread-confined reference counting must be enabled up front.
+        String[] args = super.jvmArgs();
+        String[] jvmArgs = Arrays.copyOf(args, args.length + 1);
+        jvmArgs[args.length] = "-Dio.netty.allocator.threadConfinedRefCnt=true";
+        return jvmArgs;
+    }
 
     @Setup
-    public void setUp() {
-        buf = (AbstractReferenceCountedByteBuf) Unpooled.buffer(1);
+    public void setUp(BenchmarkParams params) {
+        if (threadConfined && !PooledByteBuf.THREAD_CONFINED_REF_CNT) {
+            throw new IllegalStateException("-Dio.netty.allocator.threadConfinedRefCnt=true is required");
+        }
+        // Only pooled buffers can be thread-confined, so use them in both modes.
+        allocator = new PooledByteBufAllocator(false, 1, 1, 8192, 9, 0, 0, true, 0, null, null, threadConfined);
+        buf = allocator.heapBuffer(1);
+        // The contended benchmark updates the reference count from several threads at the same time, so it must be
+        // shared up front.
+        if (params.getThreads() > 1) {
+            ByteBufUtil.shareRefCnt(buf);
+        }
     }
 
     @TearDown
@@ -63,10 +88,10 @@ public class AbstractReferenceCountedByteBufBenchmark extends AbstractMicrobench
     @OutputTimeUnit(TimeUnit.NANOSECONDS)
     @CompilerControl(CompilerControl.Mode.DONT_INLINE)
     public boolean createUseAndRelease(Blackhole useBuffer) {
-        ByteBuf unpooled = Unpooled.buffer(1);
-        useBuffer.consume(unpooled);
+        ByteBuf pooled = allocator.heapBuffer(1);
+        useBuffer.consume(pooled);
         Blackhole.consumeCPU(delay);
-        return unpooled.release();
+        return pooled.release();
     }
 
     @Benchmark
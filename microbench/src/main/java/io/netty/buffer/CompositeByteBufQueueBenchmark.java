@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uses a composite buffer as a stream accumulator: buffers are appended at the end while the reader consumes from
+ * the start and discards the read components, like {@code ByteToMessageDecoder} does with a composite cumulator.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class CompositeByteBufQueueBenchmark extends AbstractMicrobenchmark {
+
+    public enum CompositeType {
+        COMPOSITE,
+        RING
+    }
+
+    @Param({ "8", "64", "1024" })
+    public int chunkSize;
+
+    // number of components that are buffered before the reader catches up
+    @Param({ "16", "256", "4096" })
+    public int backlog;
+
+    @Param
+    public CompositeType compositeType;
+
+    private ByteBuf chunk;
+    private CompositeByteBuf composite;
+
+    @Setup
+    public void setup() {
+        chunk = Unpooled.directBuffer(chunkSize).writeZero(chunkSize);
+        if (compositeType == CompositeType.RING) {
+            composite = new RingCompositeByteBuf(UnpooledByteBufAllocator.DEFAULT, true, Integer.MAX_VALUE);
+        } else {
+            composite = new CompositeByteBuf(UnpooledByteBufAllocator.DEFAULT, true, Integer.MAX_VALUE);
+        }
+        for (int i = 0; i < backlog; i++) {
+            add();
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        composite.release();
+        chunk.release();
+    }
+
+    private void add() {
+        composite.addComponent(true, chunk.retainedDuplicate());
+    }
+
+    @Benchmark
+    public int appendReadDiscard() {
+        add();
+        int value = composite.readInt();
+        composite.skipBytes(chunkSize - 4);
+        composite.discardSomeReadBytes();
+        return value;
+    }
+}
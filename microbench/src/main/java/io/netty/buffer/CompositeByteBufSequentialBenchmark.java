@@ -48,6 +48,18 @@ public class CompositeByteBufSequentialBenchmark extends AbstractMicrobenchmark
             ByteBuf newBuffer(int length) {
                 return newBufferLargeChunks(length);
             }
+        },
+        SMALL_CHUNKS_RING {
+            @Override
+            ByteBuf newBuffer(int length) {
+                return newRingBuffer(newBufferSmallChunks(length));
+            }
+        },
+        LARGE_CHUNKS_RING {
+            @Override
+            ByteBuf newBuffer(int length) {
+                return newRingBuffer(newBufferLargeChunks(length));
+            }
         };
         abstract ByteBuf newBuffer(int length);
     }
@@ -115,6 +127,17 @@ public class CompositeByteBufSequentialBenchmark extends AbstractMicrobenchmark
         return buffer.capacity(length).writerIndex(0);
     }
 
+    // Adds the components of the given CompositeByteBuf to a RingCompositeByteBuf in the same order.
+    private static ByteBuf newRingBuffer(ByteBuf composite) {
+        RingCompositeByteBuf buffer = new RingCompositeByteBuf(
+                UnpooledByteBufAllocator.DEFAULT, false, Integer.MAX_VALUE);
+        for (ByteBuf component : (CompositeByteBuf) composite) {
+            buffer.addComponent(true, component.retain());
+        }
+        composite.release();
+        return buffer.writerIndex(0);
+    }
+
     private static ByteBuf newBufferLargeChunks(int length) {
 
         List<ByteBuf> buffers = new ArrayList<ByteBuf>((length + 1) / 512);
@@ -89,6 +89,19 @@ public class CompositeByteBufWriteOutBenchmark extends AbstractMicrobenchmark {
         return targetBuffer.clear().writeBytes(cbb).readableBytes();
     }
 
+    @Benchmark
+    public int writeRCBB() {
+        RingCompositeByteBuf rcbb = new RingCompositeByteBuf(UnpooledByteBufAllocator.DEFAULT, false,
+                Integer.MAX_VALUE);
+        for (ByteBuf buf : sourceBufs) {
+            // small chunks are copied and released when consolidated
+            rcbb.addComponent(true, buf.retain());
+        }
+        int written = targetBuffer.clear().writeBytes(rcbb).readableBytes();
+        rcbb.release();
+        return written;
+    }
+
     private static ByteBuf[] makeSmallChunks(int length) {
 
         List<ByteBuf> buffers = new ArrayList<ByteBuf>(((length + 1) / 48) * 9);
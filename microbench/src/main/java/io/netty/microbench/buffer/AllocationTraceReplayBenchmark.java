@@ -0,0 +1,446 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.buffer;
+
+import io.netty.buffer.AdaptiveByteBufAllocator;
+import io.netty.buffer.AllocationTrace;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufAllocatorMetric;
+import io.netty.buffer.ByteBufAllocatorMetricProvider;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.RecordingByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Replays an {@link AllocationTrace} written by {@link RecordingByteBufAllocator} against different allocators. One
+ * operation replays the whole trace: every buffer is allocated and released in the same order as recorded, and
+ * buffers that were released by another {@link Thread} than the one that allocated them are also released by another
+ * replay {@link Thread}.
+ * <p>
+ * Pass the trace with {@code -p traceFile=/path/to/trace}. Without it a synthetic trace is generated.
+ * <p>
+ * Besides the throughput the following is reported for each iteration:
+ * <ul>
+ *     <li>{@code peakUsedMemory}: the peak memory used by the allocator, sampled every millisecond.</li>
+ *     <li>{@code peakRequestedMemory}: the peak of the sum of all live buffer capacities in the trace.</li>
+ *     <li>{@code fragmentationPercent}: how much more memory than requested the allocator used at its peak.</li>
+ *     <li>{@code peakRssKiloBytes}: the peak resident set size of the process, only on Linux.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AllocationTraceReplayBenchmark extends AbstractMicrobenchmark {
+
+    public enum AllocatorType {
+        POOLED {
+            @Override
+            ByteBufAllocator newAllocator() {
+                return new PooledByteBufAllocator(true);
+            }
+        },
+        ADAPTIVE {
+            @Override
+            ByteBufAllocator newAllocator() {
+                return new AdaptiveByteBufAllocator();
+            }
+        },
+        UNPOOLED {
+            @Override
+            ByteBufAllocator newAllocator() {
+                return new UnpooledByteBufAllocator(true);
+            }
+        };
+
+        abstract ByteBufAllocator newAllocator();
+    }
+
+    @Param({ "" })
+    public String traceFile;
+
+    @Param
+    public AllocatorType allocatorType;
+
+    @Param({ "1", "4" })
+    public int replayThreads;
+
+    private static final int SYNTHETIC_ALLOCATIONS = 200000;
+    private static final int SAMPLE_INTERVAL_MILLIS = 1;
+
+    private AllocationTrace trace;
+    private int[][] events;
+    private long peakRequestedMemory;
+    private ByteBufAllocator allocator;
+    private ByteBufAllocatorMetric metric;
+    private AtomicReferenceArray<ByteBuf> buffers;
+    private ExecutorService executor;
+    private Thread sampler;
+    private volatile boolean sampling;
+    private volatile long peakUsedMemory;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class ReplayMetrics {
+        public long peakUsedMemory;
+        public long peakRequestedMemory;
+        public long fragmentationPercent;
+        public long peakRssKiloBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        trace = traceFile.isEmpty() ? syntheticTrace() : readTrace(new File(traceFile));
+        events = schedule(trace, replayThreads);
+        peakRequestedMemory = peakRequestedMemory(trace);
+        allocator = allocatorType.newAllocator();
+        metric = ((ByteBufAllocatorMetricProvider) allocator).metric();
+        buffers = new AtomicReferenceArray<ByteBuf>(trace.size());
+        if (replayThreads > 1) {
+            executor = Executors.newFixedThreadPool(replayThreads, new DefaultThreadFactory("replay"));
+        }
+
+        sampling = true;
+        sampler = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (sampling) {
+                    long used = metric.usedHeapMemory() + metric.usedDirectMemory();
+                    if (used > peakUsedMemory) {
+                        peakUsedMemory = used;
+                    }
+                    try {
+                        Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }, "replay-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeak() {
+        peakUsedMemory = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportMetrics(ReplayMetrics metrics) {
+        long used = peakUsedMemory;
+        metrics.peakUsedMemory = used;
+        metrics.peakRequestedMemory = peakRequestedMemory;
+        metrics.fragmentationPercent = used == 0 ? 0 : Math.max(0, (used - peakRequestedMemory) * 100 / used);
+        metrics.peakRssKiloBytes = readPeakRss();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        sampling = false;
+        sampler.interrupt();
+        sampler.join();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void replay() throws InterruptedException {
+        if (executor == null) {
+            replay(events[0]);
+            return;
+        }
+        final CountDownLatch latch = new CountDownLatch(events.length);
+        for (final int[] threadEvents : events) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        replay(threadEvents);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        latch.await();
+    }
+
+    private void replay(int[] threadEvents) {
+        final AllocationTrace trace = this.trace;
+        final AtomicReferenceArray<ByteBuf> buffers = this.buffers;
+        for (int event : threadEvents) {
+            final int index = event >>> 1;
+            if ((event & 1) == 0) {
+                final int capacity = trace.capacity(index);
+                buffers.lazySet(index, trace.isDirect(index) ?
+                        allocator.directBuffer(capacity) : allocator.heapBuffer(capacity));
+            } else {
+                ByteBuf buf;
+                // The buffer may be allocated by another replay thread that did not get there yet.
+                while ((buf = buffers.getAndSet(index, null)) == null) {
+                    Thread.yield();
+                }
+                buf.release();
+            }
+        }
+    }
+
+    /**
+     * Orders all allocations and releases by time and assigns each of them to a replay thread, based on the thread
+     * that did it when recording. Each event is encoded as the index of the record shifted by one, with the lowest bit
+     * set for releases. As every replay thread processes its events in the global order, a thread can only wait for
+     * an allocation of another thread that has no reason to wait itself.
+     */
+    private static int[][] schedule(AllocationTrace trace, int replayThreads) {
+        final int size = trace.size();
+        final long[] times = new long[size * 2];
+        Integer[] order = new Integer[size * 2];
+        for (int i = 0; i < size; i++) {
+            times[i << 1] = trace.allocationTime(i);
+            times[i << 1 | 1] = trace.allocationTime(i) + trace.lifetime(i);
+            order[i << 1] = i << 1;
+            order[i << 1 | 1] = i << 1 | 1;
+        }
+        // Stable sort, so the allocation of a buffer always comes before its release.
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                long t1 = times[o1];
+                long t2 = times[o2];
+                return t1 < t2 ? -1 : t1 == t2 ? 0 : 1;
+            }
+        });
+
+        Map<Long, Integer> threads = new HashMap<Long, Integer>();
+        List<List<Integer>> perThread = new ArrayList<List<Integer>>();
+        for (int i = 0; i < replayThreads; i++) {
+            perThread.add(new ArrayList<Integer>());
+        }
+        for (Integer event : order) {
+            int index = event >>> 1;
+            long thread = (event & 1) == 0 ? trace.allocationThread(index) : trace.releaseThread(index);
+            Integer replayThread = threads.get(thread);
+            if (replayThread == null) {
+                replayThread = threads.size() % replayThreads;
+                threads.put(thread, replayThread);
+            }
+            perThread.get(replayThread).add(event);
+        }
+
+        int[][] events = new int[replayThreads][];
+        for (int i = 0; i < replayThreads; i++) {
+            List<Integer> threadEvents = perThread.get(i);
+            events[i] = new int[threadEvents.size()];
+            for (int j = 0; j < events[i].length; j++) {
+                events[i][j] = threadEvents.get(j);
+            }
+        }
+        if (replayThreads == 1) {
+            return events;
+        }
+        // Do not spawn tasks for replay threads without work.
+        List<int[]> nonEmpty = new ArrayList<int[]>();
+        for (int[] threadEvents : events) {
+            if (threadEvents.length > 0) {
+                nonEmpty.add(threadEvents);
+            }
+        }
+        return nonEmpty.toArray(new int[0][]);
+    }
+
+    private static long peakRequestedMemory(AllocationTrace trace) {
+        final int size = trace.size();
+        long[] releases = new long[size];
+        for (int i = 0; i < size; i++) {
+            releases[i] = trace.allocationTime(i) + trace.lifetime(i);
+        }
+        Integer[] releaseOrder = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            releaseOrder[i] = i;
+        }
+        final long[] releaseTimes = releases;
+        Arrays.sort(releaseOrder, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                long t1 = releaseTimes[o1];
+                long t2 = releaseTimes[o2];
+                return t1 < t2 ? -1 : t1 == t2 ? 0 : 1;
+            }
+        });
+
+        long live = 0;
+        long peak = 0;
+        int released = 0;
+        for (int i = 0; i < size; i++) {
+            long time = trace.allocationTime(i);
+            while (released < size && releaseTimes[releaseOrder[released]] <= time) {
+                live -= trace.capacity(releaseOrder[released++]);
+            }
+            live += trace.capacity(i);
+            peak = Math.max(peak, live);
+        }
+        return peak;
+    }
+
+    private static AllocationTrace readTrace(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return AllocationTrace.read(new BufferedInputStream(in));
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Records a trace of buffers with sizes between 16 bytes and 64 KiB, biased towards smaller sizes. Some of them
+     * are released by another {@link Thread}.
+     */
+    private static AllocationTrace syntheticTrace() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecordingByteBufAllocator recording = new RecordingByteBufAllocator(new UnpooledByteBufAllocator(false), out);
+        final BlockingQueue<ByteBuf> handOff = new ArrayBlockingQueue<ByteBuf>(1024);
+        Thread releaser = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Random random = new Random(1);
+                ByteBuf[] live = new ByteBuf[256];
+                try {
+                    for (;;) {
+                        ByteBuf buf = handOff.take();
+                        if (buf.capacity() == 0) {
+                            break;
+                        }
+                        int idx = random.nextInt(live.length);
+                        if (live[idx] != null) {
+                            live[idx].release();
+                        }
+                        live[idx] = buf;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (ByteBuf buf : live) {
+                    if (buf != null) {
+                        buf.release();
+                    }
+                }
+            }
+        });
+        releaser.start();
+
+        Random random = new Random(0);
+        ByteBuf[] live = new ByteBuf[1024];
+        for (int i = 0; i < SYNTHETIC_ALLOCATIONS; i++) {
+            int size = 16 << random.nextInt(13);
+            size += random.nextInt(size);
+            ByteBuf buf = random.nextBoolean() ? recording.directBuffer(size) : recording.heapBuffer(size);
+            if (random.nextInt(4) == 0) {
+                handOff.put(buf);
+                continue;
+            }
+            int idx = random.nextInt(live.length);
+            if (live[idx] != null) {
+                live[idx].release();
+            }
+            live[idx] = buf;
+        }
+        for (ByteBuf buf : live) {
+            if (buf != null) {
+                buf.release();
+            }
+        }
+        // A buffer without capacity tells the releaser to stop.
+        ByteBuf stop = recording.heapBuffer(0);
+        handOff.put(stop);
+        releaser.join();
+        recording.close();
+        stop.release();
+        return AllocationTrace.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static long readPeakRss() {
+        File status = new File("/proc/self/status");
+        if (!status.exists()) {
+            return -1;
+        }
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(status), CharsetUtil.US_ASCII));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.substring(6).replace("kB", "").trim());
+                }
+            }
+            return -1;
+        } catch (Exception e) {
+            return -1;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+        }
+    }
+}
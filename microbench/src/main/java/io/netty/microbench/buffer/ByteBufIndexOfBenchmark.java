@@ -17,9 +17,11 @@ package io.netty.microbench.buffer;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.AsciiString;
 import io.netty.util.internal.SuppressJava6Requirement;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
@@ -55,6 +57,7 @@ public class ByteBufIndexOfBenchmark extends AbstractMicrobenchmark {
     int permutations;
 
     ByteBuf[] data;
+    AsciiString[] strings;
     private int i;
 
     @Param({ "0" })
@@ -75,6 +78,7 @@ public class ByteBufIndexOfBenchmark extends AbstractMicrobenchmark {
         SplittableRandom random = new SplittableRandom(seed);
         permutations = 1 << logPermutations;
         this.data = new ByteBuf[permutations];
+        this.strings = new AsciiString[permutations];
         final ByteBufAllocator allocator = pooled? PooledByteBufAllocator.DEFAULT : UnpooledByteBufAllocator.DEFAULT;
         for (int i = 0; i < permutations; ++i) {
             data[i] = direct? allocator.directBuffer(size, size) : allocator.heapBuffer(size, size);
@@ -92,6 +96,7 @@ public class ByteBufIndexOfBenchmark extends AbstractMicrobenchmark {
             }
             final int foundIndex = random.nextInt(Math.max(0, size - 8), size);
             data[i].setByte(foundIndex, needleByte);
+            strings[i] = new AsciiString(ByteBufUtil.getBytes(data[i], 0, size));
         }
     }
 
@@ -104,6 +109,11 @@ public class ByteBufIndexOfBenchmark extends AbstractMicrobenchmark {
         return getData().indexOf(0, size, needleByte);
     }
 
+    @Benchmark
+    public int asciiStringIndexOf() {
+        return strings[i++ & (permutations - 1)].indexOf((char) (needleByte & 0xFF), 0);
+    }
+
     @TearDown
     public void releaseBuffers() {
         for (ByteBuf buffer : data) {
@@ -19,6 +19,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.AsciiString;
 import io.netty.util.CharsetUtil;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Measurement;
@@ -38,8 +39,10 @@ public class
 
     @Param({ "true", "false" })
     private boolean direct;
-    @Param({ "8", "16", "64", "128" })
+    @Param({ "8", "16", "64", "128", "1024" })
     private int length;
+    @Param({ "false", "true" })
+    private boolean vectorizedMismatch;
     private ByteBuf buffer;
     private ByteBuf wrapped;
     private ByteBuf asciiBuffer;
@@ -51,8 +54,15 @@ public class
     private StringBuilder utf8Sequence;
     private String utf8;
 
+    private ByteBuf compareA;
+    private ByteBuf compareB;
+    private AsciiString lowerCase;
+    private AsciiString mixedCase;
+
     @Setup
     public void setup() {
+        // Must be set before ByteBufUtil is initialized.
+        System.setProperty("io.netty.buffer.vectorizedMismatch", Boolean.toString(vectorizedMismatch));
         // Use buffer sizes that will also allow to write UTF-8 without grow the buffer
         final int maxBytes = ByteBufUtil.utf8MaxBytes(length);
         buffer = direct? Unpooled.directBuffer(maxBytes) : Unpooled.buffer(maxBytes);
@@ -74,6 +84,19 @@ public class
 
         asciiBuffer = Unpooled.copiedBuffer(ascii, CharsetUtil.US_ASCII);
         utf8Buffer = Unpooled.copiedBuffer(utf8, CharsetUtil.UTF_8);
+
+        // Only the last byte differs so the whole content needs to be compared.
+        compareA = direct? Unpooled.directBuffer(length) : Unpooled.buffer(length);
+        compareB = direct? Unpooled.directBuffer(length) : Unpooled.buffer(length);
+        compareA.writeBytes(asciiBuffer, 0, length - 1).writeByte('a');
+        compareB.writeBytes(asciiBuffer, 0, length - 1).writeByte('b');
+
+        StringBuilder mixed = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            mixed.append((char) ((i & 1) == 0 ? 'A' + i % 26 : 'a' + i % 26));
+        }
+        mixedCase = new AsciiString(mixed);
+        lowerCase = mixedCase.toLowerCase();
     }
 
     @TearDown
@@ -82,6 +105,8 @@ public class
         wrapped.release();
         asciiBuffer.release();
         utf8Buffer.release();
+        compareA.release();
+        compareB.release();
     }
 
     @Benchmark
@@ -189,4 +214,19 @@ public class
     public String decodeStringUtf8() {
         return utf8Buffer.toString(CharsetUtil.UTF_8);
     }
+
+    @Benchmark
+    public boolean equalsBuffers() {
+        return ByteBufUtil.equals(compareA, 0, compareB, 0, length);
+    }
+
+    @Benchmark
+    public int compareBuffers() {
+        return ByteBufUtil.compare(compareA, compareB);
+    }
+
+    @Benchmark
+    public boolean contentEqualsIgnoreCase() {
+        return mixedCase.contentEqualsIgnoreCase(lowerCase);
+    }
 }
@@ -25,6 +25,11 @@ import org.openjdk.jmh.annotations.TearDown;
 
 import java.lang.reflect.Constructor;
 
+/**
+ * Compares the {@code sun.misc.Unsafe} based heap buffer with the plain one, which reads and writes multi-byte values
+ * via {@code VarHandle}s on Java 9+. Run with {@code -Dio.netty.noVarHandle=true} to compare against assembling the
+ * values byte by byte.
+ */
 public class HeapByteBufBenchmark extends AbstractMicrobenchmark {
 
     @Param({ "true", "false" })
@@ -105,4 +110,44 @@ public class HeapByteBufBenchmark extends AbstractMicrobenchmark {
     public long getLong() {
         return buffer.getLong(0);
     }
+
+    @Benchmark
+    public int getIntLEUnsafe() {
+        return unsafeBuffer.getIntLE(0);
+    }
+
+    @Benchmark
+    public int getIntLE() {
+        return buffer.getIntLE(0);
+    }
+
+    @Benchmark
+    public long getLongLEUnsafe() {
+        return unsafeBuffer.getLongLE(0);
+    }
+
+    @Benchmark
+    public long getLongLE() {
+        return buffer.getLongLE(0);
+    }
+
+    @Benchmark
+    public ByteBuf setIntUnsafe() {
+        return unsafeBuffer.setInt(0, 1);
+    }
+
+    @Benchmark
+    public ByteBuf setInt() {
+        return buffer.setInt(0, 1);
+    }
+
+    @Benchmark
+    public ByteBuf setLongUnsafe() {
+        return unsafeBuffer.setLong(0, 1L);
+    }
+
+    @Benchmark
+    public ByteBuf setLong() {
+        return buffer.setLong(0, 1L);
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.buffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.NumaNodeLocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollNumaNodeLocator;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a NUMA aware {@link PooledByteBufAllocator} with the default one. To see a difference this needs to run
+ * on a multi-socket machine with threads spread across the sockets.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Threads(8)
+public class PooledByteBufAllocatorNumaBenchmark extends AbstractMicrobenchmark {
+
+    @Param({ "false", "true" })
+    public boolean numaAware;
+
+    @Param({ "00256", "04096", "65536" })
+    public int size;
+
+    private PooledByteBufAllocator allocator;
+
+    @Setup
+    public void setup() {
+        NumaNodeLocator locator = numaAware && Epoll.isAvailable() ? new EpollNumaNodeLocator() : null;
+        int numArenas = PooledByteBufAllocator.defaultNumDirectArena();
+        if (locator != null) {
+            // Make sure every node gets the same number of arenas.
+            numArenas = Math.max(locator.numNodes(), numArenas - numArenas % locator.numNodes());
+        }
+        allocator = new PooledByteBufAllocator(true, 0, numArenas, PooledByteBufAllocator.defaultPageSize(),
+                PooledByteBufAllocator.defaultMaxOrder(), PooledByteBufAllocator.defaultSmallCacheSize(),
+                PooledByteBufAllocator.defaultNormalCacheSize(), true, 0, locator);
+    }
+
+    @Benchmark
+    public boolean allocateWriteRelease() {
+        ByteBuf buf = allocator.directBuffer(size);
+        buf.writeZero(size);
+        return buf.release();
+    }
+}
@@ -19,8 +19,11 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.buffer.UnpooledUnsafeDirectByteBuf;
 import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.internal.DirectMemorySegment;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 
 import java.nio.ByteBuffer;
@@ -31,6 +34,29 @@ public class UnsafeByteBufBenchmark extends AbstractMicrobenchmark {
     private ByteBuf unsafeBuffer;
     private ByteBuffer byteBuffer;
 
+    /**
+     * Only used by the memory segment benchmarks, so they fail on their own if memory segments are not available.
+     */
+    @State(Scope.Benchmark)
+    public static class SegmentState {
+        private DirectMemorySegment segment;
+        private ByteBuffer segmentBuffer;
+
+        @Setup
+        public void setup() {
+            if (!DirectMemorySegment.isAvailable()) {
+                throw new IllegalStateException("java.lang.foreign.Arena unavailable, requires Java 21+");
+            }
+            segment = DirectMemorySegment.allocate(64);
+            segmentBuffer = segment.buffer();
+        }
+
+        @TearDown
+        public void tearDown() {
+            segment.free();
+        }
+    }
+
     @Setup
     public void setup() {
         unsafeBuffer = new UnpooledUnsafeDirectByteBuf(UnpooledByteBufAllocator.DEFAULT, 64, 64);
@@ -52,6 +78,11 @@ public class UnsafeByteBufBenchmark extends AbstractMicrobenchmark {
         return byteBuffer.putLong(0, 1).getLong(0);
     }
 
+    @Benchmark
+    public long setGetLongMemorySegment(SegmentState state) {
+        return state.segmentBuffer.putLong(0, 1).getLong(0);
+    }
+
     @Benchmark
     public ByteBuf setLongUnsafeByteBuf() {
         return unsafeBuffer.setLong(0, 1);
@@ -61,4 +92,9 @@ public class UnsafeByteBufBenchmark extends AbstractMicrobenchmark {
     public ByteBuffer setLongByteBuffer() {
         return byteBuffer.putLong(0, 1);
     }
+
+    @Benchmark
+    public ByteBuffer setLongMemorySegment(SegmentState state) {
+        return state.segmentBuffer.putLong(0, 1);
+    }
 }
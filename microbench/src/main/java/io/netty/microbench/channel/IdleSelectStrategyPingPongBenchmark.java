@@ -0,0 +1,192 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultSelectStrategyFactory;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SelectStrategyFactory;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.SpinThenParkSelectStrategyFactory;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.channels.spi.SelectorProvider;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trip latency of a one byte ping-pong between two event loops, with the default blocking wait
+ * and with the {@link SpinThenParkSelectStrategyFactory}. Use the percentiles of the sample time mode, in particular
+ * p0.99, to compare both.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IdleSelectStrategyPingPongBenchmark extends AbstractMicrobenchmark {
+
+    public enum Transport {
+        NIO, EPOLL
+    }
+
+    public enum Strategy {
+        DEFAULT, SPIN_THEN_PARK
+    }
+
+    @Param
+    public Transport transport;
+
+    @Param
+    public Strategy strategy;
+
+    private EventLoopGroup serverGroup;
+    private EventLoopGroup clientGroup;
+    private SpinThenParkSelectStrategyFactory spinThenPark;
+    private Channel serverChan;
+    private Channel chan;
+    private ByteBuf abyte;
+
+    @Setup
+    public void setup() throws Exception {
+        Class<? extends ServerChannel> serverChannelClass;
+        Class<? extends Channel> channelClass;
+        if (transport == Transport.NIO) {
+            serverGroup = new NioEventLoopGroup(1, (Executor) null, SelectorProvider.provider(),
+                    selectStrategyFactory());
+            clientGroup = new NioEventLoopGroup(1, (Executor) null, SelectorProvider.provider(),
+                    selectStrategyFactory());
+            serverChannelClass = NioServerSocketChannel.class;
+            channelClass = NioSocketChannel.class;
+        } else {
+            serverGroup = new EpollEventLoopGroup(1, (Executor) null, selectStrategyFactory());
+            clientGroup = new EpollEventLoopGroup(1, (Executor) null, selectStrategyFactory());
+            serverChannelClass = EpollServerSocketChannel.class;
+            channelClass = EpollSocketChannel.class;
+        }
+
+        serverChan = new ServerBootstrap()
+            .channel(serverChannelClass)
+            .group(serverGroup)
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .childHandler(new ChannelInitializer<Channel>() {
+                @Override
+                protected void initChannel(Channel ch) {
+                    ch.pipeline().addLast(new ChannelDuplexHandler() {
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            ctx.writeAndFlush(msg, ctx.voidPromise());
+                        }
+                    });
+                }
+            })
+            .bind(0)
+            .sync()
+            .channel();
+        chan = new Bootstrap()
+            .channel(channelClass)
+            .group(clientGroup)
+            .option(ChannelOption.TCP_NODELAY, true)
+            .handler(new ChannelInitializer<Channel>() {
+                @Override
+                protected void initChannel(Channel ch) {
+                    ch.pipeline().addLast(new ChannelDuplexHandler() {
+                        private ChannelPromise lastWritePromise;
+
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            ByteBuf buf = (ByteBuf) msg;
+                            try {
+                                if (buf.readableBytes() != 1) {
+                                    throw new AssertionError();
+                                }
+                                lastWritePromise.trySuccess();
+                                lastWritePromise = null;
+                            } finally {
+                                buf.release();
+                            }
+                        }
+
+                        @Override
+                        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
+                                throws Exception {
+                            if (lastWritePromise != null) {
+                                throw new IllegalStateException();
+                            }
+                            lastWritePromise = promise;
+                            super.write(ctx, msg, ctx.voidPromise());
+                        }
+                    });
+                }
+            })
+            .connect(serverChan.localAddress())
+            .sync()
+            .channel();
+
+        abyte = chan.alloc().directBuffer(1);
+        abyte.writeByte('a');
+    }
+
+    private SelectStrategyFactory selectStrategyFactory() {
+        if (strategy == Strategy.DEFAULT) {
+            return DefaultSelectStrategyFactory.INSTANCE;
+        }
+        if (spinThenPark == null) {
+            spinThenPark = new SpinThenParkSelectStrategyFactory();
+        }
+        return spinThenPark;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        chan.close().sync();
+        serverChan.close().sync();
+        clientGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        serverGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        abyte.release();
+        if (spinThenPark != null) {
+            System.out.println("\n" + spinThenPark + ": spin wakeups " + spinThenPark.spinWakeups() +
+                    ", yield wakeups " + spinThenPark.yieldWakeups() + ", park wakeups " +
+                    spinThenPark.parkWakeups() + ", blocking waits " + spinThenPark.blockingWaits() +
+                    ", mean wakeup latency " + spinThenPark.meanWakeupLatencyNanos() + "ns, max wakeup latency " +
+                    spinThenPark.maxWakeupLatencyNanos() + "ns");
+            spinThenPark = null;
+        }
+    }
+
+    @Benchmark
+    public Object pingPong() throws Exception {
+        return chan.pipeline().writeAndFlush(abyte.retainedSlice()).sync();
+    }
+}
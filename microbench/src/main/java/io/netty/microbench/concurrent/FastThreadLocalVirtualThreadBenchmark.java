@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.concurrent;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.VirtualThreadEventExecutorGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * This class benchmarks the first access of FastThreadLocal and the JDK ThreadLocal, as well as a pooled allocation,
+ * on short lived virtual threads. Requires Java 21 or newer.
+ */
+@State(Scope.Benchmark)
+@Measurement(iterations = 10)
+public class FastThreadLocalVirtualThreadBenchmark extends AbstractMicrobenchmark {
+
+    private static final int TASKS = 128;
+
+    @SuppressWarnings("unchecked")
+    private static final ThreadLocal<Integer>[] jdkThreadLocals = new ThreadLocal[8];
+    @SuppressWarnings("unchecked")
+    private static final FastThreadLocal<Integer>[] fastThreadLocals = new FastThreadLocal[jdkThreadLocals.length];
+
+    static {
+        for (int i = 0; i < jdkThreadLocals.length; i ++) {
+            final int num = i;
+            jdkThreadLocals[i] = new ThreadLocal<Integer>() {
+                @Override
+                protected Integer initialValue() {
+                    return num;
+                }
+            };
+            fastThreadLocals[i] = new FastThreadLocal<Integer>() {
+                @Override
+                protected Integer initialValue() {
+                    return num;
+                }
+            };
+        }
+    }
+
+    private static final Runnable JDK_THREAD_LOCAL_TASK = new Runnable() {
+        @Override
+        public void run() {
+            for (ThreadLocal<Integer> i: jdkThreadLocals) {
+                i.get();
+            }
+        }
+    };
+
+    private static final Runnable FAST_THREAD_LOCAL_TASK = new Runnable() {
+        @Override
+        public void run() {
+            for (FastThreadLocal<Integer> i: fastThreadLocals) {
+                i.get();
+            }
+        }
+    };
+
+    private static final Runnable POOLED_ALLOCATION_TASK = new Runnable() {
+        @Override
+        public void run() {
+            ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+            allocator.directBuffer(256).release();
+        }
+    };
+
+    private VirtualThreadEventExecutorGroup group;
+    private final Future<?>[] futures = new Future<?>[TASKS];
+
+    public FastThreadLocalVirtualThreadBenchmark() {
+        super(false, true);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if (!VirtualThreadEventExecutorGroup.isAvailable()) {
+            throw new IllegalStateException("Virtual threads are not available");
+        }
+        group = new VirtualThreadEventExecutorGroup();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        group.shutdownGracefully().syncUninterruptibly();
+    }
+
+    @Benchmark
+    public void jdkThreadLocalGet() throws Exception {
+        runOnNewVirtualThreads(JDK_THREAD_LOCAL_TASK);
+    }
+
+    @Benchmark
+    public void fastThreadLocal() throws Exception {
+        runOnNewVirtualThreads(FAST_THREAD_LOCAL_TASK);
+    }
+
+    @Benchmark
+    public void pooledAllocation() throws Exception {
+        runOnNewVirtualThreads(POOLED_ALLOCATION_TASK);
+    }
+
+    private void runOnNewVirtualThreads(Runnable task) throws Exception {
+        for (int i = 0; i < TASKS; i++) {
+            futures[i] = group.next().submit(task);
+        }
+        for (Future<?> future : futures) {
+            future.sync();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.handler.stream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.stream.ChunkedFile;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedMappedFile;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Compares reading a whole file through the different {@link ChunkedInput} implementations. The mapped one hands out
+ * slices of the page cache while the others copy every chunk into a freshly allocated buffer.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class ChunkedInputBenchmark extends AbstractMicrobenchmark {
+
+    @Param({ "ChunkedFile", "ChunkedNioFile", "ChunkedMappedFile" })
+    public String input;
+
+    @Param({ "65536", "16777216" })
+    public int fileSize;
+
+    @Param({ "8192" })
+    public int chunkSize;
+
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = File.createTempFile("netty-chunked-input", ".bin");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            byte[] bytes = new byte[8192];
+            for (int written = 0; written < fileSize; written += bytes.length) {
+                out.write(bytes, 0, Math.min(bytes.length, fileSize - written));
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        file.delete();
+    }
+
+    private ChunkedInput<ByteBuf> newInput() throws IOException {
+        if ("ChunkedFile".equals(input)) {
+            return new ChunkedFile(file, chunkSize);
+        }
+        if ("ChunkedNioFile".equals(input)) {
+            return new ChunkedNioFile(file, chunkSize);
+        }
+        return new ChunkedMappedFile(file, chunkSize);
+    }
+
+    @Benchmark
+    public long readAll() throws Exception {
+        ChunkedInput<ByteBuf> in = newInput();
+        long sum = 0;
+        try {
+            while (!in.isEndOfInput()) {
+                ByteBuf chunk = in.readChunk(ByteBufAllocator.DEFAULT);
+                sum += chunk.getByte(chunk.readerIndex());
+                chunk.release();
+            }
+        } finally {
+            in.close();
+        }
+        return sum;
+    }
+}
@@ -16,6 +16,7 @@
 package io.netty.microbench.internal;
 
 import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.internal.ByteArrayAccess;
 import io.netty.util.internal.PlatformDependent;
 
 import java.util.Arrays;
@@ -40,9 +41,12 @@ public class PlatformDependentBenchmark extends AbstractMicrobenchmark {
     private int size;
     private byte[] bytes1;
     private byte[] bytes2;
+    private ByteArrayAccess byteArrayAccess;
 
     @Setup(Level.Trial)
     public void setup() {
+        // null before Java 9, the varHandle* benchmarks will fail then.
+        byteArrayAccess = PlatformDependent.byteArrayAccess();
         bytes1 = new byte[size];
         bytes2 = new byte[size];
         for (int i = 0; i < size; i++) {
@@ -63,4 +67,80 @@ public class PlatformDependentBenchmark extends AbstractMicrobenchmark {
     public boolean arraysBytesEqual() {
         return Arrays.equals(bytes1, bytes2);
     }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long shiftGetLongs() {
+        byte[] bytes = bytes1;
+        long sum = 0;
+        for (int i = 0; i + 8 <= bytes.length; i += 8) {
+            sum += ((long) bytes[i]     & 0xff) << 56 |
+                   ((long) bytes[i + 1] & 0xff) << 48 |
+                   ((long) bytes[i + 2] & 0xff) << 40 |
+                   ((long) bytes[i + 3] & 0xff) << 32 |
+                   ((long) bytes[i + 4] & 0xff) << 24 |
+                   ((long) bytes[i + 5] & 0xff) << 16 |
+                   ((long) bytes[i + 6] & 0xff) <<  8 |
+                   (long) bytes[i + 7] & 0xff;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long unsafeGetLongs() {
+        byte[] bytes = bytes1;
+        long sum = 0;
+        for (int i = 0; i + 8 <= bytes.length; i += 8) {
+            long value = PlatformDependent.getLong(bytes, i);
+            sum += PlatformDependent.BIG_ENDIAN_NATIVE_ORDER ? value : Long.reverseBytes(value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long varHandleGetLongs() {
+        byte[] bytes = bytes1;
+        ByteArrayAccess access = byteArrayAccess;
+        long sum = 0;
+        for (int i = 0; i + 8 <= bytes.length; i += 8) {
+            sum += access.getLong(bytes, i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public byte[] shiftSetLongs() {
+        byte[] bytes = bytes2;
+        for (int i = 0; i + 8 <= bytes.length; i += 8) {
+            long value = i;
+            bytes[i]     = (byte) (value >>> 56);
+            bytes[i + 1] = (byte) (value >>> 48);
+            bytes[i + 2] = (byte) (value >>> 40);
+            bytes[i + 3] = (byte) (value >>> 32);
+            bytes[i + 4] = (byte) (value >>> 24);
+            bytes[i + 5] = (byte) (value >>> 16);
+            bytes[i + 6] = (byte) (value >>> 8);
+            bytes[i + 7] = (byte) value;
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public byte[] varHandleSetLongs() {
+        byte[] bytes = bytes2;
+        ByteArrayAccess access = byteArrayAccess;
+        for (int i = 0; i + 8 <= bytes.length; i += 8) {
+            access.setLong(bytes, i, i);
+        }
+        return bytes;
+    }
 }
@@ -18,6 +18,7 @@ package io.netty.microbench.search;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.search.AbstractMultiSearchProcessorFactory;
 import io.netty.buffer.search.AbstractSearchProcessorFactory;
+import io.netty.buffer.search.CompactAhoCorasicSearchProcessorFactory;
 import io.netty.buffer.search.SearchProcessor;
 import io.netty.buffer.search.SearchProcessorFactory;
 import io.netty.microbench.util.AbstractMicrobenchmark;
@@ -56,6 +57,12 @@ public class SearchRealDataBenchmark extends AbstractMicrobenchmark {
                 return AbstractMultiSearchProcessorFactory.newAhoCorasicSearchProcessorFactory(needle);
             }
         },
+        COMPACT_AHO_CORASIC {
+            @Override
+            SearchProcessorFactory newFactory(byte[] needle) {
+                return AbstractMultiSearchProcessorFactory.newCompactAhoCorasicSearchProcessorFactory(needle);
+            }
+        },
         KMP {
             @Override
             SearchProcessorFactory newFactory(byte[] needle) {
@@ -126,15 +133,14 @@ public class SearchRealDataBenchmark extends AbstractMicrobenchmark {
     @Benchmark
     @CompilerControl(Mode.DONT_INLINE)
     public int findFirst() {
-        return haystack.forEachByte(searchProcessorFactory.newSearchProcessor());
+        return search(searchProcessorFactory.newSearchProcessor(), haystack.readerIndex(), haystackLength);
     }
 
     @Benchmark
     @CompilerControl(Mode.DONT_INLINE)
     public int findFirstFromIndex() {
         searchFrom = (searchFrom + 100) % haystackLength;
-        return haystack.forEachByte(
-                searchFrom, haystackLength - searchFrom, searchProcessorFactory.newSearchProcessor());
+        return search(searchProcessorFactory.newSearchProcessor(), searchFrom, haystackLength - searchFrom);
     }
 
     @Benchmark
@@ -143,11 +149,20 @@ public class SearchRealDataBenchmark extends AbstractMicrobenchmark {
         SearchProcessor searchProcessor = searchProcessorFactory.newSearchProcessor();
         int pos = 0;
         do {
-            pos = haystack.forEachByte(pos, haystackLength - pos, searchProcessor) + 1;
+            pos = search(searchProcessor, pos, haystackLength - pos) + 1;
             blackHole.consume(pos);
         } while (pos > 0);
     }
 
+    private int search(SearchProcessor searchProcessor, int index, int length) {
+        if (searchProcessor instanceof CompactAhoCorasicSearchProcessorFactory.Processor) {
+            // Uses the SWAR prefilter to skip over bytes that can not start a match.
+            return ((CompactAhoCorasicSearchProcessorFactory.Processor) searchProcessor)
+                    .forEachByte(haystack, index, length);
+        }
+        return haystack.forEachByte(index, length, searchProcessor);
+    }
+
     private static byte[] readBytes(File file) throws IOException {
         InputStream in = new FileInputStream(file);
         try {
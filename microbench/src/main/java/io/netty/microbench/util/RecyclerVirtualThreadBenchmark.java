@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.util;
+
+import io.netty.util.Recycler;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.VirtualThreadEventExecutorGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link Recycler} when every object is taken and recycled by a new virtual thread, which is the
+ * worst case for per thread pools. Requires Java 21 or newer.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = AbstractMicrobenchmarkBase.DEFAULT_WARMUP_ITERATIONS, time = 1)
+@Measurement(iterations = AbstractMicrobenchmarkBase.DEFAULT_MEASURE_ITERATIONS, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecyclerVirtualThreadBenchmark extends AbstractMicrobenchmark {
+
+    private static final int TASKS = 128;
+
+    @Param({ "true", "false" })
+    public boolean sharedPool;
+
+    private VirtualThreadEventExecutorGroup group;
+    private Recycler<DummyObject> recycler;
+    private Runnable getAndRecycle;
+    private final Future<?>[] futures = new Future<?>[TASKS];
+
+    @Override
+    protected ChainedOptionsBuilder newOptionsBuilder() throws Exception {
+        return super.newOptionsBuilder().addProfiler("gc");
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if (!VirtualThreadEventExecutorGroup.isAvailable()) {
+            throw new IllegalStateException("Virtual threads are not available");
+        }
+        // Every trial runs in its own fork, so this is read when the Recycler class is initialized below.
+        System.setProperty("io.netty.recycler.virtualThreadSharedPool", String.valueOf(sharedPool));
+        recycler = new Recycler<DummyObject>() {
+            @Override
+            protected DummyObject newObject(Handle<DummyObject> handle) {
+                return new DummyObject(handle);
+            }
+        };
+        getAndRecycle = new Runnable() {
+            @Override
+            public void run() {
+                recycler.get().recycle();
+            }
+        };
+        group = new VirtualThreadEventExecutorGroup();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        group.shutdownGracefully().syncUninterruptibly();
+    }
+
+    @Benchmark
+    public void getAndRecycleOnNewVirtualThreads() throws Exception {
+        for (int i = 0; i < TASKS; i++) {
+            futures[i] = group.next().submit(getAndRecycle);
+        }
+        for (Future<?> future : futures) {
+            future.sync();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static final class DummyObject {
+        private final Recycler.Handle<DummyObject> handle;
+        private long l1;
+        private long l2;
+        private Object o1;
+        private Object o2;
+
+        DummyObject(Recycler.Handle<DummyObject> handle) {
+            this.handle = handle;
+        }
+
+        void recycle() {
+            handle.recycle(this);
+        }
+    }
+}
@@ -66,6 +66,14 @@ public class ResourceLeakDetectorRecordBenchmark extends AbstractMicrobenchmark
         ResourceLeakDetector.setLevel(level);
     }
 
+    // The cost per sampled object when no access records are taken, as with the SIMPLE level and the
+    // allocation site table.
+    @Benchmark
+    public boolean track() {
+        ResourceLeakTracker<Object> tracker = detector.track(TRACKED);
+        return tracker.close(TRACKED);
+    }
+
     @Benchmark
     public boolean record() {
         ResourceLeakTracker<Object> tracker = detector.track(TRACKED);
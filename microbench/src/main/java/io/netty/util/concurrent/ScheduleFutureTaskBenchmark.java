@@ -47,14 +47,26 @@ public class ScheduleFutureTaskBenchmark extends AbstractMicrobenchmark {
     @State(Scope.Thread)
     public static class ThreadState {
 
-        @Param({ "100000" })
+        @Param({ "100000", "1000000" })
         int num;
 
+        @Param({ "heap", "timingWheel" })
+        String queue;
+
         AbstractScheduledEventExecutor eventLoop;
 
         @Setup(Level.Trial)
         public void reset() {
             eventLoop = (AbstractScheduledEventExecutor) new NioEventLoopGroup(1).next();
+            if ("timingWheel".equals(queue)) {
+                eventLoop.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        eventLoop.scheduledTaskQueue =
+                                new ScheduledTaskTimingWheel(eventLoop, TimeUnit.MILLISECONDS.toNanos(1));
+                    }
+                }).awaitUninterruptibly();
+            }
         }
 
         @Setup(Level.Invocation)
@@ -87,6 +99,24 @@ public class ScheduleFutureTaskBenchmark extends AbstractMicrobenchmark {
         }).syncUninterruptibly();
     }
 
+    @Benchmark
+    @Threads(1)
+    public Future<?> scheduleCancelLots(final ThreadState threadState) {
+        return threadState.eventLoop.submit(new Runnable() {
+            @Override
+            public void run() {
+                // Cancel in scheduling order while up to num timers are pending.
+                ScheduledFuture<?>[] futures = new ScheduledFuture<?>[threadState.num];
+                for (int i = 0; i < futures.length; i++) {
+                    futures[i] = threadState.eventLoop.schedule(NO_OP, i + 1, TimeUnit.SECONDS);
+                }
+                for (ScheduledFuture<?> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        }).syncUninterruptibly();
+    }
+
     @Benchmark
     @Threads(1)
     public Future<?> scheduleLotsOutsideLoop(final ThreadState threadState) {
@@ -217,6 +217,22 @@ abstract class AbstractEpollChannel extends AbstractChannel implements UnixChann
         ((EpollEventLoop) eventLoop()).remove(this);
     }
 
+    @Override
+    protected boolean isMigrationSupported() {
+        // The interest flags are kept by the channel itself, so it is enough to remove it from the old epoll instance
+        // and add it to the new one.
+        return true;
+    }
+
+    @Override
+    protected void doRegisterAfterMigration() throws Exception {
+        doRegister();
+        AbstractEpollUnsafe unsafe = (AbstractEpollUnsafe) unsafe();
+        if (unsafe.maybeMoreDataToRead) {
+            unsafe.executeEpollInReadyRunnable(config());
+        }
+    }
+
     @Override
     protected final void doBeginRead() throws Exception {
         // Channel.read() or ChannelHandlerContext.read() was called
@@ -259,6 +275,12 @@ abstract class AbstractEpollChannel extends AbstractChannel implements UnixChann
                 loop.execute(new Runnable() {
                     @Override
                     public void run() {
+                        EventLoop loop = eventLoop();
+                        if (!loop.inEventLoop()) {
+                            // The Channel was migrated to another EventLoop in the meantime.
+                            loop.execute(this);
+                            return;
+                        }
                         if (!unsafe.readPending && !config().isAutoRead()) {
                             // Still no read triggered so clear it now
                             unsafe.clearEpollIn0();
@@ -274,7 +296,8 @@ abstract class AbstractEpollChannel extends AbstractChannel implements UnixChann
     }
 
     private void modifyEvents() throws IOException {
-        if (isOpen() && isRegistered()) {
+        // While migrating the fd is not part of any epoll instance, the flags are used once it is added to the new one.
+        if (isOpen() && isRegistered() && !isMigrating()) {
             ((EpollEventLoop) eventLoop()).modify(this);
         }
     }
@@ -421,6 +444,11 @@ abstract class AbstractEpollChannel extends AbstractChannel implements UnixChann
         private final Runnable epollInReadyRunnable = new Runnable() {
             @Override
             public void run() {
+                if (!eventLoop().inEventLoop()) {
+                    // The Channel was migrated to another EventLoop, which reports readiness itself once the
+                    // Channel is added to it.
+                    return;
+                }
                 epollInReadyRunnablePending = false;
                 epollInReady();
             }
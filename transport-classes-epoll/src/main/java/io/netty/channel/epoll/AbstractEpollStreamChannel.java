@@ -64,6 +64,11 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
     private final Runnable flushTask = new Runnable() {
         @Override
         public void run() {
+            if (!eventLoop().inEventLoop()) {
+                // The Channel was migrated to another EventLoop in the meantime.
+                eventLoop().execute(this);
+                return;
+            }
             // Calling flush0 directly to ensure we not try to flush messages that were added via write(...) in the
             // meantime.
             ((AbstractEpollUnsafe) unsafe()).flush0();
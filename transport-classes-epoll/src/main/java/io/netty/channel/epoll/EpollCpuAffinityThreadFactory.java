@@ -0,0 +1,139 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link DefaultThreadFactory} which pins every {@link Thread} it creates to a single CPU via
+ * {@code sched_setaffinity(2)}. This allows to run each event loop on the same core that handles the interrupts of
+ * the NIC queue it serves.
+ * <p>
+ * The CPUs are either given explicitly or, if none are given, all CPUs the creating thread is allowed to run on are
+ * used, which gives one event loop per core. Threads are assigned to the CPUs in round-robin order. When used with
+ * an {@link EpollEventLoopGroup} that is created with the default number of threads, the group uses one event loop
+ * per CPU of this factory.
+ * <p>
+ * The CPU a thread was pinned to is exposed via {@link FastThreadLocalThread#cpu()}.
+ * If pinning fails a warning is logged and the thread runs unpinned.
+ */
+@UnstableApi
+public final class EpollCpuAffinityThreadFactory extends DefaultThreadFactory {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(EpollCpuAffinityThreadFactory.class);
+
+    private final int[] cpus;
+    private final AtomicInteger nextCpu = new AtomicInteger();
+
+    /**
+     * Create a new instance which pins its threads to the given CPUs, or to all CPUs the calling thread is allowed to
+     * run on if none are given.
+     */
+    public EpollCpuAffinityThreadFactory(Class<?> poolType, int... cpus) {
+        this(toPoolName(poolType), false, Thread.NORM_PRIORITY, cpus);
+    }
+
+    /**
+     * Create a new instance which pins its threads to the given CPUs, or to all CPUs the calling thread is allowed to
+     * run on if none are given.
+     */
+    public EpollCpuAffinityThreadFactory(String poolName, int... cpus) {
+        this(poolName, false, Thread.NORM_PRIORITY, cpus);
+    }
+
+    /**
+     * Create a new instance which pins its threads to the given CPUs, or to all CPUs the calling thread is allowed to
+     * run on if none are given.
+     */
+    public EpollCpuAffinityThreadFactory(String poolName, boolean daemon, int priority, int... cpus) {
+        super(poolName, daemon, priority);
+        Epoll.ensureAvailability();
+        this.cpus = cpus == null || cpus.length == 0 ? allowedCpus() : validateCpus(cpus);
+    }
+
+    private static int[] allowedCpus() {
+        try {
+            int[] cpus = Native.cpuAffinity();
+            if (cpus.length > 0) {
+                return cpus;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to determine the CPUs of the current thread", e);
+        }
+        throw new IllegalStateException("The current thread is not allowed to run on any CPU");
+    }
+
+    private static int[] validateCpus(int[] cpus) {
+        cpus = cpus.clone();
+        for (int i = 0; i < cpus.length; i++) {
+            ObjectUtil.checkPositiveOrZero(cpus[i], "cpus[" + i + ']');
+        }
+        return cpus;
+    }
+
+    /**
+     * Returns the CPUs the threads of this factory are pinned to, in the order they are assigned.
+     */
+    public int[] cpus() {
+        return cpus.clone();
+    }
+
+    /**
+     * Returns the number of CPUs the threads of this factory are pinned to.
+     */
+    public int numCpus() {
+        return cpus.length;
+    }
+
+    @Override
+    protected Thread newThread(Runnable r, String name) {
+        int cpu = cpus[(nextCpu.getAndIncrement() & Integer.MAX_VALUE) % cpus.length];
+        return new CpuAffinityThread(threadGroup, r, name, cpu);
+    }
+
+    private static final class CpuAffinityThread extends FastThreadLocalThread {
+        private final int targetCpu;
+        private volatile boolean pinned;
+
+        CpuAffinityThread(ThreadGroup group, Runnable target, String name, int targetCpu) {
+            super(group, target, name);
+            this.targetCpu = targetCpu;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Native.setCpuAffinity(targetCpu);
+                pinned = true;
+            } catch (IOException e) {
+                logger.warn("Failed to pin thread {} to CPU {}, running it unpinned", getName(), targetCpu, e);
+            }
+            super.run();
+        }
+
+        @Override
+        public int cpu() {
+            return pinned ? targetCpu : -1;
+        }
+    }
+}
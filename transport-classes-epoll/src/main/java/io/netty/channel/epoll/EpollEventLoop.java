@@ -19,11 +19,13 @@ import io.netty.channel.Channel;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.EventLoopTaskQueueFactory;
+import io.netty.channel.IdleSelectStrategy;
 import io.netty.channel.SelectStrategy;
 import io.netty.channel.SingleThreadEventLoop;
 import io.netty.channel.epoll.AbstractEpollChannel.AbstractEpollUnsafe;
 import io.netty.channel.unix.FileDescriptor;
 import io.netty.channel.unix.IovArray;
+import io.netty.util.BooleanSupplier;
 import io.netty.util.IntSupplier;
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.IntObjectMap;
@@ -75,6 +77,13 @@ public class EpollEventLoop extends SingleThreadEventLoop {
             return epollWaitNow();
         }
     };
+    private final IdleSelectStrategy idleSelectStrategy;
+    private final BooleanSupplier hasTasksSupplier = new BooleanSupplier() {
+        @Override
+        public boolean get() {
+            return hasTasks();
+        }
+    };
 
     private static final long AWAKE = -1L;
     private static final long NONE = Long.MAX_VALUE;
@@ -96,6 +105,7 @@ public class EpollEventLoop extends SingleThreadEventLoop {
         super(parent, executor, false, newTaskQueue(taskQueueFactory), newTaskQueue(tailTaskQueueFactory),
                 rejectedExecutionHandler);
         selectStrategy = ObjectUtil.checkNotNull(strategy, "strategy");
+        idleSelectStrategy = strategy instanceof IdleSelectStrategy ? (IdleSelectStrategy) strategy : null;
         if (maxEvents == 0) {
             allowGrowing = true;
             events = new EpollEventArray(4096);
@@ -357,9 +367,20 @@ public class EpollEventLoop extends SingleThreadEventLoop {
                         if (curDeadlineNanos == -1L) {
                             curDeadlineNanos = NONE; // nothing on the calendar
                         }
+                        if (idleSelectStrategy != null) {
+                            // Poll while still awake, so submitting tasks does not need to write to the eventfd.
+                            reportIdleStart();
+                            strategy = idleSelectStrategy.idle(selectNowSupplier, hasTasksSupplier,
+                                    curDeadlineNanos == NONE ? NONE : deadlineToDelayNanos(curDeadlineNanos));
+                            reportIdleEnd();
+                            if (strategy != SelectStrategy.SELECT) {
+                                break;
+                            }
+                        }
                         nextWakeupNanos.set(curDeadlineNanos);
                         try {
                             if (!hasTasks()) {
+                                reportIdleStart();
                                 if (curDeadlineNanos == prevDeadlineNanos) {
                                     // No timer activity needed
                                     strategy = epollWaitNoTimerChange();
@@ -371,6 +392,7 @@ public class EpollEventLoop extends SingleThreadEventLoop {
                                     strategy = Native.epollReady(result);
                                     prevDeadlineNanos = Native.epollTimerWasUsed(result) ? curDeadlineNanos : NONE;
                                 }
+                                reportIdleEnd();
                             }
                         } finally {
                             // Try get() first to avoid much more expensive CAS in the case we
@@ -382,6 +404,7 @@ public class EpollEventLoop extends SingleThreadEventLoop {
                         // fallthrough
                     default:
                 }
+                reportIteration();
 
                 final int ioRatio = this.ioRatio;
                 if (ioRatio == 100) {
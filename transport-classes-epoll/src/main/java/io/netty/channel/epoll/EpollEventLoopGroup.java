@@ -58,7 +58,8 @@ public final class EpollEventLoopGroup extends MultithreadEventLoopGroup {
     }
 
     /**
-     * Create a new instance using the default number of threads and the given {@link ThreadFactory}.
+     * Create a new instance using the default number of threads and the given {@link ThreadFactory}. If the
+     * {@link ThreadFactory} is an {@link EpollCpuAffinityThreadFactory} one thread per CPU of the factory is used.
      */
     @SuppressWarnings("deprecation")
     public EpollEventLoopGroup(ThreadFactory threadFactory) {
@@ -114,7 +115,8 @@ public final class EpollEventLoopGroup extends MultithreadEventLoopGroup {
     @Deprecated
     public EpollEventLoopGroup(int nThreads, ThreadFactory threadFactory, int maxEventsAtOnce,
                                SelectStrategyFactory selectStrategyFactory) {
-        super(nThreads, threadFactory, maxEventsAtOnce, selectStrategyFactory, RejectedExecutionHandlers.reject());
+        super(nThreads(nThreads, threadFactory), threadFactory, maxEventsAtOnce, selectStrategyFactory,
+                RejectedExecutionHandlers.reject());
     }
 
     public EpollEventLoopGroup(int nThreads, Executor executor, SelectStrategyFactory selectStrategyFactory) {
@@ -161,6 +163,14 @@ public final class EpollEventLoopGroup extends MultithreadEventLoopGroup {
                 tailTaskQueueFactory);
     }
 
+    private static int nThreads(int nThreads, ThreadFactory threadFactory) {
+        // Use one event loop per CPU if the default number of threads is requested for pinned threads.
+        if (nThreads == 0 && threadFactory instanceof EpollCpuAffinityThreadFactory) {
+            return ((EpollCpuAffinityThreadFactory) threadFactory).numCpus();
+        }
+        return nThreads;
+    }
+
     /**
      * Sets the percentage of the desired amount of time spent for I/O in the child event loops.  The default value is
      * {@code 50}, which means the event loop will try to spend the same amount of time for I/O as for non-I/O tasks.
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.buffer.NumaNodeLocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.CharsetUtil;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * {@link NumaNodeLocator} which uses {@code getcpu(2)} to find the NUMA node of the calling {@link Thread}. This can
+ * be passed to {@link PooledByteBufAllocator} to make it NUMA aware.
+ */
+@UnstableApi
+public final class EpollNumaNodeLocator implements NumaNodeLocator {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(EpollNumaNodeLocator.class);
+    private static final String POSSIBLE_NODES = "/sys/devices/system/node/possible";
+
+    private final int numNodes;
+
+    /**
+     * Creates a new instance.
+     *
+     * @throws UnsatisfiedLinkError if the native epoll transport is not available.
+     */
+    public EpollNumaNodeLocator() {
+        Epoll.ensureAvailability();
+        numNodes = readNumNodes(new File(POSSIBLE_NODES));
+    }
+
+    @Override
+    public int numNodes() {
+        return numNodes;
+    }
+
+    @Override
+    public int currentNode() {
+        int node = Native.currentNumaNode();
+        return node < numNodes ? node : -1;
+    }
+
+    /**
+     * Parses a node list like {@code 0-3} or {@code 0,2} and returns the highest node + 1. Falls back to {@code 1}
+     * if the system does not expose its NUMA topology.
+     */
+    static int readNumNodes(File file) {
+        if (!file.exists()) {
+            return 1;
+        }
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), CharsetUtil.US_ASCII));
+            String line = reader.readLine();
+            return line == null ? 1 : parseNumNodes(line);
+        } catch (Exception e) {
+            logger.debug("Failed to read {}, assuming a single NUMA node", file, e);
+            return 1;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    static int parseNumNodes(String nodeList) {
+        int maxNode = 0;
+        for (String range : nodeList.trim().split(",")) {
+            if (range.isEmpty()) {
+                continue;
+            }
+            int idx = range.indexOf('-');
+            int last = Integer.parseInt(idx < 0 ? range : range.substring(idx + 1));
+            maxNode = Math.max(maxNode, last);
+        }
+        return maxNode + 1;
+    }
+}
@@ -318,6 +318,36 @@ public final class Native {
     private static native int recvmsg0(
             int fd, boolean ipv6, NativeDatagramPacketArray.NativeDatagramPacket msg);
 
+    /**
+     * Returns the NUMA node the calling thread currently runs on or {@code -1} if it can not be determined.
+     */
+    public static native int currentNumaNode();
+
+    /**
+     * Pins the calling thread to the given CPU via {@code sched_setaffinity(2)}.
+     */
+    static void setCpuAffinity(int cpu) throws IOException {
+        int res = setCpuAffinity0(cpu);
+        if (res < 0) {
+            throw newIOException("sched_setaffinity", res);
+        }
+    }
+
+    private static native int setCpuAffinity0(int cpu);
+
+    /**
+     * Returns the CPUs the calling thread is allowed to run on, as reported by {@code sched_getaffinity(2)}.
+     */
+    static int[] cpuAffinity() throws IOException {
+        int[] cpus = cpuAffinity0();
+        if (cpus == null) {
+            throw new IOException("sched_getaffinity failed");
+        }
+        return cpus;
+    }
+
+    private static native int[] cpuAffinity0();
+
     // epoll_event related
     public static native int sizeofEpollEvent();
     public static native int offsetofEpollData();
@@ -36,6 +36,7 @@
 #include <inttypes.h>
 #include <link.h>
 #include <time.h>
+#include <sched.h>
 // Needed to be able to use syscalls directly and so not depend on newer GLIBC versions
 #include <linux/net.h>
 #include <sys/syscall.h>
@@ -668,6 +669,56 @@ static jint netty_epoll_native_tcpMd5SigMaxKeyLen(JNIEnv* env, jclass clazz) {
     return TCP_MD5SIG_MAXKEYLEN;
 }
 
+static jint netty_epoll_native_currentNumaNode(JNIEnv* env, jclass clazz) {
+#ifdef SYS_getcpu
+    unsigned int cpu;
+    unsigned int node;
+    // Use the syscall directly so we not depend on a newer GLIBC version.
+    if (syscall(SYS_getcpu, &cpu, &node, NULL) == 0) {
+        return (jint) node;
+    }
+#endif // SYS_getcpu
+    return -1;
+}
+
+static jint netty_epoll_native_setCpuAffinity0(JNIEnv* env, jclass clazz, jint cpu) {
+    cpu_set_t set;
+    if (cpu < 0 || cpu >= CPU_SETSIZE) {
+        return -EINVAL;
+    }
+    CPU_ZERO(&set);
+    CPU_SET(cpu, &set);
+    // A pid of 0 means the calling thread.
+    if (sched_setaffinity(0, sizeof(set), &set) == -1) {
+        return -errno;
+    }
+    return 0;
+}
+
+static jintArray netty_epoll_native_cpuAffinity0(JNIEnv* env, jclass clazz) {
+    cpu_set_t set;
+    jint cpus[CPU_SETSIZE];
+    jint count = 0;
+    jintArray array = NULL;
+    int i;
+
+    CPU_ZERO(&set);
+    if (sched_getaffinity(0, sizeof(set), &set) == -1) {
+        return NULL;
+    }
+    for (i = 0; i < CPU_SETSIZE; i++) {
+        if (CPU_ISSET(i, &set)) {
+            cpus[count++] = i;
+        }
+    }
+    if ((array = (*env)->NewIntArray(env, count)) == NULL) {
+        // Out of memory, an OutOfMemoryError is pending.
+        return NULL;
+    }
+    (*env)->SetIntArrayRegion(env, array, 0, count, cpus);
+    return array;
+}
+
 static jint netty_epoll_native_registerUnix(JNIEnv* env, jclass clazz) {
     register_unix_called = 1;
     return netty_unix_register(env, staticPackagePrefix);
@@ -706,6 +757,9 @@ static const JNINativeMethod fixed_method_table[] = {
   { "offsetofEpollData", "()I", (void *) netty_epoll_native_offsetofEpollData },
   { "splice0", "(IJIJJ)I", (void *) netty_epoll_native_splice0 },
   { "isSupportingUdpSegment", "()Z", (void *) netty_epoll_native_isSupportingUdpSegment },
+  { "currentNumaNode", "()I", (void *) netty_epoll_native_currentNumaNode },
+  { "setCpuAffinity0", "(I)I", (void *) netty_epoll_native_setCpuAffinity0 },
+  { "cpuAffinity0", "()[I", (void *) netty_epoll_native_cpuAffinity0 },
   { "registerUnix", "()I", (void *) netty_epoll_native_registerUnix },
 
 };
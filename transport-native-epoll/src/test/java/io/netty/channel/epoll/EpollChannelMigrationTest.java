@@ -0,0 +1,215 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EpollChannelMigrationTest {
+
+    private EpollEventLoopGroup group;
+    private ServerSocket serverSocket;
+    private Socket peer;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        group = new EpollEventLoopGroup(2);
+        serverSocket = new ServerSocket();
+        // Keep the socket buffers small so writes stay pending while the peer does not read.
+        serverSocket.setReceiveBufferSize(4096);
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (peer != null) {
+            peer.close();
+        }
+        serverSocket.close();
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    private Channel connect(EventLoop loop, ChannelHandler handler) throws Exception {
+        Channel channel = new Bootstrap().group(loop).channel(EpollSocketChannel.class).handler(handler)
+                .option(ChannelOption.SO_SNDBUF, 4096)
+                .connect(serverSocket.getLocalSocketAddress()).sync().channel();
+        peer = serverSocket.accept();
+        // Fail instead of hanging if the writes are stuck.
+        peer.setSoTimeout(10000);
+        return channel;
+    }
+
+    @Test
+    public void testMigrateKeepsPendingWrites() throws Exception {
+        EventLoop oldLoop = group.next();
+        EventLoop newLoop = group.next();
+        final BlockingQueue<Object> reads = new LinkedBlockingQueue<Object>();
+        Channel channel = connect(oldLoop, new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                reads.add(ctx.channel().eventLoop().inEventLoop());
+                ((ByteBuf) msg).release();
+            }
+        });
+
+        byte[] data = newData();
+        ChannelFuture writeFuture = channel.writeAndFlush(Unpooled.wrappedBuffer(data));
+        assertTrue(((AbstractChannel) channel).migrate(newLoop).sync().isSuccess());
+        assertSame(newLoop, channel.eventLoop());
+        assertFalse(writeFuture.isDone());
+
+        readFully(data);
+        assertTrue(writeFuture.sync().isSuccess());
+
+        OutputStream out = peer.getOutputStream();
+        out.write(new byte[] { 1, 2, 3 });
+        out.flush();
+        assertEquals(Boolean.TRUE, reads.poll(10, TimeUnit.SECONDS));
+        channel.close().sync();
+    }
+
+    @Test
+    public void testWriteFromNewLoopWhileMigrating() throws Exception {
+        EventLoop oldLoop = group.next();
+        EventLoop newLoop = group.next();
+        final Channel channel = connect(oldLoop, new ChannelInboundHandlerAdapter());
+        final byte[] data = newData();
+
+        final AtomicReference<ChannelFuture> writeFuture = new AtomicReference<ChannelFuture>();
+        ChannelFuture migrateFuture = migrateWhileBlocked(channel, newLoop, new Runnable() {
+            @Override
+            public void run() {
+                // Executed inline as the Channel belongs to this EventLoop already, but its fd is not yet part of
+                // the epoll instance, so EPOLLOUT must not be modified yet.
+                writeFuture.set(channel.writeAndFlush(Unpooled.wrappedBuffer(data)));
+            }
+        });
+        assertTrue(migrateFuture.sync().isSuccess());
+
+        readFully(data);
+        assertTrue(writeFuture.get().sync().isSuccess());
+        assertTrue(channel.isActive());
+        channel.close().sync();
+    }
+
+    @Test
+    public void testReadFromNewLoopWhileMigrating() throws Exception {
+        EventLoop oldLoop = group.next();
+        EventLoop newLoop = group.next();
+        final BlockingQueue<Object> reads = new LinkedBlockingQueue<Object>();
+        final Channel channel = connect(oldLoop, new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                reads.add(ctx.channel().eventLoop().inEventLoop());
+                ((ByteBuf) msg).release();
+            }
+        });
+        channel.config().setAutoRead(false);
+
+        ChannelFuture migrateFuture = migrateWhileBlocked(channel, newLoop, new Runnable() {
+            @Override
+            public void run() {
+                channel.read();
+            }
+        });
+        assertTrue(migrateFuture.sync().isSuccess());
+
+        OutputStream out = peer.getOutputStream();
+        out.write(new byte[] { 1, 2, 3 });
+        out.flush();
+        assertEquals(Boolean.TRUE, reads.poll(10, TimeUnit.SECONDS));
+        channel.close().sync();
+    }
+
+    /**
+     * Migrates the {@link Channel} while the new {@link EventLoop} is blocked, and runs the given task on it once the
+     * {@link Channel} belongs to it but before it is registered with it.
+     */
+    private static ChannelFuture migrateWhileBlocked(Channel channel, EventLoop newLoop, final Runnable task)
+            throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        newLoop.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                task.run();
+            }
+        });
+        ChannelFuture migrateFuture = ((AbstractChannel) channel).migrate(newLoop);
+        while (channel.eventLoop() != newLoop) {
+            Thread.sleep(1);
+        }
+        latch.countDown();
+        return migrateFuture;
+    }
+
+    private static byte[] newData() {
+        byte[] data = new byte[1024 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 251);
+        }
+        return data;
+    }
+
+    private void readFully(byte[] expected) throws Exception {
+        InputStream in = peer.getInputStream();
+        byte[] received = new byte[expected.length];
+        int read = 0;
+        while (read < received.length) {
+            int n = in.read(received, read, received.length - read);
+            assertTrue(n > 0);
+            read += n;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] != received[i]) {
+                assertEquals(expected[i], received[i], "byte " + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EpollCpuAffinityThreadFactoryTest {
+
+    @Test
+    public void testOneThreadPerCpu() throws Exception {
+        EpollCpuAffinityThreadFactory threadFactory =
+                new EpollCpuAffinityThreadFactory(EpollCpuAffinityThreadFactoryTest.class);
+        int[] cpus = threadFactory.cpus();
+        assertTrue(cpus.length >= 1);
+        assertEquals(cpus.length, threadFactory.numCpus());
+
+        EpollEventLoopGroup group = new EpollEventLoopGroup(threadFactory);
+        try {
+            assertEquals(cpus.length, group.executorCount());
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test
+    public void testPinnedThread() throws Exception {
+        int[] allowed = new EpollCpuAffinityThreadFactory("test").cpus();
+        final int cpu = allowed[allowed.length - 1];
+        EpollCpuAffinityThreadFactory threadFactory = new EpollCpuAffinityThreadFactory("test", cpu);
+        assertArrayEquals(new int[] { cpu }, threadFactory.cpus());
+
+        final AtomicInteger threadCpu = new AtomicInteger(-2);
+        final AtomicReference<Object> affinity = new AtomicReference<Object>();
+        Thread thread = threadFactory.newThread(new Runnable() {
+            @Override
+            public void run() {
+                threadCpu.set(((FastThreadLocalThread) Thread.currentThread()).cpu());
+                try {
+                    affinity.set(Native.cpuAffinity());
+                } catch (Exception e) {
+                    affinity.set(e);
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+        assertEquals(cpu, threadCpu.get());
+        // The thread may only run on the pinned CPU.
+        assertArrayEquals(new int[] { cpu }, (int[]) affinity.get());
+    }
+
+    @Test
+    public void testEventLoopThread() throws Exception {
+        int[] allowed = new EpollCpuAffinityThreadFactory("test").cpus();
+        EpollEventLoopGroup group = new EpollEventLoopGroup(1, new EpollCpuAffinityThreadFactory("test", allowed[0]));
+        try {
+            EventLoop loop = group.next();
+            int cpu = loop.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return ((FastThreadLocalThread) Thread.currentThread()).cpu();
+                }
+            }).get();
+            assertEquals(allowed[0], cpu);
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test
+    public void testInvalidCpu() {
+        assertThrows(IllegalArgumentException.class, new Executable() {
+            @Override
+            public void execute() {
+                new EpollCpuAffinityThreadFactory("test", 0, -1);
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EpollNumaNodeLocatorTest {
+
+    @Test
+    public void testParseNumNodes() {
+        assertEquals(1, EpollNumaNodeLocator.parseNumNodes("0"));
+        assertEquals(2, EpollNumaNodeLocator.parseNumNodes("0-1\n"));
+        assertEquals(4, EpollNumaNodeLocator.parseNumNodes("0,2-3"));
+    }
+
+    @Test
+    public void testCurrentNode() {
+        EpollNumaNodeLocator locator = new EpollNumaNodeLocator();
+        assertTrue(locator.numNodes() >= 1);
+        int node = locator.currentNode();
+        assertTrue(node >= -1 && node < locator.numNodes());
+    }
+}
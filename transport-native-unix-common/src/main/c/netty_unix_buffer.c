@@ -13,6 +13,10 @@
  * License for the specific language governing permissions and limitations
  * under the License.
  */
+#include <errno.h>
+#include <stdint.h>
+#include <sys/mman.h>
+#include <unistd.h>
 #include "netty_unix_jni.h"
 #include "netty_unix_util.h"
 #include "netty_unix_buffer.h"
@@ -29,12 +33,39 @@ static jint netty_unix_buffer_addressSize0(JNIEnv* env, jclass clazz) {
    return (jint) sizeof(int*);
 }
 
+static jint netty_unix_buffer_madviseHugePages0(JNIEnv* env, jclass clazz, jlong address, jlong length) {
+#ifdef MADV_HUGEPAGE
+    if (madvise((void*) (intptr_t) address, (size_t) length, MADV_HUGEPAGE) == 0) {
+        return 0;
+    }
+    return -errno;
+#else
+    return -ENOSYS;
+#endif /* MADV_HUGEPAGE */
+}
+
+static jlong netty_unix_buffer_madviseDontNeed0(JNIEnv* env, jclass clazz, jlong address, jlong length) {
+    // madvise(...) only works on whole pages, so only release the pages that are fully contained in the region.
+    uintptr_t pageMask = (uintptr_t) sysconf(_SC_PAGESIZE) - 1;
+    uintptr_t start = ((uintptr_t) address + pageMask) & ~pageMask;
+    uintptr_t end = ((uintptr_t) address + (uintptr_t) length) & ~pageMask;
+    if (end <= start) {
+        return 0;
+    }
+    if (madvise((void*) start, (size_t) (end - start), MADV_DONTNEED) == 0) {
+        return (jlong) (end - start);
+    }
+    return -errno;
+}
+
 // JNI Registered Methods End
 
 // JNI Method Registration Table Begin
 static const JNINativeMethod statically_referenced_fixed_method_table[] = {
   { "memoryAddress0", "(Ljava/nio/ByteBuffer;)J", (void *) netty_unix_buffer_memoryAddress0 },
-  { "addressSize0", "()I", (void *) netty_unix_buffer_addressSize0 }
+  { "addressSize0", "()I", (void *) netty_unix_buffer_addressSize0 },
+  { "madviseHugePages0", "(JJ)I", (void *) netty_unix_buffer_madviseHugePages0 },
+  { "madviseDontNeed0", "(JJ)J", (void *) netty_unix_buffer_madviseDontNeed0 }
 };
 static const jint statically_referenced_fixed_method_table_size = sizeof(statically_referenced_fixed_method_table) / sizeof(statically_referenced_fixed_method_table[0]);
 // JNI Method Registration Table End
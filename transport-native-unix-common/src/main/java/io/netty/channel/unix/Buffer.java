@@ -65,4 +65,10 @@ public final class Buffer {
     // If Unsafe can not be used we will need to do JNI calls.
     private static native int addressSize0();
     private static native long memoryAddress0(ByteBuffer buffer);
+
+    // Returns 0 on success and -errno on failure.
+    static native int madviseHugePages0(long address, long length);
+
+    // Returns the number of bytes released on success and -errno on failure.
+    static native long madviseDontNeed0(long address, long length);
 }
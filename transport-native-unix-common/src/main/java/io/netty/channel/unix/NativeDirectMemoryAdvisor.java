@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.unix;
+
+import io.netty.buffer.AdaptiveByteBufAllocator;
+import io.netty.buffer.DirectMemoryAdvisor;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.CharsetUtil;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * {@link DirectMemoryAdvisor} which uses {@code madvise(2)} to back the chunks of a {@link PooledByteBufAllocator} or
+ * {@link AdaptiveByteBufAllocator} with transparent huge pages, and to return the free memory of idle chunks to the
+ * operating system.
+ * <p>
+ * The native library of a transport (epoll or kqueue) must be loaded, otherwise no advice is given at all. Huge pages
+ * are also not used if transparent huge pages are not supported or disabled on the system.
+ */
+@UnstableApi
+public final class NativeDirectMemoryAdvisor implements DirectMemoryAdvisor {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(NativeDirectMemoryAdvisor.class);
+    private static final String THP_DIR = "/sys/kernel/mm/transparent_hugepage";
+    private static final int DEFAULT_HUGE_PAGE_SIZE = 2 * 1024 * 1024;
+
+    private final int hugePageSize;
+    private volatile boolean nativeAvailable = true;
+
+    public NativeDirectMemoryAdvisor() {
+        hugePageSize = readHugePageSize(new File(THP_DIR));
+    }
+
+    @Override
+    public int hugePageSize() {
+        return hugePageSize;
+    }
+
+    @Override
+    public boolean adviseHugePages(long address, long length) {
+        if (hugePageSize == 0 || !nativeAvailable) {
+            return false;
+        }
+        try {
+            int res = Buffer.madviseHugePages0(address, length);
+            if (res < 0) {
+                logger.debug("madvise(MADV_HUGEPAGE) failed with errno {}", -res);
+                return false;
+            }
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            nativeAvailable = false;
+            logger.debug("Native library not loaded, will not back chunks with huge pages", e);
+            return false;
+        }
+    }
+
+    @Override
+    public long adviseDontNeed(long address, long length) {
+        if (!nativeAvailable) {
+            return 0;
+        }
+        try {
+            long res = Buffer.madviseDontNeed0(address, length);
+            if (res < 0) {
+                logger.debug("madvise(MADV_DONTNEED) failed with errno {}", -res);
+                return 0;
+            }
+            return res;
+        } catch (UnsatisfiedLinkError e) {
+            nativeAvailable = false;
+            logger.debug("Native library not loaded, will not release free memory of chunks", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the size of a transparent huge page or {@code 0} if these are not supported or disabled.
+     */
+    static int readHugePageSize(File thpDir) {
+        String enabled = readFirstLine(new File(thpDir, "enabled"));
+        if (enabled == null || enabled.contains("[never]")) {
+            return 0;
+        }
+        String size = readFirstLine(new File(thpDir, "hpage_pmd_size"));
+        if (size == null) {
+            return DEFAULT_HUGE_PAGE_SIZE;
+        }
+        try {
+            return Integer.parseInt(size.trim());
+        } catch (NumberFormatException e) {
+            logger.debug("Failed to parse huge page size: {}", size, e);
+            return 0;
+        }
+    }
+
+    private static String readFirstLine(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), CharsetUtil.US_ASCII));
+            return reader.readLine();
+        } catch (Exception e) {
+            logger.debug("Failed to read {}", file, e);
+            return null;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+        }
+    }
+}
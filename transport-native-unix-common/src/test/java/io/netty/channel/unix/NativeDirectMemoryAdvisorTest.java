@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.unix;
+
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class NativeDirectMemoryAdvisorTest {
+
+    @Test
+    public void testReadHugePageSize(@TempDir File dir) throws IOException {
+        assertEquals(0, NativeDirectMemoryAdvisor.readHugePageSize(dir));
+
+        write(new File(dir, "enabled"), "always madvise [never]\n");
+        write(new File(dir, "hpage_pmd_size"), "2097152\n");
+        assertEquals(0, NativeDirectMemoryAdvisor.readHugePageSize(dir));
+
+        write(new File(dir, "enabled"), "always [madvise] never\n");
+        assertEquals(2097152, NativeDirectMemoryAdvisor.readHugePageSize(dir));
+    }
+
+    @Test
+    public void testAdviseWithoutNativeLibrary() {
+        // The native library is not loaded by this module, so this must silently fail.
+        NativeDirectMemoryAdvisor advisor = new NativeDirectMemoryAdvisor();
+        assertFalse(advisor.adviseHugePages(0, 0));
+        assertEquals(0, advisor.adviseDontNeed(0, 4096));
+    }
+
+    private static void write(File file, String content) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes(CharsetUtil.US_ASCII));
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -22,6 +22,7 @@ import io.netty.util.DefaultAttributeMap;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.internal.ObjectUtil;
 import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
@@ -33,8 +34,11 @@ import java.net.SocketAddress;
 import java.net.SocketException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NotYetConnectedException;
+import java.util.ArrayDeque;
+import java.util.Queue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * A skeletal {@link Channel} implementation.
@@ -43,6 +47,9 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
 
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(AbstractChannel.class);
 
+    private static final AtomicIntegerFieldUpdater<AbstractChannel> SUBMITTING_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractChannel.class, "submitting");
+
     private final Channel parent;
     private final ChannelId id;
     private final Unsafe unsafe;
@@ -54,6 +61,12 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
     private volatile SocketAddress remoteAddress;
     private volatile EventLoop eventLoop;
     private volatile boolean registered;
+    private volatile boolean migrating;
+    // Non-null while the tasks that were submitted to the old EventLoop are handed off after a migration.
+    private volatile Handoff handoff;
+    // The number of threads that are about to submit a pipeline task, see beginSubmit().
+    @SuppressWarnings("unused")
+    private volatile int submitting;
     private boolean closeInitiated;
     private Throwable initialCloseCause;
 
@@ -218,6 +231,287 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         return registered;
     }
 
+    /**
+     * Move this registered and active {@link Channel} to the given {@link EventLoop} without closing it. The
+     * {@link ChannelPipeline}, its handlers and all pending writes in the {@link ChannelOutboundBuffer} are kept, and
+     * neither {@code channelUnregistered} nor {@code channelRegistered} is fired.
+     * <p>
+     * The migration is executed as a task on the current {@link EventLoop}, so everything that was submitted to it
+     * before is processed first. Pipeline operations that are still queued on the old {@link EventLoop} afterwards are
+     * forwarded to the new one, and the operations that are submitted to the new {@link EventLoop} directly are held
+     * back until all of them were forwarded, so the operations submitted by one thread keep their order. Handlers that
+     * run on the new {@link EventLoop} itself may still overtake the forwarded operations. Until the {@link Channel} is
+     * registered with the new {@link EventLoop}, flushes and reads are held back and resumed once the registration
+     * completes.
+     * <p>
+     * Tasks which were scheduled on the old {@link EventLoop} (for example timers that were scheduled via
+     * {@code ctx.executor().schedule(...)}) still fire on the old {@link EventLoop}. The timeouts of Netty's own
+     * handlers forward themselves to the new {@link EventLoop}, custom handlers must check
+     * {@link EventLoop#inEventLoop()} in such tasks and do the same.
+     * <p>
+     * If the {@link Channel} could not be registered with the new {@link EventLoop} it is closed.
+     *
+     * @throws UnsupportedOperationException if this transport does not support migration.
+     */
+    @UnstableApi
+    public ChannelFuture migrate(final EventLoop eventLoop) {
+        ObjectUtil.checkNotNull(eventLoop, "eventLoop");
+        if (!isMigrationSupported()) {
+            throw new UnsupportedOperationException("migration not supported by " + getClass().getName());
+        }
+        final ChannelPromise promise = newPromise();
+        if (!isCompatible(eventLoop)) {
+            return promise.setFailure(
+                    new IllegalStateException("incompatible event loop type: " + eventLoop.getClass().getName()));
+        }
+        if (!registered) {
+            return promise.setFailure(new IllegalStateException("channel not registered to an event loop"));
+        }
+        try {
+            this.eventLoop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    migrate0(eventLoop, promise);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            promise.setFailure(e);
+        }
+        return promise;
+    }
+
+    private void migrate0(final EventLoop newLoop, final ChannelPromise promise) {
+        if (handoff != null) {
+            // The previous migration still hands off its tasks, try again once it is done.
+            try {
+                eventLoop.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        migrate0(newLoop, promise);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                promise.setFailure(e);
+            }
+            return;
+        }
+        if (!promise.setUncancellable()) {
+            return;
+        }
+        if (!isOpen() || !registered) {
+            promise.setFailure(new ClosedChannelException());
+            return;
+        }
+        if (!isActive()) {
+            promise.setFailure(new IllegalStateException("channel not active"));
+            return;
+        }
+        final EventLoop oldLoop = eventLoop;
+        if (oldLoop == newLoop) {
+            promise.setSuccess();
+            return;
+        }
+        // Hold back I/O until the Channel is registered again, see AbstractUnsafe.beginRead() and flush0().
+        migrating = true;
+        try {
+            doDeregisterForMigration();
+        } catch (Throwable t) {
+            migrating = false;
+            promise.setFailure(t);
+            unsafe.close(unsafe.voidPromise());
+            return;
+        }
+        // Must be visible to every task that is submitted to the new EventLoop, so set it first.
+        handoff = new Handoff(oldLoop, newLoop);
+        eventLoop = newLoop;
+        try {
+            newLoop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    migrated0(promise);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The new EventLoop is shutting down, stay on the old one.
+            eventLoop = oldLoop;
+            handoff = null;
+            migrated0(voidPromise());
+            promise.setFailure(e);
+            return;
+        }
+        // Queued behind the tasks that were submitted to the old EventLoop so far.
+        handoff.drainOldLoop();
+    }
+
+    /**
+     * Must be called before a thread that is not the {@link EventLoop} of this {@link Channel} looks it up to submit a
+     * pipeline task to it, and {@link #endSubmit()} once the task was submitted. This allows a migration to wait for
+     * the tasks that are about to be submitted to the old {@link EventLoop}.
+     */
+    final void beginSubmit() {
+        SUBMITTING_UPDATER.incrementAndGet(this);
+    }
+
+    final void endSubmit() {
+        SUBMITTING_UPDATER.decrementAndGet(this);
+    }
+
+    /**
+     * Returns the given pipeline task, which was submitted to the old {@link EventLoop} before a migration, wrapped so
+     * it runs ahead of the tasks that are held back on the new {@link EventLoop}. Must be called from the old
+     * {@link EventLoop}.
+     */
+    final Runnable forwardedTask(Runnable task) {
+        Handoff handoff = this.handoff;
+        return handoff == null ? task : handoff.forwarded(task);
+    }
+
+    /**
+     * Holds back the given pipeline task and returns {@code true} if tasks that were submitted to the old
+     * {@link EventLoop} are still forwarded after a migration. Must be called from the {@link EventLoop} of this
+     * {@link Channel}.
+     */
+    final boolean deferIfHandingOff(Runnable task) {
+        Handoff handoff = this.handoff;
+        return handoff != null && handoff.defer(task);
+    }
+
+    /**
+     * Hands off the pipeline tasks that are still submitted to the old {@link EventLoop} after a migration. They are
+     * forwarded to the new {@link EventLoop} in the order they were submitted, and run there right away. Tasks that are
+     * submitted to the new {@link EventLoop} directly are held back until the old {@link EventLoop} will not see any
+     * more tasks, as otherwise they could overtake tasks that were submitted before them by the same thread.
+     */
+    private final class Handoff implements Runnable {
+        private final EventLoop oldLoop;
+        private final EventLoop newLoop;
+        // Only accessed from the new EventLoop.
+        private final Queue<Runnable> deferred = new ArrayDeque<Runnable>();
+        private boolean replaying;
+        // Only accessed from the old EventLoop.
+        private boolean quiesced;
+
+        Handoff(EventLoop oldLoop, EventLoop newLoop) {
+            this.oldLoop = oldLoop;
+            this.newLoop = newLoop;
+        }
+
+        void drainOldLoop() {
+            try {
+                oldLoop.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Nothing will run on the old EventLoop anymore.
+                end();
+            }
+        }
+
+        // Runs on the old EventLoop, after all tasks that were submitted to it before.
+        @Override
+        public void run() {
+            if (submitting != 0) {
+                // A thread may be about to submit a task to the old EventLoop, queue up behind it. Threads that start
+                // to submit from now on see the new EventLoop.
+                drainOldLoop();
+            } else if (!quiesced) {
+                // All tasks were submitted to the old EventLoop, but some may have been queued up behind this one.
+                quiesced = true;
+                drainOldLoop();
+            } else {
+                end();
+            }
+        }
+
+        private void end() {
+            try {
+                newLoop.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        replay();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // The Channel cannot be served anymore, the held back tasks are dropped.
+                handoff = null;
+            }
+        }
+
+        // Runs on the new EventLoop, after all tasks that were forwarded.
+        private void replay() {
+            replaying = true;
+            try {
+                for (;;) {
+                    Runnable task = deferred.poll();
+                    if (task == null) {
+                        break;
+                    }
+                    safeRun(task);
+                }
+            } finally {
+                replaying = false;
+                handoff = null;
+            }
+        }
+
+        boolean defer(Runnable task) {
+            if (replaying) {
+                return false;
+            }
+            deferred.add(task);
+            return true;
+        }
+
+        Runnable forwarded(final Runnable task) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    boolean wasReplaying = replaying;
+                    replaying = true;
+                    try {
+                        task.run();
+                    } finally {
+                        replaying = wasReplaying;
+                    }
+                }
+            };
+        }
+
+        private void safeRun(Runnable task) {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.warn("A task raised an exception. Task: {}", task, t);
+            }
+        }
+    }
+
+    private void migrated0(ChannelPromise promise) {
+        if (!isOpen()) {
+            migrating = false;
+            promise.setFailure(new ClosedChannelException());
+            return;
+        }
+        try {
+            doRegisterAfterMigration();
+        } catch (Throwable t) {
+            migrating = false;
+            promise.setFailure(t);
+            unsafe.close(unsafe.voidPromise());
+            return;
+        }
+        migrating = false;
+        ((AbstractUnsafe) unsafe).resumeAfterMigration();
+        promise.trySuccess();
+    }
+
+    /**
+     * Returns {@code true} while this {@link Channel} is moved to another {@link EventLoop} via
+     * {@link #migrate(EventLoop)} and is not registered with any of them.
+     */
+    @UnstableApi
+    protected final boolean isMigrating() {
+        return migrating;
+    }
+
     @Override
     public ChannelFuture bind(SocketAddress localAddress) {
         return pipeline.bind(localAddress);
@@ -430,6 +724,7 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         private volatile ChannelOutboundBuffer outboundBuffer = new ChannelOutboundBuffer(AbstractChannel.this);
         private RecvByteBufAllocator.Handle recvHandle;
         private boolean inFlush0;
+        private boolean beginReadAfterMigration;
         /** true if the channel has never been registered, false otherwise */
         private boolean neverRegistered = true;
 
@@ -828,6 +1123,12 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         public final void beginRead() {
             assertEventLoop();
 
+            if (migrating) {
+                // The Channel is not registered with any EventLoop right now, see resumeAfterMigration().
+                beginReadAfterMigration = true;
+                return;
+            }
+
             try {
                 doBeginRead();
             } catch (final Exception e) {
@@ -900,6 +1201,11 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
                 return;
             }
 
+            if (migrating) {
+                // The Channel is not registered with any EventLoop right now, see resumeAfterMigration().
+                return;
+            }
+
             final ChannelOutboundBuffer outboundBuffer = this.outboundBuffer;
             if (outboundBuffer == null || outboundBuffer.isEmpty()) {
                 return;
@@ -934,6 +1240,18 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
             }
         }
 
+        /**
+         * Resume the reads and flushes that were held back while the {@link Channel} was migrated to another
+         * {@link EventLoop}.
+         */
+        private void resumeAfterMigration() {
+            if (beginReadAfterMigration) {
+                beginReadAfterMigration = false;
+                beginRead();
+            }
+            flush0();
+        }
+
         protected final void handleWriteError(Throwable t) {
             if (t instanceof IOException && config().isAutoClose()) {
                 /**
@@ -1077,6 +1395,37 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         // NOOP
     }
 
+    /**
+     * Return {@code true} if this {@link Channel} can be moved to another {@link EventLoop} via
+     * {@link #migrate(EventLoop)}.
+     */
+    @UnstableApi
+    protected boolean isMigrationSupported() {
+        return false;
+    }
+
+    /**
+     * Is called on the old {@link EventLoop} when the {@link Channel} is moved to another {@link EventLoop} via
+     * {@link #migrate(EventLoop)}. Any state that is needed to resume I/O on the new {@link EventLoop} must be kept.
+     *
+     * Sub-classes may override this method
+     */
+    @UnstableApi
+    protected void doDeregisterForMigration() throws Exception {
+        doDeregister();
+    }
+
+    /**
+     * Is called on the new {@link EventLoop} when the {@link Channel} was moved to it via
+     * {@link #migrate(EventLoop)}.
+     *
+     * Sub-classes may override this method
+     */
+    @UnstableApi
+    protected void doRegisterAfterMigration() throws Exception {
+        doRegister();
+    }
+
     /**
      * Bind the {@link Channel} to the {@link SocketAddress}
      */
@@ -16,6 +16,7 @@
 package io.netty.channel;
 
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.util.Attribute;
 import io.netty.util.AttributeKey;
 import io.netty.util.ReferenceCountUtil;
@@ -26,6 +27,7 @@ import io.netty.util.concurrent.OrderedEventExecutor;
 import io.netty.util.internal.ObjectPool;
 import io.netty.util.internal.ObjectPool.Handle;
 import io.netty.util.internal.ObjectPool.ObjectCreator;
+import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.PromiseNotificationUtil;
 import io.netty.util.internal.ThrowableUtil;
 import io.netty.util.internal.ObjectUtil;
@@ -151,9 +153,12 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeChannelRegistered();
         } else {
-            executor.execute(new Runnable() {
+            execute(next, new Runnable() {
                 @Override
                 public void run() {
+                    if (forwardIfMigrated(next, this, null)) {
+                        return;
+                    }
                     next.invokeChannelRegistered();
                 }
             });
@@ -194,9 +199,12 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeChannelUnregistered();
         } else {
-            executor.execute(new Runnable() {
+            execute(next, new Runnable() {
                 @Override
                 public void run() {
+                    if (forwardIfMigrated(next, this, null)) {
+                        return;
+                    }
                     next.invokeChannelUnregistered();
                 }
             });
@@ -237,9 +245,12 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeChannelActive();
         } else {
-            executor.execute(new Runnable() {
+            execute(next, new Runnable() {
                 @Override
                 public void run() {
+                    if (forwardIfMigrated(next, this, null)) {
+                        return;
+                    }
                     next.invokeChannelActive();
                 }
             });
@@ -280,9 +291,12 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeChannelInactive();
         } else {
-            executor.execute(new Runnable() {
+            execute(next, new Runnable() {
                 @Override
                 public void run() {
+                    if (forwardIfMigrated(next, this, null)) {
+                        return;
+                    }
                     next.invokeChannelInactive();
                 }
             });
@@ -325,9 +339,12 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             next.invokeExceptionCaught(cause);
         } else {
             try {
-                executor.execute(new Runnable() {
+                execute(next, new Runnable() {
                     @Override
                     public void run() {
+                        if (forwardIfMigrated(next, this, null)) {
+                            return;
+                        }
                         next.invokeExceptionCaught(cause);
                     }
                 });
@@ -375,9 +392,13 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeUserEventTriggered(event);
         } else {
-            executor.execute(new Runnable() {
+            ByteBufUtil.shareRefCnt(event);
+            execute(next, new Runnable() {
                 @Override
                 public void run() {
+                    if (forwardIfMigrated(next, this, null)) {
+                        return;
+                    }
                     next.invokeUserEventTriggered(event);
                 }
             });
@@ -386,6 +407,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
 
     private void invokeUserEventTriggered(Object event) {
         if (invokeHandler()) {
+            final HandlerInvocationEvent jfrEvent = startInvocationEvent();
             try {
                 // DON'T CHANGE
                 // Duplex handlers implements both out/in interfaces causing a scalability issue
@@ -402,6 +424,9 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             } catch (Throwable t) {
                 invokeExceptionCaught(t);
             }
+            if (jfrEvent != null) {
+                jfrEvent.finish(this, "userEventTriggered");
+            }
         } else {
             fireUserEventTriggered(event);
         }
@@ -419,9 +444,13 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeChannelRead(m);
         } else {
-            executor.execute(new Runnable() {
+            ByteBufUtil.shareRefCnt(m);
+            execute(next, new Runnable() {
                 @Override
                 public void run() {
+                    if (forwardIfMigrated(next, this, null)) {
+                        return;
+                    }
                     next.invokeChannelRead(m);
                 }
             });
@@ -430,6 +459,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
 
     private void invokeChannelRead(Object msg) {
         if (invokeHandler()) {
+            final HandlerInvocationEvent jfrEvent = startInvocationEvent();
             try {
                 // DON'T CHANGE
                 // Duplex handlers implements both out/in interfaces causing a scalability issue
@@ -446,6 +476,9 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             } catch (Throwable t) {
                 invokeExceptionCaught(t);
             }
+            if (jfrEvent != null) {
+                jfrEvent.finish(this, "channelRead");
+            }
         } else {
             fireChannelRead(msg);
         }
@@ -466,12 +499,13 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             if (tasks == null) {
                 next.invokeTasks = tasks = new Tasks(next);
             }
-            executor.execute(tasks.invokeChannelReadCompleteTask);
+            execute(next, tasks.invokeChannelReadCompleteTask);
         }
     }
 
     private void invokeChannelReadComplete() {
         if (invokeHandler()) {
+            final HandlerInvocationEvent jfrEvent = startInvocationEvent();
             try {
                 // DON'T CHANGE
                 // Duplex handlers implements both out/in interfaces causing a scalability issue
@@ -488,6 +522,9 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             } catch (Throwable t) {
                 invokeExceptionCaught(t);
             }
+            if (jfrEvent != null) {
+                jfrEvent.finish(this, "channelReadComplete");
+            }
         } else {
             fireChannelReadComplete();
         }
@@ -508,7 +545,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             if (tasks == null) {
                 next.invokeTasks = tasks = new Tasks(next);
             }
-            executor.execute(tasks.invokeChannelWritableStateChangedTask);
+            execute(next, tasks.invokeChannelWritableStateChangedTask);
         }
     }
 
@@ -578,9 +615,12 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeBind(localAddress, promise);
         } else {
-            safeExecute(executor, new Runnable() {
+            safeExecute(next, new Runnable() {
                 @Override
                 public void run() {
+                    if (forwardIfMigrated(next, this, promise)) {
+                        return;
+                    }
                     next.invokeBind(localAddress, promise);
                 }
             }, promise, null, false);
@@ -633,9 +673,12 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeConnect(remoteAddress, localAddress, promise);
         } else {
-            safeExecute(executor, new Runnable() {
+            safeExecute(next, new Runnable() {
                 @Override
                 public void run() {
+                    if (forwardIfMigrated(next, this, promise)) {
+                        return;
+                    }
                     next.invokeConnect(remoteAddress, localAddress, promise);
                 }
             }, promise, null, false);
@@ -685,9 +728,12 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeDisconnect(promise);
         } else {
-            safeExecute(executor, new Runnable() {
+            safeExecute(next, new Runnable() {
                 @Override
                 public void run() {
+                    if (forwardIfMigrated(next, this, promise)) {
+                        return;
+                    }
                     next.invokeDisconnect(promise);
                 }
             }, promise, null, false);
@@ -732,9 +778,12 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeClose(promise);
         } else {
-            safeExecute(executor, new Runnable() {
+            safeExecute(next, new Runnable() {
                 @Override
                 public void run() {
+                    if (forwardIfMigrated(next, this, promise)) {
+                        return;
+                    }
                     next.invokeClose(promise);
                 }
             }, promise, null, false);
@@ -780,9 +829,12 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeDeregister(promise);
         } else {
-            safeExecute(executor, new Runnable() {
+            safeExecute(next, new Runnable() {
                 @Override
                 public void run() {
+                    if (forwardIfMigrated(next, this, promise)) {
+                        return;
+                    }
                     next.invokeDeregister(promise);
                 }
             }, promise, null, false);
@@ -827,7 +879,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             if (tasks == null) {
                 next.invokeTasks = tasks = new Tasks(next);
             }
-            executor.execute(tasks.invokeReadTask);
+            execute(next, tasks.invokeReadTask);
         }
 
         return this;
@@ -879,6 +931,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
     }
 
     private void invokeWrite0(Object msg, ChannelPromise promise) {
+        final HandlerInvocationEvent jfrEvent = startInvocationEvent();
         try {
             // DON'T CHANGE
             // Duplex handlers implements both out/in interfaces causing a scalability issue
@@ -897,6 +950,9 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         } catch (Throwable t) {
             notifyOutboundHandlerException(t, promise);
         }
+        if (jfrEvent != null) {
+            jfrEvent.finish(this, "write");
+        }
     }
 
     @Override
@@ -910,7 +966,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             if (tasks == null) {
                 next.invokeTasks = tasks = new Tasks(next);
             }
-            safeExecute(executor, tasks.invokeFlushTask, channel().voidPromise(), null, false);
+            safeExecute(next, tasks.invokeFlushTask, channel().voidPromise(), null, false);
         }
 
         return this;
@@ -925,6 +981,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
     }
 
     private void invokeFlush0() {
+        final HandlerInvocationEvent jfrEvent = startInvocationEvent();
         try {
             // DON'T CHANGE
             // Duplex handlers implements both out/in interfaces causing a scalability issue
@@ -943,6 +1000,9 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         } catch (Throwable t) {
             invokeExceptionCaught(t);
         }
+        if (jfrEvent != null) {
+            jfrEvent.finish(this, "flush");
+        }
     }
 
     @Override
@@ -984,8 +1044,9 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
                 next.invokeWrite(m, promise);
             }
         } else {
+            ByteBufUtil.shareRefCnt(m);
             final WriteTask task = WriteTask.newInstance(next, m, promise, flush);
-            if (!safeExecute(executor, task, promise, m, !flush)) {
+            if (!safeExecute(next, task, promise, m, !flush)) {
                 // We failed to submit the WriteTask. We need to cancel it so we decrement the pending bytes
                 // and put it back in the Recycler for re-use later.
                 //
@@ -1143,6 +1204,11 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         }
     }
 
+    private static HandlerInvocationEvent startInvocationEvent() {
+        // The event class must only be loaded if JFR is enabled.
+        return PlatformDependent.isJfrEnabled() ? HandlerInvocationEvent.start() : null;
+    }
+
     /**
      * Makes best possible effort to detect if {@link ChannelHandler#handlerAdded(ChannelHandlerContext)} was called
      * yet. If not return {@code false} and if called or could not detect return {@code true}.
@@ -1172,6 +1238,70 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         return channel().hasAttr(key);
     }
 
+    /**
+     * Submits the given task to the {@link EventExecutor} of {@code next} from a thread that does not run it.
+     */
+    private static void execute(AbstractChannelHandlerContext next, Runnable task) {
+        AbstractChannel channel = migratableChannel(next);
+        if (channel == null) {
+            next.executor().execute(task);
+            return;
+        }
+        channel.beginSubmit();
+        try {
+            // Look up the EventLoop after beginSubmit(), so a migration waits for the task if it sees the old one.
+            channel.eventLoop().execute(task);
+        } finally {
+            channel.endSubmit();
+        }
+    }
+
+    private static boolean safeExecute(AbstractChannelHandlerContext next, Runnable task,
+                                       ChannelPromise promise, Object msg, boolean lazy) {
+        AbstractChannel channel = migratableChannel(next);
+        if (channel == null) {
+            return safeExecute(next.executor(), task, promise, msg, lazy);
+        }
+        channel.beginSubmit();
+        try {
+            return safeExecute(channel.eventLoop(), task, promise, msg, lazy);
+        } finally {
+            channel.endSubmit();
+        }
+    }
+
+    private static AbstractChannel migratableChannel(AbstractChannelHandlerContext ctx) {
+        // Handlers with their own executor are not affected by a migration.
+        Channel channel = ctx.channel();
+        return ctx.executor == null && channel instanceof AbstractChannel ? (AbstractChannel) channel : null;
+    }
+
+    /**
+     * Forwards the given task to the {@link EventLoop} of the {@link Channel} and returns {@code true} if the handler
+     * of {@code ctx} runs on it but the task does not, which happens if the {@link Channel} was migrated to another
+     * {@link EventLoop} after the task was submitted. Also returns {@code true} if the task was submitted to the new
+     * {@link EventLoop} directly and is held back until the tasks that were submitted before the migration are
+     * forwarded.
+     */
+    private static boolean forwardIfMigrated(AbstractChannelHandlerContext ctx, Runnable task,
+                                             ChannelPromise promise) {
+        AbstractChannel channel = migratableChannel(ctx);
+        if (channel == null) {
+            return false;
+        }
+        EventLoop eventLoop = channel.eventLoop();
+        if (eventLoop.inEventLoop()) {
+            return channel.deferIfHandingOff(task);
+        }
+        task = channel.forwardedTask(task);
+        if (promise == null) {
+            eventLoop.execute(task);
+        } else {
+            safeExecute(eventLoop, task, promise, null, false);
+        }
+        return true;
+    }
+
     private static boolean safeExecute(EventExecutor executor, Runnable runnable,
             ChannelPromise promise, Object msg, boolean lazy) {
         try {
@@ -1255,6 +1385,21 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
 
         @Override
         public void run() {
+            AbstractChannel channel = migratableChannel(ctx);
+            if (channel != null) {
+                EventLoop eventLoop = channel.eventLoop();
+                if (eventLoop.inEventLoop()) {
+                    if (channel.deferIfHandingOff(this)) {
+                        return;
+                    }
+                } else {
+                    // The Channel was migrated to another EventLoop since the task was submitted.
+                    if (!safeExecute(eventLoop, channel.forwardedTask(this), promise, msg, false)) {
+                        cancel();
+                    }
+                    return;
+                }
+            }
             try {
                 decrementPendingOutboundBytes();
                 if (size >= 0) {
@@ -1295,24 +1440,36 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         private final Runnable invokeChannelReadCompleteTask = new Runnable() {
             @Override
             public void run() {
+                if (forwardIfMigrated(next, this, null)) {
+                    return;
+                }
                 next.invokeChannelReadComplete();
             }
         };
         private final Runnable invokeReadTask = new Runnable() {
             @Override
             public void run() {
+                if (forwardIfMigrated(next, this, null)) {
+                    return;
+                }
                 next.invokeRead();
             }
         };
         private final Runnable invokeChannelWritableStateChangedTask = new Runnable() {
             @Override
             public void run() {
+                if (forwardIfMigrated(next, this, null)) {
+                    return;
+                }
                 next.invokeChannelWritabilityChanged();
             }
         };
         private final Runnable invokeFlushTask = new Runnable() {
             @Override
             public void run() {
+                if (forwardIfMigrated(next, this, null)) {
+                    return;
+                }
                 next.invokeFlush();
             }
         };
@@ -28,6 +28,7 @@ import io.netty.util.internal.ObjectPool;
 import io.netty.util.internal.ObjectPool.Handle;
 import io.netty.util.internal.ObjectPool.ObjectCreator;
 import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.PromiseNotificationUtil;
 import io.netty.util.internal.SystemPropertyUtil;
 import io.netty.util.internal.logging.InternalLogger;
@@ -643,6 +644,9 @@ public final class ChannelOutboundBuffer {
     }
 
     private void fireChannelWritabilityChanged(boolean invokeLater) {
+        if (PlatformDependent.isJfrEnabled()) {
+            writabilityChanged();
+        }
         final ChannelPipeline pipeline = channel.pipeline();
         if (invokeLater) {
             Runnable task = fireChannelWritabilityChangedTask;
@@ -660,6 +664,19 @@ public final class ChannelOutboundBuffer {
         }
     }
 
+    // Only called if PlatformDependent.isJfrEnabled(), so the event class is never loaded otherwise.
+    private void writabilityChanged() {
+        if (WritabilityChangedEvent.isEventEnabled()) {
+            WritabilityChangedEvent event = new WritabilityChangedEvent();
+            if (event.shouldCommit()) {
+                event.channel = channel.id().asShortText();
+                event.writable = isWritable();
+                event.pendingBytes = totalPendingSize;
+                event.commit();
+            }
+        }
+    }
+
     /**
      * Returns the number of flushed messages in this {@link ChannelOutboundBuffer}.
      */
@@ -51,6 +51,8 @@ public class DefaultChannelConfig implements ChannelConfig {
 
     private static final AtomicIntegerFieldUpdater<DefaultChannelConfig> AUTOREAD_UPDATER =
             AtomicIntegerFieldUpdater.newUpdater(DefaultChannelConfig.class, "autoRead");
+    private static final AtomicIntegerFieldUpdater<DefaultChannelConfig> AUTOREAD_CHANGES_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(DefaultChannelConfig.class, "autoReadChanges");
     private static final AtomicReferenceFieldUpdater<DefaultChannelConfig, WriteBufferWaterMark> WATERMARK_UPDATER =
             AtomicReferenceFieldUpdater.newUpdater(
                     DefaultChannelConfig.class, WriteBufferWaterMark.class, "writeBufferWaterMark");
@@ -67,6 +69,9 @@ public class DefaultChannelConfig implements ChannelConfig {
 
     @SuppressWarnings("FieldMayBeFinal")
     private volatile int autoRead = 1;
+    // Incremented on every call to setAutoRead(boolean), so DirectMemoryBudget can tell if the user changed it.
+    @SuppressWarnings("FieldMayBeFinal")
+    private volatile int autoReadChanges;
     private volatile boolean autoClose = true;
     private volatile WriteBufferWaterMark writeBufferWaterMark = WriteBufferWaterMark.DEFAULT;
     private volatile boolean pinEventExecutor = true;
@@ -337,6 +342,7 @@ public class DefaultChannelConfig implements ChannelConfig {
     @Override
     public ChannelConfig setAutoRead(boolean autoRead) {
         boolean oldAutoRead = AUTOREAD_UPDATER.getAndSet(this, autoRead ? 1 : 0) == 1;
+        AUTOREAD_CHANGES_UPDATER.incrementAndGet(this);
         if (autoRead && !oldAutoRead) {
             channel.read();
         } else if (!autoRead && oldAutoRead) {
@@ -351,6 +357,10 @@ public class DefaultChannelConfig implements ChannelConfig {
      */
     protected void autoReadCleared() { }
 
+    final int autoReadChanges() {
+        return autoReadChanges;
+    }
+
     @Override
     public boolean isAutoClose() {
         return autoClose;
@@ -0,0 +1,406 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.buffer.AdaptiveByteBufAllocator;
+import io.netty.buffer.ByteBufAllocatorMetricProvider;
+import io.netty.buffer.DirectMemoryUsageListener;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
+
+/**
+ * A process wide budget for the direct memory used by one or more {@link ByteBufAllocatorMetricProvider}s, like
+ * the {@link io.netty.buffer.PooledByteBufAllocator} or the {@link io.netty.buffer.AdaptiveByteBufAllocator}.
+ * <p>
+ * Once the used direct memory reaches the {@linkplain #highWaterMark() high water mark} reading is suspended on all
+ * managed channels by turning off {@link ChannelConfig#setAutoRead(boolean) auto-read}, and
+ * {@link DirectMemoryPressureEvent#EXCEEDED} is fired through their pipelines. Once the used direct memory dropped
+ * to the {@linkplain #lowWaterMark() low water mark} again, auto-read is turned back on for the channels on which it
+ * was turned off by this budget, unless it was changed by the user in the meantime, and
+ * {@link DirectMemoryPressureEvent#RELIEVED} is fired.
+ * <p>
+ * Channels are managed either one by one via {@link #register(Channel)}, or all together via
+ * {@link #register(EventLoopGroup)} which applies to every channel registered to a {@link SingleThreadEventLoop} of
+ * the group that supports {@link SingleThreadEventLoop#registeredChannelsIterator()}.
+ * <p>
+ * The budget is driven by the allocators: it registers itself as {@link DirectMemoryUsageListener} with every
+ * {@link PooledByteBufAllocator} and {@link AdaptiveByteBufAllocator}, so the usage is sampled via {@link #check()}
+ * whenever one of them allocates or releases a chunk. As the listener may be called while the allocator holds its
+ * locks, the check itself runs on the {@link GlobalEventExecutor}, and several changes in a row only trigger a single
+ * check. Other {@link ByteBufAllocatorMetricProvider}s must call {@link #directMemoryUsageChanged()} themselves, or
+ * {@link #check()} must be called by the user. Call {@link #close()} once the budget is not needed anymore.
+ */
+@UnstableApi
+public final class DirectMemoryBudget implements DirectMemoryUsageListener {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(DirectMemoryBudget.class);
+
+    private final ByteBufAllocatorMetricProvider[] allocators;
+    private final long lowWaterMark;
+    private final long highWaterMark;
+
+    private final ConcurrentMap<Channel, Boolean> channels = PlatformDependent.newConcurrentHashMap();
+    private final List<EventLoopGroup> groups = new CopyOnWriteArrayList<EventLoopGroup>();
+    // Channels that were notified about the current pressure episode.
+    private final ConcurrentMap<Channel, Suspension> suspended = PlatformDependent.newConcurrentHashMap();
+
+    private final ChannelFutureListener removeOnClose = new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) {
+            deregister(future.channel());
+        }
+    };
+    // Channels of managed groups are not registered one by one, so forget them once they are closed while suspended.
+    private final ChannelFutureListener removeSuspendedOnClose = new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) {
+            suspended.remove(future.channel());
+        }
+    };
+    private final AtomicBoolean checkPending = new AtomicBoolean();
+    private final Runnable checkTask = new Runnable() {
+        @Override
+        public void run() {
+            // Reset before sampling, so changes that happen while checking trigger another check.
+            checkPending.set(false);
+            check();
+        }
+    };
+
+    private volatile boolean exceeded;
+
+    /**
+     * Create a new instance.
+     *
+     * @param lowWaterMark  the used direct memory at which reading is resumed again.
+     * @param highWaterMark the used direct memory at which reading is suspended.
+     * @param allocators    the allocators whose used direct memory is summed up. The budget registers itself as
+     *                      {@link DirectMemoryUsageListener} with all of them that support it.
+     */
+    public DirectMemoryBudget(long lowWaterMark, long highWaterMark, ByteBufAllocatorMetricProvider... allocators) {
+        checkPositiveOrZero(lowWaterMark, "lowWaterMark");
+        if (highWaterMark < lowWaterMark) {
+            throw new IllegalArgumentException(
+                    "highWaterMark: " + highWaterMark + " (expected: >= lowWaterMark (" + lowWaterMark + "))");
+        }
+        ObjectUtil.checkNonEmpty(allocators, "allocators");
+        for (int i = 0; i < allocators.length; i++) {
+            ObjectUtil.checkNotNull(allocators[i], "allocators[" + i + ']');
+        }
+        this.lowWaterMark = lowWaterMark;
+        this.highWaterMark = highWaterMark;
+        this.allocators = allocators.clone();
+        for (ByteBufAllocatorMetricProvider allocator : this.allocators) {
+            if (allocator instanceof PooledByteBufAllocator) {
+                ((PooledByteBufAllocator) allocator).addDirectMemoryUsageListener(this);
+            } else if (allocator instanceof AdaptiveByteBufAllocator) {
+                ((AdaptiveByteBufAllocator) allocator).addDirectMemoryUsageListener(this);
+            }
+        }
+    }
+
+    /**
+     * Returns the used direct memory at which reading is resumed again.
+     */
+    public long lowWaterMark() {
+        return lowWaterMark;
+    }
+
+    /**
+     * Returns the used direct memory at which reading is suspended.
+     */
+    public long highWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * Returns {@code true} if the high water mark was reached and the low water mark was not reached since then.
+     */
+    public boolean isExceeded() {
+        return exceeded;
+    }
+
+    /**
+     * Returns the sum of the direct memory currently used by all allocators of this budget.
+     */
+    public long usedDirectMemory() {
+        long used = 0;
+        for (ByteBufAllocatorMetricProvider allocator : allocators) {
+            // -1 means unknown.
+            used += Math.max(0, allocator.metric().usedDirectMemory());
+        }
+        return used;
+    }
+
+    /**
+     * Manage the given {@link Channel}. If the budget is currently exceeded reading is suspended right away. The
+     * {@link Channel} is released automatically once it is closed.
+     */
+    public DirectMemoryBudget register(Channel channel) {
+        ObjectUtil.checkNotNull(channel, "channel");
+        if (channels.putIfAbsent(channel, Boolean.TRUE) == null) {
+            channel.closeFuture().addListener(removeOnClose);
+            if (exceeded) {
+                suspend(channel);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Stop managing the given {@link Channel}. If reading was suspended by this budget it will not be resumed.
+     */
+    public DirectMemoryBudget deregister(Channel channel) {
+        if (channels.remove(channel) != null) {
+            channel.closeFuture().removeListener(removeOnClose);
+        }
+        suspended.remove(channel);
+        return this;
+    }
+
+    /**
+     * Manage all channels that are registered to the given {@link EventLoopGroup}, now and in the future.
+     */
+    public DirectMemoryBudget register(EventLoopGroup group) {
+        ObjectUtil.checkNotNull(group, "group");
+        if (!groups.contains(group)) {
+            groups.add(group);
+            if (exceeded) {
+                suspend(group);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Stop managing the channels of the given {@link EventLoopGroup}.
+     */
+    public DirectMemoryBudget deregister(EventLoopGroup group) {
+        groups.remove(group);
+        return this;
+    }
+
+    /**
+     * Stop listening to the allocators of this budget. Channels on which reading is currently suspended are not
+     * resumed anymore, unless {@link #check()} is called.
+     */
+    public void close() {
+        for (ByteBufAllocatorMetricProvider allocator : allocators) {
+            if (allocator instanceof PooledByteBufAllocator) {
+                ((PooledByteBufAllocator) allocator).removeDirectMemoryUsageListener(this);
+            } else if (allocator instanceof AdaptiveByteBufAllocator) {
+                ((AdaptiveByteBufAllocator) allocator).removeDirectMemoryUsageListener(this);
+            }
+        }
+    }
+
+    /**
+     * Schedules a {@link #check()} on the {@link GlobalEventExecutor}, unless one is pending already. Called by the
+     * allocators of this budget whenever their used direct memory changed.
+     */
+    @Override
+    public void directMemoryUsageChanged() {
+        if (checkPending.compareAndSet(false, true)) {
+            execute(GlobalEventExecutor.INSTANCE, checkTask);
+        }
+    }
+
+    /**
+     * Sample the used direct memory and suspend or resume reading if a water mark was crossed. While the budget
+     * stays exceeded channels that were registered to a managed {@link EventLoopGroup} in the meantime are
+     * suspended as well.
+     *
+     * @return {@code true} if the budget is exceeded.
+     */
+    public synchronized boolean check() {
+        long used = usedDirectMemory();
+        if (exceeded) {
+            if (used <= lowWaterMark) {
+                exceeded = false;
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Direct memory usage {} dropped below the low water mark {}, resuming {} channel(s)",
+                            used, lowWaterMark, suspended.size());
+                }
+                for (Channel channel : suspended.keySet()) {
+                    resume(channel);
+                }
+            } else {
+                // Pick up channels that were registered to the groups since the budget was exceeded.
+                for (EventLoopGroup group : groups) {
+                    suspend(group);
+                }
+            }
+        } else if (used >= highWaterMark) {
+            exceeded = true;
+            if (logger.isDebugEnabled()) {
+                logger.debug("Direct memory usage {} reached the high water mark {}, suspending reads",
+                        used, highWaterMark);
+            }
+            for (Channel channel : channels.keySet()) {
+                suspend(channel);
+            }
+            for (EventLoopGroup group : groups) {
+                suspend(group);
+            }
+        }
+        return exceeded;
+    }
+
+    private void suspend(final Channel channel) {
+        EventLoop loop = channel.eventLoop();
+        if (loop.inEventLoop()) {
+            suspend0(channel);
+        } else {
+            execute(loop, new Runnable() {
+                @Override
+                public void run() {
+                    suspend0(channel);
+                }
+            });
+        }
+    }
+
+    private void suspend(EventLoopGroup group) {
+        for (EventExecutor executor : group) {
+            if (!(executor instanceof SingleThreadEventLoop)) {
+                logger.debug("Unable to suspend the channels of {}, not a SingleThreadEventLoop", executor);
+                continue;
+            }
+            final SingleThreadEventLoop loop = (SingleThreadEventLoop) executor;
+            if (loop.isShuttingDown()) {
+                continue;
+            }
+            execute(loop, new Runnable() {
+                @Override
+                public void run() {
+                    Iterator<Channel> iterator;
+                    try {
+                        iterator = loop.registeredChannelsIterator();
+                    } catch (UnsupportedOperationException e) {
+                        logger.debug("Unable to suspend the channels of {}", loop, e);
+                        return;
+                    }
+                    while (iterator.hasNext()) {
+                        suspend0(iterator.next());
+                    }
+                }
+            });
+        }
+    }
+
+    private void suspend0(Channel channel) {
+        // Always called from the event loop of the channel, so this is ordered with resume0.
+        if (!exceeded || !channel.isOpen() || suspended.containsKey(channel)) {
+            return;
+        }
+        ChannelConfig config = channel.config();
+        boolean autoRead = config.isAutoRead();
+        if (autoRead) {
+            config.setAutoRead(false);
+        }
+        suspended.put(channel, new Suspension(autoRead, autoReadChanges(config)));
+        if (!channels.containsKey(channel)) {
+            channel.closeFuture().addListener(removeSuspendedOnClose);
+        }
+        channel.pipeline().fireUserEventTriggered(DirectMemoryPressureEvent.EXCEEDED);
+    }
+
+    private void resume(final Channel channel) {
+        EventLoop loop = channel.eventLoop();
+        if (loop.inEventLoop()) {
+            resume0(channel);
+        } else {
+            execute(loop, new Runnable() {
+                @Override
+                public void run() {
+                    resume0(channel);
+                }
+            });
+        }
+    }
+
+    private void resume0(Channel channel) {
+        if (exceeded) {
+            // Exceeded again before we got a chance to run, keep the channel suspended.
+            return;
+        }
+        Suspension suspension = suspended.remove(channel);
+        if (suspension == null) {
+            return;
+        }
+        channel.closeFuture().removeListener(removeSuspendedOnClose);
+        if (!channel.isOpen()) {
+            return;
+        }
+        ChannelConfig config = channel.config();
+        // Only turn auto-read back on if we turned it off and the user did not change it in the meantime.
+        if (suspension.autoRead && autoReadChanges(config) == suspension.autoReadChanges) {
+            config.setAutoRead(true);
+        }
+        channel.pipeline().fireUserEventTriggered(DirectMemoryPressureEvent.RELIEVED);
+    }
+
+    private static int autoReadChanges(ChannelConfig config) {
+        // Other configs don't track changes, so auto-read is always turned back on for them.
+        return config instanceof DefaultChannelConfig ? ((DefaultChannelConfig) config).autoReadChanges() : 0;
+    }
+
+    private static void execute(EventExecutor executor, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // The event loop was shut down, its channels are closed anyway.
+            logger.debug("Failed to submit a task to {}", executor, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DirectMemoryBudget(low: " + lowWaterMark + ", high: " + highWaterMark +
+                ", exceeded: " + exceeded + ", suspended: " + suspended.size() + ')';
+    }
+
+    // Visible for testing.
+    int suspendedChannels() {
+        return suspended.size();
+    }
+
+    private static final class Suspension {
+        // Whether auto-read was on before it was turned off by the budget.
+        final boolean autoRead;
+        final int autoReadChanges;
+
+        Suspension(boolean autoRead, int autoReadChanges) {
+            this.autoRead = autoRead;
+            this.autoReadChanges = autoReadChanges;
+        }
+    }
+}
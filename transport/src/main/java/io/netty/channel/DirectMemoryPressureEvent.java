@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Event which is fired and passed to the
+ * {@link ChannelInboundHandler#userEventTriggered(ChannelHandlerContext, Object)} methods of the channels managed by
+ * a {@link DirectMemoryBudget} once the used direct memory crosses its high water mark ({@link #EXCEEDED}) and
+ * once it dropped below its low water mark again ({@link #RELIEVED}).
+ */
+@UnstableApi
+public final class DirectMemoryPressureEvent {
+
+    /**
+     * The used direct memory exceeded the high water mark, reading was suspended.
+     */
+    public static final DirectMemoryPressureEvent EXCEEDED = new DirectMemoryPressureEvent(true);
+
+    /**
+     * The used direct memory dropped below the low water mark, reading was resumed.
+     */
+    public static final DirectMemoryPressureEvent RELIEVED = new DirectMemoryPressureEvent(false);
+
+    private final boolean exceeded;
+
+    private DirectMemoryPressureEvent(boolean exceeded) {
+        this.exceeded = exceeded;
+    }
+
+    /**
+     * Returns {@code true} if this event signals that the high water mark was exceeded.
+     */
+    public boolean isExceeded() {
+        return exceeded;
+    }
+
+    @Override
+    public String toString() {
+        return "DirectMemoryPressureEvent(" + (exceeded ? "EXCEEDED" : "RELIEVED") + ')';
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+
+/**
+ * Moves channels from the most loaded {@link EventLoop} of an {@link EventLoopGroup} to the least loaded one via
+ * {@link AbstractChannel#migrate(EventLoop)}, to even out the load once it got skewed, for example because a few
+ * long-lived connections turned out to be much busier than the others.
+ * <p>
+ * The load of an {@link EventLoop} is the sum of the {@linkplain ChannelWeigher#weight(Channel) weights} of its
+ * channels. Each {@link #rebalance()} moves at most {@code maxMigrationsPerRun} channels, always picking the heaviest
+ * channel of the most loaded {@link EventLoop} that still narrows the gap to the least loaded one. Only channels of
+ * {@link SingleThreadEventLoop}s that support {@link SingleThreadEventLoop#registeredChannelsIterator()} and whose
+ * transport supports migration are considered.
+ * <p>
+ * {@link #rebalance()} is either called by the user or periodically once
+ * {@link #start(EventExecutor, long, TimeUnit)} was called.
+ */
+@UnstableApi
+public final class EventLoopRebalancer {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(EventLoopRebalancer.class);
+
+    /**
+     * Calculates the load a {@link Channel} puts on its {@link EventLoop}.
+     */
+    public interface ChannelWeigher {
+        /**
+         * Returns the weight of the given {@link Channel}, which must not be negative. This method is called from
+         * the {@link EventLoop} of the {@link Channel}.
+         */
+        long weight(Channel channel);
+    }
+
+    /**
+     * Every {@link Channel} has the same weight, so the number of channels is balanced.
+     */
+    public static final ChannelWeigher CHANNEL_COUNT = new ChannelWeigher() {
+        @Override
+        public long weight(Channel channel) {
+            return 1;
+        }
+    };
+
+    private final EventLoopGroup group;
+    private final ChannelWeigher weigher;
+    private final int maxMigrationsPerRun;
+
+    private final Runnable rebalanceTask = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                rebalance();
+            } catch (Throwable t) {
+                logger.warn("Failed to rebalance {}", group, t);
+            }
+        }
+    };
+
+    private ScheduledFuture<?> rebalanceFuture;
+
+    /**
+     * Create a new instance which balances the number of channels and moves at most one {@link Channel} per run.
+     */
+    public EventLoopRebalancer(EventLoopGroup group) {
+        this(group, CHANNEL_COUNT, 1);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param group                 the {@link EventLoopGroup} whose channels are balanced.
+     * @param weigher               calculates the load of each {@link Channel}.
+     * @param maxMigrationsPerRun   the maximum number of channels that are moved per {@link #rebalance()}.
+     */
+    public EventLoopRebalancer(EventLoopGroup group, ChannelWeigher weigher, int maxMigrationsPerRun) {
+        this.group = ObjectUtil.checkNotNull(group, "group");
+        this.weigher = ObjectUtil.checkNotNull(weigher, "weigher");
+        this.maxMigrationsPerRun = checkPositive(maxMigrationsPerRun, "maxMigrationsPerRun");
+    }
+
+    /**
+     * Call {@link #rebalance()} every {@code interval} on the given {@link EventExecutor} until {@link #stop()} is
+     * called. The {@link EventExecutor} must not belong to the balanced {@link EventLoopGroup}.
+     */
+    public synchronized EventLoopRebalancer start(EventExecutor executor, long interval, TimeUnit unit) {
+        ObjectUtil.checkNotNull(executor, "executor");
+        checkPositive(interval, "interval");
+        ObjectUtil.checkNotNull(unit, "unit");
+        for (EventExecutor loop : group) {
+            if (loop == executor) {
+                throw new IllegalArgumentException("executor must not belong to the balanced group");
+            }
+        }
+        if (rebalanceFuture != null) {
+            throw new IllegalStateException("already started");
+        }
+        rebalanceFuture = executor.scheduleWithFixedDelay(rebalanceTask, interval, interval, unit);
+        return this;
+    }
+
+    /**
+     * Stop the periodic runs that were started by {@link #start(EventExecutor, long, TimeUnit)}.
+     */
+    public synchronized void stop() {
+        if (rebalanceFuture != null) {
+            rebalanceFuture.cancel(false);
+            rebalanceFuture = null;
+        }
+    }
+
+    /**
+     * Sample the load of all {@link EventLoop}s and move channels from the most to the least loaded ones. This
+     * method blocks until the load was sampled and the migrations completed.
+     *
+     * @return the number of channels that were migrated.
+     * @throws IllegalStateException if called from an {@link EventLoop} of the balanced {@link EventLoopGroup}.
+     */
+    public int rebalance() {
+        List<Load> loads = sample();
+        if (loads.size() < 2) {
+            return 0;
+        }
+        List<ChannelFuture> migrations = new ArrayList<ChannelFuture>();
+        while (migrations.size() < maxMigrationsPerRun) {
+            Load max = loads.get(0);
+            Load min = max;
+            for (Load load : loads) {
+                if (load.total > max.total) {
+                    max = load;
+                } else if (load.total < min.total) {
+                    min = load;
+                }
+            }
+            WeightedChannel candidate = max.heaviestUpTo((max.total - min.total) / 2);
+            if (candidate == null) {
+                break;
+            }
+            max.remove(candidate);
+            ChannelFuture migration = migrate(candidate.channel, min.loop);
+            if (migration != null) {
+                min.total += candidate.weight;
+                migrations.add(migration);
+            } else {
+                // Keep the weight, the channel stays where it is.
+                max.total += candidate.weight;
+            }
+        }
+        // Wait until the channels were registered with their new EventLoops, so the next run sees them there.
+        int migrated = 0;
+        for (ChannelFuture migration : migrations) {
+            if (migration.awaitUninterruptibly().isSuccess()) {
+                migrated++;
+            } else {
+                logger.debug("Failed to migrate {}", migration.channel(), migration.cause());
+            }
+        }
+        return migrated;
+    }
+
+    private List<Load> sample() {
+        List<Future<Load>> futures = new ArrayList<Future<Load>>();
+        for (EventExecutor executor : group) {
+            if (executor.inEventLoop()) {
+                throw new IllegalStateException("rebalance() must not be called from an EventLoop of the group");
+            }
+            if (!(executor instanceof SingleThreadEventLoop) || executor.isShuttingDown()) {
+                continue;
+            }
+            final SingleThreadEventLoop loop = (SingleThreadEventLoop) executor;
+            try {
+                futures.add(loop.submit(new Callable<Load>() {
+                    @Override
+                    public Load call() {
+                        return sample(loop);
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                logger.debug("Failed to submit a task to {}", loop, e);
+            }
+        }
+        List<Load> loads = new ArrayList<Load>(futures.size());
+        for (Future<Load> future : futures) {
+            Load load = future.awaitUninterruptibly().getNow();
+            if (load != null) {
+                loads.add(load);
+            }
+        }
+        return loads;
+    }
+
+    private Load sample(SingleThreadEventLoop loop) {
+        Iterator<Channel> iterator;
+        try {
+            iterator = loop.registeredChannelsIterator();
+        } catch (UnsupportedOperationException e) {
+            logger.debug("Unable to sample the channels of {}", loop, e);
+            return null;
+        }
+        Load load = new Load(loop);
+        while (iterator.hasNext()) {
+            Channel channel = iterator.next();
+            long weight = weigher.weight(channel);
+            load.total += weight;
+            if (channel instanceof AbstractChannel && ((AbstractChannel) channel).isMigrationSupported() &&
+                    channel.isActive()) {
+                load.channels.add(new WeightedChannel(channel, weight));
+            }
+        }
+        return load;
+    }
+
+    private static ChannelFuture migrate(Channel channel, EventLoop loop) {
+        ChannelFuture future;
+        try {
+            future = ((AbstractChannel) channel).migrate(loop);
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Migrating {} to {}", channel, loop);
+        }
+        return future;
+    }
+
+    @Override
+    public String toString() {
+        return "EventLoopRebalancer(group: " + group + ", maxMigrationsPerRun: " + maxMigrationsPerRun + ')';
+    }
+
+    private static final class Load {
+        final SingleThreadEventLoop loop;
+        final List<WeightedChannel> channels = new ArrayList<WeightedChannel>();
+        long total;
+
+        Load(SingleThreadEventLoop loop) {
+            this.loop = loop;
+        }
+
+        WeightedChannel heaviestUpTo(long maxWeight) {
+            WeightedChannel heaviest = null;
+            for (WeightedChannel channel : channels) {
+                if (channel.weight > 0 && channel.weight <= maxWeight &&
+                        (heaviest == null || channel.weight > heaviest.weight)) {
+                    heaviest = channel;
+                }
+            }
+            return heaviest;
+        }
+
+        void remove(WeightedChannel channel) {
+            channels.remove(channel);
+            total -= channel.weight;
+        }
+    }
+
+    private static final class WeightedChannel {
+        final Channel channel;
+        final long weight;
+
+        WeightedChannel(Channel channel, long weight) {
+            this.channel = channel;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.internal.SuppressJava6Requirement;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event which is emitted once a {@link ChannelHandler} method took longer than the threshold. The duration
+ * includes the time spent in the handlers the event was passed on to from within the method, so a single slow handler
+ * also shows up as slow invocations of the handlers in front of it. {@link #selfTime} only covers the handler itself.
+ * Must only be touched if {@link io.netty.util.internal.PlatformDependent#isJfrEnabled()} returns {@code true}.
+ */
+@SuppressJava6Requirement(reason = "Usage guarded by PlatformDependent.isJfrEnabled()")
+@Name(HandlerInvocationEvent.NAME)
+@Label("Slow Handler Invocation")
+@Description("A handler method took longer than the threshold, including the handlers it passed the event on to")
+@Category({ "Netty", "Channel" })
+@Threshold("10 ms")
+@StackTrace(false)
+final class HandlerInvocationEvent extends Event {
+    static final String NAME = "io.netty.HandlerInvocation";
+    private static final HandlerInvocationEvent INSTANCE = new HandlerInvocationEvent();
+    // The innermost invocation that is in progress on the current thread.
+    private static final FastThreadLocal<HandlerInvocationEvent> CURRENT =
+            new FastThreadLocal<HandlerInvocationEvent>();
+
+    @Description("Id of the channel")
+    public String channel;
+
+    @Description("Name of the handler in the pipeline")
+    public String handlerName;
+
+    @Description("Class of the handler")
+    public Class<?> handlerClass;
+
+    @Description("The invoked handler method")
+    public String method;
+
+    @Description("Time spent in the handler itself, excluding the handlers it passed the event on to")
+    @Timespan(Timespan.NANOSECONDS)
+    public long selfTime;
+
+    // Transient fields are not recorded.
+    private transient HandlerInvocationEvent parent;
+    private transient long startNanos;
+    private transient long nestedNanos;
+
+    /**
+     * Returns a started event if this event is enabled in any running recording, {@code null} otherwise.
+     */
+    static HandlerInvocationEvent start() {
+        if (!INSTANCE.isEnabled()) {
+            return null;
+        }
+        HandlerInvocationEvent event = new HandlerInvocationEvent();
+        event.parent = CURRENT.get();
+        CURRENT.set(event);
+        event.begin();
+        event.startNanos = System.nanoTime();
+        return event;
+    }
+
+    void finish(ChannelHandlerContext ctx, String method) {
+        end();
+        final long nanos = System.nanoTime() - startNanos;
+        CURRENT.set(parent);
+        if (parent != null) {
+            parent.nestedNanos += nanos;
+            parent = null;
+        }
+        if (shouldCommit()) {
+            selfTime = nanos - nestedNanos;
+            channel = ctx.channel().id().asShortText();
+            handlerName = ctx.name();
+            handlerClass = ctx.handler().getClass();
+            this.method = method;
+            commit();
+        }
+    }
+}
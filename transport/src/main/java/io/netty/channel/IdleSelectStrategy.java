@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.BooleanSupplier;
+import io.netty.util.IntSupplier;
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * A {@link SelectStrategy} which controls how the event loop waits once there is nothing to do. Event loops that
+ * support it ({@link io.netty.channel.nio.NioEventLoop} and {@code EpollEventLoop}) call
+ * {@link #idle(IntSupplier, BooleanSupplier, long)} before they block waiting for I/O, which allows to poll for a
+ * while before falling back to a blocking wait.
+ * <p>
+ * While {@link #idle(IntSupplier, BooleanSupplier, long)} runs, other threads do not wake up the event loop when
+ * they submit tasks, so implementations must check for tasks on their own.
+ */
+@UnstableApi
+public interface IdleSelectStrategy extends SelectStrategy {
+
+    /**
+     * Called from the event loop once {@link #calculateStrategy(IntSupplier, boolean)} returned {@link #SELECT} and
+     * before the event loop blocks waiting for I/O.
+     *
+     * @param selectNowSupplier polls for I/O without blocking and returns the number of ready channels.
+     * @param hasTasksSupplier returns {@code true} if tasks are waiting to be processed.
+     * @param maxIdleNanos the time until the next scheduled task is due, or {@link Long#MAX_VALUE} if none is.
+     * @return the result of {@code selectNowSupplier} if it was {@code > 0}, {@code 0} if tasks are waiting or
+     *         {@code maxIdleNanos} elapsed, or {@link #SELECT} if the event loop should block waiting for I/O.
+     */
+    int idle(IntSupplier selectNowSupplier, BooleanSupplier hasTasksSupplier, long maxIdleNanos) throws Exception;
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.DefaultEventExecutorChooserFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorChooserFactory;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.Random;
+
+/**
+ * {@link EventExecutorChooserFactory} which picks the less loaded of two randomly chosen {@link EventLoop}s
+ * ("power of two choices"). Compared to round-robin this keeps the load of the {@link EventLoop}s balanced when
+ * long-lived and short-lived {@link Channel}s are mixed, while being as cheap as sampling two load signals and
+ * not herding all new {@link Channel}s onto the same least loaded {@link EventLoop} before its load signal catches
+ * up.
+ * <p>
+ * The load of an {@link EventLoop} is one of the signals exposed by {@link SingleThreadEventLoop}:
+ * <ul>
+ *     <li>{@link #REGISTERED_CHANNELS}: {@link SingleThreadEventLoop#registeredChannels()}</li>
+ *     <li>{@link #PENDING_TASKS}: {@link SingleThreadEventLoop#pendingTasks()}</li>
+ *     <li>{@link #BUSY_TIME}: {@link SingleThreadEventLoop#busyPercentage()}</li>
+ * </ul>
+ * If a signal is not supported by an {@link EventLoop} it is treated as unloaded. If not all {@link EventExecutor}s
+ * are {@link SingleThreadEventLoop}s the {@link DefaultEventExecutorChooserFactory} is used instead.
+ */
+@UnstableApi
+public final class LoadAwareEventLoopChooserFactory implements EventExecutorChooserFactory {
+
+    /**
+     * Balances by the number of {@link Channel}s registered to each {@link EventLoop}.
+     */
+    public static final LoadAwareEventLoopChooserFactory REGISTERED_CHANNELS =
+            new LoadAwareEventLoopChooserFactory(Signal.REGISTERED_CHANNELS);
+
+    /**
+     * Balances by the number of tasks that are pending in each {@link EventLoop}.
+     */
+    public static final LoadAwareEventLoopChooserFactory PENDING_TASKS =
+            new LoadAwareEventLoopChooserFactory(Signal.PENDING_TASKS);
+
+    /**
+     * Balances by the recent busy time of each {@link EventLoop}.
+     */
+    public static final LoadAwareEventLoopChooserFactory BUSY_TIME =
+            new LoadAwareEventLoopChooserFactory(Signal.BUSY_TIME);
+
+    private enum Signal {
+        REGISTERED_CHANNELS,
+        PENDING_TASKS,
+        BUSY_TIME
+    }
+
+    private final Signal signal;
+
+    private LoadAwareEventLoopChooserFactory(Signal signal) {
+        this.signal = signal;
+    }
+
+    @Override
+    public EventExecutorChooser newChooser(EventExecutor[] executors) {
+        if (executors.length == 1) {
+            return DefaultEventExecutorChooserFactory.INSTANCE.newChooser(executors);
+        }
+        SingleThreadEventLoop[] loops = new SingleThreadEventLoop[executors.length];
+        for (int i = 0; i < executors.length; i++) {
+            if (!(executors[i] instanceof SingleThreadEventLoop)) {
+                return DefaultEventExecutorChooserFactory.INSTANCE.newChooser(executors);
+            }
+            loops[i] = (SingleThreadEventLoop) executors[i];
+        }
+        if (signal == Signal.BUSY_TIME) {
+            for (SingleThreadEventLoop loop : loops) {
+                loop.trackBusyTime();
+            }
+        }
+        return new PowerOfTwoChoicesChooser(loops, signal);
+    }
+
+    @Override
+    public String toString() {
+        return "LoadAwareEventLoopChooserFactory(" + signal + ')';
+    }
+
+    private static final class PowerOfTwoChoicesChooser implements EventExecutorChooser {
+        private final SingleThreadEventLoop[] loops;
+        private final Signal signal;
+
+        PowerOfTwoChoicesChooser(SingleThreadEventLoop[] loops, Signal signal) {
+            this.loops = loops;
+            this.signal = signal;
+        }
+
+        @Override
+        public EventExecutor next() {
+            Random random = PlatformDependent.threadLocalRandom();
+            int length = loops.length;
+            int first = random.nextInt(length);
+            // Pick a second loop that is different from the first one.
+            int second = first + 1 + random.nextInt(length - 1);
+            if (second >= length) {
+                second -= length;
+            }
+            SingleThreadEventLoop a = loops[first];
+            SingleThreadEventLoop b = loops[second];
+            return load(b) < load(a) ? b : a;
+        }
+
+        private int load(SingleThreadEventLoop loop) {
+            switch (signal) {
+                case REGISTERED_CHANNELS:
+                    return loop.registeredChannels();
+                case PENDING_TASKS:
+                    return loop.pendingTasks();
+                case BUSY_TIME:
+                    return loop.busyPercentage();
+                default:
+                    throw new Error();
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Abstract base class for {@link EventLoop}s that execute all its submitted tasks in a single thread.
@@ -37,8 +38,21 @@ public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor im
     protected static final int DEFAULT_MAX_PENDING_TASKS = Math.max(16,
             SystemPropertyUtil.getInt("io.netty.eventLoop.maxPendingTasks", Integer.MAX_VALUE));
 
+    // The time window over which the busy percentage is calculated.
+    private static final long BUSY_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
     private final Queue<Runnable> tailTasks;
 
+    // Only set by LoadAwareEventLoopChooserFactory.BUSY_TIME, so other loops do not pay for taking timestamps.
+    private volatile boolean trackBusyTime;
+    // Only accessed from the event loop, see reportIdleStart(), reportIdleEnd() and reportIteration().
+    private long busyWindowStartNanos;
+    private long busyWindowIdleNanos;
+    private long idleStartNanos;
+    private boolean idleReported;
+    private volatile long blockedSinceNanos;
+    private volatile int busyPercentage = -1;
+
     protected SingleThreadEventLoop(EventLoopGroup parent, ThreadFactory threadFactory, boolean addTaskWakesUp) {
         this(parent, threadFactory, addTaskWakesUp, DEFAULT_MAX_PENDING_TASKS, RejectedExecutionHandlers.reject());
     }
@@ -155,6 +169,88 @@ public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor im
         return -1;
     }
 
+    /**
+     * Returns the percentage of time this {@link EventLoop} was busy processing I/O and tasks instead of waiting
+     * for them, measured over the last completed window of about 100 milliseconds, or {@code -1} if not supported.
+     * It is only measured if the {@link EventLoopGroup} uses {@link LoadAwareEventLoopChooserFactory#BUSY_TIME}.
+     * While this {@link EventLoop} is blocked waiting the returned value decays towards {@code 0}.
+     * The returned value is not guaranteed to be exact accurate and should be viewed as a best effort.
+     */
+    @UnstableApi
+    public int busyPercentage() {
+        int busyPercentage = this.busyPercentage;
+        long blockedSinceNanos = this.blockedSinceNanos;
+        if (busyPercentage > 0 && blockedSinceNanos != 0) {
+            long remaining = BUSY_WINDOW_NANOS - (System.nanoTime() - blockedSinceNanos);
+            busyPercentage = remaining <= 0 ? 0 : (int) (busyPercentage * remaining / BUSY_WINDOW_NANOS);
+        }
+        return busyPercentage;
+    }
+
+    void trackBusyTime() {
+        trackBusyTime = true;
+    }
+
+    /**
+     * Called by implementations from within the event loop right before blocking to wait for I/O or tasks.
+     * Must be followed by {@link #reportIdleEnd()} once done waiting. This is used to calculate the
+     * {@link #busyPercentage()}.
+     */
+    @UnstableApi
+    protected final void reportIdleStart() {
+        if (!trackBusyTime) {
+            return;
+        }
+        long now = System.nanoTime();
+        updateBusyPercentage(now);
+        idleStartNanos = now;
+        blockedSinceNanos = now;
+    }
+
+    /**
+     * Called by implementations from within the event loop once done waiting for I/O or tasks after
+     * {@link #reportIdleStart()}. This is used to calculate the {@link #busyPercentage()}.
+     */
+    @UnstableApi
+    protected final void reportIdleEnd() {
+        if (!trackBusyTime) {
+            return;
+        }
+        busyWindowIdleNanos += System.nanoTime() - idleStartNanos;
+        blockedSinceNanos = 0;
+        idleReported = true;
+    }
+
+    /**
+     * Called by implementations from within the event loop once per iteration before processing I/O and tasks.
+     * This is used to calculate the {@link #busyPercentage()} of iterations which did not wait.
+     */
+    @UnstableApi
+    protected final void reportIteration() {
+        if (!trackBusyTime) {
+            return;
+        }
+        if (idleReported) {
+            // The window was already updated when starting to wait.
+            idleReported = false;
+        } else {
+            updateBusyPercentage(System.nanoTime());
+        }
+    }
+
+    private void updateBusyPercentage(long now) {
+        if (busyWindowStartNanos == 0) {
+            busyWindowStartNanos = now;
+            return;
+        }
+        long window = now - busyWindowStartNanos;
+        if (window >= BUSY_WINDOW_NANOS) {
+            busyPercentage = (int) (Math.max(0, window - busyWindowIdleNanos) * 100 / window);
+            busyWindowStartNanos = now;
+            busyWindowIdleNanos = 0;
+        }
+    }
+
     /**
      * @return read-only iterator of active {@link Channel}s registered with this {@link EventLoop}.
      *         The returned value is not guaranteed to be exact accurate and
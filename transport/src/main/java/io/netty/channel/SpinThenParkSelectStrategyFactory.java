@@ -0,0 +1,226 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.BooleanSupplier;
+import io.netty.util.IntSupplier;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
+
+/**
+ * {@link SelectStrategyFactory} for latency sensitive applications that sits between the default blocking wait and
+ * busy polling via {@code EpollMode}/{@link SelectStrategy#BUSY_WAIT}.
+ * <p>
+ * Once an event loop runs out of work it first polls for I/O and tasks without blocking for a number of
+ * spin iterations, then for a number of iterations calling {@link Thread#yield()} in between, then parks for
+ * escalating timeouts from {@code minParkNanos} up to {@code maxParkNanos}. Only then it falls back to a blocking
+ * wait. Submitting a task to an event loop that spins or parks does not need a wakeup system call, but a task or
+ * I/O may wait up to the current park timeout until it is picked up.
+ * <p>
+ * The metrics of this factory are collected over all event loops that use the {@link SelectStrategy}s it created,
+ * so a separate instance can be used per {@link EventLoopGroup} to tune and monitor each group on its own.
+ */
+@UnstableApi
+public final class SpinThenParkSelectStrategyFactory implements SelectStrategyFactory {
+
+    static final int DEFAULT_SPIN_ITERATIONS = 100;
+    static final int DEFAULT_YIELD_ITERATIONS = 10;
+    static final long DEFAULT_MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    static final long DEFAULT_MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int spinIterations;
+    private final int yieldIterations;
+    private final long minParkNanos;
+    private final long maxParkNanos;
+    private final List<SpinThenParkSelectStrategy> strategies = new CopyOnWriteArrayList<SpinThenParkSelectStrategy>();
+
+    /**
+     * Create a new instance with 100 spin and 10 yield iterations, parking from 1 microsecond up to 1 millisecond.
+     */
+    public SpinThenParkSelectStrategyFactory() {
+        this(DEFAULT_SPIN_ITERATIONS, DEFAULT_YIELD_ITERATIONS, DEFAULT_MIN_PARK_NANOS, DEFAULT_MAX_PARK_NANOS);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param spinIterations  the number of times to poll without pausing in between.
+     * @param yieldIterations the number of times to poll calling {@link Thread#yield()} in between.
+     * @param minParkNanos    the first park timeout, which is doubled after every poll.
+     * @param maxParkNanos    the maximal park timeout, once it is exceeded the event loop blocks. Use {@code 0} to
+     *                        never park.
+     */
+    public SpinThenParkSelectStrategyFactory(int spinIterations, int yieldIterations, long minParkNanos,
+                                             long maxParkNanos) {
+        this.spinIterations = checkPositiveOrZero(spinIterations, "spinIterations");
+        this.yieldIterations = checkPositiveOrZero(yieldIterations, "yieldIterations");
+        this.minParkNanos = checkPositive(minParkNanos, "minParkNanos");
+        this.maxParkNanos = checkPositiveOrZero(maxParkNanos, "maxParkNanos");
+    }
+
+    @Override
+    public SelectStrategy newSelectStrategy() {
+        SpinThenParkSelectStrategy strategy = new SpinThenParkSelectStrategy();
+        strategies.add(strategy);
+        return strategy;
+    }
+
+    /**
+     * Returns the number of times an event loop found work while spinning.
+     */
+    public long spinWakeups() {
+        long sum = 0;
+        for (SpinThenParkSelectStrategy strategy : strategies) {
+            sum += strategy.spinWakeups;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the number of times an event loop found work while yielding.
+     */
+    public long yieldWakeups() {
+        long sum = 0;
+        for (SpinThenParkSelectStrategy strategy : strategies) {
+            sum += strategy.yieldWakeups;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the number of times an event loop found work while parking.
+     */
+    public long parkWakeups() {
+        long sum = 0;
+        for (SpinThenParkSelectStrategy strategy : strategies) {
+            sum += strategy.parkWakeups;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the number of times an event loop fell back to a blocking wait.
+     */
+    public long blockingWaits() {
+        long sum = 0;
+        for (SpinThenParkSelectStrategy strategy : strategies) {
+            sum += strategy.blockingWaits;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the mean wakeup latency in nanoseconds, which is the time between the last poll that found nothing
+     * and the one that found work, while spinning, yielding or parking. This is an upper bound for how long the work
+     * was pending before it was picked up.
+     */
+    public long meanWakeupLatencyNanos() {
+        long wakeups = 0;
+        long latency = 0;
+        for (SpinThenParkSelectStrategy strategy : strategies) {
+            wakeups += strategy.spinWakeups + strategy.yieldWakeups + strategy.parkWakeups;
+            latency += strategy.totalWakeupLatencyNanos;
+        }
+        return wakeups == 0 ? 0 : latency / wakeups;
+    }
+
+    /**
+     * Returns the maximal wakeup latency in nanoseconds, see {@link #meanWakeupLatencyNanos()}.
+     */
+    public long maxWakeupLatencyNanos() {
+        long max = 0;
+        for (SpinThenParkSelectStrategy strategy : strategies) {
+            max = Math.max(max, strategy.maxWakeupLatencyNanos);
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "SpinThenParkSelectStrategyFactory(spins: " + spinIterations + ", yields: " + yieldIterations +
+                ", park: " + minParkNanos + '-' + maxParkNanos + "ns)";
+    }
+
+    private final class SpinThenParkSelectStrategy implements IdleSelectStrategy {
+        // Only written by the event loop, read by the metric methods of the factory.
+        volatile long spinWakeups;
+        volatile long yieldWakeups;
+        volatile long parkWakeups;
+        volatile long blockingWaits;
+        volatile long totalWakeupLatencyNanos;
+        volatile long maxWakeupLatencyNanos;
+
+        @Override
+        public int calculateStrategy(IntSupplier selectSupplier, boolean hasTasks) throws Exception {
+            return hasTasks ? selectSupplier.get() : SELECT;
+        }
+
+        @Override
+        public int idle(IntSupplier selectNowSupplier, BooleanSupplier hasTasksSupplier, long maxIdleNanos)
+                throws Exception {
+            final long startNanos = System.nanoTime();
+            long lastPollNanos = startNanos;
+            long parkNanos = minParkNanos;
+            for (int i = 0;; i++) {
+                if (i >= spinIterations) {
+                    if (i - spinIterations < yieldIterations) {
+                        Thread.yield();
+                    } else if (parkNanos <= maxParkNanos) {
+                        LockSupport.parkNanos(Math.min(parkNanos, maxIdleNanos - (lastPollNanos - startNanos)));
+                        parkNanos <<= 1;
+                    } else {
+                        blockingWaits++;
+                        return SELECT;
+                    }
+                }
+
+                boolean hasTasks = hasTasksSupplier.get();
+                int ready = hasTasks ? 0 : selectNowSupplier.get();
+                long nowNanos = System.nanoTime();
+                if (hasTasks || ready > 0) {
+                    wakeup(i, nowNanos - lastPollNanos);
+                    return ready;
+                }
+                if (nowNanos - startNanos >= maxIdleNanos) {
+                    // A scheduled task is due.
+                    return 0;
+                }
+                lastPollNanos = nowNanos;
+            }
+        }
+
+        private void wakeup(int iteration, long latencyNanos) {
+            if (iteration < spinIterations) {
+                spinWakeups++;
+            } else if (iteration - spinIterations < yieldIterations) {
+                yieldWakeups++;
+            } else {
+                parkWakeups++;
+            }
+            totalWakeupLatencyNanos += latencyNanos;
+            if (latencyNanos > maxWakeupLatencyNanos) {
+                maxWakeupLatencyNanos = latencyNanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.internal.SuppressJava6Requirement;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event which is emitted once the writability of a {@link ChannelOutboundBuffer} changed. Must only be touched
+ * if {@link io.netty.util.internal.PlatformDependent#isJfrEnabled()} returns {@code true}.
+ */
+@SuppressJava6Requirement(reason = "Usage guarded by PlatformDependent.isJfrEnabled()")
+@Name(WritabilityChangedEvent.NAME)
+@Label("Channel Writability Change")
+@Category({ "Netty", "Channel" })
+@StackTrace(false)
+final class WritabilityChangedEvent extends Event {
+    static final String NAME = "io.netty.WritabilityChanged";
+    private static final WritabilityChangedEvent INSTANCE = new WritabilityChangedEvent();
+
+    @Description("Id of the channel")
+    public String channel;
+
+    @Description("Is the channel writable now?")
+    public boolean writable;
+
+    @DataAmount
+    @Description("Number of bytes pending in the outbound buffer")
+    public long pendingBytes;
+
+    /**
+     * Returns {@code true} if this event is enabled in any running recording.
+     */
+    static boolean isEventEnabled() {
+        return INSTANCE.isEnabled();
+    }
+}
@@ -16,6 +16,7 @@
 package io.netty.channel.local;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.AbstractChannel;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelConfig;
@@ -385,6 +386,10 @@ public class LocalChannel extends AbstractChannel {
                     // It is possible the peer could have closed while we are writing, and in this case we should
                     // simulate real socket behavior and ensure the write operation is failed.
                     if (peer.state == State.CONNECTED) {
+                        if (!peer.eventLoop().inEventLoop()) {
+                            // The peer reads the message on its own thread.
+                            ByteBufUtil.shareRefCnt(msg);
+                        }
                         peer.inboundBuffer.add(ReferenceCountUtil.retain(msg));
                         in.remove();
                     } else {
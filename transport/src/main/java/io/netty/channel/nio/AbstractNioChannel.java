@@ -53,10 +53,17 @@ public abstract class AbstractNioChannel extends AbstractChannel {
     private final SelectableChannel ch;
     protected final int readInterestOp;
     volatile SelectionKey selectionKey;
+    private int migratedInterestOps;
     boolean readPending;
     private final Runnable clearReadPendingRunnable = new Runnable() {
         @Override
         public void run() {
+            EventLoop eventLoop = eventLoop();
+            if (!eventLoop.inEventLoop()) {
+                // The Channel was migrated to another EventLoop in the meantime.
+                eventLoop.execute(this);
+                return;
+            }
             clearReadPending0();
         }
     };
@@ -212,6 +219,11 @@ public abstract class AbstractNioChannel extends AbstractChannel {
     protected abstract class AbstractNioUnsafe extends AbstractUnsafe implements NioUnsafe {
 
         protected final void removeReadOp() {
+            if (isMigrating()) {
+                // The SelectionKey was cancelled for the migration, apply the change once registered again.
+                migratedInterestOps &= ~readInterestOp;
+                return;
+            }
             SelectionKey key = selectionKey();
             // Check first if the key is still valid as it may be canceled as part of the deregistration
             // from the EventLoop
@@ -404,6 +416,24 @@ public abstract class AbstractNioChannel extends AbstractChannel {
         eventLoop().cancel(selectionKey());
     }
 
+    @Override
+    protected boolean isMigrationSupported() {
+        return true;
+    }
+
+    @Override
+    protected void doDeregisterForMigration() throws Exception {
+        // Remember what we were interested in, the SelectionKey of the new Selector starts with no interest at all.
+        migratedInterestOps = selectionKey().interestOps();
+        doDeregister();
+    }
+
+    @Override
+    protected void doRegisterAfterMigration() throws Exception {
+        doRegister();
+        selectionKey.interestOps(migratedInterestOps);
+    }
+
     @Override
     protected void doBeginRead() throws Exception {
         // Channel.read() or ChannelHandlerContext.read() was called
@@ -20,8 +20,10 @@ import io.netty.channel.ChannelException;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopException;
 import io.netty.channel.EventLoopTaskQueueFactory;
+import io.netty.channel.IdleSelectStrategy;
 import io.netty.channel.SelectStrategy;
 import io.netty.channel.SingleThreadEventLoop;
+import io.netty.util.BooleanSupplier;
 import io.netty.util.IntSupplier;
 import io.netty.util.concurrent.RejectedExecutionHandler;
 import io.netty.util.internal.ObjectUtil;
@@ -131,6 +133,13 @@ public final class NioEventLoop extends SingleThreadEventLoop {
     private final AtomicLong nextWakeupNanos = new AtomicLong(AWAKE);
 
     private final SelectStrategy selectStrategy;
+    private final IdleSelectStrategy idleSelectStrategy;
+    private final BooleanSupplier hasTasksSupplier = new BooleanSupplier() {
+        @Override
+        public boolean get() {
+            return hasTasks();
+        }
+    };
 
     private volatile int ioRatio = 50;
     private int cancelledKeys;
@@ -143,6 +152,7 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                 rejectedExecutionHandler);
         this.provider = ObjectUtil.checkNotNull(selectorProvider, "selectorProvider");
         this.selectStrategy = ObjectUtil.checkNotNull(strategy, "selectStrategy");
+        this.idleSelectStrategy = strategy instanceof IdleSelectStrategy ? (IdleSelectStrategy) strategy : null;
         final SelectorTuple selectorTuple = openSelector();
         this.selector = selectorTuple.selector;
         this.unwrappedSelector = selectorTuple.unwrappedSelector;
@@ -520,10 +530,22 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                         if (curDeadlineNanos == -1L) {
                             curDeadlineNanos = NONE; // nothing on the calendar
                         }
+                        if (idleSelectStrategy != null) {
+                            // Poll while still awake, so submitting tasks does not need to wake up the selector.
+                            reportIdleStart();
+                            strategy = idleSelectStrategy.idle(selectNowSupplier, hasTasksSupplier,
+                                    curDeadlineNanos == NONE ? NONE : deadlineToDelayNanos(curDeadlineNanos));
+                            reportIdleEnd();
+                            if (strategy != SelectStrategy.SELECT) {
+                                break;
+                            }
+                        }
                         nextWakeupNanos.set(curDeadlineNanos);
                         try {
                             if (!hasTasks()) {
+                                reportIdleStart();
                                 strategy = select(curDeadlineNanos);
+                                reportIdleEnd();
                             }
                         } finally {
                             // This update is just to help block unnecessary selector wakeups
@@ -542,6 +564,7 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                     continue;
                 }
 
+                reportIteration();
                 selectCnt++;
                 cancelledKeys = 0;
                 needsToSelectAgain = false;
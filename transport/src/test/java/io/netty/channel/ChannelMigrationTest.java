@@ -0,0 +1,322 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChannelMigrationTest {
+
+    private NioEventLoopGroup group;
+    private ServerSocket serverSocket;
+    private final List<Socket> accepted = new ArrayList<Socket>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        group = new NioEventLoopGroup(2);
+        serverSocket = new ServerSocket();
+        // Keep the socket buffers small so writes stay pending while the peer does not read.
+        serverSocket.setReceiveBufferSize(4096);
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (Socket socket : accepted) {
+            socket.close();
+        }
+        serverSocket.close();
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    private Channel connect(EventLoop loop, ChannelHandler handler) throws Exception {
+        Channel channel = new Bootstrap().group(loop).channel(NioSocketChannel.class).handler(handler)
+                .option(ChannelOption.SO_SNDBUF, 4096)
+                .connect(serverSocket.getLocalSocketAddress()).sync().channel();
+        accepted.add(serverSocket.accept());
+        return channel;
+    }
+
+    @Test
+    public void testMigrateKeepsPendingWritesAndPipeline() throws Exception {
+        final EventLoop oldLoop = group.next();
+        final EventLoop newLoop = group.next();
+        assertNotSame(oldLoop, newLoop);
+        final BlockingQueue<Object> reads = new LinkedBlockingQueue<Object>();
+        ChannelHandler handler = new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                reads.add(ctx.executor().inEventLoop() && ctx.channel().eventLoop().inEventLoop());
+                ((ByteBuf) msg).release();
+            }
+        };
+        Channel channel = connect(oldLoop, handler);
+        Socket peer = accepted.get(0);
+
+        byte[] data = newData();
+        ChannelFuture writeFuture = channel.writeAndFlush(Unpooled.wrappedBuffer(data));
+
+        ChannelFuture migrateFuture = ((AbstractChannel) channel).migrate(newLoop).sync();
+        assertTrue(migrateFuture.isSuccess());
+        assertSame(newLoop, channel.eventLoop());
+        assertFalse(writeFuture.isDone());
+        assertTrue(channel.isOpen());
+        assertSame(handler, channel.pipeline().first());
+
+        readFully(peer, data);
+        assertTrue(writeFuture.sync().isSuccess());
+
+        // Reads are processed by the new EventLoop as well.
+        OutputStream out = peer.getOutputStream();
+        out.write(new byte[] { 1, 2, 3 });
+        out.flush();
+        assertEquals(Boolean.TRUE, reads.poll(10, TimeUnit.SECONDS));
+        channel.close().sync();
+    }
+
+    @Test
+    public void testWriteFromNewLoopWhileMigrating() throws Exception {
+        final EventLoop oldLoop = group.next();
+        final EventLoop newLoop = group.next();
+        final Channel channel = connect(oldLoop, new ChannelInboundHandlerAdapter());
+        Socket peer = accepted.get(0);
+        final byte[] data = newData();
+
+        final AtomicReference<ChannelFuture> writeFuture = new AtomicReference<ChannelFuture>();
+        ChannelFuture migrateFuture = migrateWhileBlocked(channel, newLoop, new Runnable() {
+            @Override
+            public void run() {
+                // Executed inline as the Channel belongs to this EventLoop already, but is not registered with it.
+                writeFuture.set(channel.writeAndFlush(Unpooled.wrappedBuffer(data)));
+            }
+        });
+        assertTrue(migrateFuture.sync().isSuccess());
+
+        readFully(peer, data);
+        assertTrue(writeFuture.get().sync().isSuccess());
+        channel.close().sync();
+    }
+
+    @Test
+    public void testMigrateKeepsOrderOfWritesFromOtherThread() throws Exception {
+        final EventLoop loop1 = group.next();
+        final EventLoop loop2 = group.next();
+        final AbstractChannel channel = (AbstractChannel) connect(loop1, new ChannelInboundHandlerAdapter());
+        Socket peer = accepted.get(0);
+        final int count = 100000;
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    ByteBuf buf = Unpooled.buffer(4).writeInt(i);
+                    if (i % 64 == 63 || i == count - 1) {
+                        channel.writeAndFlush(buf);
+                    } else {
+                        channel.write(buf);
+                    }
+                }
+            }
+        });
+        writer.start();
+        int migrations = 0;
+        while (writer.isAlive() || migrations < 4) {
+            EventLoop newLoop = channel.eventLoop() == loop1 ? loop2 : loop1;
+            assertTrue(channel.migrate(newLoop).sync().isSuccess());
+            migrations++;
+        }
+        writer.join();
+
+        ByteBuf expected = Unpooled.buffer(count * 4);
+        for (int i = 0; i < count; i++) {
+            expected.writeInt(i);
+        }
+        readFully(peer, ByteBufUtil.getBytes(expected));
+        expected.release();
+        channel.close().sync();
+    }
+
+    @Test
+    public void testReadFromNewLoopWhileMigrating() throws Exception {
+        final EventLoop oldLoop = group.next();
+        final EventLoop newLoop = group.next();
+        final BlockingQueue<Object> reads = new LinkedBlockingQueue<Object>();
+        final Channel channel = connect(oldLoop, new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                reads.add(ctx.channel().eventLoop().inEventLoop());
+                ((ByteBuf) msg).release();
+            }
+        });
+        channel.config().setAutoRead(false);
+        Socket peer = accepted.get(0);
+
+        ChannelFuture migrateFuture = migrateWhileBlocked(channel, newLoop, new Runnable() {
+            @Override
+            public void run() {
+                channel.read();
+            }
+        });
+        assertTrue(migrateFuture.sync().isSuccess());
+
+        OutputStream out = peer.getOutputStream();
+        out.write(new byte[] { 1, 2, 3 });
+        out.flush();
+        assertEquals(Boolean.TRUE, reads.poll(10, TimeUnit.SECONDS));
+        channel.close().sync();
+    }
+
+    @Test
+    public void testMigrateInactiveChannelFails() throws Exception {
+        EventLoop loop = group.next();
+        Channel channel = new NioSocketChannel();
+        loop.register(channel).sync();
+        ChannelFuture future = ((AbstractChannel) channel).migrate(group.next()).await();
+        assertTrue(future.cause() instanceof IllegalStateException);
+        assertSame(loop, channel.eventLoop());
+        channel.close().sync();
+    }
+
+    @Test
+    public void testMigrateUnsupported() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        assertThrows(UnsupportedOperationException.class, new Executable() {
+            @Override
+            public void execute() {
+                channel.migrate(channel.eventLoop());
+            }
+        });
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testRebalance() throws Exception {
+        EventLoop loop = group.next();
+        List<Channel> channels = new ArrayList<Channel>();
+        for (int i = 0; i < 6; i++) {
+            channels.add(connect(loop, new ChannelInboundHandlerAdapter()));
+        }
+        EventLoopRebalancer rebalancer = new EventLoopRebalancer(group, EventLoopRebalancer.CHANNEL_COUNT, 10);
+        assertEquals(3, rebalancer.rebalance());
+        assertEquals(0, rebalancer.rebalance());
+
+        int onOldLoop = 0;
+        for (Channel channel : channels) {
+            if (channel.eventLoop() == loop) {
+                onOldLoop++;
+            }
+        }
+        assertEquals(3, onOldLoop);
+        for (Channel channel : channels) {
+            assertTrue(channel.isActive());
+            channel.close().sync();
+        }
+    }
+
+    /**
+     * Migrates the {@link Channel} while the new {@link EventLoop} is blocked, and runs the given task on it once the
+     * {@link Channel} belongs to it but before it is registered with it.
+     */
+    private static ChannelFuture migrateWhileBlocked(Channel channel, EventLoop newLoop, final Runnable task)
+            throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        newLoop.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                task.run();
+            }
+        });
+        ChannelFuture migrateFuture = ((AbstractChannel) channel).migrate(newLoop);
+        while (channel.eventLoop() != newLoop) {
+            Thread.sleep(1);
+        }
+        latch.countDown();
+        return migrateFuture;
+    }
+
+    private static byte[] newData() {
+        byte[] data = new byte[1024 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 251);
+        }
+        return data;
+    }
+
+    private static void readFully(Socket peer, byte[] expected) throws Exception {
+        // Fail instead of hanging if the writes are stuck.
+        peer.setSoTimeout(10000);
+        InputStream in = peer.getInputStream();
+        byte[] received = new byte[expected.length];
+        int read = 0;
+        while (read < received.length) {
+            int n = in.read(received, read, received.length - read);
+            assertTrue(n > 0);
+            read += n;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] != received[i]) {
+                assertEquals(expected[i], received[i], "byte " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testRebalanceFromEventLoopFails() throws Exception {
+        final EventLoopRebalancer rebalancer = new EventLoopRebalancer(group);
+        Throwable cause = group.next().submit(new Runnable() {
+            @Override
+            public void run() {
+                rebalancer.rebalance();
+            }
+        }).await().cause();
+        assertTrue(cause instanceof IllegalStateException);
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocatorMetric;
+import io.netty.buffer.ByteBufAllocatorMetricProvider;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DirectMemoryBudgetTest {
+
+    @Test
+    public void testInvalidWaterMarks() {
+        final TestAllocator allocator = new TestAllocator();
+        assertThrows(IllegalArgumentException.class, new Executable() {
+            @Override
+            public void execute() {
+                new DirectMemoryBudget(10, 5, allocator);
+            }
+        });
+        assertThrows(IllegalArgumentException.class, new Executable() {
+            @Override
+            public void execute() {
+                new DirectMemoryBudget(-1, 5, allocator);
+            }
+        });
+    }
+
+    @Test
+    public void testSuspendAndResumeChannel() {
+        TestAllocator first = new TestAllocator();
+        TestAllocator second = new TestAllocator();
+        DirectMemoryBudget budget = new DirectMemoryBudget(50, 100, first, second);
+        EventRecorder recorder = new EventRecorder();
+        EmbeddedChannel channel = new EmbeddedChannel(recorder);
+        EmbeddedChannel notAutoRead = new EmbeddedChannel();
+        notAutoRead.config().setAutoRead(false);
+        budget.register(channel).register(notAutoRead);
+
+        first.used.set(60);
+        // -1 means unknown and is ignored.
+        second.used.set(-1);
+        assertFalse(budget.check());
+        assertTrue(channel.config().isAutoRead());
+
+        second.used.set(40);
+        assertTrue(budget.check());
+        channel.runPendingTasks();
+        notAutoRead.runPendingTasks();
+        assertFalse(channel.config().isAutoRead());
+        assertEquals(2, budget.suspendedChannels());
+        assertEquals(1, recorder.events.size());
+        assertTrue(recorder.events.get(0).isExceeded());
+
+        // Between the water marks nothing changes.
+        first.used.set(20);
+        assertTrue(budget.check());
+        channel.runPendingTasks();
+        assertEquals(1, recorder.events.size());
+
+        second.used.set(30);
+        assertFalse(budget.check());
+        channel.runPendingTasks();
+        notAutoRead.runPendingTasks();
+        assertTrue(channel.config().isAutoRead());
+        // Auto-read was not turned off by the budget, so it is not turned on either.
+        assertFalse(notAutoRead.config().isAutoRead());
+        assertEquals(0, budget.suspendedChannels());
+        assertEquals(2, recorder.events.size());
+        assertEquals(DirectMemoryPressureEvent.RELIEVED, recorder.events.get(1));
+
+        assertFalse(channel.finish());
+        assertFalse(notAutoRead.finish());
+    }
+
+    @Test
+    public void testRegisterWhileExceeded() {
+        TestAllocator allocator = new TestAllocator();
+        DirectMemoryBudget budget = new DirectMemoryBudget(0, 0, allocator);
+        assertTrue(budget.check());
+
+        EventRecorder recorder = new EventRecorder();
+        EmbeddedChannel channel = new EmbeddedChannel(recorder);
+        budget.register(channel);
+        channel.runPendingTasks();
+        assertFalse(channel.config().isAutoRead());
+        assertEquals(DirectMemoryPressureEvent.EXCEEDED, recorder.events.get(0));
+
+        // Closing the channel releases it from the budget.
+        channel.close().syncUninterruptibly();
+        assertEquals(0, budget.suspendedChannels());
+    }
+
+    @Test
+    public void testSuspendEventLoopGroup() throws Exception {
+        TestAllocator allocator = new TestAllocator();
+        DirectMemoryBudget budget = new DirectMemoryBudget(50, 100, allocator);
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            final Channel channel = new NioSocketChannel();
+            group.register(channel).syncUninterruptibly();
+            budget.register(group);
+
+            allocator.used.set(100);
+            assertTrue(budget.check());
+            assertFalse(isAutoRead(channel));
+
+            allocator.used.set(50);
+            assertFalse(budget.check());
+            assertTrue(isAutoRead(channel));
+            channel.close().syncUninterruptibly();
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test
+    public void testKeepAutoReadChangedWhileSuspended() {
+        TestAllocator allocator = new TestAllocator();
+        DirectMemoryBudget budget = new DirectMemoryBudget(50, 100, allocator);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        budget.register(channel);
+
+        allocator.used.set(100);
+        assertTrue(budget.check());
+        channel.runPendingTasks();
+        assertFalse(channel.config().isAutoRead());
+
+        // The user turns off auto-read on its own while the channel is suspended.
+        channel.config().setAutoRead(false);
+        allocator.used.set(50);
+        assertFalse(budget.check());
+        channel.runPendingTasks();
+        assertFalse(channel.config().isAutoRead());
+        assertEquals(0, budget.suspendedChannels());
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testSuspendedGroupChannelRemovedOnClose() throws Exception {
+        TestAllocator allocator = new TestAllocator();
+        DirectMemoryBudget budget = new DirectMemoryBudget(50, 100, allocator);
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            final Channel channel = new NioSocketChannel();
+            group.register(channel).syncUninterruptibly();
+            budget.register(group);
+
+            allocator.used.set(100);
+            assertTrue(budget.check());
+            assertFalse(isAutoRead(channel));
+            assertEquals(1, budget.suspendedChannels());
+
+            channel.close().syncUninterruptibly();
+            // Wait for the close listeners to run.
+            channel.eventLoop().submit(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }).syncUninterruptibly();
+            assertEquals(0, budget.suspendedChannels());
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test
+    public void testCheckedOnAllocatorChanges() throws Exception {
+        // Every chunk is a single 8 KiB page, so bigger buffers are allocated and released as chunks of their own.
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 0);
+        DirectMemoryBudget budget = new DirectMemoryBudget(0, 32 * 1024, allocator);
+        try {
+            ByteBuf small = allocator.directBuffer(16 * 1024);
+            waitForCheck();
+            assertFalse(budget.isExceeded());
+
+            ByteBuf big = allocator.directBuffer(16 * 1024);
+            assertTrue(waitForExceeded(budget, true));
+
+            small.release();
+            waitForCheck();
+            assertTrue(budget.isExceeded());
+
+            big.release();
+            assertFalse(waitForExceeded(budget, false));
+        } finally {
+            budget.close();
+        }
+
+        // Once closed the budget does not follow the allocator anymore.
+        ByteBuf buffer = allocator.directBuffer(64 * 1024);
+        try {
+            waitForCheck();
+            assertFalse(budget.isExceeded());
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void testDirectMemoryUsageChanged() throws Exception {
+        TestAllocator allocator = new TestAllocator();
+        DirectMemoryBudget budget = new DirectMemoryBudget(50, 100, allocator);
+
+        allocator.used.set(100);
+        budget.directMemoryUsageChanged();
+        assertTrue(waitForExceeded(budget, true));
+
+        allocator.used.set(50);
+        budget.directMemoryUsageChanged();
+        assertFalse(waitForExceeded(budget, false));
+    }
+
+    private static boolean waitForExceeded(DirectMemoryBudget budget, boolean exceeded) throws InterruptedException {
+        for (int i = 0; i < 500 && budget.isExceeded() != exceeded; i++) {
+            Thread.sleep(10);
+        }
+        return budget.isExceeded();
+    }
+
+    private static void waitForCheck() throws Exception {
+        // The checks are executed in order, so this runs after the check scheduled by the allocator.
+        GlobalEventExecutor.INSTANCE.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).sync();
+    }
+
+    private static boolean isAutoRead(final Channel channel) throws Exception {
+        // Tasks are executed in order, so this runs after the tasks submitted by the budget.
+        return channel.eventLoop().submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return channel.config().isAutoRead();
+            }
+        }).get();
+    }
+
+    private static final class TestAllocator implements ByteBufAllocatorMetricProvider, ByteBufAllocatorMetric {
+        final AtomicLong used = new AtomicLong();
+
+        @Override
+        public ByteBufAllocatorMetric metric() {
+            return this;
+        }
+
+        @Override
+        public long usedHeapMemory() {
+            return 0;
+        }
+
+        @Override
+        public long usedDirectMemory() {
+            return used.get();
+        }
+    }
+
+    private static final class EventRecorder extends ChannelInboundHandlerAdapter {
+        final List<DirectMemoryPressureEvent> events = new ArrayList<DirectMemoryPressureEvent>();
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
+            if (evt instanceof DirectMemoryPressureEvent) {
+                events.add((DirectMemoryPressureEvent) evt);
+            }
+            ctx.fireUserEventTriggered(evt);
+        }
+    }
+}
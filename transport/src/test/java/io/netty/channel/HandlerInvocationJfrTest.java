@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.internal.PlatformDependent;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class HandlerInvocationJfrTest {
+
+    @Test
+    public void testSelfTimeExcludesNextHandlers() throws Exception {
+        assumeTrue(PlatformDependent.isJfrEnabled());
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addLast("forwarding", new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                ctx.fireChannelRead(msg);
+            }
+        });
+        channel.pipeline().addLast("slow", new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                Thread.sleep(50);
+                ctx.fireChannelRead(msg);
+            }
+        });
+
+        List<RecordedEvent> events;
+        Recording recording = new Recording();
+        File file = File.createTempFile("netty-jfr", ".jfr");
+        try {
+            recording.enable(HandlerInvocationEvent.NAME).withThreshold(Duration.ofMillis(20));
+            recording.start();
+
+            assertTrue(channel.writeInbound("msg"));
+
+            recording.stop();
+            recording.dump(file.toPath());
+            events = RecordingFile.readAllEvents(file.toPath());
+        } finally {
+            recording.close();
+            assertTrue(file.delete());
+            channel.finishAndReleaseAll();
+        }
+
+        RecordedEvent forwarding = event(events, "forwarding");
+        RecordedEvent slow = event(events, "slow");
+        assertEquals("channelRead", slow.getString("method"));
+        // Both took longer than the threshold, but only the slow handler spent that time itself.
+        assertTrue(forwarding.getDuration().compareTo(slow.getDuration()) >= 0);
+        assertTrue(slow.getDuration("selfTime").toMillis() >= 50);
+        assertTrue(forwarding.getDuration("selfTime").toMillis() < 20);
+    }
+
+    private static RecordedEvent event(List<RecordedEvent> events, String handlerName) {
+        RecordedEvent found = null;
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(HandlerInvocationEvent.NAME) &&
+                    handlerName.equals(event.getString("handlerName"))) {
+                assertEquals(null, found);
+                found = event;
+            }
+        }
+        assertNotNull(found);
+        return found;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorChooserFactory.EventExecutorChooser;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.nio.channels.spi.SelectorProvider;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoadAwareEventLoopChooserFactoryTest {
+
+    @Test
+    public void testPrefersLessLoadedLoops() {
+        int[] load = { 0, 5, 10, 20 };
+        EventExecutor[] loops = new EventExecutor[load.length];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new LoadedEventLoop(load[i]);
+        }
+        EventExecutorChooser chooser = LoadAwareEventLoopChooserFactory.REGISTERED_CHANNELS.newChooser(loops);
+        int[] chosen = new int[loops.length];
+        for (int i = 0; i < 10000; i++) {
+            EventExecutor next = chooser.next();
+            for (int j = 0; j < loops.length; j++) {
+                if (next == loops[j]) {
+                    chosen[j]++;
+                }
+            }
+        }
+        // The most loaded loop always loses the comparison, the least loaded one always wins it.
+        assertEquals(0, chosen[3]);
+        assertTrue(chosen[0] > chosen[1], "chosen: " + chosen[0] + ", " + chosen[1]);
+        assertTrue(chosen[1] > chosen[2], "chosen: " + chosen[1] + ", " + chosen[2]);
+        assertEquals(10000, chosen[0] + chosen[1] + chosen[2]);
+    }
+
+    @Test
+    public void testSingleLoop() {
+        EventExecutor loop = new LoadedEventLoop(1);
+        EventExecutorChooser chooser = LoadAwareEventLoopChooserFactory.PENDING_TASKS.newChooser(
+                new EventExecutor[] { loop });
+        assertSame(loop, chooser.next());
+    }
+
+    @Test
+    public void testFallbackToRoundRobin() {
+        EventExecutor[] executors = { new LoadedEventLoop(1), ImmediateEventExecutor.INSTANCE };
+        EventExecutorChooser chooser = LoadAwareEventLoopChooserFactory.BUSY_TIME.newChooser(executors);
+        assertSame(executors[0], chooser.next());
+        assertSame(executors[1], chooser.next());
+        assertSame(executors[0], chooser.next());
+    }
+
+    @Test
+    public void testBusyPercentage() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(2, null,
+                LoadAwareEventLoopChooserFactory.BUSY_TIME, SelectorProvider.provider(),
+                DefaultSelectStrategyFactory.INSTANCE);
+        try {
+            final SingleThreadEventLoop loop = (SingleThreadEventLoop) group.next();
+            assertEquals(-1, loop.busyPercentage());
+            // Keep the loop busy for a while.
+            loop.submit(new Runnable() {
+                @Override
+                public void run() {
+                    long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+                    while (System.nanoTime() < end) {
+                        // spin
+                    }
+                }
+            }).sync();
+            // Wait for the loop to report the window that contains the busy period.
+            loop.submit(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }).sync();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (loop.busyPercentage() < 50 && System.nanoTime() < deadline) {
+                loop.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                });
+                Thread.sleep(10);
+            }
+            assertTrue(loop.busyPercentage() >= 50, "busyPercentage: " + loop.busyPercentage());
+
+            // Once idle again the busy percentage drops.
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (loop.busyPercentage() > 10 && System.nanoTime() < deadline) {
+                Thread.sleep(150);
+                loop.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                });
+            }
+            assertTrue(loop.busyPercentage() <= 10, "busyPercentage: " + loop.busyPercentage());
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test
+    public void testBusyPercentageDecaysWhileBlocked() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(2, null,
+                LoadAwareEventLoopChooserFactory.BUSY_TIME, SelectorProvider.provider(),
+                DefaultSelectStrategyFactory.INSTANCE);
+        try {
+            final SingleThreadEventLoop loop = (SingleThreadEventLoop) group.next();
+            // Keep the loop busy for longer than a window, the loop then blocks in select() as nothing is left to do.
+            loop.submit(new Runnable() {
+                @Override
+                public void run() {
+                    long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+                    while (System.nanoTime() < end) {
+                        // spin
+                    }
+                }
+            }).sync();
+            // No further tasks are submitted, so the loop stays blocked and the busy percentage must decay anyway.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (loop.busyPercentage() != 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, loop.busyPercentage());
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test
+    public void testBusyPercentageNotTrackedByDefault() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(2);
+        try {
+            SingleThreadEventLoop loop = (SingleThreadEventLoop) group.next();
+            for (int i = 0; i < 3; i++) {
+                loop.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                }).sync();
+                Thread.sleep(100);
+            }
+            assertEquals(-1, loop.busyPercentage());
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    private static final class LoadedEventLoop extends DefaultEventLoop {
+        private final int load;
+
+        LoadedEventLoop(int load) {
+            this.load = load;
+        }
+
+        @Override
+        public int registeredChannels() {
+            return load;
+        }
+    }
+}
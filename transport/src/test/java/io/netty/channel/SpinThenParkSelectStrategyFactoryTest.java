@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.BooleanSupplier;
+import io.netty.util.IntSupplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.nio.channels.spi.SelectorProvider;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpinThenParkSelectStrategyFactoryTest {
+
+    private static final IntSupplier NOTHING_READY = new IntSupplier() {
+        @Override
+        public int get() {
+            return 0;
+        }
+    };
+
+    @Test
+    public void testFallsBackToBlockingWait() throws Exception {
+        SpinThenParkSelectStrategyFactory factory = new SpinThenParkSelectStrategyFactory(10, 2, 1000, 8000);
+        IdleSelectStrategy strategy = (IdleSelectStrategy) factory.newSelectStrategy();
+        final AtomicInteger polls = new AtomicInteger();
+        IntSupplier selectNow = new IntSupplier() {
+            @Override
+            public int get() {
+                polls.incrementAndGet();
+                return 0;
+            }
+        };
+        assertEquals(SelectStrategy.SELECT, strategy.idle(selectNow, BooleanSupplier.FALSE_SUPPLIER, Long.MAX_VALUE));
+        // 10 spins, 2 yields and parking for 1, 2, 4 and 8 microseconds.
+        assertEquals(16, polls.get());
+        assertEquals(1, factory.blockingWaits());
+        assertEquals(0, factory.spinWakeups() + factory.yieldWakeups() + factory.parkWakeups());
+    }
+
+    @Test
+    public void testWakeupPhases() throws Exception {
+        SpinThenParkSelectStrategyFactory factory = new SpinThenParkSelectStrategyFactory(10, 2, 1000, 8000);
+        IdleSelectStrategy strategy = (IdleSelectStrategy) factory.newSelectStrategy();
+        assertEquals(3, strategy.idle(readyAfter(5, 3), BooleanSupplier.FALSE_SUPPLIER, Long.MAX_VALUE));
+        assertEquals(1, factory.spinWakeups());
+        assertEquals(3, strategy.idle(readyAfter(11, 3), BooleanSupplier.FALSE_SUPPLIER, Long.MAX_VALUE));
+        assertEquals(1, factory.yieldWakeups());
+        assertEquals(3, strategy.idle(readyAfter(13, 3), BooleanSupplier.FALSE_SUPPLIER, Long.MAX_VALUE));
+        assertEquals(1, factory.parkWakeups());
+        assertEquals(0, strategy.idle(NOTHING_READY, BooleanSupplier.TRUE_SUPPLIER, Long.MAX_VALUE));
+        assertEquals(2, factory.spinWakeups());
+
+        assertEquals(0, factory.blockingWaits());
+        assertTrue(factory.maxWakeupLatencyNanos() >= factory.meanWakeupLatencyNanos());
+        assertTrue(factory.meanWakeupLatencyNanos() > 0);
+    }
+
+    @Test
+    public void testReturnsOnceScheduledTaskIsDue() throws Exception {
+        SpinThenParkSelectStrategyFactory factory = new SpinThenParkSelectStrategyFactory(0, 0, 1000,
+                TimeUnit.SECONDS.toNanos(10));
+        IdleSelectStrategy strategy = (IdleSelectStrategy) factory.newSelectStrategy();
+        long start = System.nanoTime();
+        assertEquals(0, strategy.idle(NOTHING_READY, BooleanSupplier.FALSE_SUPPLIER,
+                TimeUnit.MILLISECONDS.toNanos(50)));
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(elapsed < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testNioEventLoop() throws Exception {
+        SpinThenParkSelectStrategyFactory factory = new SpinThenParkSelectStrategyFactory();
+        NioEventLoopGroup group = new NioEventLoopGroup(1, (Executor) null, SelectorProvider.provider(), factory);
+        try {
+            EventLoop loop = group.next();
+            for (int i = 0; i < 100; i++) {
+                final int value = i;
+                assertEquals(value, (int) loop.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        return value;
+                    }
+                }).sync().getNow());
+            }
+            final long start = System.nanoTime();
+            long delay = loop.schedule(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    return System.nanoTime() - start;
+                }
+            }, 20, TimeUnit.MILLISECONDS).sync().getNow();
+            assertTrue(delay >= TimeUnit.MILLISECONDS.toNanos(20));
+            assertTrue(factory.spinWakeups() + factory.yieldWakeups() + factory.parkWakeups() +
+                    factory.blockingWaits() > 0);
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    private static IntSupplier readyAfter(final int polls, final int ready) {
+        return new IntSupplier() {
+            private int count;
+
+            @Override
+            public int get() {
+                return ++count == polls ? ready : 0;
+            }
+        };
+    }
+}